@@ -1,7 +1,10 @@
 package main
 
 import (
+	"bufio"
+	"encoding/json"
 	"fmt"
+	"net"
 	"os"
 	"os/exec"
 	"runtime"
@@ -134,10 +137,59 @@ func generateCombinations(initial [5]float64, increment float64, count int) [][5
 	return combos
 }
 
+// Set HANABI_DAEMON=localhost:7625 to use a running `HanabiServer --daemon`
+// instead of starting a JVM per game
+var daemon = os.Getenv("HANABI_DAEMON")
+
+type daemonLine struct {
+	Score int    `json:"score"`
+	Done  bool   `json:"done"`
+	Error string `json:"error"`
+}
+
+func daemonScore(conn net.Conn, reader *bufio.Reader, combo [5]float64) int {
+	fmt.Fprintf(conn, "BestValueHint BestValueHint weights=%g,%g,%g,%g,%g count=%d\n",
+		combo[0], combo[1], combo[2], combo[3], combo[4], iterations)
+	totalScore := 0
+	for {
+		line, err := reader.ReadBytes('\n')
+		if err != nil {
+			fmt.Println("Lost daemon:", err)
+			os.Exit(1)
+		}
+		var result daemonLine
+		json.Unmarshal(line, &result)
+		if result.Error != "" {
+			fmt.Printf("Daemon error for combo %v: %s\n", combo, result.Error)
+		} else if result.Done {
+			return totalScore
+		} else {
+			totalScore += result.Score
+		}
+	}
+}
+
 func worker(wg *sync.WaitGroup, comboChan chan [5]float64,
 	resultChan chan Result) {
 	defer wg.Done()
 
+	if daemon != "" {
+		conn, err := net.Dial("tcp", daemon)
+		if err != nil {
+			fmt.Println("Cannot reach daemon:", err)
+			os.Exit(1)
+		}
+		defer conn.Close()
+		reader := bufio.NewReader(conn)
+		for combo := range comboChan {
+			resultChan <- Result{
+				combo:    combo,
+				avgScore: float64(daemonScore(conn, reader, combo)) / float64(iterations),
+			}
+		}
+		return
+	}
+
 	weightNames := []string{"WEIGHT_MATCHED", "WEIGHT_COMPLETE",
 		"WEIGHT_PLAYABLE", "WEIGHT_DISCARDABLE", "WEIGHT_FINAL_CARD"}
 
@@ -1,7 +1,9 @@
 #!/usr/bin/env python3
 import subprocess
 import itertools
+import json
 import os
+import socket
 from collections import defaultdict
 
 # Configuration
@@ -10,9 +12,36 @@ RUNS_PER_COMBO = 100
 COMMAND = ["java", "-cp", "target/classes/", 
            "com.javanabi.HanabiServer", "BestValueHint", "BestValueHint"]
 
+# The same sweep, checkpointed so it survives restarts:
+#   java -cp target/classes com.javanabi.sim.TuningRunner sweep.ckpt --grid 0.1:2.0:0.1 --games 100
+
+# Set HANABI_DAEMON=localhost:7625 to use a running `HanabiServer --daemon`
+# instead of starting a JVM per game
+DAEMON = os.environ.get("HANABI_DAEMON")
+
 weight_names = ["WEIGHT_MATCHED", "WEIGHT_COMPLETE", "WEIGHT_PLAYABLE", 
                 "WEIGHT_DISCARDABLE", "WEIGHT_FINAL_CARD"]
 
+def daemon_scores(connection, weights, runs):
+    request = " ".join(COMMAND[4:]) + " weights=" + ",".join(map(str, weights)) + f" count={runs}\n"
+    connection.write(request)
+    connection.flush()
+    scores = []
+    for line in connection:
+        result = json.loads(line)
+        if "error" in result:
+            print(f"Daemon error for combo {weights}: {result['error']}")
+        elif "done" in result:
+            break
+        else:
+            scores.append(result["score"])
+    return scores + [0] * (runs - len(scores))
+
+connection = None
+if DAEMON:
+    host, port = DAEMON.rsplit(":", 1)
+    connection = socket.create_connection((host, int(port))).makefile("rw")
+
 best_combo = None
 best_avg_score = -1
 results = []
@@ -32,10 +61,10 @@ for weights in itertools.product(WEIGHT_RANGE, repeat=5):
     for name, weight in zip(weight_names, weights):
         env[name] = str(weight)
     
-    scores = []
+    scores = daemon_scores(connection, weights, RUNS_PER_COMBO) if connection else []
     
     # Run command 100 times
-    for run in range(RUNS_PER_COMBO):
+    for run in range(RUNS_PER_COMBO if not connection else 0):
         try:
             result = subprocess.run(COMMAND, env=env, capture_output=True, 
                                     timeout=10)
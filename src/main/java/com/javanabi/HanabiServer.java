@@ -1,32 +1,59 @@
 package com.javanabi;
 
 import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameListener;
+import com.javanabi.game.GameTable;
+import com.javanabi.game.InvalidActionReason;
 import com.javanabi.game.Player;
+import com.javanabi.game.PlayerFactory;
+import com.javanabi.game.TableExecutors;
 import com.javanabi.game.action.Action;
 import com.javanabi.game.action.DiscardCardAction;
 import com.javanabi.game.action.DrawCardAction;
 import com.javanabi.game.action.GiveInfoAction;
 import com.javanabi.game.action.PlayCardAction;
 import com.javanabi.game.state.GameState;
+import com.javanabi.metrics.GameMetrics;
+import com.javanabi.metrics.InstrumentedPlayer;
+import com.javanabi.metrics.MetricsServer;
+import com.javanabi.metrics.PlayerMetrics;
+import com.javanabi.sim.SimulationDaemon;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class HanabiServer {
     public static void main(String[] args) {
         boolean autoPlay = true;
         boolean displayOutput = false;
-
+        
+        if (args.length > 0 && args[0].equals("--daemon")) {
+            runDaemon(args);
+            return;
+        }
+        
+        int metricsPort = -1;
+        if (args.length > 1 && args[0].equals("--metrics-port")) {
+            metricsPort = Integer.parseInt(args[1]);
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        
         // Validate player count
         if (args.length < 2 || args.length > 5) {
             if (displayOutput) {
-                System.err.println("Usage: java HanabiServer <PlayerClass1> <PlayerClass2> [PlayerClass3] [PlayerClass4] [PlayerClass5]");
+                System.err.println("Usage: java HanabiServer [--metrics-port port] <PlayerClass1> <PlayerClass2> [PlayerClass3] [PlayerClass4] [PlayerClass5]");
                 System.err.println("Valid player count: 2-5");
                 System.err.println("Example: java HanabiServer SimpleAIPlayer SimpleAIPlayer AdvancedAIPlayer");
                 System.err.println("Available player classes: SimpleAIPlayer");
             }
-            System.exit(-1);
+            System.exit(1);
         }
         
         if (displayOutput) System.out.println("Starting Hanabi Server...");
@@ -39,21 +66,20 @@ public class HanabiServer {
             String playerName = "Player " + (i + 1);
             
             try {
-                // Try to load the class from com.javanabi.game package
-                String fullClassName = "com.javanabi.players." + className;
-                Class<?> playerClass = Class.forName(fullClassName);
-                
-                // Create instance using constructor that takes String parameter (player name)
-                Player player =  (Player) playerClass.getDeclaredConstructor(String.class).newInstance(playerName);
-                players.add(player);
+                // Resolve the class from the com.javanabi.players package
+                Player player = PlayerFactory.shared().create(className, playerName);
+                // Tables run on virtual threads, so these seats report latency but count their allocation as unmeasured
+                players.add(metricsPort >= 0 ? new InstrumentedPlayer(player) : player);
                 if (displayOutput) System.out.println("Created " + playerName + " as " + className);
             } catch (Exception e) {
                 if (displayOutput) System.err.println("Error creating " + playerName + " as " + className + ": " + e.getMessage());
-                System.exit(-1);
+                System.exit(1);
             }
         }
         
         GameEngine game = new GameEngine(players);
+        GameMetrics.shared().attach(game);
+        MetricsServer metricsServer = startMetrics(metricsPort);
         if (displayOutput) {
             System.out.println("Game created with " + players.size() + " players");
             System.out.println("Players: " + getPlayerNames(players));
@@ -65,54 +91,135 @@ public class HanabiServer {
             
             System.out.println("\nStarting game simulation...");
         }
-        Scanner scanner = new Scanner(System.in);
-
-        while (!game.isGameOver()) {
+        // The table runs on a virtual thread of the shared table executor
+        GameTable table = new GameTable(1, game);
+        Console console = new Console(game, autoPlay, displayOutput);
+        game.addListener(console);
+        Future<?> result = TableExecutors.shared().submit(() -> {
+            console.awaitStep();
+            table.run();
+        });
+        int score;
+        try {
+            result.get();
+            score = game.getScore();
+        } catch (InterruptedException | ExecutionException e) {
+            if (displayOutput) System.err.println("Game failed: " + e.getMessage());
+            score = -1;
+        }
+        console.close();
+        if (metricsServer != null) metricsServer.close();
+        if (displayOutput && score >= 0) {
+            System.out.println("\nGame Over!");
+            System.out.println("Final Score: " + score);
+            System.out.println("Game Won: " + (score == game.getRules().getMaxScore()));
+        }
+        System.exit(score);
+    }
+    
+    // Usage: java HanabiServer --daemon [port] [-t threads] [--metrics-port port]
+    private static void runDaemon(String[] args) {
+        int port = SimulationDaemon.DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int metricsPort = -1;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("-t")) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--metrics-port")) {
+                metricsPort = Integer.parseInt(args[++i]);
+            } else {
+                port = Integer.parseInt(args[i]);
+            }
+        }
+        SimulationDaemon daemon;
+        try {
+            daemon = new SimulationDaemon(port, threads);
+        } catch (IOException e) {
+            System.err.println("Could not listen on port " + port + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        System.err.println("Hanabi daemon listening on localhost:" + daemon.getPort() + " with " + threads + " threads");
+        startMetrics(metricsPort);
+        // The bots narrate every turn
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        daemon.serve();
+    }
+    
+    // Serves GameMetrics.shared() and PlayerMetrics.shared() at /metrics, or returns null for a negative port
+    private static MetricsServer startMetrics(int port) {
+        if (port < 0) return null;
+        try {
+            MetricsServer server = new MetricsServer(port)
+                .register(GameMetrics.shared()::writePrometheus)
+                .register(PlayerMetrics.shared()::writePrometheus);
+            System.err.println("Metrics at http://localhost:" + server.getPort() + "/metrics");
+            return server;
+        } catch (IOException e) {
+            System.err.println("Could not serve metrics on port " + port + ": " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+    }
+    
+    // Narrates the table when displayOutput is set, and steps it from stdin until autoPlay is turned on
+    private static final class Console implements GameListener {
+        private final GameEngine game;
+        private final boolean displayOutput;
+        private final Scanner scanner = new Scanner(System.in);
+        private boolean autoPlay;
+        
+        Console(GameEngine game, boolean autoPlay, boolean displayOutput) {
+            this.game = game;
+            this.autoPlay = autoPlay;
+            this.displayOutput = displayOutput;
+        }
+        
+        @Override
+        public void actionExecuted(GameEngine game, int seat, Action action) {
+            if (displayOutput) {
+                System.out.println("Action executed: " + getActionDescription(action));
+                System.out.println("  Info tokens: " + game.getGameState().getInfoTokens());
+                System.out.println("  Fuse tokens: " + game.getGameState().getFuseTokens());
+                System.out.println("  Deck size: " + game.getGameState().getDeckSize());
+                System.out.println("  Score: " + game.getGameState().calculateScore());
+            }
+            if (!game.isGameOver()) awaitStep();
+        }
+        
+        @Override
+        public void actionRejected(GameEngine game, int seat, Action action, InvalidActionReason reason) {
+            if (displayOutput) System.out.println("Invalid action!");
+            awaitStep();
+        }
+        
+        // Called before each turn
+        void awaitStep() {
             Player currentPlayer = game.getCurrentPlayer();
             if (displayOutput) System.out.println("\n" + currentPlayer.getName() + "'s turn:");
-            if (!autoPlay) {
-                boolean c = false;
-                while (!c) {
-                    System.out.print("\n> ");
-                    String input = scanner.nextLine().trim();
-                    if (input.equals("")) {
-                        c=true;
-                    } else if (input.equalsIgnoreCase("auto")) {
-                        autoPlay = true;
-                        c=true;
-                    } else if (input.equalsIgnoreCase("status")) {
-                        System.out.println("\n" + currentPlayer.getName() + "'s turn:");
-                        GameState state = game.getGameState();
-                        System.out.println(state);
-                    } else if (input.equalsIgnoreCase("help")) {
-                        System.out.println("Commands:");
-                        System.out.println("\tauto - play the rest of the game automatically");
-                        System.out.println("\thelp - this help message");
-                        System.out.println("\tstatus - prints the status of the game, including everyone's hands");
-                    } 
-                }
-            }            
-            Action action = currentPlayer.takeTurn(game.getPlayerGameState(currentPlayer));
-            boolean success = game.executeAction(action);
-            if (displayOutput) {
-                if (success) {
-                    System.out.println("Action executed: " + getActionDescription(action));
-                    System.out.println("  Info tokens: " + game.getGameState().getInfoTokens());
-                    System.out.println("  Fuse tokens: " + game.getGameState().getFuseTokens());
-                    System.out.println("  Deck size: " + game.getGameState().getDeckSize());
-                    System.out.println("  Score: " + game.getGameState().calculateScore());
-                } else {
-                    System.out.println("Invalid action!");
+            while (!autoPlay) {
+                System.out.print("\n> ");
+                String input = scanner.nextLine().trim();
+                if (input.equals("")) {
+                    return;
+                } else if (input.equalsIgnoreCase("auto")) {
+                    autoPlay = true;
+                } else if (input.equalsIgnoreCase("status")) {
+                    System.out.println("\n" + currentPlayer.getName() + "'s turn:");
+                    GameState state = game.getGameState();
+                    System.out.println(state);
+                } else if (input.equalsIgnoreCase("help")) {
+                    System.out.println("Commands:");
+                    System.out.println("\tauto - play the rest of the game automatically");
+                    System.out.println("\thelp - this help message");
+                    System.out.println("\tstatus - prints the status of the game, including everyone's hands");
                 }
             }
         }
-        if (displayOutput) {
-            System.out.println("\nGame Over!");
-            System.out.println("Final Score: " + game.getScore());
-            System.out.println("Game Won: " + (game.getScore() == 25));
+        
+        void close() {
+            scanner.close();
         }
-        scanner.close();
-        System.exit(game.getScore());
     }
     
     private static String getPlayerNames(List<Player> players) {
@@ -141,7 +248,7 @@ public class HanabiServer {
             public String visit(DiscardCardAction discardCardAction) {
                 return "Discard card at position " + (discardCardAction.getHandIndex() + 1);
             }
-
+            
             @Override
             public String visit(DrawCardAction drawCardAction) {
                 return "Drew a card";
@@ -40,7 +40,8 @@ public final class Card {
         return suit + " " + rank;
     }
 
+    // MULTICOLOR is only in play in the sixth suit and rainbow variants
     public enum Suit {
-        WHITE, YELLOW, GREEN, BLUE, RED
+        WHITE, YELLOW, GREEN, BLUE, RED, MULTICOLOR
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.javanabi.game;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.javanabi.Action")
+@Label("Action")
+@Description("GameEngine.executeAction, including validation, state update and notifications")
+@Category({"Hanabi", "Engine"})
+@StackTrace(false)
+class ActionEvent extends Event {
+    @Label("Player")
+    String player;
+    
+    @Label("Action Type")
+    String actionType;
+    
+    @Label("Turn")
+    int turn;
+    
+    @Label("Valid")
+    boolean valid;
+    
+    @Label("Rejection")
+    @Description("Why validation failed, if it did")
+    String rejection;
+}
@@ -0,0 +1,183 @@
+package com.javanabi.game;
+
+import com.javanabi.domain.Card;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A file of pre-shuffled decks, one per seed, read in place through memory
+ * maps. Record i holds the deal Deck.shuffled(firstSeed + i) would give, so
+ * a game dealt from the bank plays exactly like one seeded the usual way.
+ * The shuffle is paid once, when the bank is generated.
+ *
+ * Layout: int MAGIC, short VERSION, short deck size, long first seed,
+ * long record count, then one byte per card (suit * 5 + rank - 1) per
+ * record, in deal order.
+ */
+public final class DealBank {
+    static final int MAGIC = 0x484E4244; // "HNBD"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 4 + 2 + 2 + 8 + 8;
+
+    private static final int RECORD_SIZE = LockstepEngine.DECK_SIZE;
+    // Whole records per mapping, keeping each under the 2GB map limit
+    private static final int RECORDS_PER_MAP = (1 << 30) / RECORD_SIZE;
+    private static final Card.Suit[] SUITS = Card.Suit.values();
+
+    private final Path path;
+    private final long firstSeed;
+    private final long count;
+    private final MappedByteBuffer[] maps;
+
+    private DealBank(Path path, long firstSeed, long count, MappedByteBuffer[] maps) {
+        this.path = path;
+        this.firstSeed = firstSeed;
+        this.count = count;
+        this.maps = maps;
+    }
+
+    public static void main(String[] args) throws Exception {
+        long count = 1_000_000;
+        long seed = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path path = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-n": count = Long.parseLong(args[++i]); break;
+                case "-t": threads = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                default: path = Path.of(args[i]);
+            }
+        }
+        if (path == null) {
+            System.err.println("Usage: java DealBank [-n deals] [--seed first] [-t threads] <file>");
+            System.exit(1);
+        }
+        long start = System.nanoTime();
+        generate(path, seed, count, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Wrote %d deals for seeds %d-%d to %s in %.2fs%n", count, seed, seed + count - 1, path, seconds);
+    }
+
+    // Shuffles seeds [firstSeed, firstSeed + count) across threads and writes them to path
+    public static void generate(Path path, long firstSeed, long count, int threads) throws IOException, InterruptedException {
+        if (count < 1) {
+            throw new IllegalArgumentException("A deal bank needs at least one deal");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE).putLong(firstSeed).putLong(count).flip();
+            channel.write(header, 0);
+
+            // Each task writes its own block of records at its own file position
+            int blockRecords = 1 << 16;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> blocks = new ArrayList<>();
+            for (long first = 0; first < count; first += blockRecords) {
+                long blockStart = first;
+                int records = (int) Math.min(blockRecords, count - first);
+                blocks.add(executor.submit(() -> {
+                    ByteBuffer block = ByteBuffer.allocate(records * RECORD_SIZE);
+                    for (int r = 0; r < records; r++) {
+                        for (Card card : Deck.shuffled(firstSeed + blockStart + r).getRemainingCards()) {
+                            block.put((byte) LockstepEngine.cardId(card));
+                        }
+                    }
+                    block.flip();
+                    long position = HEADER_SIZE + blockStart * RECORD_SIZE;
+                    while (block.hasRemaining()) {
+                        position += channel.write(block, position);
+                    }
+                    return null;
+                }));
+            }
+            executor.shutdown();
+            try {
+                for (Future<?> block : blocks) block.get();
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to write deal bank " + path, e.getCause());
+            }
+        }
+    }
+
+    public static DealBank open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (channel.read(header, 0) < HEADER_SIZE || header.getInt(0) != MAGIC) {
+                throw new IOException("Not a deal bank: " + path);
+            }
+            if (header.getShort(4) != VERSION) {
+                throw new IOException("Unsupported deal bank version " + header.getShort(4) + " in " + path);
+            }
+            if (header.getShort(6) != RECORD_SIZE) {
+                throw new IOException("Deal bank " + path + " holds " + header.getShort(6) + "-card decks, expected " + RECORD_SIZE);
+            }
+            long firstSeed = header.getLong(8);
+            long count = header.getLong(16);
+            if (channel.size() < HEADER_SIZE + count * RECORD_SIZE) {
+                throw new IOException("Deal bank " + path + " is truncated");
+            }
+            MappedByteBuffer[] maps = new MappedByteBuffer[(int) ((count + RECORDS_PER_MAP - 1) / RECORDS_PER_MAP)];
+            for (int i = 0; i < maps.length; i++) {
+                long first = (long) i * RECORDS_PER_MAP;
+                long records = Math.min(RECORDS_PER_MAP, count - first);
+                maps[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE, records * RECORD_SIZE);
+            }
+            return new DealBank(path, firstSeed, count, maps);
+        }
+    }
+
+    public boolean contains(long seed) {
+        return seed - firstSeed >= 0 && seed - firstSeed < count;
+    }
+
+    // Copies the card ids of the seed's deal into dest
+    public void copyDeal(long seed, byte[] dest, int offset) {
+        long record = record(seed);
+        maps[(int) (record / RECORDS_PER_MAP)].get((int) (record % RECORDS_PER_MAP) * RECORD_SIZE, dest, offset, RECORD_SIZE);
+    }
+
+    // A deck with fresh Card objects, as bots may tell copies of a card apart by identity
+    public Deck deck(long seed) {
+        long record = record(seed);
+        MappedByteBuffer map = maps[(int) (record / RECORDS_PER_MAP)];
+        int base = (int) (record % RECORDS_PER_MAP) * RECORD_SIZE;
+        List<Card> order = new ArrayList<>(RECORD_SIZE);
+        for (int i = 0; i < RECORD_SIZE; i++) {
+            int id = map.get(base + i);
+            order.add(new Card(SUITS[id / Rules.MAX_RANK], id % Rules.MAX_RANK + 1));
+        }
+        return new Deck(order);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getFirstSeed() {
+        return firstSeed;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    private long record(long seed) {
+        if (!contains(seed)) {
+            throw new IllegalArgumentException("Seed " + seed + " is not in deal bank " + path);
+        }
+        return seed - firstSeed;
+    }
+}
@@ -9,16 +9,37 @@ public class Deck {
     public static final int[] RANK_COUNTS = {3, 2, 2, 2, 1};
     
     public Deck() {
+        this(VariantRules.STANDARD);
+    }
+    
+    // Every card the variant deals, in suit then rank order
+    public Deck(VariantRules rules) {
         this.cards = new ArrayDeque<>();
-        initializeDeck();
+        initializeDeck(rules);
+    }
+    
+    // A deck that deals exactly these cards in this order, e.g. from a DealBank
+    public Deck(List<Card> order) {
+        this.cards = new ArrayDeque<>(order);
+    }
+    
+    // The order a fresh deck is dealt in after shuffle(seed)
+    public static Deck shuffled(long seed) {
+        return shuffled(VariantRules.STANDARD, seed);
     }
     
-    private void initializeDeck() {
+    public static Deck shuffled(VariantRules rules, long seed) {
+        Deck deck = new Deck(rules);
+        deck.shuffle(seed);
+        return deck;
+    }
+    
+    private void initializeDeck(VariantRules rules) {
         cards.clear();
         
-        for (Card.Suit suit : Card.Suit.values()) {
+        for (Card.Suit suit : rules.getSuits()) {
             for (int rank = 1; rank <= 5; rank++) {
-                int count = RANK_COUNTS[rank - 1];
+                int count = rules.getCardCount(suit, rank);
                 for (int i = 0; i < count; i++) {
                     cards.offer(new Card(suit, rank));
                 }
@@ -27,10 +48,22 @@ public class Deck {
     }
     
     public void shuffle() {
+        shuffle(new Random());
+    }
+    
+    public void shuffle(long seed) {
+        shuffle(new Random(seed));
+    }
+    
+    public void shuffle(Random random) {
+        DeckShuffleEvent event = new DeckShuffleEvent();
+        event.begin();
         List<Card> cardList = new ArrayList<>(cards);
-        Collections.shuffle(cardList);
+        Collections.shuffle(cardList, random);
         cards.clear();
         cards.addAll(cardList);
+        event.cardCount = cardList.size();
+        event.commit();
     }
     
     public Card drawCard() {
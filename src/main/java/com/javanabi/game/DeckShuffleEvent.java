@@ -0,0 +1,16 @@
+package com.javanabi.game;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.javanabi.DeckShuffle")
+@Label("Deck Shuffle")
+@Category({"Hanabi", "Engine"})
+@StackTrace(false)
+class DeckShuffleEvent extends Event {
+    @Label("Cards")
+    int cardCount;
+}
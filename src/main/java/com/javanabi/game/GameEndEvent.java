@@ -0,0 +1,40 @@
+package com.javanabi.game;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.javanabi.GameEnd")
+@Label("Game End")
+@Category({"Hanabi", "Game"})
+@StackTrace(false)
+class GameEndEvent extends Event {
+    @Label("Seed")
+    long seed;
+    
+    @Label("Seats")
+    String seats;
+    
+    @Label("Score")
+    int score;
+    
+    @Label("Turns")
+    int turns;
+    
+    @Label("Fuses Left")
+    int fuseTokens;
+    
+    static void emit(GameEngine game) {
+        GameEndEvent event = new GameEndEvent();
+        if (event.shouldCommit()) {
+            event.seed = game.getSeed();
+            event.seats = GameStartEvent.seatDescription(game);
+            event.score = game.getScore();
+            event.turns = game.getTurnCount();
+            event.fuseTokens = game.getGameState().getFuseTokens();
+            event.commit();
+        }
+    }
+}
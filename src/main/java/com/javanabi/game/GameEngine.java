@@ -2,22 +2,65 @@ package com.javanabi.game;
 
 import com.javanabi.domain.Card;
 import com.javanabi.game.action.Action;
+import com.javanabi.game.action.ActionCodec;
 import com.javanabi.game.action.DiscardCardAction;
 import com.javanabi.game.action.DrawCardAction;
 import com.javanabi.game.action.GiveInfoAction;
 import com.javanabi.game.action.PlayCardAction;
+import com.javanabi.game.spectator.Spectator;
+import com.javanabi.game.spectator.SpectatorFeed;
 import com.javanabi.game.state.GameState;
+import com.javanabi.util.GameConfig;
+import com.javanabi.util.KnowledgeView;
+import com.javanabi.util.PublicKnowledge;
 
 import java.util.*;
 
-public class GameEngine {
+public final class GameEngine {
     private GameState gameState;
     private final Deck deck;
     private final List<Player> players;
     private final List<String> playerNames;
     private int currentPlayerIndex;
+    private final SpectatorFeed spectatorFeed;
+    private final List<GameListener> listeners = new ArrayList<>();
+    private final long seed;
+    private int turnCount;
+    private final PublicKnowledge knowledge;
+    private final ZobristHash zobrist;
+    private final VariantRules rules;
+    // While a restore replays old actions, seats that already saw them are not told again
+    private boolean restoring;
+    private Set<Player> quietSeats;
     
     public GameEngine(List<Player> players) {
+        this(players, new Random().nextLong());
+    }
+    
+    // The same seed always deals the same deck
+    public GameEngine(List<Player> players, long seed) {
+        this(players, Deck.shuffled(seed), seed);
+    }
+    
+    // Deals from a prepared deck; seed is only recorded, e.g. the seed a DealBank record was shuffled with
+    public GameEngine(List<Player> players, Deck deck, long seed) {
+        this(players, VariantRules.STANDARD, deck, seed);
+    }
+    
+    // The config's player count is not used; the table seats the players it is given
+    public GameEngine(List<Player> players, GameConfig config, long seed) {
+        this(players, VariantRules.of(config), Deck.shuffled(VariantRules.of(config), seed), seed);
+    }
+    
+    public GameEngine(List<Player> players, GameConfig config, Deck deck, long seed) {
+        this(players, VariantRules.of(config), deck, seed);
+    }
+    
+    private GameEngine(List<Player> players, VariantRules rules, Deck deck, long seed) {
+        this(players, rules, deck, seed, null, Collections.emptySet());
+    }
+    
+    private GameEngine(List<Player> players, VariantRules rules, Deck deck, long seed, SpectatorFeed restoredFeed, Set<Player> quietSeats) {
         if (players.size() < 2 || players.size() > 5) {
             throw new IllegalArgumentException("Hanabi requires 2-5 players");
         }
@@ -26,16 +69,56 @@ public class GameEngine {
         for(Player p: this.players) {
             this.playerNames.add(p.getName());
         }
-
-        this.deck = new Deck();
+        
+        this.seed = seed;
+        this.rules = rules;
+        this.deck = deck;
         this.currentPlayerIndex = 0;
-        deck.shuffle();
-        gameState = GameState.initialGameState(this.playerNames);
+        this.restoring = restoredFeed != null;
+        this.quietSeats = quietSeats;
+        this.spectatorFeed = restoring ? restoredFeed : new SpectatorFeed();
+        gameState = GameState.initialGameState(this.playerNames, rules);
+        this.knowledge = new PublicKnowledge(playerNames, handSize(players.size()), rules);
+        for (Player player : this.players) {
+            if (player instanceof KnowledgeAware) {
+                ((KnowledgeAware) player).usePublicKnowledge(knowledge.readOnly());
+            }
+        }
         dealInitialHands();
+        this.zobrist = new ZobristHash(gameState, knowledge, currentPlayerIndex);
+        if (!restoring) {
+            spectatorFeed.publish(null, null, gameState);
+            GameStartEvent.emit(this);
+        }
+    }
+    
+    /*
+     * Rebuilds a game dealt from Deck.shuffled(rules, seed) by replaying its
+     * action codes. Seats in quietSeats, and the spectators of feed, already
+     * saw those actions and hear nothing until the next new one; the other
+     * seats are fresh and catch up through the usual notifications. Listeners
+     * are not carried over.
+     */
+    public static GameEngine restore(List<Player> players, VariantRules rules, long seed, SpectatorFeed feed,
+                                     Set<Player> quietSeats, short[] actions, int actionCount) {
+        GameEngine game = new GameEngine(players, rules, Deck.shuffled(rules, seed), seed, feed, quietSeats);
+        for (int i = 0; i < actionCount; i++) {
+            int seat = game.getCurrentPlayerIndex();
+            if (!game.executeAction(ActionCodec.decode(actions[i], seat, game.playerNames))) {
+                throw new IllegalStateException("Action " + i + " was rejected while restoring game " + seed);
+            }
+        }
+        game.restoring = false;
+        game.quietSeats = Collections.emptySet();
+        return game;
+    }
+    
+    private static int handSize(int playerCount) {
+        return Rules.handSize(playerCount);
     }
     
     private void dealInitialHands() {
-        int handSize = players.size() >= 4 ? 4 : 5;
+        int handSize = handSize(players.size());
         
         for (Player player : players) {
             List<Card> hand = new ArrayList<>();
@@ -59,38 +142,54 @@ public class GameEngine {
                 .players(gameState.getPlayers())
                 .finalPlayerIndex(gameState.getFinalPlayerIndex())
                 .deckSize(deck.size())
+                .rules(rules)
                 .build();
         }
         
         for (Player player : players) {
+            if (restoring && quietSeats.contains(player)) continue;
             player.initialize(gameState.getPlayerView(player.getName()));
         }
     }
     
     public boolean executeAction(Action action) {
-        if (gameState.isGameOver()) {
-            return false;
-        }
-        
+        ActionEvent event = new ActionEvent();
+        event.begin();
         Player currentPlayer = players.get(currentPlayerIndex);
-        
-        if (!validateAction(action, currentPlayer)) {
-            return false;
+        InvalidActionReason rejection = gameState.isGameOver()
+            ? InvalidActionReason.GAME_OVER
+            : validateAction(action, currentPlayer);
+        if (rejection == null) {
+            applyAction(action, currentPlayer);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.player = currentPlayer.getName();
+            event.actionType = action.getClass().getSimpleName();
+            event.valid = rejection == null;
+            event.rejection = rejection == null ? null : rejection.name();
+            event.turn = turnCount;
+            event.commit();
         }
+        if (rejection != null) {
+            for (GameListener listener : listeners) {
+                listener.actionRejected(this, currentPlayerIndex, action, rejection);
+            }
+        }
+        return rejection == null;
+    }
+    
+    private void applyAction(Action action, Player currentPlayer) {
         //if this is a GiveInfoAction we need to fix the indicies in the clue
         if (action instanceof GiveInfoAction) {
             GiveInfoAction gia = (GiveInfoAction) action;
             String targetPlayerName = gia.getTargetPlayer();
             List<Card> targetHand = gameState.getPlayerHand(targetPlayerName);
             List<Integer> matchingIndices = new ArrayList<>();
-
+            
             Player.Clue actionClue = gia.getClue();
             for (int i = 0; i < targetHand.size(); i++) {
-                Card card = targetHand.get(i);
-                
-                if (actionClue.getType() == Player.ClueType.SUIT && card.getSuit().equals(actionClue.getValue())) {
-                    matchingIndices.add(i);
-                } else if (actionClue.getType() == Player.ClueType.RANK && card.getRank() == (Integer) actionClue.getValue()){
+                if (rules.touches(actionClue, targetHand.get(i))) {
                     matchingIndices.add(i);
                 }
             }
@@ -120,7 +219,7 @@ public class GameEngine {
                 discardCardAction.setCard(GameEngine.this.gameState.getPlayerHand(currentPlayer.getName()).get(discardCardAction.getHandIndex()));
                 return handleDiscardCardAction(discardCardAction);
             }
-
+            
             @Override
             public GameState visit(DrawCardAction giveInfoAction) {
                 //this doesn't get used here
@@ -128,46 +227,83 @@ public class GameEngine {
             }
         };
         
+        GameState before = gameState;
         gameState = action.accept(visitor);
         
         // Notify all players about the action that was taken
         notifyPlayerAction(currentPlayer, action);
+        int seat = currentPlayerIndex;
+        turnCount++;
         nextTurn();
-        return true;
+        if (action instanceof GiveInfoAction) {
+            int target = playerNames.indexOf(((GiveInfoAction) action).getTargetPlayer());
+            zobrist.update(before, gameState, knowledge, target, null, false, currentPlayerIndex, seat);
+        } else {
+            Card revealed = action instanceof PlayCardAction
+                ? ((PlayCardAction) action).getCard()
+                : ((DiscardCardAction) action).getCard();
+            zobrist.update(before, gameState, knowledge, seat, revealed, true, currentPlayerIndex, seat);
+        }
+        if (!restoring) {
+            spectatorFeed.publish(currentPlayer.getName(), action, gameState);
+        }
+        boolean gameOver = gameState.isGameOver();
+        if (gameOver) {
+            GameEndEvent.emit(this);
+        }
+        for (GameListener listener : listeners) {
+            listener.actionExecuted(this, seat, action);
+            if (gameOver) listener.gameEnded(this);
+        }
     }
     
-    private boolean validateAction(Action action, Player currentPlayer) {
-        return action.accept(new Action.ActionVisitor<Boolean>() {
+    // Returns why the action is not allowed, or null if it is
+    private InvalidActionReason validateAction(Action action, Player currentPlayer) {
+        return action.accept(new Action.ActionVisitor<InvalidActionReason>() {
             @Override
-            public Boolean visit(GiveInfoAction giveInfoAction) {
-                return gameState.getInfoTokens() > 0 && 
-                       !giveInfoAction.getTargetPlayer().equals(currentPlayer.getName());
+            public InvalidActionReason visit(GiveInfoAction giveInfoAction) {
+                if (gameState.getInfoTokens() <= 0) return InvalidActionReason.NO_INFO_TOKENS;
+                if (giveInfoAction.getTargetPlayer().equals(currentPlayer.getName())) return InvalidActionReason.CLUE_TO_SELF;
+                if (!playerNames.contains(giveInfoAction.getTargetPlayer())) return InvalidActionReason.UNKNOWN_CLUE_TARGET;
+                return isNameable(giveInfoAction.getClue()) ? null : InvalidActionReason.ILLEGAL_CLUE_VALUE;
             }
             
             @Override
-            public Boolean visit(PlayCardAction playCardAction) {
+            public InvalidActionReason visit(PlayCardAction playCardAction) {
                 List<Card> hand = gameState.getPlayerHand(currentPlayer.getName());
-                return playCardAction.getHandIndex() < hand.size();
+                return playCardAction.getHandIndex() < hand.size() ? null : InvalidActionReason.HAND_INDEX_OUT_OF_RANGE;
             }
             
             @Override
-            public Boolean visit(DiscardCardAction discardCardAction) {
+            public InvalidActionReason visit(DiscardCardAction discardCardAction) {
                 List<Card> hand = gameState.getPlayerHand(currentPlayer.getName());
-                return discardCardAction.getHandIndex() < hand.size();
+                return discardCardAction.getHandIndex() < hand.size() ? null : InvalidActionReason.HAND_INDEX_OUT_OF_RANGE;
             }
-
+            
             @Override
-            public Boolean visit(DrawCardAction giveInfoAction) {
+            public InvalidActionReason visit(DrawCardAction giveInfoAction) {
                 //this doesn't get used here
                 throw new UnsupportedOperationException("Unimplemented method 'visit'");
             }
         });
     }
     
+    // Rainbow cards and suits not in play cannot be named by a colour clue
+    private boolean isNameable(Player.Clue clue) {
+        Object value = clue.getValue();
+        if (clue.getType() == Player.ClueType.SUIT) {
+            return value instanceof Card.Suit && rules.canNameColour((Card.Suit) value);
+        }
+        return value instanceof Integer && (Integer) value >= 1 && (Integer) value <= Rules.MAX_RANK;
+    }
+    
     private GameState handleGiveInfoAction(GiveInfoAction action) {
         String targetPlayerName = action.getTargetPlayer();
         Player targetPlayer = this.players.get(this.playerNames.indexOf(targetPlayerName));
-        targetPlayer.receiveClue(action.getClue());
+        knowledge.applyClue(targetPlayerName, action.getClue());
+        if (!restoring || !quietSeats.contains(targetPlayer)) {
+            targetPlayer.receiveClue(action.getClue());
+        }
         
         return GameState.builder()
             .hands(gameState.getHands())
@@ -179,6 +315,7 @@ public class GameEngine {
             .players(gameState.getPlayers())
             .finalPlayerIndex(gameState.getFinalPlayerIndex())
             .deckSize(deck.size())
+            .rules(rules)
             .build();
     }
     
@@ -186,33 +323,35 @@ public class GameEngine {
         Player currentPlayer = players.get(currentPlayerIndex);
         List<Card> hand = new ArrayList<>(gameState.getPlayerHand(currentPlayer.getName()));
         Card playedCard = hand.remove(action.getHandIndex());
+        knowledge.removeCard(currentPlayer.getName(), action.getHandIndex(), playedCard);
         Map<Card.Suit, List<Card>> playedCards = new HashMap<>(gameState.getPlayedCards());
         Map<Card.Suit, List<Card>> discardedCards = new HashMap<>(gameState.getDiscardedCards());
         List<Card> suitCards = new ArrayList<>(playedCards.get(playedCard.getSuit()));
         
         int infoTokens = gameState.getInfoTokens();
         int fuseTokens = gameState.getFuseTokens();
-
-        if (playedCard.getRank() == suitCards.size() + 1) {
+        
+        boolean played = Rules.isPlayable(playedCard.getRank(), suitCards.size());
+        if (played) {
             suitCards.add(playedCard);
-            if (playedCard.getRank() == 5) {
-                infoTokens = Math.min(infoTokens + 1, 8);
-            }            
         } else {
-            discardedCards.get(playedCard.getSuit()).add(playedCard);
-            fuseTokens--;
+            List<Card> suitDiscards = new ArrayList<>(discardedCards.get(playedCard.getSuit()));
+            suitDiscards.add(playedCard);
+            discardedCards.put(playedCard.getSuit(), suitDiscards);
         }
-
+        infoTokens = Rules.infoTokensAfterPlay(infoTokens, rules.getMaxInfoTokens(), playedCard.getRank(), played);
+        fuseTokens = Rules.fuseTokensAfterPlay(fuseTokens, played);
+        
         playedCards.put(playedCard.getSuit(), suitCards);
         
         
         int finalPlayerIndex = gameState.getFinalPlayerIndex();
         
         Card drawnCard = deck.drawCard();
-        if (drawnCard == null) {
-            if (finalPlayerIndex == -1) finalPlayerIndex = currentPlayerIndex;
-        } else {
+        finalPlayerIndex = Rules.finalPlayerAfterDraw(finalPlayerIndex, currentPlayerIndex, drawnCard != null);
+        if (drawnCard != null) {
             hand.add(drawnCard);
+            knowledge.drawCard(currentPlayer.getName());
             notifyPlayerAction(currentPlayer, new DrawCardAction());
         }
         Map<String, List<Card>> updatedHands = new HashMap<>(gameState.getHands());
@@ -228,6 +367,7 @@ public class GameEngine {
             .players(gameState.getPlayers())
             .finalPlayerIndex(finalPlayerIndex)
             .deckSize(deck.size())
+            .rules(rules)
             .build();
     }
     
@@ -236,24 +376,27 @@ public class GameEngine {
         List<Card> hand = new ArrayList<>(gameState.getPlayerHand(currentPlayer.getName()));
         Map<Card.Suit, List<Card>> discardedCards = new HashMap<>(gameState.getDiscardedCards());
         Card discardedCard = hand.remove(action.getHandIndex());
+        knowledge.removeCard(currentPlayer.getName(), action.getHandIndex(), discardedCard);
         
         Map<String, List<Card>> updatedHands = new HashMap<>(gameState.getHands());
         updatedHands.put(currentPlayer.getName(), hand);
         
-        discardedCards.get(discardedCard.getSuit()).add(discardedCard);
+        List<Card> suitDiscards = new ArrayList<>(discardedCards.get(discardedCard.getSuit()));
+        suitDiscards.add(discardedCard);
+        discardedCards.put(discardedCard.getSuit(), suitDiscards);
         
         int finalPlayerIndex = gameState.getFinalPlayerIndex();
         
         Card drawnCard = deck.drawCard();
-        if (drawnCard == null) {
-            if (finalPlayerIndex == -1) finalPlayerIndex = currentPlayerIndex;
-        } else {
+        finalPlayerIndex = Rules.finalPlayerAfterDraw(finalPlayerIndex, currentPlayerIndex, drawnCard != null);
+        if (drawnCard != null) {
             hand.add(drawnCard);
             updatedHands.put(currentPlayer.getName(), hand);
+            knowledge.drawCard(currentPlayer.getName());
             notifyPlayerAction(currentPlayer, new DrawCardAction());
         }
-        int infoTokens = Math.min(gameState.getInfoTokens() + 1, 8);
-
+        int infoTokens = Rules.infoTokensAfterDiscard(gameState.getInfoTokens(), rules.getMaxInfoTokens());
+        
         return GameState.builder()
             .hands(updatedHands)
             .playedCards(gameState.getPlayedCards())
@@ -264,6 +407,7 @@ public class GameEngine {
             .players(gameState.getPlayers())
             .finalPlayerIndex(finalPlayerIndex)
             .deckSize(deck.size())
+            .rules(rules)
             .build();
     }
     
@@ -273,10 +417,46 @@ public class GameEngine {
     
     private void notifyPlayerAction(Player currentPlayer, Action action) {
         for (Player player : players) {
+            if (restoring && quietSeats.contains(player)) continue;
             player.notifyPlayerAction(currentPlayer.getName(), action);
         }
     }
     
+    // Fills buffer (at least LegalMoves.MAX_ACTIONS long) with the current seat's options; none once the game is over
+    public int getLegalActions(int[] buffer) {
+        if (gameState.isGameOver()) return 0;
+        return LegalMoves.generate(gameState, currentPlayerIndex, buffer);
+    }
+    
+    // Zobrist hash of the whole table, maintained incrementally
+    public long getStateHash() {
+        return zobrist.getFullHash();
+    }
+    
+    // Zobrist hash of what the given seat can observe
+    public long getInformationSetHash(int seat) {
+        return zobrist.getInformationSetHash(seat);
+    }
+    
+    // Whether the hands and the deck left hold the deal Deck.shuffled gives this seed; only meaningful before the first action
+    boolean isDealtFromSeed() {
+        List<Card> dealt = new ArrayList<>(rules.getDeckSize());
+        for (String name : playerNames) {
+            dealt.addAll(gameState.getPlayerHand(name));
+        }
+        dealt.addAll(deck.getRemainingCards());
+        return dealt.equals(Deck.shuffled(rules, seed).getRemainingCards());
+    }
+    
+    // The table's common knowledge, read-only as shared with KnowledgeAware players
+    public KnowledgeView getPublicKnowledge() {
+        return knowledge.readOnly();
+    }
+    
+    public VariantRules getRules() {
+        return rules;
+    }
+    
     public GameState getGameState() {
         return gameState; // Full game state for server/admin use
     }
@@ -285,10 +465,48 @@ public class GameEngine {
         return gameState.getPlayerView(player.getName()); // Filtered view for players
     }
     
+    // Listeners run on the game thread after every action, executed or rejected, and when the game ends
+    public void addListener(GameListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(GameListener listener) {
+        listeners.remove(listener);
+    }
+    
+    public List<GameListener> getListeners() {
+        return Collections.unmodifiableList(listeners);
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    // Number of actions executed so far
+    public int getTurnCount() {
+        return turnCount;
+    }
+    
+    public Spectator addSpectator() {
+        return spectatorFeed.subscribe(); // Spectators see the full game state
+    }
+    
+    public SpectatorFeed getSpectatorFeed() {
+        return spectatorFeed;
+    }
+    
+    public List<Player> getPlayers() {
+        return Collections.unmodifiableList(players);
+    }
+    
     public Player getCurrentPlayer() {
         return players.get(currentPlayerIndex);
     }
     
+    public int getCurrentPlayerIndex() {
+        return currentPlayerIndex;
+    }
+    
     public boolean isGameOver() {
         return gameState.isGameOver();
     }
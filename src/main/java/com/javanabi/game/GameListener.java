@@ -0,0 +1,20 @@
+package com.javanabi.game;
+
+import com.javanabi.game.action.Action;
+
+public interface GameListener {
+    // seat is the index of the player who acted; clues carry the indices the engine computed
+    default void actionExecuted(GameEngine game, int seat, Action action) {
+    }
+    
+    // the action was not applied and the same seat is still to move
+    default void actionRejected(GameEngine game, int seat, Action action, InvalidActionReason reason) {
+    }
+    
+    default void gameEnded(GameEngine game) {
+    }
+    
+    // the table stopped before the game ended, e.g. because a seat threw or kept making invalid moves
+    default void gameAbandoned(GameEngine game) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.javanabi.game;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.javanabi.GameStart")
+@Label("Game Start")
+@Category({"Hanabi", "Game"})
+@StackTrace(false)
+class GameStartEvent extends Event {
+    @Label("Seed")
+    long seed;
+    
+    @Label("Seats")
+    String seats;
+    
+    @Label("Player Count")
+    int playerCount;
+    
+    static void emit(GameEngine game) {
+        GameStartEvent event = new GameStartEvent();
+        if (event.shouldCommit()) {
+            event.seed = game.getSeed();
+            event.seats = seatDescription(game);
+            event.playerCount = game.getPlayers().size();
+            event.commit();
+        }
+    }
+    
+    static String seatDescription(GameEngine game) {
+        StringBuilder seats = new StringBuilder();
+        for (Player player : game.getPlayers()) {
+            if (seats.length() > 0) seats.append(", ");
+            seats.append(player.getClass().getSimpleName());
+        }
+        return seats.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package com.javanabi.game;
+
+import com.javanabi.game.action.Action;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives a single game from the first turn to the end. Tables are plain
+ * Runnables so any executor can host them.
+ */
+public class GameTable implements Runnable {
+    // A seat that keeps making invalid moves would otherwise hold the table forever
+    public static final int MAX_CONSECUTIVE_REJECTIONS = 100;
+    // Starts at the process start time shifted left 20 bits, so a restarted process never reuses
+    // an id unless the previous one made over a million tables per millisecond it was up
+    private static final AtomicLong NEXT_ID = new AtomicLong(System.currentTimeMillis() << 20);
+    
+    private final long id;
+    private final GameEngine game;
+    private volatile boolean finished;
+    private boolean abandoned;
+    private int consecutiveRejections;
+    
+    public GameTable(long id, GameEngine game) {
+        this.id = id;
+        this.game = game;
+    }
+    
+    @Override
+    public void run() {
+        try {
+            while (!game.isGameOver()) {
+                playTurn();
+            }
+        } catch (RuntimeException e) {
+            abandon();
+            throw e;
+        }
+        finish();
+    }
+    
+    // Asks the current player for an action and executes it; invalid actions leave the turn unchanged.
+    // Throws IllegalStateException once the same seat has been rejected MAX_CONSECUTIVE_REJECTIONS times in a row.
+    public boolean playTurn() {
+        Player currentPlayer = game.getCurrentPlayer();
+        Action action = currentPlayer.takeTurn(game.getPlayerGameState(currentPlayer));
+        if (game.executeAction(action)) {
+            consecutiveRejections = 0;
+            return true;
+        }
+        if (++consecutiveRejections >= MAX_CONSECUTIVE_REJECTIONS) {
+            throw new IllegalStateException("Table " + id + ": " + currentPlayer.getName() + " made "
+                + consecutiveRejections + " invalid actions in a row");
+        }
+        return false;
+    }
+    
+    // A table id not used before in this process or an earlier one, e.g. for tables kept in an ActionLog
+    public static long nextId() {
+        return NEXT_ID.getAndIncrement();
+    }
+    
+    public void finish() {
+        if (finished) return;
+        finished = true;
+        int score = game.getScore();
+        boolean won = game.getGameState().isGameWon();
+        for (Player player : game.getPlayers()) {
+            player.notifyGameEnd(score, won);
+        }
+    }
+    
+    // Tells the game's listeners the table is stopping short of the end; does nothing once the game is over
+    public void abandon() {
+        if (abandoned || game.isGameOver()) return;
+        abandoned = true;
+        for (GameListener listener : game.getListeners()) {
+            listener.gameAbandoned(game);
+        }
+    }
+    
+    public long getId() {
+        return id;
+    }
+    
+    public GameEngine getGame() {
+        return game;
+    }
+    
+    public boolean isFinished() {
+        return finished;
+    }
+    
+    public int getScore() {
+        return game.getScore();
+    }
+}
@@ -0,0 +1,10 @@
+package com.javanabi.game;
+
+public enum InvalidActionReason {
+    GAME_OVER,
+    NO_INFO_TOKENS,
+    CLUE_TO_SELF,
+    UNKNOWN_CLUE_TARGET,
+    HAND_INDEX_OUT_OF_RANGE,
+    ILLEGAL_CLUE_VALUE
+}
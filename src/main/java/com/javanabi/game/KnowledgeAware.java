@@ -0,0 +1,11 @@
+package com.javanabi.game;
+
+import com.javanabi.util.KnowledgeView;
+
+/**
+ * Optional Player extension. The engine hands implementors its table's shared
+ * public knowledge before initialize, so they need not track clues themselves.
+ */
+public interface KnowledgeAware {
+    void usePublicKnowledge(KnowledgeView knowledge);
+}
@@ -0,0 +1,65 @@
+package com.javanabi.game;
+
+import com.javanabi.domain.Card;
+import com.javanabi.game.action.ActionCodec;
+import com.javanabi.game.state.GameState;
+
+import java.util.List;
+
+/**
+ * Enumerates the actions open to a seat as ActionCodec codes, into a buffer
+ * the caller reuses, without allocating. Plays and discards come first in hand
+ * order, then clues for each other seat in turn order: suit clues by suit
+ * ordinal, then rank clues. Clues that would touch no card are left out, as
+ * are colours the variant cannot name.
+ *
+ * Works on the full state or on the actor's own view, since only the size of
+ * the actor's hand is needed.
+ */
+public final class LegalMoves {
+    // 5 plays, 5 discards and 10 clues for each of 4 other seats; four-card hands leave room for six colours
+    public static final int MAX_ACTIONS = 50;
+    
+    private static final Card.Suit[] SUITS = Card.Suit.values();
+    
+    private LegalMoves() {
+    }
+    
+    public static int generate(GameState state, int actorSeat, int[] buffer) {
+        List<String> players = state.getPlayers();
+        VariantRules rules = state.getRules();
+        int count = 0;
+        int handSize = state.getPlayerHandSize(players.get(actorSeat));
+        for (int i = 0; i < handSize; i++) {
+            buffer[count++] = ActionCodec.play(i);
+        }
+        for (int i = 0; i < handSize; i++) {
+            buffer[count++] = ActionCodec.discard(i);
+        }
+        if (state.getInfoTokens() <= 0) {
+            return count;
+        }
+        
+        for (int offset = 1; offset < players.size(); offset++) {
+            List<Card> hand = state.getPlayerHand(players.get((actorSeat + offset) % players.size()));
+            int suits = 0;
+            int ranks = 0;
+            for (int i = 0; i < hand.size(); i++) {
+                Card card = hand.get(i);
+                suits |= rules.getColoursTouching(card.getSuit());
+                ranks |= 1 << card.getRank();
+            }
+            for (int suit = 0; suits >>> suit != 0; suit++) {
+                if ((suits & 1 << suit) != 0) {
+                    buffer[count++] = ActionCodec.suitClue(offset, SUITS[suit]);
+                }
+            }
+            for (int rank = 1; rank <= 5; rank++) {
+                if ((ranks & 1 << rank) != 0) {
+                    buffer[count++] = ActionCodec.rankClue(offset, rank);
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,316 @@
+package com.javanabi.game;
+
+import com.javanabi.domain.Card;
+import com.javanabi.game.action.ActionCodec;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Many games with the same seat count, stored column-wise in flat primitive
+ * arrays and stepped together. Each step asks a Policy for one action code
+ * per live game, then applies them all in one pass. Rules come from Rules,
+ * as in GameEngine, and a game dealt with a given seed gets the same deck as
+ * GameEngine with that seed.
+ *
+ * Only the physical table is kept: hands, piles, discard counts, tokens and
+ * deck cursors. There are no Player callbacks, listeners or clue knowledge,
+ * so a clue just spends a token. This suits bulk self-play with policies
+ * that look at the cards.
+ *
+ * Cards are ids suit * 5 + rank - 1, as in ZobristHash.
+ */
+public final class LockstepEngine {
+    public static final int NO_CARD = -1;
+    public static final int DECK_SIZE = VariantRules.STANDARD.getDeckSize();
+    public static final int SUIT_COUNT = VariantRules.STANDARD.getSuitCount();
+
+    private static final Card.Suit[] SUIT_VALUES = Card.Suit.values();
+    private static final int SUITS = SUIT_COUNT;
+    private static final int CARD_KINDS = SUITS * Rules.MAX_RANK;
+
+    private final int games;
+    private final int players;
+    private final int handSize;
+
+    private final long[] seeds;
+    private final byte[] deck;
+    private final int[] deckCursor;
+    private final byte[] hands;
+    private final byte[] handSizes;
+    private final byte[] piles;
+    private final byte[] discards;
+    private final byte[] infoTokens;
+    private final byte[] fuseTokens;
+    private final byte[] currentPlayer;
+    private final byte[] finalPlayer;
+    private final int[] turns;
+    private final boolean[] over;
+    private final int[] actions;
+    private int live;
+
+    public interface Policy {
+        // Fill actions[game] with an ActionCodec code for every game that is not over
+        void chooseActions(LockstepEngine engine, int[] actions);
+    }
+
+    // Base game rules: five suits, eight info tokens and three fuses
+    public LockstepEngine(int games, int players) {
+        if (players < 2 || players > 5) {
+            throw new IllegalArgumentException("Hanabi requires 2-5 players");
+        }
+        if (games < 1) {
+            throw new IllegalArgumentException("Need at least one game");
+        }
+        this.games = games;
+        this.players = players;
+        this.handSize = Rules.handSize(players);
+        this.seeds = new long[games];
+        this.deck = new byte[games * DECK_SIZE];
+        this.deckCursor = new int[games];
+        this.hands = new byte[games * players * handSize];
+        this.handSizes = new byte[games * players];
+        this.piles = new byte[games * SUITS];
+        this.discards = new byte[games * CARD_KINDS];
+        this.infoTokens = new byte[games];
+        this.fuseTokens = new byte[games];
+        this.currentPlayer = new byte[games];
+        this.finalPlayer = new byte[games];
+        this.turns = new int[games];
+        this.over = new boolean[games];
+        this.actions = new int[games];
+        Arrays.fill(over, true);
+    }
+
+    // Deals game i with seed firstSeed + i
+    public void dealAll(long firstSeed) {
+        for (int game = 0; game < games; game++) {
+            deal(game, firstSeed + game);
+        }
+    }
+
+    public void dealAll(DealBank bank, long firstSeed) {
+        for (int game = 0; game < games; game++) {
+            deal(game, bank, firstSeed + game);
+        }
+    }
+
+    public void deal(int game, long seed) {
+        List<Card> order = Deck.shuffled(seed).getRemainingCards();
+        int deckBase = game * DECK_SIZE;
+        for (int i = 0; i < DECK_SIZE; i++) {
+            deck[deckBase + i] = (byte) cardId(order.get(i));
+        }
+        reset(game, seed);
+    }
+
+    // Deals the bank's record for the seed, skipping the shuffle
+    public void deal(int game, DealBank bank, long seed) {
+        bank.copyDeal(seed, deck, game * DECK_SIZE);
+        reset(game, seed);
+    }
+
+    private void reset(int game, long seed) {
+        int deckBase = game * DECK_SIZE;
+        if (over[game]) live++;
+        seeds[game] = seed;
+        deckCursor[game] = 0;
+        Arrays.fill(piles, game * SUITS, (game + 1) * SUITS, (byte) 0);
+        Arrays.fill(discards, game * CARD_KINDS, (game + 1) * CARD_KINDS, (byte) 0);
+        infoTokens[game] = Rules.MAX_INFO_TOKENS;
+        fuseTokens[game] = Rules.FUSE_TOKENS;
+        currentPlayer[game] = 0;
+        finalPlayer[game] = -1;
+        turns[game] = 0;
+        over[game] = false;
+        // Seat by seat, as GameEngine deals
+        for (int seat = 0; seat < players; seat++) {
+            int handBase = (game * players + seat) * handSize;
+            for (int slot = 0; slot < handSize; slot++) {
+                hands[handBase + slot] = deck[deckBase + deckCursor[game]++];
+            }
+            handSizes[game * players + seat] = (byte) handSize;
+        }
+    }
+
+    // Steps every live game once; returns how many are still live
+    public int step(Policy policy) {
+        policy.chooseActions(this, actions);
+        for (int game = 0; game < games; game++) {
+            if (!over[game]) apply(game, actions[game]);
+        }
+        return live;
+    }
+
+    public void run(Policy policy) {
+        while (live > 0) step(policy);
+    }
+
+    public void apply(int game, int code) {
+        if (over[game]) {
+            throw new IllegalStateException("Game " + game + " is over");
+        }
+        int seat = currentPlayer[game];
+        int type = ActionCodec.type(code);
+        if (type == ActionCodec.CLUE) {
+            int offset = ActionCodec.targetOffset(code);
+            if (infoTokens[game] <= 0 || offset < 1 || offset >= players) {
+                throw new IllegalArgumentException("Illegal clue " + code + " in game " + game);
+            }
+            infoTokens[game]--;
+        } else {
+            int handIndex = ActionCodec.handIndex(code);
+            int sizeIndex = game * players + seat;
+            int size = handSizes[sizeIndex];
+            if (handIndex >= size || type != ActionCodec.PLAY && type != ActionCodec.DISCARD) {
+                throw new IllegalArgumentException("Illegal action " + code + " in game " + game);
+            }
+            int handBase = sizeIndex * handSize;
+            int card = hands[handBase + handIndex];
+            System.arraycopy(hands, handBase + handIndex + 1, hands, handBase + handIndex, size - handIndex - 1);
+            size--;
+
+            int suit = card / Rules.MAX_RANK;
+            int rank = card % Rules.MAX_RANK + 1;
+            if (type == ActionCodec.PLAY) {
+                int pile = game * SUITS + suit;
+                boolean played = Rules.isPlayable(rank, piles[pile]);
+                piles[pile] += (byte) (played ? 1 : 0);
+                discards[game * CARD_KINDS + card] += (byte) (played ? 0 : 1);
+                infoTokens[game] = (byte) Rules.infoTokensAfterPlay(infoTokens[game], Rules.MAX_INFO_TOKENS, rank, played);
+                fuseTokens[game] = (byte) Rules.fuseTokensAfterPlay(fuseTokens[game], played);
+            } else {
+                discards[game * CARD_KINDS + card]++;
+                infoTokens[game] = (byte) Rules.infoTokensAfterDiscard(infoTokens[game], Rules.MAX_INFO_TOKENS);
+            }
+
+            boolean drew = deckCursor[game] < DECK_SIZE;
+            if (drew) {
+                hands[handBase + size++] = deck[game * DECK_SIZE + deckCursor[game]++];
+            } else {
+                hands[handBase + size] = NO_CARD;
+            }
+            handSizes[sizeIndex] = (byte) size;
+            finalPlayer[game] = (byte) Rules.finalPlayerAfterDraw(finalPlayer[game], seat, drew);
+        }
+        currentPlayer[game] = (byte) ((seat + 1) % players);
+        turns[game]++;
+        // GameState records the seat that just moved, so that is the one checked against the final seat
+        if (Rules.isGameOver(fuseTokens[game], getDeckSize(game), seat, finalPlayer[game])) {
+            over[game] = true;
+            live--;
+        }
+    }
+
+    // Same codes in the same order as LegalMoves.generate
+    public int legalActions(int game, int[] buffer) {
+        if (over[game]) return 0;
+        int seat = currentPlayer[game];
+        int count = 0;
+        int size = handSizes[game * players + seat];
+        for (int i = 0; i < size; i++) {
+            buffer[count++] = ActionCodec.play(i);
+        }
+        for (int i = 0; i < size; i++) {
+            buffer[count++] = ActionCodec.discard(i);
+        }
+        if (infoTokens[game] <= 0) {
+            return count;
+        }
+        for (int offset = 1; offset < players; offset++) {
+            int target = game * players + (seat + offset) % players;
+            int handBase = target * handSize;
+            int suits = 0;
+            int ranks = 0;
+            for (int i = 0; i < handSizes[target]; i++) {
+                int card = hands[handBase + i];
+                suits |= 1 << card / Rules.MAX_RANK;
+                ranks |= 1 << card % Rules.MAX_RANK + 1;
+            }
+            for (int suit = 0; suits >>> suit != 0; suit++) {
+                if ((suits & 1 << suit) != 0) {
+                    buffer[count++] = ActionCodec.suitClue(offset, SUIT_VALUES[suit]);
+                }
+            }
+            for (int rank = 1; rank <= Rules.MAX_RANK; rank++) {
+                if ((ranks & 1 << rank) != 0) {
+                    buffer[count++] = ActionCodec.rankClue(offset, rank);
+                }
+            }
+        }
+        return count;
+    }
+
+    public static int cardId(Card card) {
+        return card.getSuit().ordinal() * Rules.MAX_RANK + card.getRank() - 1;
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    public int getPlayers() {
+        return players;
+    }
+
+    public int getLiveCount() {
+        return live;
+    }
+
+    public long getSeed(int game) {
+        return seeds[game];
+    }
+
+    public boolean isGameOver(int game) {
+        return over[game];
+    }
+
+    public int getScore(int game) {
+        int score = 0;
+        for (int suit = 0; suit < SUITS; suit++) {
+            score += piles[game * SUITS + suit];
+        }
+        return score;
+    }
+
+    public int getTurnCount(int game) {
+        return turns[game];
+    }
+
+    public int getInfoTokens(int game) {
+        return infoTokens[game];
+    }
+
+    public int getFuseTokens(int game) {
+        return fuseTokens[game];
+    }
+
+    public int getDeckSize(int game) {
+        return DECK_SIZE - deckCursor[game];
+    }
+
+    public int getCurrentPlayerIndex(int game) {
+        return currentPlayer[game];
+    }
+
+    public int getFinalPlayerIndex(int game) {
+        return finalPlayer[game];
+    }
+
+    public int getHandSize(int game, int seat) {
+        return handSizes[game * players + seat];
+    }
+
+    // Card id in the given slot, or NO_CARD
+    public int getCard(int game, int seat, int slot) {
+        return slot < getHandSize(game, seat) ? hands[(game * players + seat) * handSize + slot] : NO_CARD;
+    }
+
+    public int getPileHeight(int game, int suit) {
+        return piles[game * SUITS + suit];
+    }
+
+    public int getDiscardCount(int game, int cardId) {
+        return discards[game * CARD_KINDS + cardId];
+    }
+}
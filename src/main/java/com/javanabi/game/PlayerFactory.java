@@ -0,0 +1,61 @@
+package com.javanabi.game;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Creates players from the short class names used on the command line,
+ * e.g. "SimpleAIPlayer" resolves to com.javanabi.players.SimpleAIPlayer.
+ * Constructors are looked up once per class and cached.
+ */
+public final class PlayerFactory {
+    public static final String PLAYER_PACKAGE = "com.javanabi.players.";
+    
+    private static final PlayerFactory SHARED = new PlayerFactory();
+    
+    private final ConcurrentMap<String, Constructor<? extends Player>> constructors = new ConcurrentHashMap<>();
+    
+    public static PlayerFactory shared() {
+        return SHARED;
+    }
+    
+    public Player create(String className, String playerName) {
+        try {
+            return resolve(className).newInstance(playerName);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot create " + playerName + " as " + className + ": " + e.getMessage(), e);
+        }
+    }
+    
+    public boolean isAvailable(String className) {
+        try {
+            resolve(className);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    private Constructor<? extends Player> resolve(String className) {
+        Constructor<? extends Player> constructor = constructors.get(className);
+        if (constructor == null) {
+            constructor = lookup(className);
+            constructors.putIfAbsent(className, constructor);
+        }
+        return constructor;
+    }
+    
+    private static Constructor<? extends Player> lookup(String className) {
+        try {
+            Class<?> playerClass = Class.forName(PLAYER_PACKAGE + className);
+            if (!Player.class.isAssignableFrom(playerClass)) {
+                throw new IllegalArgumentException(className + " is not a Player");
+            }
+            // Players take their name as the only constructor argument
+            return playerClass.asSubclass(Player.class).getDeclaredConstructor(String.class);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            throw new IllegalArgumentException("Unknown player class " + className + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.javanabi.game;
+
+/**
+ * The rules of the game on plain numbers, shared by GameEngine and
+ * LockstepEngine so the two cannot drift apart. The constants are the base
+ * game's; VariantRules carries the values a GameConfig changes.
+ */
+public final class Rules {
+    public static final int MAX_INFO_TOKENS = 8;
+    public static final int FUSE_TOKENS = 3;
+    public static final int MAX_RANK = 5;
+
+    private Rules() {
+    }
+
+    public static int handSize(int playerCount) {
+        return playerCount >= 4 ? 4 : 5;
+    }
+
+    // A card plays when it is the next rank on its suit's pile
+    public static boolean isPlayable(int rank, int pileHeight) {
+        return rank == pileHeight + 1;
+    }
+
+    // Completing a suit earns back an info token
+    public static int infoTokensAfterPlay(int infoTokens, int maxInfoTokens, int rank, boolean played) {
+        return played && rank == MAX_RANK ? Math.min(infoTokens + 1, maxInfoTokens) : infoTokens;
+    }
+
+    public static int fuseTokensAfterPlay(int fuseTokens, boolean played) {
+        return played ? fuseTokens : fuseTokens - 1;
+    }
+
+    public static int infoTokensAfterDiscard(int infoTokens, int maxInfoTokens) {
+        return Math.min(infoTokens + 1, maxInfoTokens);
+    }
+
+    // The first seat to find the deck empty closes the game
+    public static int finalPlayerAfterDraw(int finalPlayerIndex, int actor, boolean drew) {
+        return drew || finalPlayerIndex != -1 ? finalPlayerIndex : actor;
+    }
+
+    // lastActor is the seat recorded in the state, i.e. the one that just moved
+    public static boolean isGameOver(int fuseTokens, int deckSize, int lastActor, int finalPlayerIndex) {
+        return fuseTokens == 0 || (deckSize == 0 && lastActor == finalPlayerIndex);
+    }
+}
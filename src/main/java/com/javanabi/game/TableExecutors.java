@@ -0,0 +1,24 @@
+package com.javanabi.game;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors that give every table its own virtual thread, so a table waiting
+ * on a human or a socket parks without holding a platform thread.
+ */
+public final class TableExecutors {
+    private static final ExecutorService SHARED = Executors.newVirtualThreadPerTaskExecutor();
+    
+    private TableExecutors() {
+    }
+    
+    public static ExecutorService newPerTableExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+    
+    // One executor for every table in the process; never shut down
+    public static ExecutorService shared() {
+        return SHARED;
+    }
+}
@@ -0,0 +1,289 @@
+package com.javanabi.game;
+
+import com.javanabi.game.action.Action;
+import com.javanabi.game.action.ActionCodec;
+import com.javanabi.game.spectator.SpectatorFeed;
+import com.javanabi.game.state.GameState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hosts tables that wait on people, moving them to a compact form when
+ * nobody has acted for a while. A hibernated table keeps only its seed, its
+ * rules, its action codes (two bytes each) and the objects that outlive the
+ * engine: human seats, listeners and the spectator feed. The engine, its
+ * states, deck, knowledge and bots are dropped, so the heap grows with the
+ * tables in play rather than the tables open.
+ *
+ * Tables are driven by submitted actions instead of a thread per table.
+ * submit rehydrates a hibernated table by replaying its codes, executes the
+ * move, then lets bot seats move until a human is up or the game ends.
+ * The caller names the human seats; every other seat is a bot. Bots the caller
+ * gives a class name for are dropped and created again from the PlayerFactory
+ * on rehydration, so they must be what the factory makes from that name.
+ * Human seats and the other bots (custom weights, wrappers) are kept and not
+ * told of the replayed actions.
+ * Games must have been dealt from their seed, as every GameEngine constructor
+ * that takes no Deck does; open refuses any other deal.
+ */
+public final class TableHibernator {
+    private final PlayerFactory playerFactory;
+    private final long idleNanos;
+    private final Map<Long, Entry> tables = new ConcurrentHashMap<>();
+
+    public TableHibernator(long idleMillis) {
+        this(PlayerFactory.shared(), idleMillis);
+    }
+
+    public TableHibernator(PlayerFactory playerFactory, long idleMillis) {
+        this.playerFactory = playerFactory;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+    }
+
+    // Takes over a table that has not moved yet, playing bot seats up to the first human turn; do not run the table as well.
+    // botClasses maps the bot seats to recreate to their PlayerFactory class names
+    public void open(GameTable table, Set<Integer> humanSeats, Map<Integer, String> botClasses) {
+        GameEngine game = table.getGame();
+        if (game.getTurnCount() > 0) {
+            throw new IllegalArgumentException("Table " + table.getId() + " has already started");
+        }
+        for (int seat : humanSeats) {
+            checkSeat(table, seat);
+        }
+        for (Map.Entry<Integer, String> bot : botClasses.entrySet()) {
+            checkSeat(table, bot.getKey());
+            if (humanSeats.contains(bot.getKey())) {
+                throw new IllegalArgumentException("Table " + table.getId() + " seat " + bot.getKey() + " is both human and a bot");
+            }
+            if (!playerFactory.isAvailable(bot.getValue())) {
+                throw new IllegalArgumentException("Unknown player class " + bot.getValue());
+            }
+        }
+        // Rehydration deals again from the seed, so any other deal would wake up as a different game
+        if (!game.isDealtFromSeed()) {
+            throw new IllegalArgumentException("Table " + table.getId() + " was not dealt from its seed " + game.getSeed());
+        }
+        Entry entry = new Entry(table, humanSeats, botClasses);
+        if (tables.putIfAbsent(table.getId(), entry) != null) {
+            throw new IllegalArgumentException("Table " + table.getId() + " is already open");
+        }
+        game.addListener(entry.recorder);
+        synchronized (entry) {
+            playBots(entry);
+        }
+    }
+
+    // Executes a human's move at the table; false if it is not their turn or the engine rejects it
+    public boolean submit(long tableId, String playerName, Action action) {
+        Entry entry = entry(tableId);
+        synchronized (entry) {
+            GameTable table = entry.wake();
+            GameEngine game = table.getGame();
+            if (game.isGameOver() || !game.getCurrentPlayer().getName().equals(playerName)) {
+                return false;
+            }
+            if (!game.executeAction(action)) {
+                return false;
+            }
+            playBots(entry);
+            return true;
+        }
+    }
+
+    // The player's view of the table, rehydrating it if needed
+    public GameState getPlayerView(long tableId, String playerName) {
+        Entry entry = entry(tableId);
+        synchronized (entry) {
+            return entry.wake().getGame().getGameState().getPlayerView(playerName);
+        }
+    }
+
+    // The live table, rehydrating it if needed; the instance changes each time the table hibernates
+    public GameTable getTable(long tableId) {
+        Entry entry = entry(tableId);
+        synchronized (entry) {
+            return entry.wake();
+        }
+    }
+
+    // Hibernates every table idle for longer than the configured period; returns how many
+    public int hibernateIdle() {
+        long now = System.nanoTime();
+        int hibernated = 0;
+        for (Entry entry : tables.values()) {
+            synchronized (entry) {
+                if (entry.table != null && now - entry.lastActive >= idleNanos) {
+                    entry.hibernate();
+                    hibernated++;
+                }
+            }
+        }
+        return hibernated;
+    }
+
+    public ScheduledFuture<?> start(ScheduledExecutorService scheduler, long periodMillis) {
+        return scheduler.scheduleWithFixedDelay(this::hibernateIdle, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isOpen(long tableId) {
+        return tables.containsKey(tableId);
+    }
+
+    public boolean isHibernated(long tableId) {
+        Entry entry = entry(tableId);
+        synchronized (entry) {
+            return entry.table == null;
+        }
+    }
+
+    public int getOpenCount() {
+        return tables.size();
+    }
+
+    public int getActiveCount() {
+        int active = 0;
+        for (Entry entry : tables.values()) {
+            if (entry.table != null) active++;
+        }
+        return active;
+    }
+
+    private Entry entry(long tableId) {
+        Entry entry = tables.get(tableId);
+        if (entry == null) {
+            throw new IllegalArgumentException("No open table " + tableId);
+        }
+        return entry;
+    }
+
+    private static void checkSeat(GameTable table, int seat) {
+        if (seat < 0 || seat >= table.getGame().getPlayers().size()) {
+            throw new IllegalArgumentException("Table " + table.getId() + " has no seat " + seat);
+        }
+    }
+
+    private void playBots(Entry entry) {
+        GameTable table = entry.table;
+        GameEngine game = table.getGame();
+        try {
+            while (!game.isGameOver() && entry.isBot(game.getCurrentPlayerIndex())) {
+                table.playTurn();
+            }
+        } catch (RuntimeException e) {
+            // A bot that cannot move fails the table rather than leaving it stuck on the bot's turn
+            tables.remove(table.getId());
+            table.abandon();
+            throw e;
+        }
+        entry.lastActive = System.nanoTime();
+        if (game.isGameOver()) {
+            table.finish();
+            tables.remove(table.getId());
+        }
+    }
+
+    private final class Entry {
+        final long id;
+        final Recorder recorder = new Recorder();
+        final boolean[] humans;
+        // Per seat: the bot class to recreate, or null for a seat that is kept
+        final String[] botClasses;
+        final String[] names;
+        volatile GameTable table;
+        long lastActive = System.nanoTime();
+
+        // Only set while hibernated
+        long seed;
+        VariantRules rules;
+        SpectatorFeed feed;
+        List<Player> keptSeats;
+        List<GameListener> listeners;
+
+        Entry(GameTable table, Set<Integer> humanSeats, Map<Integer, String> botClasses) {
+            this.id = table.getId();
+            this.table = table;
+            List<Player> players = table.getGame().getPlayers();
+            this.humans = new boolean[players.size()];
+            this.botClasses = new String[players.size()];
+            this.names = new String[players.size()];
+            for (int seat = 0; seat < players.size(); seat++) {
+                humans[seat] = humanSeats.contains(seat);
+                this.botClasses[seat] = botClasses.get(seat);
+                names[seat] = players.get(seat).getName();
+            }
+        }
+
+        boolean isBot(int seat) {
+            return !humans[seat];
+        }
+
+        boolean isRecreated(int seat) {
+            return botClasses[seat] != null;
+        }
+
+        void hibernate() {
+            GameEngine game = table.getGame();
+            seed = game.getSeed();
+            rules = game.getRules();
+            feed = game.getSpectatorFeed();
+            keptSeats = new ArrayList<>();
+            for (int seat = 0; seat < botClasses.length; seat++) {
+                keptSeats.add(isRecreated(seat) ? null : game.getPlayers().get(seat));
+            }
+            listeners = new ArrayList<>(game.getListeners());
+            recorder.trim();
+            table = null;
+        }
+
+        GameTable wake() {
+            if (table != null) return table;
+            List<Player> players = new ArrayList<>(botClasses.length);
+            Set<Player> quiet = new HashSet<>();
+            for (int seat = 0; seat < botClasses.length; seat++) {
+                if (isRecreated(seat)) {
+                    players.add(playerFactory.create(botClasses[seat], names[seat]));
+                } else {
+                    players.add(keptSeats.get(seat));
+                    quiet.add(keptSeats.get(seat));
+                }
+            }
+            GameEngine game = GameEngine.restore(players, rules, seed, feed, quiet, recorder.actions, recorder.count);
+            for (GameListener listener : listeners) {
+                game.addListener(listener);
+            }
+            table = new GameTable(id, game);
+            rules = null;
+            feed = null;
+            keptSeats = null;
+            listeners = null;
+            return table;
+        }
+    }
+
+    // Keeps the action codes a hibernated table is rebuilt from
+    private static final class Recorder implements GameListener {
+        short[] actions = new short[64];
+        int count;
+
+        @Override
+        public void actionExecuted(GameEngine game, int seat, Action action) {
+            if (count == actions.length) {
+                actions = Arrays.copyOf(actions, Math.max(16, count * 2));
+            }
+            actions[count++] = (short) ActionCodec.encode(action, seat, game.getGameState().getPlayers());
+        }
+
+        void trim() {
+            actions = count == 0 ? new short[0] : Arrays.copyOf(actions, count);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.javanabi.game;
+
+import com.javanabi.domain.Card;
+import com.javanabi.util.GameConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The rules a GameConfig selects, compiled once into lookup tables: which
+ * suits are in play, how many copies of each card the deck holds, and which
+ * suits each colour clue touches. Engines and bots ask these tables instead
+ * of branching on the variant, so variants cost the same as the base game.
+ *
+ * The sixth suit variant adds MULTICOLOR as an ordinary colour. The rainbow
+ * variant adds it as a suit every colour clue touches and none can name; it
+ * wins if both are enabled. Either way the extra suit has the usual
+ * 3, 2, 2, 2, 1 copies of each rank.
+ */
+public final class VariantRules {
+    // Upper bound on info and fuse tokens, so hash tables can be sized statically
+    public static final int MAX_TOKENS = 15;
+
+    private static final Card.Suit[] ALL_SUITS = Card.Suit.values();
+    private static final Map<String, VariantRules> COMPILED = new ConcurrentHashMap<>();
+
+    public static final VariantRules STANDARD = of(GameConfig.standard());
+
+    private final List<Card.Suit> suits;
+    private final int suitMask;
+    private final boolean rainbow;
+    private final int initialInfoTokens;
+    private final int maxInfoTokens;
+    private final int initialFuseTokens;
+    private final int deckSize;
+    // Copies of each card, indexed suit ordinal * 5 + rank - 1
+    private final int[] cardCounts = new int[ALL_SUITS.length * Rules.MAX_RANK];
+    // Bit s of touchedBy[c] is set when a clue of colour c touches suit s; 0 when c cannot be named
+    private final int[] touchedBy = new int[ALL_SUITS.length];
+    // Bit c of touching[s] is set when a clue of colour c touches suit s
+    private final int[] touching = new int[ALL_SUITS.length];
+    private final List<Set<Card.Suit>> touchedSuits;
+
+    private VariantRules(GameConfig config) {
+        if (config.getMaxInfoTokens() > MAX_TOKENS || config.getInitialFuseTokens() > MAX_TOKENS) {
+            throw new IllegalArgumentException("Variants allow at most " + MAX_TOKENS + " info or fuse tokens");
+        }
+        if (config.getInitialInfoTokens() > config.getMaxInfoTokens()) {
+            throw new IllegalArgumentException("Initial info tokens cannot exceed max info tokens");
+        }
+        boolean extraSuit = config.isRainbowSuitEnabled() || config.isSixthSuitEnabled();
+        EnumSet<Card.Suit> inPlay = EnumSet.range(Card.Suit.WHITE, Card.Suit.RED);
+        if (extraSuit) inPlay.add(Card.Suit.MULTICOLOR);
+        this.suits = List.copyOf(inPlay);
+        this.rainbow = config.isRainbowSuitEnabled();
+        this.initialInfoTokens = config.getInitialInfoTokens();
+        this.maxInfoTokens = config.getMaxInfoTokens();
+        this.initialFuseTokens = config.getInitialFuseTokens();
+
+        int mask = 0;
+        int cards = 0;
+        for (Card.Suit suit : suits) {
+            mask |= 1 << suit.ordinal();
+            for (int rank = 1; rank <= Rules.MAX_RANK; rank++) {
+                cardCounts[index(suit, rank)] = Deck.RANK_COUNTS[rank - 1];
+                cards += Deck.RANK_COUNTS[rank - 1];
+            }
+        }
+        this.suitMask = mask;
+        this.deckSize = cards;
+
+        List<Set<Card.Suit>> touched = new ArrayList<>(ALL_SUITS.length);
+        for (Card.Suit colour : ALL_SUITS) {
+            int bits = 0;
+            if (isInPlay(colour) && !isRainbow(colour)) {
+                bits = 1 << colour.ordinal();
+                if (rainbow) bits |= 1 << Card.Suit.MULTICOLOR.ordinal();
+            }
+            touchedBy[colour.ordinal()] = bits;
+            EnumSet<Card.Suit> set = EnumSet.noneOf(Card.Suit.class);
+            for (Card.Suit suit : ALL_SUITS) {
+                if ((bits & 1 << suit.ordinal()) != 0) {
+                    set.add(suit);
+                    touching[suit.ordinal()] |= 1 << colour.ordinal();
+                }
+            }
+            touched.add(Collections.unmodifiableSet(set));
+        }
+        this.touchedSuits = List.copyOf(touched);
+    }
+
+    // Rules are compiled once per distinct configuration and shared
+    public static VariantRules of(GameConfig config) {
+        String key = config.getInitialInfoTokens() + "/" + config.getMaxInfoTokens() + "/" + config.getInitialFuseTokens()
+            + "/" + config.isRainbowSuitEnabled() + "/" + config.isSixthSuitEnabled();
+        return COMPILED.computeIfAbsent(key, k -> new VariantRules(config));
+    }
+
+    // A config that compiles to these rules
+    public GameConfig toConfig() {
+        return GameConfig.builder()
+            .initialInfoTokens(initialInfoTokens)
+            .maxInfoTokens(maxInfoTokens)
+            .initialFuseTokens(initialFuseTokens)
+            .enableRainbowSuit(rainbow)
+            .enableSixthSuit(!rainbow && isInPlay(Card.Suit.MULTICOLOR))
+            .build();
+    }
+
+    public List<Card.Suit> getSuits() {
+        return suits;
+    }
+
+    public int getSuitCount() {
+        return suits.size();
+    }
+
+    // Bit suit.ordinal() is set for each suit in play
+    public int getSuitMask() {
+        return suitMask;
+    }
+
+    public boolean isInPlay(Card.Suit suit) {
+        return (suitMask & 1 << suit.ordinal()) != 0;
+    }
+
+    public boolean isRainbow(Card.Suit suit) {
+        return rainbow && suit == Card.Suit.MULTICOLOR;
+    }
+
+    // Whether a colour clue may name this suit
+    public boolean canNameColour(Card.Suit colour) {
+        return touchedBy[colour.ordinal()] != 0;
+    }
+
+    public boolean touches(Card.Suit colour, Card.Suit cardSuit) {
+        return (touchedBy[colour.ordinal()] & 1 << cardSuit.ordinal()) != 0;
+    }
+
+    // Whether a clue of this type and value touches the card
+    public boolean touches(Player.Clue clue, Card card) {
+        if (clue.getType() == Player.ClueType.SUIT) {
+            return touches((Card.Suit) clue.getValue(), card.getSuit());
+        }
+        return card.getRank() == (Integer) clue.getValue();
+    }
+
+    public Set<Card.Suit> getSuitsTouchedBy(Card.Suit colour) {
+        return touchedSuits.get(colour.ordinal());
+    }
+
+    // Bit c is set for every colour c whose clue touches the suit
+    public int getColoursTouching(Card.Suit suit) {
+        return touching[suit.ordinal()];
+    }
+
+    public int getCardCount(Card.Suit suit, int rank) {
+        return cardCounts[index(suit, rank)];
+    }
+
+    public int getDeckSize() {
+        return deckSize;
+    }
+
+    public int getMaxScore() {
+        return suits.size() * Rules.MAX_RANK;
+    }
+
+    public int getInitialInfoTokens() {
+        return initialInfoTokens;
+    }
+
+    public int getMaxInfoTokens() {
+        return maxInfoTokens;
+    }
+
+    public int getInitialFuseTokens() {
+        return initialFuseTokens;
+    }
+
+    public int handSize(int playerCount) {
+        return Rules.handSize(playerCount);
+    }
+
+    private static int index(Card.Suit suit, int rank) {
+        return suit.ordinal() * Rules.MAX_RANK + rank - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "VariantRules" + suits + (rainbow ? " rainbow" : "") + " info " + initialInfoTokens + "/" + maxInfoTokens
+            + " fuses " + initialFuseTokens;
+    }
+}
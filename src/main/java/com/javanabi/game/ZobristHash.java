@@ -0,0 +1,198 @@
+package com.javanabi.game;
+
+import com.javanabi.domain.Card;
+import com.javanabi.game.state.GameState;
+import com.javanabi.util.CardKnowledge;
+import com.javanabi.util.KnowledgeView;
+
+import java.util.List;
+
+/**
+ * Zobrist hashes of a table, kept up to date by the GameEngine as actions are
+ * executed. Each component is an XOR of fixed random keys: cards by seat and
+ * slot, clue knowledge by seat and slot, pile heights, discard counts per card,
+ * tokens, seat to move, last-round marker and deck size. An action only
+ * re-keys what it touched.
+ *
+ * The full hash covers everything. A seat's information-set hash swaps that
+ * seat's own cards for its hand size, so two positions the seat cannot tell
+ * apart hash the same. Keys come from a fixed seed, so hashes are stable
+ * across runs.
+ */
+public final class ZobristHash {
+    private static final Card.Suit[] SUITS = Card.Suit.values();
+    private static final int MAX_SEATS = 5;
+    private static final int MAX_SLOTS = 6;
+    private static final int CARD_TYPES = SUITS.length * 5;
+    
+    private static final long[] CARD_KEYS;
+    private static final long[] HAND_SIZE_KEYS;
+    private static final long[] SUIT_KNOWLEDGE_KEYS;
+    private static final long[] RANK_KNOWLEDGE_KEYS;
+    private static final long[] PILE_KEYS;
+    private static final long[] DISCARD_KEYS;
+    private static final long[] INFO_KEYS;
+    private static final long[] FUSE_KEYS;
+    private static final long[] SEAT_KEYS;
+    private static final long[] FINAL_KEYS;
+    private static final long[] DECK_KEYS;
+    
+    static {
+        long[] state = {0x5A0B15L};
+        CARD_KEYS = keys(state, MAX_SEATS * MAX_SLOTS * CARD_TYPES);
+        HAND_SIZE_KEYS = keys(state, MAX_SEATS * (MAX_SLOTS + 1));
+        SUIT_KNOWLEDGE_KEYS = keys(state, MAX_SEATS * MAX_SLOTS << SUITS.length);
+        RANK_KNOWLEDGE_KEYS = keys(state, MAX_SEATS * MAX_SLOTS << 5);
+        PILE_KEYS = keys(state, SUITS.length * 6);
+        DISCARD_KEYS = keys(state, CARD_TYPES * 4);
+        INFO_KEYS = keys(state, VariantRules.MAX_TOKENS + 1);
+        FUSE_KEYS = keys(state, VariantRules.MAX_TOKENS + 1);
+        SEAT_KEYS = keys(state, MAX_SEATS);
+        FINAL_KEYS = keys(state, MAX_SEATS + 1);
+        DECK_KEYS = keys(state, CARD_TYPES * 2 + 1);
+    }
+    
+    private final int seats;
+    private final long[] handKeys;
+    private final int[] handSizes;
+    private final long[] knowledgeKeys;
+    private final int[] pileHeights = new int[SUITS.length];
+    private final int[] discardCounts = new int[CARD_TYPES];
+    private long publicKey;
+    private long fullKey;
+    
+    ZobristHash(GameState state, KnowledgeView knowledge, int seatToMove) {
+        List<String> players = state.getPlayers();
+        this.seats = players.size();
+        this.handKeys = new long[seats];
+        this.handSizes = new int[seats];
+        this.knowledgeKeys = new long[seats];
+        for (int seat = 0; seat < seats; seat++) {
+            handKeys[seat] = handKey(seat, state.getPlayerHand(players.get(seat)));
+            handSizes[seat] = state.getPlayerHandSize(players.get(seat));
+            knowledgeKeys[seat] = knowledgeKey(seat, knowledge.getHand(players.get(seat)));
+        }
+        long key = 0;
+        for (Card.Suit suit : state.getRules().getSuits()) {
+            pileHeights[suit.ordinal()] = state.getPlayedCards().get(suit).size();
+            key ^= PILE_KEYS[suit.ordinal() * 6 + pileHeights[suit.ordinal()]];
+            for (Card card : state.getDiscardedCards().get(suit)) {
+                discardCounts[cardType(card)]++;
+            }
+        }
+        for (int type = 0; type < CARD_TYPES; type++) {
+            key ^= DISCARD_KEYS[type * 4 + discardCounts[type]];
+        }
+        key ^= INFO_KEYS[state.getInfoTokens()];
+        key ^= FUSE_KEYS[state.getFuseTokens()];
+        key ^= SEAT_KEYS[seatToMove];
+        key ^= FINAL_KEYS[state.getFinalPlayerIndex() + 1];
+        key ^= DECK_KEYS[state.getDeckSize()];
+        this.publicKey = key;
+        recombine();
+    }
+    
+    // Hashes of the table as it stands, computed from scratch
+    public static ZobristHash compute(GameEngine game) {
+        return compute(game.getGameState(), game.getPublicKnowledge(), game.getCurrentPlayerIndex());
+    }
+    
+    public static ZobristHash compute(GameState state, KnowledgeView knowledge, int seatToMove) {
+        return new ZobristHash(state, knowledge, seatToMove);
+    }
+    
+    /*
+     * Called once per executed action. changedSeat is the seat whose hand and
+     * knowledge moved: the actor after a play or discard, the target after a
+     * clue. revealed is the played or discarded card, otherwise null.
+     */
+    void update(GameState before, GameState after, KnowledgeView knowledge, int changedSeat, Card revealed, boolean handChanged, int seatToMove, int previousSeat) {
+        String player = after.getPlayers().get(changedSeat);
+        if (handChanged) {
+            handKeys[changedSeat] = handKey(changedSeat, after.getPlayerHand(player));
+            handSizes[changedSeat] = after.getPlayerHandSize(player);
+        }
+        knowledgeKeys[changedSeat] = knowledgeKey(changedSeat, knowledge.getHand(player));
+        
+        if (revealed != null) {
+            int suit = revealed.getSuit().ordinal();
+            int height = after.getPlayedCards().get(revealed.getSuit()).size();
+            if (height != pileHeights[suit]) {
+                publicKey ^= PILE_KEYS[suit * 6 + pileHeights[suit]] ^ PILE_KEYS[suit * 6 + height];
+                pileHeights[suit] = height;
+            } else {
+                int type = cardType(revealed);
+                publicKey ^= DISCARD_KEYS[type * 4 + discardCounts[type]] ^ DISCARD_KEYS[type * 4 + discardCounts[type] + 1];
+                discardCounts[type]++;
+            }
+        }
+        if (before.getInfoTokens() != after.getInfoTokens()) {
+            publicKey ^= INFO_KEYS[before.getInfoTokens()] ^ INFO_KEYS[after.getInfoTokens()];
+        }
+        if (before.getFuseTokens() != after.getFuseTokens()) {
+            publicKey ^= FUSE_KEYS[before.getFuseTokens()] ^ FUSE_KEYS[after.getFuseTokens()];
+        }
+        if (before.getFinalPlayerIndex() != after.getFinalPlayerIndex()) {
+            publicKey ^= FINAL_KEYS[before.getFinalPlayerIndex() + 1] ^ FINAL_KEYS[after.getFinalPlayerIndex() + 1];
+        }
+        if (before.getDeckSize() != after.getDeckSize()) {
+            publicKey ^= DECK_KEYS[before.getDeckSize()] ^ DECK_KEYS[after.getDeckSize()];
+        }
+        publicKey ^= SEAT_KEYS[previousSeat] ^ SEAT_KEYS[seatToMove];
+        recombine();
+    }
+    
+    public long getFullHash() {
+        return fullKey;
+    }
+    
+    // What the given seat can see: everything but the identity of its own cards
+    public long getInformationSetHash(int seat) {
+        return fullKey ^ handKeys[seat] ^ HAND_SIZE_KEYS[seat * (MAX_SLOTS + 1) + handSizes[seat]];
+    }
+    
+    private void recombine() {
+        long key = publicKey;
+        for (int seat = 0; seat < seats; seat++) {
+            key ^= handKeys[seat] ^ knowledgeKeys[seat];
+        }
+        fullKey = key;
+    }
+    
+    private static long handKey(int seat, List<Card> hand) {
+        long key = 0;
+        for (int slot = 0; slot < hand.size(); slot++) {
+            Card card = hand.get(slot);
+            if (card != null) {
+                key ^= CARD_KEYS[(seat * MAX_SLOTS + slot) * CARD_TYPES + cardType(card)];
+            }
+        }
+        return key;
+    }
+    
+    private static long knowledgeKey(int seat, List<CardKnowledge> slots) {
+        long key = 0;
+        for (int slot = 0; slot < slots.size(); slot++) {
+            CardKnowledge knowledge = slots.get(slot);
+            int position = seat * MAX_SLOTS + slot;
+            key ^= SUIT_KNOWLEDGE_KEYS[position << SUITS.length | knowledge.getSuitMask()]
+                ^ RANK_KNOWLEDGE_KEYS[position << 5 | knowledge.getRankMask()];
+        }
+        return key;
+    }
+    
+    private static int cardType(Card card) {
+        return card.getSuit().ordinal() * 5 + card.getRank() - 1;
+    }
+    
+    private static long[] keys(long[] state, int count) {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            long z = (state[0] += 0x9E3779B97F4A7C15L);
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            keys[i] = z ^ (z >>> 31);
+        }
+        return keys;
+    }
+}
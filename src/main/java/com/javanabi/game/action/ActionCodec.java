@@ -0,0 +1,114 @@
+package com.javanabi.game.action;
+
+import com.javanabi.domain.Card;
+import com.javanabi.game.Player;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Packs a player's action into 16 bits so games can be logged and archived
+ * compactly. Clue targets are stored relative to the acting seat.
+ *
+ * bits 0-1  type (0 play, 1 discard, 2 clue)
+ * bits 2-4  hand index, or target seat offset (1-4) for clues
+ * bit  5    clue type (0 suit, 1 rank)
+ * bits 6-8  suit ordinal or rank
+ */
+public final class ActionCodec {
+    public static final int PLAY = 0;
+    public static final int DISCARD = 1;
+    public static final int CLUE = 2;
+    
+    private static final Card.Suit[] SUITS = Card.Suit.values();
+    
+    private ActionCodec() {
+    }
+    
+    public static int play(int handIndex) {
+        return PLAY | handIndex << 2;
+    }
+    
+    public static int discard(int handIndex) {
+        return DISCARD | handIndex << 2;
+    }
+    
+    public static int suitClue(int targetOffset, Card.Suit suit) {
+        return CLUE | targetOffset << 2 | suit.ordinal() << 6;
+    }
+    
+    public static int rankClue(int targetOffset, int rank) {
+        return CLUE | targetOffset << 2 | 1 << 5 | rank << 6;
+    }
+    
+    public static int encode(Action action, int actorSeat, List<String> players) {
+        return action.accept(new Action.ActionVisitor<Integer>() {
+            @Override
+            public Integer visit(GiveInfoAction giveInfoAction) {
+                int target = players.indexOf(giveInfoAction.getTargetPlayer());
+                if (target < 0) {
+                    throw new IllegalArgumentException("Unknown clue target " + giveInfoAction.getTargetPlayer());
+                }
+                int offset = Math.floorMod(target - actorSeat, players.size());
+                Player.Clue clue = giveInfoAction.getClue();
+                if (clue.getType() == Player.ClueType.SUIT) {
+                    return suitClue(offset, (Card.Suit) clue.getValue());
+                }
+                return rankClue(offset, (Integer) clue.getValue());
+            }
+            
+            @Override
+            public Integer visit(PlayCardAction playCardAction) {
+                return play(playCardAction.getHandIndex());
+            }
+            
+            @Override
+            public Integer visit(DiscardCardAction discardCardAction) {
+                return discard(discardCardAction.getHandIndex());
+            }
+            
+            @Override
+            public Integer visit(DrawCardAction drawCardAction) {
+                throw new IllegalArgumentException("Draws are not player actions");
+            }
+        });
+    }
+    
+    public static Action decode(int code, int actorSeat, List<String> players) {
+        switch (type(code)) {
+            case PLAY:
+                return new PlayCardAction(handIndex(code));
+            case DISCARD:
+                return new DiscardCardAction(handIndex(code));
+            case CLUE:
+                String target = players.get((actorSeat + targetOffset(code)) % players.size());
+                // The engine works out which cards the clue touches
+                Player.Clue clue = isRankClue(code)
+                    ? new Player.Clue(Player.ClueType.RANK, clueValue(code), Collections.emptyList())
+                    : new Player.Clue(Player.ClueType.SUIT, SUITS[clueValue(code)], Collections.emptyList());
+                return new GiveInfoAction(target, clue);
+            default:
+                throw new IllegalArgumentException("Invalid action code " + code);
+        }
+    }
+    
+    public static int type(int code) {
+        return code & 0x3;
+    }
+    
+    public static int handIndex(int code) {
+        return (code >>> 2) & 0x7;
+    }
+    
+    public static int targetOffset(int code) {
+        return (code >>> 2) & 0x7;
+    }
+    
+    public static boolean isRankClue(int code) {
+        return (code & 1 << 5) != 0;
+    }
+    
+    public static int clueValue(int code) {
+        return (code >>> 6) & 0x7;
+    }
+}
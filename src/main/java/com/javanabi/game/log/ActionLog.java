@@ -0,0 +1,487 @@
+package com.javanabi.game.log;
+
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameListener;
+import com.javanabi.game.GameTable;
+import com.javanabi.game.Player;
+import com.javanabi.game.action.Action;
+import com.javanabi.game.action.ActionCodec;
+import com.javanabi.util.GameConfig;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of every table's seed, seats and actions, shared by all tables
+ * in the process. Appends go into an in-memory batch; a flusher thread writes
+ * and fsyncs whole batches (group commit), so thousands of tables cost one
+ * fsync per flush interval rather than one per action.
+ *
+ * Each record is framed as [int length][int crc32][payload] so a torn write at
+ * the tail is detected and dropped on recovery. A table's OPEN record ends with
+ * its rules: variant flags, initial and max info tokens, and fuse tokens.
+ * A table ends with a CLOSE record when its game is over, or an ABANDON record
+ * when it stops early; either way it is not recovered.
+ *
+ * The log is a directory of numbered segments. Once a segment reaches its size
+ * limit the flusher starts the next one, and deletes the oldest segments whose
+ * tables have all finished, so the log and the recovery scan stay bounded by
+ * the tables still in play rather than by every table ever logged.
+ */
+public final class ActionLog implements Closeable {
+    static final byte OPEN = 1;
+    static final byte ACTION = 2;
+    static final byte CLOSE = 3;
+    static final byte ABANDON = 4;
+    static final int FLAG_RAINBOW = 1;
+    static final int FLAG_SIXTH_SUIT = 2;
+    
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+    private static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.log");
+    
+    private final Path directory;
+    private final long segmentBytes;
+    private FileChannel channel;
+    private long channelSize;
+    private final long flushIntervalNanos;
+    private final boolean waitForSync;
+    private final Object lock = new Object();
+    private final Thread flusher;
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer writing = ByteBuffer.allocate(64 * 1024);
+    private long pendingBatch = 1;
+    private long durableBatch;
+    // The segment the pending batch will be written to, and the segment holding each unfinished table's header
+    private long pendingSegment;
+    private final Map<Long, Long> openTables = new HashMap<>();
+    private boolean closed;
+    private IOException failure;
+    
+    /**
+     * @param directory holds the log's segments; created if missing
+     * @param flushIntervalMillis how long the flusher gathers appends before each fsync
+     * @param waitForSync whether appends block until their batch is on disk
+     */
+    public ActionLog(Path directory, long flushIntervalMillis, boolean waitForSync) throws IOException {
+        this(directory, flushIntervalMillis, waitForSync, DEFAULT_SEGMENT_BYTES);
+    }
+    
+    public ActionLog(Path directory, long flushIntervalMillis, boolean waitForSync, long segmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Map<Long, LoggedTable> tables = new LinkedHashMap<>();
+        List<Long> segments = segments(directory);
+        for (long segment : segments) {
+            long validLength = scan(segmentPath(directory, segment), segment, tables);
+            // Drop any torn record left by a crash so the segment stays readable
+            try (FileChannel torn = FileChannel.open(segmentPath(directory, segment), StandardOpenOption.WRITE)) {
+                if (torn.size() > validLength) torn.truncate(validLength);
+            }
+        }
+        for (LoggedTable table : tables.values()) {
+            openTables.put(table.getTableId(), table.getSegment());
+        }
+        // Each process appends to a fresh segment
+        this.pendingSegment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1;
+        this.channel = openSegment(pendingSegment);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.waitForSync = waitForSync;
+        this.flusher = new Thread(this::flushLoop, "action-log-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+    
+    // Returns the tables that were still in progress when the log was last written; their
+    // segments are kept until they are resumed and finish
+    public static List<LoggedTable> recover(Path directory) throws IOException {
+        Map<Long, LoggedTable> tables = new LinkedHashMap<>();
+        if (Files.isDirectory(directory)) {
+            for (long segment : segments(directory)) {
+                scan(segmentPath(directory, segment), segment, tables);
+            }
+        }
+        return new ArrayList<>(tables.values());
+    }
+    
+    // Number of segment files currently on disk
+    public static int segmentCount(Path directory) throws IOException {
+        return Files.isDirectory(directory) ? segments(directory).size() : 0;
+    }
+    
+    // Writes the table's seed, seats and rules, then logs each action it executes
+    public void record(GameTable table) {
+        GameEngine game = table.getGame();
+        List<Player> players = game.getPlayers();
+        GameConfig config = game.getRules().toConfig();
+        int size = 1 + 8 + 8 + 1 + 4;
+        byte[][] classNames = new byte[players.size()][];
+        byte[][] playerNames = new byte[players.size()][];
+        for (int i = 0; i < players.size(); i++) {
+            classNames[i] = players.get(i).getClass().getSimpleName().getBytes(StandardCharsets.UTF_8);
+            playerNames[i] = players.get(i).getName().getBytes(StandardCharsets.UTF_8);
+            size += 4 + classNames[i].length + playerNames[i].length;
+        }
+        long batch;
+        synchronized (lock) {
+            if (openTables.containsKey(table.getId())) {
+                throw new IllegalArgumentException("Table " + table.getId() + " is already open in the action log");
+            }
+            ByteBuffer buffer = begin(size);
+            openTables.put(table.getId(), pendingSegment);
+            buffer.put(OPEN).putLong(table.getId()).putLong(game.getSeed()).put((byte) players.size());
+            for (int i = 0; i < players.size(); i++) {
+                buffer.putShort((short) classNames[i].length).put(classNames[i]);
+                buffer.putShort((short) playerNames[i].length).put(playerNames[i]);
+            }
+            buffer.put((byte) ((config.isRainbowSuitEnabled() ? FLAG_RAINBOW : 0) | (config.isSixthSuitEnabled() ? FLAG_SIXTH_SUIT : 0)))
+                .put((byte) config.getInitialInfoTokens())
+                .put((byte) config.getMaxInfoTokens())
+                .put((byte) config.getInitialFuseTokens());
+            batch = end(buffer, size);
+        }
+        awaitIfNeeded(batch);
+        resume(table, 0);
+    }
+    
+    // Continues logging a table rebuilt from this log without writing its header again
+    public void resume(GameTable table, int nextTurn) {
+        synchronized (lock) {
+            openTables.putIfAbsent(table.getId(), pendingSegment);
+        }
+        table.getGame().addListener(new TableLogger(table.getId(), nextTurn));
+    }
+    
+    private void appendAction(long tableId, int turn, int code) {
+        long batch;
+        synchronized (lock) {
+            ByteBuffer buffer = begin(15);
+            buffer.put(ACTION).putLong(tableId).putInt(turn).putShort((short) code);
+            batch = end(buffer, 15);
+        }
+        awaitIfNeeded(batch);
+    }
+    
+    private void appendClose(long tableId, int score) {
+        long batch;
+        synchronized (lock) {
+            ByteBuffer buffer = begin(10);
+            buffer.put(CLOSE).putLong(tableId).put((byte) score);
+            batch = end(buffer, 10);
+            openTables.remove(tableId);
+        }
+        awaitIfNeeded(batch);
+    }
+    
+    private void appendAbandon(long tableId) {
+        long batch;
+        synchronized (lock) {
+            ByteBuffer buffer = begin(9);
+            buffer.put(ABANDON).putLong(tableId);
+            batch = end(buffer, 9);
+            openTables.remove(tableId);
+        }
+        awaitIfNeeded(batch);
+    }
+    
+    // Blocks until everything appended so far is on disk
+    public void sync() throws IOException {
+        long batch;
+        synchronized (lock) {
+            batch = pending.position() > 0 ? pendingBatch : pendingBatch - 1;
+            lock.notifyAll();
+        }
+        await(batch);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        sync();
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        long retainFrom;
+        synchronized (lock) {
+            retainFrom = oldestLiveSegment();
+        }
+        deleteSegmentsBefore(retainFrom);
+    }
+    
+    private ByteBuffer begin(int payloadSize) {
+        if (closed) {
+            throw new IllegalStateException("Action log is closed");
+        }
+        if (pending.remaining() < HEADER_SIZE + payloadSize) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + HEADER_SIZE + payloadSize));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+        pending.putInt(payloadSize).putInt(0);
+        return pending;
+    }
+    
+    private long end(ByteBuffer buffer, int payloadSize) {
+        int payloadStart = buffer.position() - payloadSize;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(payloadStart).limit(buffer.position()));
+        buffer.putInt(payloadStart - 4, (int) crc.getValue());
+        lock.notifyAll();
+        return pendingBatch;
+    }
+    
+    private void awaitIfNeeded(long batch) {
+        if (!waitForSync) return;
+        try {
+            await(batch);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void await(long batch) throws IOException {
+        synchronized (lock) {
+            while (durableBatch < batch && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted waiting for the action log", e);
+                }
+            }
+            if (failure != null) throw failure;
+        }
+    }
+    
+    private void flushLoop() {
+        while (true) {
+            long batch;
+            synchronized (lock) {
+                while (pending.position() == 0 && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending.position() == 0 && closed) return;
+            }
+            // Let other tables join this batch
+            if (flushIntervalNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(flushIntervalNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            ByteBuffer batchBuffer;
+            boolean roll = false;
+            long retainFrom = 0;
+            synchronized (lock) {
+                batchBuffer = pending;
+                pending = writing;
+                writing = batchBuffer;
+                batch = pendingBatch++;
+                if (channelSize + batchBuffer.position() >= segmentBytes) {
+                    // Later appends go to the next segment; older ones can go once their tables have finished
+                    roll = true;
+                    pendingSegment++;
+                    retainFrom = oldestLiveSegment();
+                }
+            }
+            try {
+                batchBuffer.flip();
+                channelSize += batchBuffer.remaining();
+                while (batchBuffer.hasRemaining()) {
+                    channel.write(batchBuffer);
+                }
+                channel.force(false);
+                batchBuffer.clear();
+                if (roll) {
+                    channel.close();
+                    channel = openSegment(pendingSegment);
+                    channelSize = 0;
+                    deleteSegmentsBefore(retainFrom);
+                }
+                synchronized (lock) {
+                    durableBatch = batch;
+                    lock.notifyAll();
+                }
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+        }
+    }
+    
+    // The oldest segment an unfinished table still needs; call with the lock held
+    private long oldestLiveSegment() {
+        long oldest = pendingSegment;
+        for (long segment : openTables.values()) {
+            oldest = Math.min(oldest, segment);
+        }
+        return oldest;
+    }
+    
+    private void deleteSegmentsBefore(long retainFrom) throws IOException {
+        for (long segment : segments(directory)) {
+            if (segment < retainFrom) Files.deleteIfExists(segmentPath(directory, segment));
+        }
+    }
+    
+    private FileChannel openSegment(long segment) throws IOException {
+        return FileChannel.open(segmentPath(directory, segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+    }
+    
+    private static Path segmentPath(Path directory, long segment) {
+        return directory.resolve(String.format("segment-%010d.log", segment));
+    }
+    
+    // Segment numbers in the directory, oldest first
+    private static List<Long> segments(Path directory) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) segments.add(Long.parseLong(matcher.group(1)));
+            });
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+    
+    // Streams one segment's complete records into tables and returns the length of its valid prefix
+    private static long scan(Path path, long segment, Map<Long, LoggedTable> tables) throws IOException {
+        long validLength = 0;
+        CRC32 crc = new CRC32();
+        byte[] payload = new byte[256];
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024))) {
+            while (true) {
+                int length;
+                int checksum;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_SIZE) {
+                        return validLength;
+                    }
+                    if (payload.length < length) {
+                        payload = new byte[Math.max(length, payload.length * 2)];
+                    }
+                    in.readFully(payload, 0, length);
+                } catch (EOFException e) {
+                    return validLength;
+                }
+                crc.reset();
+                crc.update(payload, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    return validLength;
+                }
+                apply(ByteBuffer.wrap(payload, 0, length), segment, tables);
+                validLength += HEADER_SIZE + length;
+            }
+        }
+    }
+    
+    // Only unfinished tables are kept, so memory follows the tables still in play
+    private static void apply(ByteBuffer record, long segment, Map<Long, LoggedTable> tables) {
+        byte type = record.get();
+        long tableId = record.getLong();
+        switch (type) {
+            case OPEN:
+                long seed = record.getLong();
+                int seats = record.get();
+                List<String> classNames = new ArrayList<>(seats);
+                List<String> playerNames = new ArrayList<>(seats);
+                for (int i = 0; i < seats; i++) {
+                    classNames.add(readString(record));
+                    playerNames.add(readString(record));
+                }
+                int flags = record.get();
+                GameConfig config = GameConfig.builder()
+                    .enableRainbowSuit((flags & FLAG_RAINBOW) != 0)
+                    .enableSixthSuit((flags & FLAG_SIXTH_SUIT) != 0)
+                    .initialInfoTokens(record.get())
+                    .maxInfoTokens(record.get())
+                    .initialFuseTokens(record.get())
+                    .build();
+                tables.put(tableId, new LoggedTable(tableId, seed, config, classNames, playerNames, segment));
+                break;
+            case ACTION:
+                LoggedTable table = tables.get(tableId);
+                int turn = record.getInt();
+                // Ignore actions for tables whose header was lost, and duplicates
+                if (table != null && turn == table.getActionCount()) {
+                    table.addAction(record.getShort() & 0xFFFF);
+                }
+                break;
+            case CLOSE:
+            case ABANDON:
+                LoggedTable closed = tables.remove(tableId);
+                if (closed != null) closed.close();
+                break;
+            default:
+                break;
+        }
+    }
+    
+    private static String readString(ByteBuffer record) {
+        byte[] bytes = new byte[record.getShort()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private final class TableLogger implements GameListener {
+        private final long tableId;
+        private int turn;
+        
+        TableLogger(long tableId, int turn) {
+            this.tableId = tableId;
+            this.turn = turn;
+        }
+        
+        @Override
+        public void actionExecuted(GameEngine game, int seat, Action action) {
+            appendAction(tableId, turn++, ActionCodec.encode(action, seat, game.getGameState().getPlayers()));
+        }
+        
+        @Override
+        public void gameEnded(GameEngine game) {
+            appendClose(tableId, game.getScore());
+        }
+        
+        @Override
+        public void gameAbandoned(GameEngine game) {
+            appendAbandon(tableId);
+        }
+    }
+}
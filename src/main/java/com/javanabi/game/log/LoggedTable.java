@@ -0,0 +1,107 @@
+package com.javanabi.game.log;
+
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameTable;
+import com.javanabi.game.Player;
+import com.javanabi.game.PlayerFactory;
+import com.javanabi.game.action.ActionCodec;
+import com.javanabi.util.GameConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A table as read back from an ActionLog: enough to deal the same deck under
+ * the same rules and replay every logged action through the engine.
+ */
+public final class LoggedTable {
+    private final long tableId;
+    private final long seed;
+    private final GameConfig config;
+    private final List<String> classNames;
+    private final List<String> playerNames;
+    // The log segment holding this table's header
+    private final long segment;
+    private int[] actions = new int[64];
+    private int actionCount;
+    private boolean closed;
+    
+    LoggedTable(long tableId, long seed, GameConfig config, List<String> classNames, List<String> playerNames, long segment) {
+        this.tableId = tableId;
+        this.segment = segment;
+        this.seed = seed;
+        this.config = config;
+        this.classNames = Collections.unmodifiableList(classNames);
+        this.playerNames = Collections.unmodifiableList(playerNames);
+    }
+    
+    void addAction(int code) {
+        if (actionCount == actions.length) {
+            actions = Arrays.copyOf(actions, actionCount * 2);
+        }
+        actions[actionCount++] = code;
+    }
+    
+    void close() {
+        closed = true;
+    }
+    
+    // Recreates the seats through the player factory and replays the logged actions
+    public GameTable rebuild(PlayerFactory playerFactory) {
+        List<Player> players = new ArrayList<>(classNames.size());
+        for (int i = 0; i < classNames.size(); i++) {
+            players.add(playerFactory.create(classNames.get(i), playerNames.get(i)));
+        }
+        return rebuild(players);
+    }
+    
+    // Replays the logged actions with the given players, e.g. reconnected humans
+    public GameTable rebuild(List<Player> players) {
+        GameEngine game = new GameEngine(players, config, seed);
+        for (int i = 0; i < actionCount; i++) {
+            int seat = game.getCurrentPlayerIndex();
+            if (!game.executeAction(ActionCodec.decode(actions[i], seat, game.getGameState().getPlayers()))) {
+                throw new IllegalStateException("Logged action " + i + " of table " + tableId + " was rejected on replay");
+            }
+        }
+        return new GameTable(tableId, game);
+    }
+    
+    public long getTableId() {
+        return tableId;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    public GameConfig getConfig() {
+        return config;
+    }
+    
+    public List<String> getClassNames() {
+        return classNames;
+    }
+    
+    public List<String> getPlayerNames() {
+        return playerNames;
+    }
+    
+    public int getActionCount() {
+        return actionCount;
+    }
+    
+    public int getAction(int turn) {
+        return actions[turn];
+    }
+    
+    long getSegment() {
+        return segment;
+    }
+    
+    public boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,58 @@
+package com.javanabi.game.spectator;
+
+/**
+ * A read cursor over a SpectatorFeed. Each spectator connection owns one and
+ * drains it at its own pace. A spectator that falls more than the feed capacity
+ * behind is handed the latest snapshot instead of the events it missed.
+ */
+public final class Spectator {
+    private final SpectatorFeed feed;
+    private long cursor;
+    private long lagCount;
+
+    Spectator(SpectatorFeed feed, long cursor) {
+        this.feed = feed;
+        this.cursor = cursor;
+    }
+
+    // returns the next event, or null if the spectator is caught up
+    public SpectatorEvent poll() {
+        long published = feed.getPublishedCount();
+        if (cursor >= published) {
+            return null;
+        }
+        if (published - cursor > feed.getCapacity()) {
+            return catchUp();
+        }
+        SpectatorEvent event = feed.read(cursor);
+        if (event == null) {
+            // overwritten while we were reading it
+            return catchUp();
+        }
+        cursor++;
+        return event;
+    }
+
+    public boolean hasNext() {
+        return cursor < feed.getPublishedCount();
+    }
+
+    public long getLag() {
+        return Math.max(0, feed.getPublishedCount() - cursor);
+    }
+
+    public boolean isLagging() {
+        return getLag() > feed.getCapacity();
+    }
+
+    public long getLagCount() {
+        return lagCount;
+    }
+
+    private SpectatorEvent catchUp() {
+        lagCount++;
+        SpectatorEvent latest = feed.latest();
+        cursor = latest.getSequence() + 1;
+        return latest.asSnapshot();
+    }
+}
@@ -0,0 +1,48 @@
+package com.javanabi.game.spectator;
+
+import com.javanabi.game.action.Action;
+import com.javanabi.game.state.GameState;
+
+public final class SpectatorEvent {
+    private final long sequence;
+    private final String playerName;
+    private final Action action;
+    private final GameState state;
+    private final boolean snapshot;
+
+    SpectatorEvent(long sequence, String playerName, Action action, GameState state, boolean snapshot) {
+        this.sequence = sequence;
+        this.playerName = playerName;
+        this.action = action;
+        this.state = state;
+        this.snapshot = snapshot;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    // null for the initial deal
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    // null for the initial deal
+    public Action getAction() {
+        return action;
+    }
+
+    public GameState getState() {
+        return state;
+    }
+
+    // true when this event was handed out to catch up a lagging spectator,
+    // meaning the events between the previous one and this one were skipped
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    SpectatorEvent asSnapshot() {
+        return snapshot ? this : new SpectatorEvent(sequence, playerName, action, state, true);
+    }
+}
@@ -0,0 +1,65 @@
+package com.javanabi.game.spectator;
+
+import com.javanabi.game.action.Action;
+import com.javanabi.game.state.GameState;
+
+/**
+ * Single-writer ring buffer of game updates. The game thread publishes each
+ * resulting GameState exactly once; every spectator reads the same immutable
+ * events through its own cursor, so adding watchers costs nothing on the game thread.
+ */
+public final class SpectatorFeed {
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final SpectatorEvent[] ring;
+    private final int mask;
+    // number of events published so far; written only by the game thread
+    private volatile long published;
+
+    public SpectatorFeed() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SpectatorFeed(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+        this.ring = new SpectatorEvent[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public void publish(String playerName, Action action, GameState state) {
+        long sequence = published;
+        ring[(int) (sequence & mask)] = new SpectatorEvent(sequence, playerName, action, state, false);
+        published = sequence + 1;
+    }
+
+    public Spectator subscribe() {
+        return new Spectator(this, Math.max(0, published - 1));
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    public long getPublishedCount() {
+        return published;
+    }
+
+    SpectatorEvent latest() {
+        long end = published;
+        if (end == 0) return null;
+        SpectatorEvent event = ring[(int) ((end - 1) & mask)];
+        // the slot may already hold a newer event, which is just as good for catching up
+        return event;
+    }
+
+    // returns the event at sequence, or null if it has been overwritten
+    SpectatorEvent read(long sequence) {
+        SpectatorEvent event = ring[(int) (sequence & mask)];
+        if (event == null || event.getSequence() != sequence) {
+            return null;
+        }
+        return event;
+    }
+}
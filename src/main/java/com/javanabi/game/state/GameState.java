@@ -1,6 +1,8 @@
 package com.javanabi.game.state;
 
 import com.javanabi.domain.Card;
+import com.javanabi.game.Rules;
+import com.javanabi.game.VariantRules;
 
 import java.util.*;
 
@@ -14,17 +16,28 @@ public final class GameState {
     private final List<String> players;
     private final int finalPlayerIndex;
     private final int deckSize;
+    private final VariantRules rules;
     
     private GameState(Builder builder) {
         this.hands = Collections.unmodifiableMap(new HashMap<>(builder.hands));
-        this.playedCards = Collections.unmodifiableMap(new HashMap<>(builder.playedCards));
-        this.discardedCards = Collections.unmodifiableMap(new HashMap<>(builder.discardedCards));
+        this.playedCards = unmodifiablePiles(builder.playedCards);
+        this.discardedCards = unmodifiablePiles(builder.discardedCards);
         this.infoTokens = builder.infoTokens;
         this.fuseTokens = builder.fuseTokens;
         this.currentPlayerIndex = builder.currentPlayerIndex;
         this.players = Collections.unmodifiableList(new ArrayList<>(builder.players));
         this.finalPlayerIndex = builder.finalPlayerIndex;
         this.deckSize = builder.deckSize;
+        this.rules = builder.rules;
+    }
+    
+    // States are published to spectators, so the per-suit lists are read-only as well
+    private static Map<Card.Suit, List<Card>> unmodifiablePiles(Map<Card.Suit, List<Card>> piles) {
+        Map<Card.Suit, List<Card>> copy = new HashMap<>();
+        for (Map.Entry<Card.Suit, List<Card>> entry : piles.entrySet()) {
+            copy.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(copy);
     }
     
     public static Builder builder() {
@@ -32,19 +45,24 @@ public final class GameState {
     }
     
     public static GameState initialGameState(List<String> players) {
+        return initialGameState(players, VariantRules.STANDARD);
+    }
+    
+    public static GameState initialGameState(List<String> players, VariantRules rules) {
         Builder builder = new Builder();
         builder.players = players;
-        builder.infoTokens = 8;
-        builder.fuseTokens = 3;
+        builder.infoTokens = rules.getInitialInfoTokens();
+        builder.fuseTokens = rules.getInitialFuseTokens();
         builder.currentPlayerIndex = 0;
         builder.finalPlayerIndex = -1;
-        builder.deckSize = 50;
+        builder.deckSize = rules.getDeckSize();
+        builder.rules = rules;
         
         for (String player : players) {
             builder.hands.put(player, new ArrayList<>());
         }
         
-        for (Card.Suit suit : Card.Suit.values()) {
+        for (Card.Suit suit : rules.getSuits()) {
             builder.playedCards.put(suit, new ArrayList<>());
             builder.discardedCards.put(suit, new ArrayList<>());
         }
@@ -56,7 +74,7 @@ public final class GameState {
         StringBuilder sb = new StringBuilder();
         sb.append("Cards in Deck: " + deckSize + "\n");
         sb.append("Cards Played:\n");
-        for (Card.Suit s:Card.Suit.values()) {
+        for (Card.Suit s:rules.getSuits()) {
             int size = playedCards.get(s).size();
             if (size > 0) {
                 sb.append("\t" + s);
@@ -68,16 +86,17 @@ public final class GameState {
         }
         sb.append("Cards Discarded:\n");
         //separate into suits
-        for (Card.Suit s:Card.Suit.values()) {
+        for (Card.Suit s:rules.getSuits()) {
             sb.append("\t" + s + ":");
-            Collections.sort(discardedCards.get(s), new Comparator<Card>() {
+            List<Card> discards = new ArrayList<>(discardedCards.get(s));
+            Collections.sort(discards, new Comparator<Card>() {
                 @Override
                 public int compare(Card arg0, Card arg1) {
                     return arg0.getRank() - arg1.getRank();
                 }
 
             });
-            for (Card c: discardedCards.get(s)) {
+            for (Card c: discards) {
                 sb.append(" " + c.getRank());
             }
             sb.append("\n");
@@ -125,6 +144,7 @@ public final class GameState {
             .fuseTokens(fuseTokens)
             .finalPlayerIndex(finalPlayerIndex)
             .deckSize(deckSize)
+            .rules(rules)
             .build();
     }
     
@@ -138,7 +158,7 @@ public final class GameState {
 
     public List<Card> getPlayableCards() {
         List<Card>ret = new ArrayList<Card>();
-        for (Card.Suit s :Card.Suit.values()) {
+        for (Card.Suit s :rules.getSuits()) {
             int maxPlayed = playedCards.get(s).size();
             if (maxPlayed < 5) ret.add(new Card(s,maxPlayed+1));
         }
@@ -146,6 +166,11 @@ public final class GameState {
     }
 
     
+    // The variant being played; its suits are the keys of the pile maps
+    public VariantRules getRules() {
+        return rules;
+    }
+    
     public int getInfoTokens() {
         return infoTokens;
     }
@@ -172,7 +197,7 @@ public final class GameState {
     }
 
     public boolean isGameOver() {
-        return fuseTokens == 0 || (deckSize == 0 && currentPlayerIndex == finalPlayerIndex);
+        return Rules.isGameOver(fuseTokens, deckSize, currentPlayerIndex, finalPlayerIndex);
     }
     
     public int getDeckSize() {
@@ -202,12 +227,13 @@ public final class GameState {
         private Map<String, List<Card>> hands = new HashMap<>();
         private Map<Card.Suit, List<Card>> playedCards = new HashMap<>();
         private Map<Card.Suit, List<Card>> discardedCards = new HashMap<>();
-        private int infoTokens = 8;
-        private int fuseTokens = 3;
+        private int infoTokens = Rules.MAX_INFO_TOKENS;
+        private int fuseTokens = Rules.FUSE_TOKENS;
         private int currentPlayerIndex = 0;
         private List<String> players = new ArrayList<>();
         private int finalPlayerIndex = -1;
         private int deckSize = 50;
+        private VariantRules rules = VariantRules.STANDARD;
         
         public Builder hands(Map<String, List<Card>> hands) {
             this.hands = hands;
@@ -254,6 +280,11 @@ public final class GameState {
             return this;
         }
         
+        public Builder rules(VariantRules rules) {
+            this.rules = rules;
+            return this;
+        }
+        
         public GameState build() {
             return new GameState(this);
         }
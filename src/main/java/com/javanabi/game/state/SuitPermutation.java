@@ -0,0 +1,138 @@
+package com.javanabi.game.state;
+
+import com.javanabi.domain.Card;
+import com.javanabi.game.Player;
+import com.javanabi.game.action.Action;
+import com.javanabi.game.action.ActionCodec;
+import com.javanabi.game.action.DiscardCardAction;
+import com.javanabi.game.action.DrawCardAction;
+import com.javanabi.game.action.GiveInfoAction;
+import com.javanabi.game.action.PlayCardAction;
+
+import java.util.Arrays;
+
+/**
+ * A renaming of the suits, from the suits of a real state to those of its
+ * canonical form and back. Only suit clues are affected when actions are mapped.
+ */
+public final class SuitPermutation {
+    private static final Card.Suit[] SUITS = Card.Suit.values();
+    
+    private final int[] toCanonical;
+    private final int[] fromCanonical;
+    
+    // toCanonical[s] is the canonical ordinal of the suit with ordinal s
+    SuitPermutation(int[] toCanonical) {
+        this.toCanonical = toCanonical.clone();
+        this.fromCanonical = new int[toCanonical.length];
+        for (int suit = 0; suit < toCanonical.length; suit++) {
+            fromCanonical[toCanonical[suit]] = suit;
+        }
+    }
+    
+    public static SuitPermutation identity() {
+        int[] identity = new int[SUITS.length];
+        for (int suit = 0; suit < identity.length; suit++) identity[suit] = suit;
+        return new SuitPermutation(identity);
+    }
+    
+    public boolean isIdentity() {
+        for (int suit = 0; suit < toCanonical.length; suit++) {
+            if (toCanonical[suit] != suit) return false;
+        }
+        return true;
+    }
+    
+    public Card.Suit toCanonical(Card.Suit suit) {
+        return SUITS[toCanonical[suit.ordinal()]];
+    }
+    
+    public Card.Suit fromCanonical(Card.Suit suit) {
+        return SUITS[fromCanonical[suit.ordinal()]];
+    }
+    
+    public int toCanonical(int suitOrdinal) {
+        return toCanonical[suitOrdinal];
+    }
+    
+    public int fromCanonical(int suitOrdinal) {
+        return fromCanonical[suitOrdinal];
+    }
+    
+    // Suit masks as used by CardKnowledge.getSuitMask
+    public int suitMaskToCanonical(int mask) {
+        int mapped = 0;
+        for (int suit = 0; suit < toCanonical.length; suit++) {
+            if ((mask & 1 << suit) != 0) mapped |= 1 << toCanonical[suit];
+        }
+        return mapped;
+    }
+    
+    public int actionToCanonical(int code) {
+        return mapClue(code, toCanonical);
+    }
+    
+    public int actionFromCanonical(int code) {
+        return mapClue(code, fromCanonical);
+    }
+    
+    public Action actionToCanonical(Action action) {
+        return mapClue(action, toCanonical);
+    }
+    
+    public Action actionFromCanonical(Action action) {
+        return mapClue(action, fromCanonical);
+    }
+    
+    private static int mapClue(int code, int[] mapping) {
+        if (ActionCodec.type(code) != ActionCodec.CLUE || ActionCodec.isRankClue(code)) return code;
+        return ActionCodec.suitClue(ActionCodec.targetOffset(code), SUITS[mapping[ActionCodec.clueValue(code)]]);
+    }
+    
+    private static Action mapClue(Action action, int[] mapping) {
+        return action.accept(new Action.ActionVisitor<Action>() {
+            @Override
+            public Action visit(GiveInfoAction giveInfoAction) {
+                Player.Clue clue = giveInfoAction.getClue();
+                if (clue.getType() != Player.ClueType.SUIT) return giveInfoAction;
+                Card.Suit suit = SUITS[mapping[((Card.Suit) clue.getValue()).ordinal()]];
+                return new GiveInfoAction(giveInfoAction.getTargetPlayer(), new Player.Clue(Player.ClueType.SUIT, suit, clue.getCardIndices()));
+            }
+            
+            @Override
+            public Action visit(PlayCardAction playCardAction) {
+                return playCardAction;
+            }
+            
+            @Override
+            public Action visit(DiscardCardAction discardCardAction) {
+                return discardCardAction;
+            }
+            
+            @Override
+            public Action visit(DrawCardAction drawCardAction) {
+                return drawCardAction;
+            }
+        });
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof SuitPermutation && Arrays.equals(toCanonical, ((SuitPermutation) o).toCanonical);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toCanonical);
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int suit = 0; suit < toCanonical.length; suit++) {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(SUITS[suit]).append("->").append(SUITS[toCanonical[suit]]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,122 @@
+package com.javanabi.game.state;
+
+import com.javanabi.domain.Card;
+import com.javanabi.game.VariantRules;
+import com.javanabi.util.CardKnowledge;
+import com.javanabi.util.KnowledgeView;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Canonical suit ordering for states that differ only by a renaming of the
+ * suits. Each suit gets a signature listing everything about it: pile height,
+ * discards by rank, the rank of each visible card of that suit by seat and
+ * slot, and whether each slot could still be that suit. Sorting the suits by
+ * signature gives the canonical order. Suits with equal signatures can be
+ * swapped without changing the state, so any order between them is canonical.
+ *
+ * A player's view works too: its hidden cards are null and contribute only
+ * through clue knowledge, so the result is a canonical information set.
+ */
+public final class SuitSymmetry {
+    private static final Card.Suit[] SUITS = Card.Suit.values();
+    
+    private SuitSymmetry() {
+    }
+    
+    public static SuitPermutation canonicalize(GameState state, KnowledgeView knowledge) {
+        // Only plain suits in play are interchangeable; rainbow and absent suits stay where they are
+        VariantRules rules = state.getRules();
+        int[] toCanonical = new int[SUITS.length];
+        Integer[] order = new Integer[SUITS.length];
+        int[][] signatures = new int[SUITS.length][];
+        int symmetric = 0;
+        for (Card.Suit suit : SUITS) {
+            toCanonical[suit.ordinal()] = suit.ordinal();
+            if (rules.isInPlay(suit) && !rules.isRainbow(suit)) {
+                signatures[suit.ordinal()] = signature(state, knowledge, suit);
+                order[symmetric++] = suit.ordinal();
+            }
+        }
+        int[] slots = new int[symmetric];
+        for (int i = 0; i < symmetric; i++) slots[i] = order[i];
+        // Stable, so tied suits keep their ordinal order
+        Arrays.sort(order, 0, symmetric, (a, b) -> Arrays.compare(signatures[a], signatures[b]));
+        for (int i = 0; i < symmetric; i++) {
+            toCanonical[order[i]] = slots[i];
+        }
+        return new SuitPermutation(toCanonical);
+    }
+    
+    // Digest of the state with its suits renamed by the permutation; equal for every suit-renamed copy once canonicalized.
+    // The rules go in too: the same cards under rainbow clues or other token limits are a different position
+    public static long hash(GameState state, KnowledgeView knowledge, SuitPermutation permutation) {
+        VariantRules rules = state.getRules();
+        long hash = 0x2545F4914F6CDD1DL;
+        hash = mix(hash, rules.getSuitMask() << 1 | (rules.isRainbow(Card.Suit.MULTICOLOR) ? 1 : 0));
+        hash = mix(hash, rules.getInitialInfoTokens() << 8 | rules.getMaxInfoTokens() << 4 | rules.getInitialFuseTokens());
+        for (String player : state.getPlayers()) {
+            List<Card> hand = state.getPlayerHand(player);
+            List<CardKnowledge> slots = knowledge.getHand(player);
+            hash = mix(hash, hand.size());
+            for (int slot = 0; slot < hand.size(); slot++) {
+                Card card = hand.get(slot);
+                hash = mix(hash, card == null ? -1 : permutation.toCanonical(card.getSuit().ordinal()) * 5 + card.getRank() - 1);
+                CardKnowledge slotKnowledge = slots.get(slot);
+                hash = mix(hash, permutation.suitMaskToCanonical(slotKnowledge.getSuitMask()) << 5 | slotKnowledge.getRankMask());
+            }
+        }
+        for (int canonical = 0; canonical < SUITS.length; canonical++) {
+            Card.Suit suit = SUITS[permutation.fromCanonical(canonical)];
+            if (!rules.isInPlay(suit)) continue;
+            hash = mix(hash, state.getPlayedCards().get(suit).size());
+            int discarded = 0;
+            for (Card card : state.getDiscardedCards().get(suit)) {
+                discarded += 1 << 2 * (card.getRank() - 1);
+            }
+            hash = mix(hash, discarded);
+        }
+        hash = mix(hash, state.getInfoTokens());
+        hash = mix(hash, state.getFuseTokens());
+        hash = mix(hash, state.getCurrentPlayerIndex());
+        hash = mix(hash, state.getFinalPlayerIndex());
+        hash = mix(hash, state.getDeckSize());
+        return hash;
+    }
+    
+    public static long canonicalHash(GameState state, KnowledgeView knowledge) {
+        return hash(state, knowledge, canonicalize(state, knowledge));
+    }
+    
+    private static int[] signature(GameState state, KnowledgeView knowledge, Card.Suit suit) {
+        List<String> players = state.getPlayers();
+        int slots = 0;
+        for (String player : players) slots += state.getPlayerHandSize(player);
+        int[] signature = new int[6 + 2 * slots];
+        int i = 0;
+        signature[i++] = state.getPlayedCards().get(suit).size();
+        for (Card card : state.getDiscardedCards().get(suit)) {
+            signature[i + card.getRank() - 1]++;
+        }
+        i += 5;
+        int bit = 1 << suit.ordinal();
+        for (String player : players) {
+            List<Card> hand = state.getPlayerHand(player);
+            List<CardKnowledge> handKnowledge = knowledge.getHand(player);
+            for (int slot = 0; slot < hand.size(); slot++) {
+                Card card = hand.get(slot);
+                signature[i++] = card != null && card.getSuit() == suit ? card.getRank() : 0;
+                signature[i++] = (handKnowledge.get(slot).getSuitMask() & bit) != 0 ? 1 : 0;
+            }
+        }
+        return signature;
+    }
+    
+    private static long mix(long hash, long value) {
+        long z = hash + value * 0x9E3779B97F4A7C15L + 0x632BE59BD9B4E019L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
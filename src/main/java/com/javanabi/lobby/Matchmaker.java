@@ -0,0 +1,232 @@
+package com.javanabi.lobby;
+
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameTable;
+import com.javanabi.game.Player;
+import com.javanabi.game.PlayerFactory;
+import com.javanabi.metrics.GameMetrics;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Queues seat requests and groups them into 2-5 player tables of similar rating.
+ * Connections enqueue from any thread; matching runs on one thread at a time and
+ * hands finished tables to a shared executor. A table that cannot be started
+ * leaves its members waiting for the next round; start and play failures are
+ * counted and passed to the failure listener.
+ */
+public class Matchmaker {
+    private final Executor tableExecutor;
+    private final PlayerFactory playerFactory;
+    private final int ratingWindow;
+    private final long botFillDelayNanos;
+    private final Queue<SeatRequest> incoming = new ConcurrentLinkedQueue<>();
+    private final List<SeatRequest> waiting = new ArrayList<>();
+    private final Map<String, Integer> registeredBots = new ConcurrentHashMap<>();
+    private final AtomicInteger activeTables = new AtomicInteger();
+    private final AtomicLong failedTables = new AtomicLong();
+    private volatile Consumer<GameTable> tableListener = table -> { };
+    private volatile BiConsumer<GameTable, RuntimeException> failureListener = (table, e) -> { };
+    
+    public Matchmaker(Executor tableExecutor, int ratingWindow, long botFillDelayMillis) {
+        this(tableExecutor, PlayerFactory.shared(), ratingWindow, botFillDelayMillis);
+    }
+    
+    public Matchmaker(Executor tableExecutor, PlayerFactory playerFactory, int ratingWindow, long botFillDelayMillis) {
+        this.tableExecutor = tableExecutor;
+        this.playerFactory = playerFactory;
+        this.ratingWindow = ratingWindow;
+        this.botFillDelayNanos = TimeUnit.MILLISECONDS.toNanos(botFillDelayMillis);
+    }
+    
+    public void enqueue(SeatRequest request) {
+        if (request.isBot() && !playerFactory.isAvailable(request.getBotClassName())) {
+            throw new IllegalArgumentException("Unknown player class " + request.getBotClassName());
+        }
+        incoming.offer(request);
+    }
+    
+    // Registered bots fill the empty seats of players who have waited longer than the fill delay
+    public void registerBot(String className, int rating) {
+        if (!playerFactory.isAvailable(className)) {
+            throw new IllegalArgumentException("Unknown player class " + className);
+        }
+        registeredBots.put(className, rating);
+    }
+    
+    public void setTableListener(Consumer<GameTable> tableListener) {
+        this.tableListener = Objects.requireNonNull(tableListener);
+    }
+    
+    // Told of every failed table; the table is null when it could not be started
+    public void setFailureListener(BiConsumer<GameTable, RuntimeException> failureListener) {
+        this.failureListener = Objects.requireNonNull(failureListener);
+    }
+    
+    public ScheduledFuture<?> start(ScheduledExecutorService scheduler, long periodMillis) {
+        return scheduler.scheduleWithFixedDelay(this::matchOnce, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    public synchronized List<GameTable> matchOnce() {
+        SeatRequest request;
+        while ((request = incoming.poll()) != null) {
+            waiting.add(request);
+        }
+        if (waiting.isEmpty()) {
+            return Collections.emptyList();
+        }
+        waiting.sort(Comparator.comparingInt(SeatRequest::getRating));
+        
+        long now = System.nanoTime();
+        boolean[] seated = new boolean[waiting.size()];
+        List<GameTable> tables = new ArrayList<>();
+        List<SeatRequest> group = new ArrayList<>(5);
+        
+        try {
+            matchWaiting(now, seated, tables, group);
+        } finally {
+            // Seated members leave the queue even if matching stopped part way
+            int kept = 0;
+            for (int i = 0; i < waiting.size(); i++) {
+                if (!seated[i]) waiting.set(kept++, waiting.get(i));
+            }
+            waiting.subList(kept, waiting.size()).clear();
+        }
+        return tables;
+    }
+    
+    private void matchWaiting(long now, boolean[] seated, List<GameTable> tables, List<SeatRequest> group) {
+        for (int i = 0; i < waiting.size(); i++) {
+            if (seated[i]) continue;
+            SeatRequest anchor = waiting.get(i);
+            group.clear();
+            group.add(anchor);
+            int min = anchor.getMinPlayers();
+            int max = anchor.getMaxPlayers();
+            List<Integer> members = new ArrayList<>(5);
+            members.add(i);
+            
+            for (int j = i + 1; j < waiting.size() && group.size() < max; j++) {
+                SeatRequest candidate = waiting.get(j);
+                if (candidate.getRating() - anchor.getRating() > ratingWindow) break;
+                if (seated[j]) continue;
+                int newMin = Math.max(min, candidate.getMinPlayers());
+                int newMax = Math.min(max, candidate.getMaxPlayers());
+                if (newMin > newMax || group.size() >= newMax || hasName(group, candidate)) continue;
+                group.add(candidate);
+                members.add(j);
+                min = newMin;
+                max = newMax;
+            }
+            
+            if (group.size() < min && !anchor.isBot() && now - anchor.getEnqueuedAt() >= botFillDelayNanos) {
+                fillWithBots(group, min, anchor.getRating());
+            }
+            if (group.size() >= min) {
+                GameTable table;
+                try {
+                    table = startTable(group);
+                } catch (RuntimeException e) {
+                    failedTables.incrementAndGet();
+                    failureListener.accept(null, e);
+                    continue;
+                }
+                for (int member : members) {
+                    seated[member] = true;
+                }
+                tables.add(table);
+            }
+        }
+    }
+    
+    public synchronized int getWaitingCount() {
+        return waiting.size() + incoming.size();
+    }
+    
+    public int getActiveTables() {
+        return activeTables.get();
+    }
+    
+    public long getFailedTables() {
+        return failedTables.get();
+    }
+    
+    private void fillWithBots(List<SeatRequest> group, int tableSize, int rating) {
+        String closestBot = null;
+        int closestDistance = Integer.MAX_VALUE;
+        for (Map.Entry<String, Integer> bot : registeredBots.entrySet()) {
+            int distance = Math.abs(bot.getValue() - rating);
+            if (distance < closestDistance) {
+                closestDistance = distance;
+                closestBot = bot.getKey();
+            }
+        }
+        if (closestBot == null) return;
+        while (group.size() < tableSize) {
+            group.add(SeatRequest.bot(closestBot, registeredBots.get(closestBot), 2, 5));
+        }
+    }
+    
+    private GameTable startTable(List<SeatRequest> group) {
+        Set<String> names = new HashSet<>();
+        for (SeatRequest seat : group) {
+            if (!seat.isBot()) names.add(seat.getPlayer().getName());
+        }
+        List<Player> players = new ArrayList<>(group.size());
+        for (int seat = 0; seat < group.size(); seat++) {
+            SeatRequest request = group.get(seat);
+            if (!request.isBot()) {
+                players.add(request.getPlayer());
+                continue;
+            }
+            String playerName = "Player " + (seat + 1);
+            while (!names.add(playerName)) {
+                playerName += "'";
+            }
+            players.add(playerFactory.create(request.getBotClassName(), playerName));
+        }
+        
+        GameEngine game = new GameEngine(players);
+        GameMetrics.shared().attach(game);
+        GameTable table = new GameTable(GameTable.nextId(), game);
+        activeTables.incrementAndGet();
+        try {
+            tableListener.accept(table);
+            tableExecutor.execute(() -> {
+                try {
+                    table.run();
+                } catch (RuntimeException e) {
+                    // One broken table must not take the executor thread with it
+                    failedTables.incrementAndGet();
+                    failureListener.accept(table, e);
+                } finally {
+                    activeTables.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            activeTables.decrementAndGet();
+            throw e;
+        }
+        return table;
+    }
+    
+    private static boolean hasName(List<SeatRequest> group, SeatRequest candidate) {
+        if (candidate.isBot()) return false;
+        for (SeatRequest seat : group) {
+            if (!seat.isBot() && seat.getPlayer().getName().equals(candidate.getPlayer().getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
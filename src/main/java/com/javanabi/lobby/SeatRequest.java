@@ -0,0 +1,75 @@
+package com.javanabi.lobby;
+
+import com.javanabi.game.Player;
+
+/**
+ * A request for a seat at some table: either a connected player or a bot
+ * identified by its class name, with a rating and the table sizes it accepts.
+ */
+public final class SeatRequest {
+    private final Player player;
+    private final String botClassName;
+    private final int rating;
+    private final int minPlayers;
+    private final int maxPlayers;
+    private final long enqueuedAt;
+    
+    private SeatRequest(Player player, String botClassName, int rating, int minPlayers, int maxPlayers) {
+        if (minPlayers < 2 || maxPlayers > 5 || minPlayers > maxPlayers) {
+            throw new IllegalArgumentException("Table size preference must be within 2-5 players");
+        }
+        this.player = player;
+        this.botClassName = botClassName;
+        this.rating = rating;
+        this.minPlayers = minPlayers;
+        this.maxPlayers = maxPlayers;
+        this.enqueuedAt = System.nanoTime();
+    }
+    
+    public static SeatRequest player(Player player, int rating, int minPlayers, int maxPlayers) {
+        if (player == null) {
+            throw new IllegalArgumentException("Player cannot be null");
+        }
+        return new SeatRequest(player, null, rating, minPlayers, maxPlayers);
+    }
+    
+    public static SeatRequest bot(String botClassName, int rating, int minPlayers, int maxPlayers) {
+        if (botClassName == null) {
+            throw new IllegalArgumentException("Bot class cannot be null");
+        }
+        return new SeatRequest(null, botClassName, rating, minPlayers, maxPlayers);
+    }
+    
+    public boolean isBot() {
+        return player == null;
+    }
+    
+    public Player getPlayer() {
+        return player;
+    }
+    
+    public String getBotClassName() {
+        return botClassName;
+    }
+    
+    public int getRating() {
+        return rating;
+    }
+    
+    public int getMinPlayers() {
+        return minPlayers;
+    }
+    
+    public int getMaxPlayers() {
+        return maxPlayers;
+    }
+    
+    public long getEnqueuedAt() {
+        return enqueuedAt;
+    }
+    
+    @Override
+    public String toString() {
+        return (isBot() ? botClassName : player.getName()) + "(" + rating + ", " + minPlayers + "-" + maxPlayers + ")";
+    }
+}
@@ -0,0 +1,153 @@
+package com.javanabi.metrics;
+
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameListener;
+import com.javanabi.game.InvalidActionReason;
+import com.javanabi.game.action.Action;
+import com.javanabi.sim.ScoreStatistics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Engine wide counters fed by attaching the registry to each game as a listener.
+ * Everything is a LongAdder, so game threads never contend on a shared lock.
+ */
+public final class GameMetrics implements GameListener {
+    private static final int MAX_SCORE = ScoreStatistics.MAX_SCORE;
+    private static final InvalidActionReason[] REASONS = InvalidActionReason.values();
+    private static final GameMetrics SHARED = new GameMetrics();
+    
+    private final LongAdder gamesStarted = new LongAdder();
+    private final LongAdder gamesFinished = new LongAdder();
+    private final LongAdder gamesAbandoned = new LongAdder();
+    private final LongAdder activeTables = new LongAdder();
+    private final LongAdder turns = new LongAdder();
+    private final LongAdder fuseLosses = new LongAdder();
+    private final LongAdder scoreSum = new LongAdder();
+    private final LongAdder[] invalidActions = adders(REASONS.length);
+    private final LongAdder[] scores = adders(MAX_SCORE + 1);
+    
+    public static GameMetrics shared() {
+        return SHARED;
+    }
+    
+    // Counts the game as started and listens for its turns and end
+    public void attach(GameEngine game) {
+        gamesStarted.increment();
+        activeTables.increment();
+        game.addListener(this);
+    }
+    
+    @Override
+    public void actionExecuted(GameEngine game, int seat, Action action) {
+        turns.increment();
+    }
+    
+    @Override
+    public void actionRejected(GameEngine game, int seat, Action action, InvalidActionReason reason) {
+        invalidActions[reason.ordinal()].increment();
+    }
+    
+    @Override
+    public void gameEnded(GameEngine game) {
+        int score = game.getScore();
+        gamesFinished.increment();
+        activeTables.decrement();
+        scoreSum.add(score);
+        scores[Math.min(score, MAX_SCORE)].increment();
+        if (game.getGameState().getFuseTokens() <= 0) {
+            fuseLosses.increment();
+        }
+    }
+    
+    @Override
+    public void gameAbandoned(GameEngine game) {
+        gamesAbandoned.increment();
+        activeTables.decrement();
+    }
+    
+    public long getGamesStarted() {
+        return gamesStarted.sum();
+    }
+    
+    public long getGamesFinished() {
+        return gamesFinished.sum();
+    }
+    
+    public long getGamesAbandoned() {
+        return gamesAbandoned.sum();
+    }
+    
+    public long getActiveTables() {
+        return activeTables.sum();
+    }
+    
+    public long getTurns() {
+        return turns.sum();
+    }
+    
+    public long getFuseLosses() {
+        return fuseLosses.sum();
+    }
+    
+    public long getInvalidActions(InvalidActionReason reason) {
+        return invalidActions[reason.ordinal()].sum();
+    }
+    
+    public long getScoreCount(int score) {
+        return scores[score].sum();
+    }
+    
+    public void writePrometheus(StringBuilder sb) {
+        writeCounter(sb, "javanabi_games_started_total", "Games dealt", gamesStarted.sum());
+        writeCounter(sb, "javanabi_games_finished_total", "Games played to the end", gamesFinished.sum());
+        writeCounter(sb, "javanabi_games_abandoned_total", "Games whose table failed before the end", gamesAbandoned.sum());
+        writeCounter(sb, "javanabi_turns_total", "Actions executed", turns.sum());
+        writeCounter(sb, "javanabi_fuse_losses_total", "Games ended by losing the last fuse", fuseLosses.sum());
+        
+        sb.append("# HELP javanabi_active_tables Games started but not yet finished or abandoned\n");
+        sb.append("# TYPE javanabi_active_tables gauge\n");
+        sb.append("javanabi_active_tables ").append(activeTables.sum()).append('\n');
+        
+        sb.append("# HELP javanabi_invalid_actions_total Actions rejected by the engine\n");
+        sb.append("# TYPE javanabi_invalid_actions_total counter\n");
+        for (InvalidActionReason reason : REASONS) {
+            sb.append("javanabi_invalid_actions_total{reason=\"").append(reason.name().toLowerCase()).append("\"} ")
+              .append(invalidActions[reason.ordinal()].sum()).append('\n');
+        }
+        
+        // Buckets are cumulative, so read each score once and keep a running total
+        sb.append("# HELP javanabi_final_score Final score of finished games\n");
+        sb.append("# TYPE javanabi_final_score histogram\n");
+        long cumulative = 0;
+        for (int score = 0; score <= MAX_SCORE; score++) {
+            cumulative += scores[score].sum();
+            sb.append("javanabi_final_score_bucket{le=\"").append(score).append("\"} ").append(cumulative).append('\n');
+        }
+        sb.append("javanabi_final_score_bucket{le=\"+Inf\"} ").append(cumulative).append('\n');
+        sb.append("javanabi_final_score_sum ").append(scoreSum.sum()).append('\n');
+        sb.append("javanabi_final_score_count ").append(cumulative).append('\n');
+    }
+    
+    public void reset() {
+        for (LongAdder adder : new LongAdder[] {gamesStarted, gamesFinished, gamesAbandoned, activeTables, turns, fuseLosses, scoreSum}) {
+            adder.reset();
+        }
+        for (LongAdder adder : invalidActions) adder.reset();
+        for (LongAdder adder : scores) adder.reset();
+    }
+    
+    private static void writeCounter(StringBuilder sb, String name, String help, long value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" counter\n");
+        sb.append(name).append(' ').append(value).append('\n');
+    }
+    
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
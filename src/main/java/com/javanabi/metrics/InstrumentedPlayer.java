@@ -0,0 +1,105 @@
+package com.javanabi.metrics;
+
+import com.javanabi.game.KnowledgeAware;
+import com.javanabi.game.Player;
+import com.javanabi.game.action.Action;
+import com.javanabi.game.state.GameState;
+import com.javanabi.util.KnowledgeView;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Wraps any Player and records how long its decisions and notifications take,
+ * and how much takeTurn allocates, into PlayerMetrics under the wrapped class name.
+ * The JVM keeps allocation counters for platform threads only, so turns taken
+ * on a virtual thread, as TableExecutors tables are, are counted as unmeasured.
+ */
+public final class InstrumentedPlayer implements Player, KnowledgeAware {
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+    
+    private final Player delegate;
+    private final PlayerMetrics.Stats stats;
+    
+    public InstrumentedPlayer(Player delegate) {
+        this(delegate, PlayerMetrics.shared());
+    }
+    
+    public InstrumentedPlayer(Player delegate, PlayerMetrics metrics) {
+        this.delegate = delegate;
+        this.stats = metrics.forClass(delegate.getClass().getSimpleName());
+    }
+    
+    public Player getDelegate() {
+        return delegate;
+    }
+    
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+    
+    // The engine only sees the wrapper, so pass the shared read-only knowledge through
+    @Override
+    public void usePublicKnowledge(KnowledgeView knowledge) {
+        if (delegate instanceof KnowledgeAware) {
+            ((KnowledgeAware) delegate).usePublicKnowledge(knowledge);
+        }
+    }
+    
+    @Override
+    public void initialize(GameState initialState) {
+        delegate.initialize(initialState);
+    }
+    
+    @Override
+    public Action takeTurn(GameState currentState) {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        Action action = delegate.takeTurn(currentState);
+        stats.getTakeTurnNanos().record(System.nanoTime() - start);
+        if (allocatedBefore >= 0) {
+            stats.getTakeTurnBytes().record(allocatedBytes() - allocatedBefore);
+        } else {
+            stats.countUnmeasuredAllocation();
+        }
+        return action;
+    }
+    
+    @Override
+    public void receiveClue(Clue clue) {
+        long start = System.nanoTime();
+        delegate.receiveClue(clue);
+        stats.getNotifyNanos().record(System.nanoTime() - start);
+    }
+    
+    @Override
+    public void notifyPlayerAction(String playerName, Action action) {
+        long start = System.nanoTime();
+        delegate.notifyPlayerAction(playerName, action);
+        stats.getNotifyNanos().record(System.nanoTime() - start);
+    }
+    
+    @Override
+    public void notifyGameEnd(int score, boolean won) {
+        delegate.notifyGameEnd(score, won);
+    }
+    
+    // -1 on a virtual thread, whose carrier may change mid-turn and which has no counter of its own, or when the JVM keeps none
+    private static long allocatedBytes() {
+        Thread thread = Thread.currentThread();
+        return THREADS == null || thread.isVirtual() ? -1 : THREADS.getThreadAllocatedBytes(thread.threadId());
+    }
+    
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+            if (allocationBean.isThreadAllocatedMemorySupported()) {
+                allocationBean.setThreadAllocatedMemoryEnabled(true);
+                return allocationBean;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,106 @@
+package com.javanabi.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear histogram in the style of HdrHistogram. Values below 128
+ * are counted exactly; larger values fall in buckets 1/64 of their power of two
+ * wide, so every recorded value is reported within about 1.6%.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF_SUB_COUNT = SUB_COUNT / 2;
+    private static final int BUCKETS = 64 - SUB_BITS + 1;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS * HALF_SUB_COUNT + HALF_SUB_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+    
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+    
+    public long getCount() {
+        return count.sum();
+    }
+    
+    public long getSum() {
+        return sum.sum();
+    }
+    
+    public long getMax() {
+        return max.get();
+    }
+    
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) getSum() / n;
+    }
+    
+    // e.g. getPercentile(99.9); returns the upper bound of the bucket holding that rank
+    public long getPercentile(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValueAt(i), getMax());
+            }
+        }
+        return getMax();
+    }
+    
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length(); i++) {
+            long value = other.counts.get(i);
+            if (value != 0) counts.addAndGet(i, value);
+        }
+        count.add(other.getCount());
+        sum.add(other.getSum());
+        long otherMax = other.getMax();
+        long current = max.get();
+        while (otherMax > current && !max.compareAndSet(current, otherMax)) {
+            current = max.get();
+        }
+    }
+    
+    // Not atomic with concurrent records; a sample racing with reset may be counted or dropped
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+    
+    static int indexOf(long value) {
+        int bucket = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BITS);
+        int sub = (int) (value >>> bucket);
+        return bucket * HALF_SUB_COUNT + sub;
+    }
+    
+    static long highestValueAt(int index) {
+        int bucket = Math.max(0, index / HALF_SUB_COUNT - 1);
+        long sub = index - (long) bucket * HALF_SUB_COUNT;
+        return ((sub + 1) << bucket) - 1;
+    }
+}
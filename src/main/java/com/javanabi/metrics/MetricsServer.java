@@ -0,0 +1,75 @@
+package com.javanabi.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Tiny HTTP endpoint serving GET /metrics in Prometheus text format.
+ * Each registered source appends its own metric families. Listens on the
+ * loopback address unless given another one.
+ */
+public final class MetricsServer implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final List<Consumer<StringBuilder>> sources = new CopyOnWriteArrayList<>();
+    
+    public MetricsServer(int port) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port);
+    }
+    
+    public MetricsServer(InetAddress address, int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(address, port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+    
+    public MetricsServer register(Consumer<StringBuilder> source) {
+        sources.add(source);
+        return this;
+    }
+    
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+    
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    public String render() {
+        StringBuilder sb = new StringBuilder();
+        for (Consumer<StringBuilder> source : sources) {
+            source.accept(sb);
+        }
+        return sb.toString();
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+}
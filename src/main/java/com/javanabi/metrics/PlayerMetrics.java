@@ -0,0 +1,140 @@
+package com.javanabi.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per player class latency and allocation histograms, filled by InstrumentedPlayer.
+ * Latencies are in nanoseconds, allocations in bytes.
+ */
+public final class PlayerMetrics {
+    private static final PlayerMetrics SHARED = new PlayerMetrics();
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] QUANTILE_LABELS = {"0.5", "0.9", "0.99", "0.999"};
+    
+    private final ConcurrentMap<String, Stats> byClass = new ConcurrentHashMap<>();
+    
+    public static PlayerMetrics shared() {
+        return SHARED;
+    }
+    
+    public Stats forClass(String playerClass) {
+        return byClass.computeIfAbsent(playerClass, k -> new Stats());
+    }
+    
+    public Map<String, Stats> snapshot() {
+        return new TreeMap<>(byClass);
+    }
+    
+    // Clears the counts in place; InstrumentedPlayers keep their Stats, so later samples still show up
+    public void reset() {
+        for (Stats stats : byClass.values()) {
+            stats.reset();
+        }
+    }
+    
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-24s %-10s %10s %10s %10s %10s %10s %10s%n",
+            "Player class", "Metric", "Count", "Mean", "p50", "p99", "p99.9", "Max"));
+        for (Map.Entry<String, Stats> entry : snapshot().entrySet()) {
+            Stats stats = entry.getValue();
+            appendRow(sb, entry.getKey(), "takeTurn", stats.takeTurnNanos, "us");
+            appendRow(sb, entry.getKey(), "notify", stats.notifyNanos, "us");
+            appendRow(sb, entry.getKey(), "alloc", stats.takeTurnBytes, "B");
+            if (stats.getUnmeasuredAllocations() > 0) {
+                sb.append(String.format("%-24s %-10s %10d not measured: taken on virtual threads or without JVM support%n",
+                    entry.getKey(), "alloc", stats.getUnmeasuredAllocations()));
+            }
+        }
+        return sb.toString();
+    }
+    
+    // Prometheus text format summaries, e.g. javanabi_player_take_turn_seconds{player_class="BestValueHint",quantile="0.99"}
+    public void writePrometheus(StringBuilder sb) {
+        Map<String, Stats> stats = snapshot();
+        writeSummary(sb, stats, "javanabi_player_take_turn_seconds", "Time spent in Player.takeTurn", 1e-9, Kind.TAKE_TURN);
+        writeSummary(sb, stats, "javanabi_player_notify_seconds", "Time spent in Player.notifyPlayerAction and receiveClue", 1e-9, Kind.NOTIFY);
+        writeSummary(sb, stats, "javanabi_player_take_turn_allocated_bytes", "Bytes allocated by Player.takeTurn", 1, Kind.ALLOCATION);
+        String unmeasured = "javanabi_player_take_turn_allocation_unmeasured_total";
+        sb.append("# HELP ").append(unmeasured).append(" Player.takeTurn calls whose allocation could not be measured, e.g. on virtual threads\n");
+        sb.append("# TYPE ").append(unmeasured).append(" counter\n");
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            sb.append(unmeasured).append("{player_class=\"").append(entry.getKey()).append("\"} ")
+              .append(entry.getValue().getUnmeasuredAllocations()).append('\n');
+        }
+    }
+    
+    private static void writeSummary(StringBuilder sb, Map<String, Stats> stats, String name, String help, double scale, Kind kind) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" summary\n");
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            LatencyHistogram histogram = entry.getValue().get(kind);
+            String label = "player_class=\"" + entry.getKey() + "\"";
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                sb.append(name).append('{').append(label).append(",quantile=\"").append(QUANTILE_LABELS[i]).append("\"} ")
+                  .append(histogram.getPercentile(PERCENTILES[i]) * scale).append('\n');
+            }
+            sb.append(name).append("_sum{").append(label).append("} ").append(histogram.getSum() * scale).append('\n');
+            sb.append(name).append("_count{").append(label).append("} ").append(histogram.getCount()).append('\n');
+        }
+    }
+    
+    private static void appendRow(StringBuilder sb, String playerClass, String metric, LatencyHistogram histogram, String unit) {
+        double scale = unit.equals("us") ? 1e-3 : 1;
+        sb.append(String.format("%-24s %-10s %10d %10.1f %10.1f %10.1f %10.1f %10.1f %s%n",
+            playerClass, metric, histogram.getCount(), histogram.getMean() * scale,
+            histogram.getPercentile(50) * scale, histogram.getPercentile(99) * scale,
+            histogram.getPercentile(99.9) * scale, histogram.getMax() * scale, unit));
+    }
+    
+    private enum Kind {
+        TAKE_TURN, NOTIFY, ALLOCATION
+    }
+    
+    public static final class Stats {
+        private final LatencyHistogram takeTurnNanos = new LatencyHistogram();
+        private final LatencyHistogram notifyNanos = new LatencyHistogram();
+        private final LatencyHistogram takeTurnBytes = new LatencyHistogram();
+        private final LongAdder unmeasuredAllocations = new LongAdder();
+        
+        public LatencyHistogram getTakeTurnNanos() {
+            return takeTurnNanos;
+        }
+        
+        public LatencyHistogram getNotifyNanos() {
+            return notifyNanos;
+        }
+        
+        public LatencyHistogram getTakeTurnBytes() {
+            return takeTurnBytes;
+        }
+        
+        // takeTurn calls left out of getTakeTurnBytes because their allocation could not be measured
+        public long getUnmeasuredAllocations() {
+            return unmeasuredAllocations.sum();
+        }
+        
+        void countUnmeasuredAllocation() {
+            unmeasuredAllocations.increment();
+        }
+        
+        private void reset() {
+            takeTurnNanos.reset();
+            notifyNanos.reset();
+            takeTurnBytes.reset();
+            unmeasuredAllocations.reset();
+        }
+        
+        private LatencyHistogram get(Kind kind) {
+            switch (kind) {
+                case TAKE_TURN: return takeTurnNanos;
+                case NOTIFY: return notifyNanos;
+                default: return takeTurnBytes;
+            }
+        }
+    }
+}
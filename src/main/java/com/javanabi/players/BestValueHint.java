@@ -2,7 +2,6 @@ package com.javanabi.players;
 
 import com.javanabi.domain.Card;
 import com.javanabi.domain.Card.Suit;
-import com.javanabi.game.Deck;
 import com.javanabi.game.action.*;
 import com.javanabi.util.CardKnowledge;
 
@@ -16,6 +15,9 @@ public class BestValueHint extends SimpleAIPlayer {
     private final double weight_discardable;
     private final double weight_final_card;
     
+    // Order of the weights array accepted by the weighted constructor
+    public static final List<String> WEIGHT_NAMES = List.of(
+        "WEIGHT_MATCHED", "WEIGHT_COMPLETE", "WEIGHT_PLAYABLE", "WEIGHT_DISCARDABLE", "WEIGHT_FINAL_CARD");
 
     public BestValueHint(String name) {
         super(name);
@@ -25,14 +27,35 @@ public class BestValueHint extends SimpleAIPlayer {
         weight_discardable = getWeightFromEnv("WEIGHT_DISCARDABLE", 1.0);
         weight_final_card = getWeightFromEnv("WEIGHT_FINAL_CARD", 1.0);
     }
+    
+    // Lets in-process tuners try weights without going through the environment
+    public BestValueHint(String name, double[] weights) {
+        super(name);
+        if (weights.length != WEIGHT_NAMES.size()) {
+            throw new IllegalArgumentException("Expected " + WEIGHT_NAMES.size() + " weights");
+        }
+        weight_matched = weights[0];
+        weight_complete = weights[1];
+        weight_playable = weights[2];
+        weight_discardable = weights[3];
+        weight_final_card = weights[4];
+    }
 
     private double getWeightFromEnv(String key, double defaultValue) {
         String value = System.getenv(key);
         return value != null ? Double.parseDouble(value) : defaultValue;
     }    
 
+    @Override
+    protected String policyKey() {
+        return super.policyKey() + Arrays.toString(new double[] {
+            weight_matched, weight_complete, weight_playable, weight_discardable, weight_final_card});
+    }
+
     @Override
     protected Optional<GiveInfoAction> findUsefulHint() {
+        HintEvaluationEvent event = new HintEvaluationEvent();
+        event.begin();
         List<String> otherPlayers = getOtherPlayers();
         double maxValue=0;
         Clue bestClue = null;
@@ -41,8 +64,11 @@ public class BestValueHint extends SimpleAIPlayer {
         //iterate over the players
         for (String targetPlayer : otherPlayers) {
             //iterate over every hint we can give
-            Map<Clue,Double> clueValues = new HashMap<Clue,Double>();
-            for (Suit s : Suit.values()) {
+            // Clue has no hashCode, so a HashMap would break ties by identity hash;
+            // in insertion order the earliest clue (suits in rule order, then ranks 1-5) wins a tie
+            Map<Clue,Double> clueValues = new LinkedHashMap<Clue,Double>();
+            for (Suit s : currentState.getRules().getSuits()) {
+                if (!currentState.getRules().canNameColour(s)) continue;
                 Clue clue = new Clue(ClueType.SUIT, s, null);
                 clueValues.put(clue,this.determineClueValue(clue, targetPlayer));
             }
@@ -51,6 +77,7 @@ public class BestValueHint extends SimpleAIPlayer {
                 Clue clue = new Clue(ClueType.RANK, rank, null);
                 clueValues.put(clue,this.determineClueValue(clue, targetPlayer));
             }
+            event.cluesEvaluated += clueValues.size();
 
             for( Map.Entry<Clue,Double> kv: clueValues.entrySet()) {
                 if (kv.getValue() > maxValue) {
@@ -62,6 +89,13 @@ public class BestValueHint extends SimpleAIPlayer {
                 }
             }
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.player = getName();
+            event.bestValue = maxValue;
+            event.found = maxValue > 0;
+            event.commit();
+        }
         if (maxValue > 0) {
             return Optional.of(new GiveInfoAction(bestCluePlayer, bestClue));
         }
@@ -71,14 +105,11 @@ public class BestValueHint extends SimpleAIPlayer {
 
     private double determineClueValue(Clue clue, String targetPlayer) {
         List<Card> targetHand = currentState.getPlayerHand(targetPlayer);
-        List<CardKnowledge> targetKnowledge = playerCardKnowledge.get(targetPlayer);
+        List<CardKnowledge> targetKnowledge = knowledge.getHand(targetPlayer);
         double value = 0;
         for (int i=0;i<targetHand.size();i++) {
             Card c = targetHand.get(i);
-            if (
-                    (clue.getType() == ClueType.RANK && c.getRank() == (int)clue.getValue())
-                ||  (clue.getType() == ClueType.SUIT && c.getSuit() == (Suit)clue.getValue())
-            ) {
+            if (currentState.getRules().touches(clue, c)) {
                 //this clue matches this card
                 value += weight_matched;
 
@@ -105,7 +136,7 @@ public class BestValueHint extends SimpleAIPlayer {
                     for (Card dc : this.currentState.getDiscardedCards().get(c.getSuit())) {
                         if (dc == c) discardedCount++;
                     }
-                    if (discardedCount == Deck.RANK_COUNTS[c.getRank()-1]-1) {
+                    if (discardedCount == currentState.getRules().getCardCount(c.getSuit(), c.getRank())-1) {
                         value += weight_final_card;
                     }
                 }
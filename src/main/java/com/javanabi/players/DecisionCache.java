@@ -0,0 +1,152 @@
+package com.javanabi.players;
+
+import com.javanabi.game.action.Action;
+import com.javanabi.game.action.ActionCodec;
+import com.javanabi.game.state.GameState;
+import com.javanabi.game.state.SuitPermutation;
+import com.javanabi.game.state.SuitSymmetry;
+import com.javanabi.util.KnowledgeView;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU memo of the moves a deterministic bot chose, keyed by a hash of
+ * its information set: the hands it can see, piles, discards, tokens, deck
+ * size and everyone's clue knowledge, plus its own seat. Moves are stored as
+ * ActionCodec codes so they replay at any table regardless of player names.
+ *
+ * Off unless DECISION_CACHE_SIZE is set or configure() is called. In
+ * symmetric mode positions that differ only by a renaming of suits share an
+ * entry; that can change which of two equally valued clues a bot picks.
+ *
+ * One cache per policy, e.g. BestValueHint with a given set of weights.
+ * Entries are split over independently locked segments so game threads
+ * rarely contend.
+ */
+public final class DecisionCache {
+    private static final int SEGMENTS = 16;
+    private static final ConcurrentMap<String, DecisionCache> BY_POLICY = new ConcurrentHashMap<>();
+    private static volatile int configuredCapacity = getIntFromEnv("DECISION_CACHE_SIZE", 0);
+    private static volatile boolean configuredSymmetric = "symmetric".equalsIgnoreCase(System.getenv("DECISION_CACHE_MODE"));
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final boolean symmetric;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public DecisionCache(int capacity, boolean symmetric) {
+        if (capacity < SEGMENTS) {
+            throw new IllegalArgumentException("Decision cache needs at least " + SEGMENTS + " entries");
+        }
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(capacity / SEGMENTS);
+        }
+        this.symmetric = symmetric;
+    }
+
+    // Applies to caches created afterwards; a capacity of 0 turns caching off
+    public static void configure(int capacity, boolean symmetric) {
+        if (capacity != 0 && capacity < SEGMENTS) {
+            throw new IllegalArgumentException("Decision cache needs at least " + SEGMENTS + " entries");
+        }
+        configuredCapacity = capacity;
+        configuredSymmetric = symmetric;
+        BY_POLICY.clear();
+    }
+
+    public static boolean isEnabled() {
+        return configuredCapacity > 0;
+    }
+
+    // The shared cache for a policy, or null while caching is off
+    public static DecisionCache forPolicy(String policy) {
+        if (!isEnabled()) return null;
+        return BY_POLICY.computeIfAbsent(policy, k -> new DecisionCache(configuredCapacity, configuredSymmetric));
+    }
+
+    public static Map<String, DecisionCache> snapshot() {
+        return new TreeMap<>(BY_POLICY);
+    }
+
+    public Action decide(GameState view, KnowledgeView knowledge, int seat, Supplier<Action> policy) {
+        SuitPermutation permutation = symmetric ? SuitSymmetry.canonicalize(view, knowledge) : SuitPermutation.identity();
+        long key = SuitSymmetry.hash(view, knowledge, permutation) * 31 + seat;
+        Segment segment = segments[(int) (key ^ key >>> 32) & (SEGMENTS - 1)];
+        Integer code;
+        synchronized (segment) {
+            code = segment.get(key);
+        }
+        if (code != null) {
+            hits.increment();
+            return ActionCodec.decode(permutation.actionFromCanonical(code), seat, view.getPlayers());
+        }
+        misses.increment();
+        Action action = policy.get();
+        int canonical = permutation.actionToCanonical(ActionCodec.encode(action, seat, view.getPlayers()));
+        synchronized (segment) {
+            segment.put(key, canonical);
+        }
+        return action;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRate() {
+        long lookups = getHits() + getMisses();
+        return lookups == 0 ? 0 : (double) getHits() / lookups;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-40s %12s %12s %8s %10s%n", "Decision cache", "Hits", "Misses", "Hit %", "Entries"));
+        for (Map.Entry<String, DecisionCache> entry : snapshot().entrySet()) {
+            DecisionCache cache = entry.getValue();
+            sb.append(String.format("%-40s %12d %12d %7.1f%% %10d%n",
+                entry.getKey(), cache.getHits(), cache.getMisses(), cache.getHitRate() * 100, cache.size()));
+        }
+        return sb.toString();
+    }
+
+    private static int getIntFromEnv(String key, int defaultValue) {
+        String value = System.getenv(key);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private static final class Segment extends LinkedHashMap<Long, Integer> {
+        // LinkedHashMap is Serializable; segments are never serialized, this only keeps -Xlint:serial quiet
+        private static final long serialVersionUID = 1L;
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+            return size() > capacity;
+        }
+    }
+}
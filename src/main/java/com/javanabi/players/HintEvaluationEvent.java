@@ -0,0 +1,25 @@
+package com.javanabi.players;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.javanabi.HintEvaluation")
+@Label("Hint Evaluation")
+@Category({"Hanabi", "Players"})
+@StackTrace(false)
+class HintEvaluationEvent extends Event {
+    @Label("Player")
+    String player;
+    
+    @Label("Clues Evaluated")
+    int cluesEvaluated;
+    
+    @Label("Best Value")
+    double bestValue;
+    
+    @Label("Hint Found")
+    boolean found;
+}
@@ -2,6 +2,7 @@ package com.javanabi.players;
 
 import com.javanabi.domain.Card;
 import com.javanabi.game.Player;
+import com.javanabi.game.VariantRules;
 import com.javanabi.game.action.*;
 import com.javanabi.game.state.GameState;
 
@@ -166,7 +167,8 @@ public class LocalPlayer implements Player {
         if (hintType == 1) {
             // Color hint
             System.out.println("\nAvailable colors:");
-            Card.Suit[] suits = Card.Suit.values();
+            VariantRules rules = currentState.getRules();
+            Card.Suit[] suits = rules.getSuits().stream().filter(rules::canNameColour).toArray(Card.Suit[]::new);
             for (int i = 0; i < suits.length; i++) {
                 System.out.println(i + ": " + suits[i]);
             }
@@ -182,7 +184,7 @@ public class LocalPlayer implements Player {
             // Find matching cards
             java.util.ArrayList<Integer> matchingIndices = new java.util.ArrayList<>();
             for (int i = 0; i < targetHand.size(); i++) {
-                if (targetHand.get(i).getSuit() == selectedSuit) {
+                if (rules.touches(selectedSuit, targetHand.get(i).getSuit())) {
                     matchingIndices.add(i);
                 }
             }
@@ -0,0 +1,56 @@
+package com.javanabi.players;
+
+import com.javanabi.game.LegalMoves;
+import com.javanabi.game.Player;
+import com.javanabi.game.action.Action;
+import com.javanabi.game.action.ActionCodec;
+import com.javanabi.game.state.GameState;
+
+import java.util.SplittableRandom;
+
+/**
+ * Picks uniformly among its legal actions. Useful as a baseline and for
+ * shaking out the engine; seed it for reproducible games.
+ */
+public class RandomPlayer implements Player {
+    private final String name;
+    private final SplittableRandom random;
+    private final int[] legal = new int[LegalMoves.MAX_ACTIONS];
+    
+    public RandomPlayer(String name) {
+        this(name, new SplittableRandom().nextLong());
+    }
+    
+    public RandomPlayer(String name, long seed) {
+        this.name = name;
+        this.random = new SplittableRandom(seed);
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    @Override
+    public void initialize(GameState initialState) {
+    }
+    
+    @Override
+    public Action takeTurn(GameState currentState) {
+        int seat = currentState.getPlayers().indexOf(name);
+        int count = LegalMoves.generate(currentState, seat, legal);
+        return ActionCodec.decode(legal[random.nextInt(count)], seat, currentState.getPlayers());
+    }
+    
+    @Override
+    public void receiveClue(Clue clue) {
+    }
+    
+    @Override
+    public void notifyPlayerAction(String playerName, Action action) {
+    }
+    
+    @Override
+    public void notifyGameEnd(int score, boolean won) {
+    }
+}
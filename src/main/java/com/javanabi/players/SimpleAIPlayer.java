@@ -1,25 +1,33 @@
 package com.javanabi.players;
 
 import com.javanabi.domain.Card;
-import com.javanabi.game.Deck;
+import com.javanabi.game.KnowledgeAware;
 import com.javanabi.game.Player;
+import com.javanabi.game.VariantRules;
 import com.javanabi.game.action.*;
 import com.javanabi.game.state.GameState;
 import com.javanabi.util.CardKnowledge;
+import com.javanabi.util.KnowledgeView;
+import com.javanabi.util.PublicKnowledge;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
-public class SimpleAIPlayer implements Player {
+public class SimpleAIPlayer implements Player, KnowledgeAware {
     protected final String name;
     protected GameState currentState;
-    protected Map<String, List<CardKnowledge>> playerCardKnowledge;
-    protected List<Card> remainingCards;
+    // Shared by the engine, or ownKnowledge when nothing handed us one
+    protected KnowledgeView knowledge;
+    private PublicKnowledge ownKnowledge;
+    private DecisionCache decisionCache;
     
     public SimpleAIPlayer(String name) {
         this.name = name;
-        this.playerCardKnowledge = new HashMap<>();
-        this.remainingCards = new Deck().getRemainingCards();
+    }
+    
+    @Override
+    public void usePublicKnowledge(KnowledgeView knowledge) {
+        this.knowledge = knowledge;
     }
     
     @Override
@@ -32,28 +40,31 @@ public class SimpleAIPlayer implements Player {
         System.out.println(initialState);
         this.currentState = initialState;
         
-        // Initialize knowledge tracking for all players
-        playerCardKnowledge.clear();
-        for (String player : currentState.getPlayers()) {
-            int playerHandSize = currentState.getPlayerHandSize(player);
-            List<CardKnowledge> playerKnowledge = new ArrayList<>();
-            for (int i = 0; i < playerHandSize; i++) {
-                playerKnowledge.add(new CardKnowledge());
-            }
-            playerCardKnowledge.put(player, playerKnowledge);
+        // Outside an engine (e.g. driven by a test) track the public knowledge ourselves
+        if (knowledge == null || knowledge == ownKnowledge) {
+            ownKnowledge = new PublicKnowledge(currentState.getPlayers(), currentState.getPlayerHandSize(name), currentState.getRules());
+            knowledge = ownKnowledge;
         }
+        decisionCache = DecisionCache.forPolicy(policyKey());
     }
     
     @Override
     public Action takeTurn(GameState currentState) {
         this.currentState = currentState;
         System.out.println(currentState);
-        
+        if (decisionCache != null) {
+            return decisionCache.decide(currentState, knowledge, currentState.getPlayers().indexOf(name), this::chooseAction);
+        }
+        return chooseAction();
+    }
+    
+    // Everything the choice depends on must be in the decision cache key
+    protected Action chooseAction() {
         // Priority 1: Play 100% certain card
         Optional<Integer> playableCard = findCertainPlayableCard();
         if (playableCard.isPresent()) {
             int cardIndex = playableCard.get();
-            CardKnowledge playing =  playerCardKnowledge.get(this.name).get(cardIndex);
+            CardKnowledge playing = knowledge.get(this.name, cardIndex);
             System.out.println(playing);
             return new PlayCardAction(cardIndex);
         }
@@ -70,59 +81,49 @@ public class SimpleAIPlayer implements Player {
         Optional<Integer> uselessCard = findUselessCard();
         if (uselessCard.isPresent()) {
             int cardIndex = uselessCard.get();
-            CardKnowledge discarding = playerCardKnowledge.get(this.name).get(cardIndex);
+            CardKnowledge discarding = knowledge.get(this.name, cardIndex);
             System.out.println(discarding);
             return new DiscardCardAction(cardIndex);
         }
         
         // Priority 4: Discard oldest card
-        CardKnowledge discarding = playerCardKnowledge.get(this.name).get(0);
+        CardKnowledge discarding = knowledge.get(this.name, 0);
         System.out.println(discarding);
         return new DiscardCardAction(0);
     }
     
     @Override
     public void receiveClue(Clue clue) {
-        updateKnowledge(name, clue);
-    }
-
-    protected void updateKnowledge(String player, Clue clue) {
-        for (int i=0;i<currentState.getPlayerHandSize(player);i++) {
-            if (clue.getCardIndices().contains(i)) {
-                playerCardKnowledge.get(player).get(i).applyClue(clue);
-            } else {
-                playerCardKnowledge.get(player).get(i).applyNegativeClue(clue);
-            }
+        if (ownKnowledge != null) {
+            ownKnowledge.applyClue(name, clue);
         }
     }
 
-
     @Override
     public void notifyPlayerAction(String playerName, Action action) {
+        if (ownKnowledge == null) return;
         action.accept(new Action.ActionVisitor<Void>() {
             @Override
             public Void visit(GiveInfoAction giveInfoAction) {
-                updateKnowledge(giveInfoAction.getTargetPlayer(),giveInfoAction.getClue());
+                ownKnowledge.applyClue(giveInfoAction.getTargetPlayer(), giveInfoAction.getClue());
                 return null;
             }
             
             @Override
             public Void visit(PlayCardAction playCardAction) {
-                SimpleAIPlayer.this.remainingCards.remove(playCardAction.getCard());
-                playerCardKnowledge.get(playerName).remove(playCardAction.getHandIndex());
+                ownKnowledge.removeCard(playerName, playCardAction.getHandIndex(), playCardAction.getCard());
                 return null;
             }
             
             @Override
             public Void visit(DiscardCardAction discardCardAction) {
-                SimpleAIPlayer.this.remainingCards.remove(discardCardAction.getCard());
-                playerCardKnowledge.get(playerName).remove(discardCardAction.getHandIndex());
+                ownKnowledge.removeCard(playerName, discardCardAction.getHandIndex(), discardCardAction.getCard());
                 return null;
             }
 
             @Override
             public Void visit(DrawCardAction drawCardAction) {
-                playerCardKnowledge.get(playerName).add(new CardKnowledge());
+                ownKnowledge.drawCard(playerName);
                 return null;
             }
 
@@ -134,12 +135,16 @@ public class SimpleAIPlayer implements Player {
         System.out.println(name + " - Game ended! Score: " + score + ", Won: " + won);
     }
 
+    // Bots that play the same way share decision cache entries
+    protected String policyKey() {
+        return getClass().getSimpleName();
+    }
+
     protected Optional<Integer> findCertainPlayableCard() {
         int handSize = currentState.getPlayerHandSize(this.name);
         
         for (int i = 0; i < handSize; i++) {
-            CardKnowledge knowledge = playerCardKnowledge.get(this.name).get(i);
-            if (isCardCertainPlayable(knowledge)) {
+            if (isCardCertainPlayable(knowledge.get(this.name, i))) {
                 return Optional.of(i);
             }
         }
@@ -155,7 +160,7 @@ public class SimpleAIPlayer implements Player {
         //if we know the rank, and all cards of that rank are playable then the card is playable
         if (knowledge.isKnownRank()) {
             boolean playable = true;
-            for (Card.Suit s : Card.Suit.values()) {
+            for (Card.Suit s : currentState.getRules().getSuits()) {
                 if (!isCardPlayable(new Card(s,knowledge.getKnownRank()))) {playable=false; break;}
             }
             return playable;
@@ -173,20 +178,20 @@ public class SimpleAIPlayer implements Player {
         
         for (String targetPlayer : otherPlayers) {
             List<Card> targetHand = currentState.getPlayerHand(targetPlayer);
-            List<CardKnowledge> targetKnowledge = playerCardKnowledge.get(targetPlayer);
+            List<CardKnowledge> targetKnowledge = knowledge.getHand(targetPlayer);
             
             if (targetKnowledge == null) continue;
             List<GiveInfoAction> hints = new ArrayList<>();
 
             for (int i = 0; i < targetHand.size(); i++) {
                 Card card = targetHand.get(i);
-                CardKnowledge knowledge = targetKnowledge.get(i);
+                CardKnowledge cardKnowledge = targetKnowledge.get(i);
                 
                 if (isCardPlayable(card)) {
                     // Check if this player doesn't already know this card well enough
-                    if (!isCardCertainPlayable(knowledge)) {
+                    if (!isCardCertainPlayable(cardKnowledge)) {
                         // Check if we can make this card 100% certain with a hint
-                        hints.addAll(createHintForCard(targetPlayer, i, card, knowledge));
+                        hints.addAll(createHintForCard(targetPlayer, i, card, cardKnowledge));
                     }
                 }
             }
@@ -206,10 +211,11 @@ public class SimpleAIPlayer implements Player {
         List<Card> targetHand = currentState.getPlayerHand(targetPlayer);
         List<Integer> matchingIndices = new ArrayList<>();
         List<GiveInfoAction> hints = new ArrayList<>();
-        // Try suit hint if player doesn't already know the suit
-        if (!currentKnowledge.isKnownSuit()) {
+        // Try suit hint if player doesn't already know the suit; rainbow cards cannot be named
+        VariantRules rules = currentState.getRules();
+        if (!currentKnowledge.isKnownSuit() && rules.canNameColour(card.getSuit())) {
             for (int i = 0; i < targetHand.size(); i++) {
-                if (targetHand.get(i).getSuit() == card.getSuit()) {
+                if (rules.touches(card.getSuit(), targetHand.get(i).getSuit())) {
                     matchingIndices.add(i);
                 }
             }
@@ -242,9 +248,7 @@ public class SimpleAIPlayer implements Player {
         int handSize = currentState.getPlayerHandSize(this.name);
         
         for (int i = 0; i < handSize; i++) {
-            CardKnowledge knowledge = playerCardKnowledge.get(this.name).get(i);
-            
-            if (isCardUseless(knowledge)) {
+            if (isCardUseless(knowledge.get(this.name, i))) {
                 return Optional.of(i);
             }
         }
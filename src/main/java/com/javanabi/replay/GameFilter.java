@@ -0,0 +1,66 @@
+package com.javanabi.replay;
+
+import com.javanabi.domain.Card;
+
+/**
+ * A condition on one indexed game, evaluated against the index columns only.
+ */
+@FunctionalInterface
+public interface GameFilter {
+    boolean test(SegmentIndex index, int game);
+    
+    default GameFilter and(GameFilter other) {
+        return (index, game) -> test(index, game) && other.test(index, game);
+    }
+    
+    default GameFilter or(GameFilter other) {
+        return (index, game) -> test(index, game) || other.test(index, game);
+    }
+    
+    default GameFilter negate() {
+        return (index, game) -> !test(index, game);
+    }
+    
+    static GameFilter all() {
+        return (index, game) -> true;
+    }
+    
+    static GameFilter scoreBetween(int min, int max) {
+        return (index, game) -> {
+            int score = index.score(game);
+            return score >= min && score <= max;
+        };
+    }
+    
+    static GameFilter seatCount(int seats) {
+        return (index, game) -> index.seatCount(game) == seats;
+    }
+    
+    static GameFilter turnsAtMost(int turns) {
+        return (index, game) -> index.turnCount(game) <= turns;
+    }
+    
+    static GameFilter fuseLossesAtLeast(int losses) {
+        return (index, game) -> index.fuseLosses(game) >= losses;
+    }
+    
+    // e.g. rankDiscardedBefore(5, 10): a 5 was discarded before turn 10
+    static GameFilter rankDiscardedBefore(int rank, int turn) {
+        return (index, game) -> index.firstDiscardTurn(game, rank) < turn;
+    }
+    
+    static GameFilter discarded(Card.Suit suit, int rank) {
+        int bit = SegmentIndex.discardBit(suit, rank);
+        return (index, game) -> (index.discardBitmap(game) & bit) != 0;
+    }
+    
+    // At least one seat was played by the given player class
+    static GameFilter hasSeatType(String seatType) {
+        return (index, game) -> {
+            for (int seat = 0; seat < index.seatCount(game); seat++) {
+                if (index.seatTypeName(index.seatTypeId(game, seat)).equals(seatType)) return true;
+            }
+            return false;
+        };
+    }
+}
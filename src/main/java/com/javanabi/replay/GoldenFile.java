@@ -0,0 +1,121 @@
+package com.javanabi.replay;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Expected outcomes for the games of one replay segment, stored next to it as
+ * a .golden file: per game the final score and the state hash after the deal
+ * and after every action (low 32 bits of the engine's full ZobristHash).
+ *
+ * Records come first, followed by a footer of per-game record offsets,
+ * the segment size, the game count and MAGIC.
+ */
+final class GoldenFile {
+    private static final int MAGIC = 0x484E425A; // "HNBZ", Zobrist hashes
+    private static final String SUFFIX = ".golden";
+    private static final int FOOTER_SIZE = 8 + 4 + 4;
+    
+    private final ByteBuffer buffer;
+    private final int gameCount;
+    private final long segmentSize;
+    private final int offsets;
+    
+    private GoldenFile(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        int end = buffer.limit();
+        if (end < FOOTER_SIZE || buffer.getInt(end - 4) != MAGIC) {
+            throw new IOException("Not a golden file");
+        }
+        this.gameCount = buffer.getInt(end - 8);
+        this.segmentSize = buffer.getLong(end - 16);
+        this.offsets = end - FOOTER_SIZE - 4 * gameCount;
+    }
+    
+    static Path pathFor(Path segmentPath) {
+        String name = segmentPath.getFileName().toString();
+        return segmentPath.resolveSibling(name.substring(0, name.length() - ReplayFormat.SEGMENT_SUFFIX.length()) + SUFFIX);
+    }
+    
+    static GoldenFile open(Path segmentPath) throws IOException {
+        Path path = pathFor(segmentPath);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            GoldenFile golden = new GoldenFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            if (golden.segmentSize != Files.size(segmentPath)) {
+                throw new IOException("Golden file is out of date for " + segmentPath);
+            }
+            return golden;
+        }
+    }
+    
+    int getGameCount() {
+        return gameCount;
+    }
+    
+    int score(int game) {
+        return buffer.get(record(game));
+    }
+    
+    int turnCount(int game) {
+        return buffer.getShort(record(game) + 1) & 0xFFFF;
+    }
+    
+    // turn 0 is the deal, turn t the state after the t-th action
+    int digest(int game, int turn) {
+        return buffer.getInt(record(game) + 3 + 4 * turn);
+    }
+    
+    private int record(int game) {
+        return buffer.getInt(offsets + 4 * game);
+    }
+    
+    static final class Writer implements AutoCloseable {
+        private final Path path;
+        private final Path temporary;
+        private final long segmentSize;
+        private final DataOutputStream out;
+        private int[] offsets = new int[1024];
+        private int gameCount;
+        private int position;
+        
+        Writer(Path segmentPath) throws IOException {
+            this.path = pathFor(segmentPath);
+            this.temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            this.segmentSize = Files.size(segmentPath);
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 64 * 1024));
+        }
+        
+        void add(int score, int[] digests, int digestCount) throws IOException {
+            if (gameCount == offsets.length) {
+                offsets = Arrays.copyOf(offsets, gameCount * 2);
+            }
+            offsets[gameCount++] = position;
+            out.writeByte(score);
+            out.writeShort(digestCount - 1);
+            for (int i = 0; i < digestCount; i++) {
+                out.writeInt(digests[i]);
+            }
+            position += 3 + 4 * digestCount;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            for (int i = 0; i < gameCount; i++) {
+                out.writeInt(offsets[i]);
+            }
+            out.writeLong(segmentSize);
+            out.writeInt(gameCount);
+            out.writeInt(MAGIC);
+            out.close();
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+}
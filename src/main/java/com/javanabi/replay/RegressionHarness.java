@@ -0,0 +1,337 @@
+package com.javanabi.replay;
+
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameListener;
+import com.javanabi.game.Player;
+import com.javanabi.game.PlayerFactory;
+import com.javanabi.game.action.Action;
+import com.javanabi.game.action.ActionCodec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks a replay archive against the current engine and bots.
+ *
+ * record: store the engine's state hash after every action and the final score of each game
+ * verify: replay every game and compare each hash and the final score to the recording
+ * bots:   re-run the recorded bots on each game's seed and diff their decisions turn by turn
+ *
+ * Work is split into one stripe of games per thread for every segment.
+ */
+public final class RegressionHarness {
+    private static final int MAX_EXAMPLES = 20;
+    
+    private final ReplayArchive archive;
+    private final int threads;
+    
+    public RegressionHarness(ReplayArchive archive, int threads) {
+        this.archive = archive;
+        this.threads = threads;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: java RegressionHarness <record|verify|bots> <archive directory> [threads]");
+            System.exit(1);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        RegressionHarness harness = new RegressionHarness(new ReplayArchive(Paths.get(args[1])), threads);
+        
+        // Bots print their reasoning; keep the report readable
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long start = System.nanoTime();
+        Report report;
+        switch (args[0]) {
+            case "record":
+                report = harness.record();
+                break;
+            case "verify":
+                report = harness.verify();
+                break;
+            case "bots":
+                report = harness.diffBots(PlayerFactory.shared());
+                break;
+            default:
+                System.setOut(out);
+                System.err.println("Unknown mode " + args[0]);
+                System.exit(1);
+                return;
+        }
+        System.setOut(out);
+        System.out.printf("%s: %s in %.1fs%n", args[0], report, (System.nanoTime() - start) / 1e9);
+        for (String example : report.getExamples()) {
+            System.out.println("  " + example);
+        }
+        System.exit(report.getMismatchedGames() == 0 ? 0 : 1);
+    }
+    
+    public Report record() throws IOException {
+        return run(archive.getSegmentPaths(), 1, (segment, stripe, stripes) -> {
+            Report report = new Report();
+            DigestRecorder recorder = new DigestRecorder();
+            try (GoldenFile.Writer writer = new GoldenFile.Writer(segment)) {
+                ReplayCursor cursor = ReplaySegment.open(segment).cursor();
+                while (cursor.next()) {
+                    recorder.reset();
+                    GameEngine game = replay(cursor, recorder);
+                    writer.add(game.getScore(), recorder.digests, recorder.count);
+                    report.games++;
+                    report.comparisons += recorder.count;
+                }
+            }
+            return report;
+        });
+    }
+    
+    public Report verify() throws IOException {
+        return run(archive.getSegmentPaths(), threads, (segment, stripe, stripes) -> {
+            Report report = new Report();
+            GoldenFile golden = GoldenFile.open(segment);
+            DigestRecorder recorder = new DigestRecorder();
+            ReplayCursor cursor = ReplaySegment.open(segment).cursor();
+            while (cursor.next()) {
+                int index = cursor.gameIndex();
+                if (index % stripes != stripe) continue;
+                report.games++;
+                if (index >= golden.getGameCount()) {
+                    report.mismatch(segment, index, "no golden record");
+                    continue;
+                }
+                recorder.reset();
+                GameEngine game;
+                try {
+                    game = replay(cursor, recorder);
+                } catch (IllegalStateException e) {
+                    report.mismatch(segment, index, e.getMessage());
+                    continue;
+                }
+                report.comparisons += recorder.count;
+                int turns = recorder.count - 1;
+                if (turns != golden.turnCount(index)) {
+                    report.mismatch(segment, index, "game lasted " + turns + " turns, recorded " + golden.turnCount(index));
+                    continue;
+                }
+                int firstDifference = -1;
+                for (int turn = 0; turn <= turns && firstDifference < 0; turn++) {
+                    if (recorder.digests[turn] != golden.digest(index, turn)) firstDifference = turn;
+                }
+                if (firstDifference >= 0) {
+                    report.mismatch(segment, index, "state differs after turn " + firstDifference);
+                } else if (game.getScore() != golden.score(index) || game.getScore() != cursor.score()) {
+                    report.mismatch(segment, index, "score " + game.getScore() + ", recorded " + cursor.score());
+                }
+            }
+            return report;
+        });
+    }
+    
+    public Report diffBots(PlayerFactory playerFactory) throws IOException {
+        return run(archive.getSegmentPaths(), threads, (segment, stripe, stripes) -> {
+            Report report = new Report();
+            ReplayCursor cursor = ReplaySegment.open(segment).cursor();
+            while (cursor.next()) {
+                int index = cursor.gameIndex();
+                if (index % stripes != stripe) continue;
+                List<Player> players = new ArrayList<>(cursor.seatCount());
+                for (int seat = 0; seat < cursor.seatCount(); seat++) {
+                    if (!playerFactory.isAvailable(cursor.seatType(seat))) break;
+                    players.add(playerFactory.create(cursor.seatType(seat), "Player " + (seat + 1)));
+                }
+                if (players.size() != cursor.seatCount()) {
+                    report.skipped++;
+                    continue;
+                }
+                report.games++;
+                GameEngine game = new GameEngine(players, cursor.config(), cursor.seed());
+                boolean diverged = false;
+                for (int turn = 0; turn < cursor.actionCount(); turn++) {
+                    int seat = game.getCurrentPlayerIndex();
+                    Player player = game.getCurrentPlayer();
+                    List<String> names = game.getGameState().getPlayers();
+                    int recorded = cursor.action(turn);
+                    int decided;
+                    try {
+                        decided = ActionCodec.encode(player.takeTurn(game.getPlayerGameState(player)), seat, names);
+                    } catch (RuntimeException e) {
+                        decided = -1;
+                    }
+                    report.comparisons++;
+                    if (decided != recorded) {
+                        report.mismatches++;
+                        if (!diverged) {
+                            report.mismatch(segment, index, "turn " + turn + " " + cursor.seatType(seat) + " chose "
+                                + describe(decided, seat, names) + ", recorded " + describe(recorded, seat, names));
+                            diverged = true;
+                        }
+                    }
+                    // Stay on the recorded line so later turns are compared from the same position
+                    if (!game.executeAction(ActionCodec.decode(recorded, seat, names))) {
+                        String detail = "recorded action at turn " + turn + " was rejected by the engine";
+                        if (diverged) {
+                            report.example(segment, index, detail);
+                        } else {
+                            report.mismatch(segment, index, detail);
+                        }
+                        break;
+                    }
+                }
+            }
+            return report;
+        });
+    }
+    
+    private static GameEngine replay(ReplayCursor cursor, DigestRecorder recorder) {
+        List<Player> players = new ArrayList<>(cursor.seatCount());
+        for (int seat = 0; seat < cursor.seatCount(); seat++) {
+            players.add(new SilentPlayer("Player " + (seat + 1)));
+        }
+        GameEngine game = new GameEngine(players, cursor.config(), cursor.seed());
+        recorder.add(game);
+        game.addListener(recorder);
+        for (int turn = 0; turn < cursor.actionCount(); turn++) {
+            int seat = game.getCurrentPlayerIndex();
+            if (!game.executeAction(ActionCodec.decode(cursor.action(turn), seat, game.getGameState().getPlayers()))) {
+                throw new IllegalStateException("recorded action at turn " + turn + " was rejected");
+            }
+        }
+        return game;
+    }
+    
+    private static String describe(int code, int seat, List<String> names) {
+        if (code < 0) return "an exception";
+        Action action = ActionCodec.decode(code, seat, names);
+        return action.getClass().getSimpleName() + (ActionCodec.type(code) == ActionCodec.CLUE ? " " + action : " " + ActionCodec.handIndex(code));
+    }
+    
+    private Report run(List<Path> segments, int stripes, SegmentTask task) throws IOException {
+        List<int[]> work = new ArrayList<>();
+        for (int segment = 0; segment < segments.size(); segment++) {
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                work.add(new int[] {segment, stripe});
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> work.parallelStream()
+                .map(unit -> {
+                    try {
+                        return task.run(segments.get(unit[0]), unit[1], stripes);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .reduce(new Report(), Report::merge)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) throw ((UncheckedIOException) e.getCause()).getCause();
+            throw new IOException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @FunctionalInterface
+    private interface SegmentTask {
+        Report run(Path segment, int stripe, int stripes) throws IOException;
+    }
+    
+    private static final class DigestRecorder implements GameListener {
+        private int[] digests = new int[128];
+        private int count;
+        
+        void reset() {
+            count = 0;
+        }
+        
+        void add(GameEngine game) {
+            if (count == digests.length) {
+                digests = Arrays.copyOf(digests, count * 2);
+            }
+            digests[count++] = (int) game.getStateHash();
+        }
+        
+        @Override
+        public void actionExecuted(GameEngine game, int seat, Action action) {
+            add(game);
+        }
+    }
+    
+    public static final class Report {
+        private long games;
+        private long skipped;
+        private long comparisons;
+        private long mismatches;
+        private long mismatchedGames;
+        private final List<String> examples = new ArrayList<>();
+        
+        private void mismatch(Path segment, int game, String detail) {
+            mismatchedGames++;
+            example(segment, game, detail);
+        }
+        
+        // Adds detail to a game already counted as mismatched
+        private void example(Path segment, int game, String detail) {
+            if (examples.size() < MAX_EXAMPLES) {
+                examples.add(segment.getFileName() + "#" + game + ": " + detail);
+            }
+        }
+        
+        private Report merge(Report other) {
+            Report merged = new Report();
+            merged.games = games + other.games;
+            merged.skipped = skipped + other.skipped;
+            merged.comparisons = comparisons + other.comparisons;
+            merged.mismatches = mismatches + other.mismatches;
+            merged.mismatchedGames = mismatchedGames + other.mismatchedGames;
+            merged.examples.addAll(examples);
+            for (String example : other.examples) {
+                if (merged.examples.size() < MAX_EXAMPLES) merged.examples.add(example);
+            }
+            return merged;
+        }
+        
+        public long getGames() {
+            return games;
+        }
+        
+        public long getSkipped() {
+            return skipped;
+        }
+        
+        public long getComparisons() {
+            return comparisons;
+        }
+        
+        public long getMismatches() {
+            return mismatches;
+        }
+        
+        public long getMismatchedGames() {
+            return mismatchedGames;
+        }
+        
+        public List<String> getExamples() {
+            return examples;
+        }
+        
+        @Override
+        public String toString() {
+            return games + " games, " + comparisons + " comparisons, " + mismatchedGames + " games differ"
+                + (mismatches > 0 ? " (" + mismatches + " decisions)" : "")
+                + (skipped > 0 ? ", " + skipped + " skipped" : "");
+        }
+    }
+}
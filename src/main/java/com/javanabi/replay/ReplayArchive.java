@@ -0,0 +1,63 @@
+package com.javanabi.replay;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A directory of replay segments written by ReplayWriter.
+ */
+public final class ReplayArchive {
+    private final Path directory;
+    
+    public ReplayArchive(Path directory) {
+        this.directory = directory;
+    }
+    
+    public List<Path> getSegmentPaths() throws IOException {
+        return listSegments(directory);
+    }
+    
+    public List<ReplaySegment> openSegments() throws IOException {
+        List<ReplaySegment> segments = new ArrayList<>();
+        for (Path path : listSegments(directory)) {
+            segments.add(ReplaySegment.open(path));
+        }
+        return segments;
+    }
+    
+    // Visits every game in segment order; the cursor is only valid during the callback
+    public void forEachGame(Consumer<ReplayCursor> visitor) throws IOException {
+        for (Path path : listSegments(directory)) {
+            ReplayCursor cursor = ReplaySegment.open(path).cursor();
+            while (cursor.next()) {
+                visitor.accept(cursor);
+            }
+        }
+    }
+    
+    static List<Path> listSegments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> {
+                    String name = path.getFileName().toString();
+                    return name.startsWith(ReplayFormat.SEGMENT_PREFIX) && name.endsWith(ReplayFormat.SEGMENT_SUFFIX);
+                })
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+    
+    static int segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(ReplayFormat.SEGMENT_PREFIX.length(), name.length() - ReplayFormat.SEGMENT_SUFFIX.length()));
+    }
+}
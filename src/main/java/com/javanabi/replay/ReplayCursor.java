@@ -0,0 +1,127 @@
+package com.javanabi.replay;
+
+import com.javanabi.util.GameConfig;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Flyweight view of one game at a time in a mapped segment. The accessors read
+ * straight from the mapping; nothing is copied until a caller asks for it.
+ */
+public final class ReplayCursor {
+    private final ByteBuffer buffer;
+    private final String[] seatTypes = new String[256];
+    private int next = ReplayFormat.FILE_HEADER_SIZE;
+    private int game = -1;
+    private int gameIndex = -1;
+    
+    ReplayCursor(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+    
+    // Advances to the next game; false at the end of the segment or at a truncated record
+    public boolean next() {
+        while (next < buffer.limit()) {
+            byte tag = buffer.get(next);
+            if (tag == ReplayFormat.SEAT_TYPE) {
+                if (next + 4 > buffer.limit()) break;
+                int id = buffer.get(next + 1) & 0xFF;
+                int length = buffer.getShort(next + 2);
+                if (next + 4 + length > buffer.limit()) break;
+                byte[] name = new byte[length];
+                buffer.get(next + 4, name);
+                seatTypes[id] = new String(name, StandardCharsets.UTF_8);
+                next += 4 + length;
+            } else if (tag == ReplayFormat.GAME) {
+                if (next + 5 > buffer.limit()) break;
+                int length = buffer.getInt(next + 1);
+                if (next + 5 + length > buffer.limit()) break;
+                game = next + 5;
+                next = game + length;
+                gameIndex++;
+                return true;
+            } else {
+                break;
+            }
+        }
+        next = buffer.limit();
+        game = -1;
+        return false;
+    }
+    
+    // Byte offset of the current game's body within the segment
+    public int offset() {
+        return game;
+    }
+    
+    // Position of the current game within its segment, counting from zero
+    public int gameIndex() {
+        return gameIndex;
+    }
+    
+    public long seed() {
+        return buffer.getLong(game);
+    }
+    
+    public int seatCount() {
+        return buffer.get(game + 8);
+    }
+    
+    public boolean isRainbowSuitEnabled() {
+        return (buffer.get(game + 9) & ReplayFormat.FLAG_RAINBOW) != 0;
+    }
+    
+    public boolean isSixthSuitEnabled() {
+        return (buffer.get(game + 9) & ReplayFormat.FLAG_SIXTH_SUIT) != 0;
+    }
+    
+    public int initialInfoTokens() {
+        return buffer.get(game + 10);
+    }
+    
+    public int maxInfoTokens() {
+        return buffer.get(game + 11);
+    }
+    
+    public int initialFuseTokens() {
+        return buffer.get(game + 12);
+    }
+    
+    // The variant the game was played in
+    public GameConfig config() {
+        return GameConfig.builder()
+            .enableRainbowSuit(isRainbowSuitEnabled())
+            .enableSixthSuit(isSixthSuitEnabled())
+            .initialInfoTokens(initialInfoTokens())
+            .maxInfoTokens(maxInfoTokens())
+            .initialFuseTokens(initialFuseTokens())
+            .build();
+    }
+    
+    public int score() {
+        return buffer.get(game + 13);
+    }
+    
+    public int actionCount() {
+        return buffer.getShort(game + 14) & 0xFFFF;
+    }
+    
+    public int seatTypeId(int seat) {
+        return buffer.get(game + ReplayFormat.GAME_FIXED_SIZE + seat) & 0xFF;
+    }
+    
+    // The player class of a seat, e.g. "BestValueHint"; shared, not copied per game
+    public String seatType(int seat) {
+        return seatTypes[seatTypeId(seat)];
+    }
+    
+    String seatTypeName(int id) {
+        return seatTypes[id];
+    }
+    
+    // ActionCodec code of the given turn
+    public int action(int turn) {
+        return buffer.getShort(game + ReplayFormat.GAME_FIXED_SIZE + seatCount() + 2 * turn) & 0xFFFF;
+    }
+}
@@ -0,0 +1,35 @@
+package com.javanabi.replay;
+
+/**
+ * Layout of replay segment files.
+ *
+ * A segment starts with MAGIC and VERSION, followed by records:
+ *
+ *   SEAT_TYPE  byte tag, byte id, short length, UTF-8 class name
+ *   GAME       byte tag, int body length, then the body:
+ *                long seed, byte seats, byte flags, byte info tokens,
+ *                byte max info tokens, byte fuse tokens, byte score,
+ *                short action count,
+ *                one seat type id per seat, one ActionCodec short per action
+ *
+ * Seat type ids are only meaningful within the segment that defined them.
+ */
+final class ReplayFormat {
+    static final int MAGIC = 0x484E4252; // "HNBR"
+    static final short VERSION = 1;
+    static final int FILE_HEADER_SIZE = 6;
+    
+    static final byte SEAT_TYPE = 1;
+    static final byte GAME = 2;
+    
+    static final int GAME_FIXED_SIZE = 8 + 1 + 1 + 1 + 1 + 1 + 1 + 2;
+    
+    static final int FLAG_RAINBOW = 1;
+    static final int FLAG_SIXTH_SUIT = 2;
+    
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".hnr";
+    
+    private ReplayFormat() {
+    }
+}
@@ -0,0 +1,169 @@
+package com.javanabi.replay;
+
+import com.javanabi.sim.ScoreStatistics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Queries over the side indexes of a replay archive. Every segment is scanned
+ * on its own thread and the per-segment results are merged at the end.
+ *
+ * <pre>
+ * long count = ReplayQuery.over(archive).where(GameFilter.rankDiscardedBefore(5, 10)).count();
+ * Map&lt;String, long[]&gt; byPairing = ReplayQuery.over(archive).scoreDistributionByPairing();
+ * </pre>
+ */
+public final class ReplayQuery {
+    public static final int MAX_SCORE = ScoreStatistics.MAX_SCORE;
+    
+    private final List<Path> segments;
+    private final GameFilter filter;
+    
+    private ReplayQuery(List<Path> segments, GameFilter filter) {
+        this.segments = segments;
+        this.filter = filter;
+    }
+    
+    public static ReplayQuery over(ReplayArchive archive) throws IOException {
+        return new ReplayQuery(archive.getSegmentPaths(), GameFilter.all());
+    }
+    
+    public ReplayQuery where(GameFilter condition) {
+        return new ReplayQuery(segments, filter.and(condition));
+    }
+    
+    public long count() {
+        return scan(index -> {
+            long count = 0;
+            for (int game = 0; game < index.getGameCount(); game++) {
+                if (filter.test(index, game)) count++;
+            }
+            return count;
+        }, Long::sum, 0L);
+    }
+    
+    // Count of matching games at each final score, index 0-MAX_SCORE
+    public long[] scoreDistribution() {
+        return scan(index -> {
+            long[] histogram = new long[MAX_SCORE + 1];
+            for (int game = 0; game < index.getGameCount(); game++) {
+                if (filter.test(index, game)) histogram[index.score(game)]++;
+            }
+            return histogram;
+        }, ReplayQuery::addHistograms, new long[MAX_SCORE + 1]);
+    }
+    
+    // Score histograms keyed by the sorted seat types, e.g. "BestValueHint+SimpleAIPlayer"
+    public Map<String, long[]> scoreDistributionByPairing() {
+        return scan(index -> {
+            // Group by seat type ids first so no key is built per game
+            Map<Long, long[]> byIds = new HashMap<>();
+            int[] ids = new int[5];
+            for (int game = 0; game < index.getGameCount(); game++) {
+                if (!filter.test(index, game)) continue;
+                int seats = index.seatCount(game);
+                for (int seat = 0; seat < seats; seat++) {
+                    ids[seat] = index.seatTypeId(game, seat);
+                }
+                Arrays.sort(ids, 0, seats);
+                // one byte per seat type id, seat count in the low three bits
+                long key = 0;
+                for (int seat = 0; seat < seats; seat++) {
+                    key = key << 8 | ids[seat];
+                }
+                key = key << 3 | seats;
+                byIds.computeIfAbsent(key, k -> new long[MAX_SCORE + 1])[index.score(game)]++;
+            }
+            Map<String, long[]> byName = new TreeMap<>();
+            for (Map.Entry<Long, long[]> entry : byIds.entrySet()) {
+                byName.merge(pairingName(index, entry.getKey()), entry.getValue(), ReplayQuery::addHistograms);
+            }
+            return byName;
+        }, (a, b) -> {
+            Map<String, long[]> merged = new TreeMap<>(a);
+            b.forEach((key, histogram) -> merged.merge(key, histogram, ReplayQuery::addHistograms));
+            return merged;
+        }, new TreeMap<>());
+    }
+    
+    // Locations of matching games, for pulling them out of the segments
+    public List<GameRef> find(int limit) {
+        List<GameRef> found = scan(index -> {
+            List<GameRef> refs = new ArrayList<>();
+            for (int game = 0; game < index.getGameCount() && refs.size() < limit; game++) {
+                if (filter.test(index, game)) refs.add(new GameRef(index.getSegmentPath(), game, index.offset(game)));
+            }
+            return refs;
+        }, (a, b) -> {
+            List<GameRef> merged = new ArrayList<>(a);
+            merged.addAll(b);
+            return merged;
+        }, new ArrayList<>());
+        return found.size() > limit ? found.subList(0, limit) : found;
+    }
+    
+    private <T> T scan(Function<SegmentIndex, T> perSegment, BinaryOperator<T> merge, T identity) {
+        return segments.parallelStream()
+            .map(segment -> {
+                try {
+                    return perSegment.apply(SegmentIndex.load(segment));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            })
+            .reduce(identity, merge);
+    }
+    
+    private static long[] addHistograms(long[] a, long[] b) {
+        long[] sum = new long[MAX_SCORE + 1];
+        for (int i = 0; i <= MAX_SCORE; i++) {
+            sum[i] = a[i] + b[i];
+        }
+        return sum;
+    }
+    
+    private static String pairingName(SegmentIndex index, long key) {
+        int seats = (int) (key & 0x7);
+        long ids = key >>> 3;
+        List<String> names = new ArrayList<>(seats);
+        for (int seat = 0; seat < seats; seat++) {
+            names.add(index.seatTypeName((int) (ids >>> (8 * seat)) & 0xFF));
+        }
+        return names.stream().sorted().collect(Collectors.joining("+"));
+    }
+    
+    public static final class GameRef {
+        private final Path segment;
+        private final int gameIndex;
+        private final int offset;
+        
+        GameRef(Path segment, int gameIndex, int offset) {
+            this.segment = segment;
+            this.gameIndex = gameIndex;
+            this.offset = offset;
+        }
+        
+        public Path getSegment() {
+            return segment;
+        }
+        
+        public int getGameIndex() {
+            return gameIndex;
+        }
+        
+        public int getOffset() {
+            return offset;
+        }
+        
+        @Override
+        public String toString() {
+            return segment.getFileName() + "#" + gameIndex;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.javanabi.replay;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A memory-mapped replay segment. Games are read in place through a cursor,
+ * so scanning a segment allocates nothing per game.
+ */
+public final class ReplaySegment {
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    
+    private ReplaySegment(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+    }
+    
+    public static ReplaySegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Segment too large to map: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < ReplayFormat.FILE_HEADER_SIZE || buffer.getInt(0) != ReplayFormat.MAGIC) {
+                throw new IOException("Not a replay segment: " + path);
+            }
+            if (buffer.getShort(4) != ReplayFormat.VERSION) {
+                throw new IOException("Unsupported replay version " + buffer.getShort(4) + " in " + path);
+            }
+            return new ReplaySegment(path, buffer);
+        }
+    }
+    
+    public Path getPath() {
+        return path;
+    }
+    
+    public long getSize() {
+        return buffer.limit();
+    }
+    
+    // Each call returns an independent cursor positioned before the first game
+    public ReplayCursor cursor() {
+        return new ReplayCursor(buffer);
+    }
+}
@@ -0,0 +1,173 @@
+package com.javanabi.replay;
+
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameListener;
+import com.javanabi.game.Player;
+import com.javanabi.game.action.Action;
+import com.javanabi.game.action.ActionCodec;
+import com.javanabi.metrics.InstrumentedPlayer;
+import com.javanabi.util.GameConfig;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Appends finished games to segment files in a directory, starting a new
+ * segment once the current one passes the size limit. Each segment's
+ * {@link SegmentIndex} is written as the segment is closed. Safe to share between tables.
+ */
+public final class ReplayWriter implements Closeable {
+    public static final long DEFAULT_SEGMENT_BYTES = 256L * 1024 * 1024;
+    
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final Map<String, Integer> seatTypeIds = new HashMap<>();
+    private DataOutputStream out;
+    private Path segment;
+    private SegmentIndex.Builder index;
+    private long segmentBytes;
+    private int segmentNumber;
+    
+    public ReplayWriter(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_BYTES);
+    }
+    
+    public ReplayWriter(Path directory, long maxSegmentBytes) throws IOException {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        Files.createDirectories(directory);
+        // Never append to an existing segment; its seat type table may differ
+        for (Path segment : ReplayArchive.listSegments(directory)) {
+            segmentNumber = Math.max(segmentNumber, ReplayArchive.segmentNumber(segment));
+        }
+    }
+    
+    // Archives the game, with the rules it is played under, once it ends
+    public void record(GameEngine game) {
+        game.addListener(new GameRecorder(game.getRules().toConfig()));
+    }
+    
+    private synchronized void append(long seed, List<String> seatTypes, GameConfig config, int score, int fuseLosses, SegmentIndex.DiscardTracker discards, int[] actions, int actionCount) throws IOException {
+        if (seatTypes.size() < 2 || seatTypes.size() > 5) {
+            throw new IllegalArgumentException("Games have 2-5 seats");
+        }
+        if (out == null || segmentBytes >= maxSegmentBytes) {
+            startSegment();
+        }
+        int[] typeIds = new int[seatTypes.size()];
+        for (int i = 0; i < typeIds.length; i++) {
+            typeIds[i] = seatTypeId(seatTypes.get(i));
+        }
+        int flags = (config.isRainbowSuitEnabled() ? ReplayFormat.FLAG_RAINBOW : 0)
+                  | (config.isSixthSuitEnabled() ? ReplayFormat.FLAG_SIXTH_SUIT : 0);
+        int bodyLength = ReplayFormat.GAME_FIXED_SIZE + typeIds.length + 2 * actionCount;
+        out.writeByte(ReplayFormat.GAME);
+        out.writeInt(bodyLength);
+        out.writeLong(seed);
+        out.writeByte(typeIds.length);
+        out.writeByte(flags);
+        out.writeByte(config.getInitialInfoTokens());
+        out.writeByte(config.getMaxInfoTokens());
+        out.writeByte(config.getInitialFuseTokens());
+        out.writeByte(score);
+        out.writeShort(actionCount);
+        for (int typeId : typeIds) {
+            out.writeByte(typeId);
+        }
+        for (int i = 0; i < actionCount; i++) {
+            out.writeShort(actions[i]);
+        }
+        index.add((int) segmentBytes + 5, score, actionCount, fuseLosses, typeIds, discards);
+        segmentBytes += 5 + bodyLength;
+    }
+    
+    public synchronized void flush() throws IOException {
+        if (out != null) out.flush();
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+            List<String> names = new ArrayList<>(Collections.nCopies(seatTypeIds.size(), ""));
+            for (Map.Entry<String, Integer> entry : seatTypeIds.entrySet()) {
+                names.set(entry.getValue(), entry.getKey());
+            }
+            index.write(SegmentIndex.indexPath(segment), names, segmentBytes);
+        }
+    }
+    
+    private int seatTypeId(String seatType) throws IOException {
+        Integer id = seatTypeIds.get(seatType);
+        if (id == null) {
+            if (seatTypeIds.size() == 256) {
+                throw new IOException("Too many seat types in one segment");
+            }
+            id = seatTypeIds.size();
+            byte[] name = seatType.getBytes(StandardCharsets.UTF_8);
+            out.writeByte(ReplayFormat.SEAT_TYPE);
+            out.writeByte(id);
+            out.writeShort(name.length);
+            out.write(name);
+            segmentBytes += 4 + name.length;
+            seatTypeIds.put(seatType, id);
+        }
+        return id;
+    }
+    
+    private void startSegment() throws IOException {
+        close();
+        segmentNumber++;
+        segment = directory.resolve(String.format("%s%06d%s", ReplayFormat.SEGMENT_PREFIX, segmentNumber, ReplayFormat.SEGMENT_SUFFIX));
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(segment), 64 * 1024));
+        out.writeInt(ReplayFormat.MAGIC);
+        out.writeShort(ReplayFormat.VERSION);
+        segmentBytes = ReplayFormat.FILE_HEADER_SIZE;
+        seatTypeIds.clear();
+        index = new SegmentIndex.Builder();
+    }
+    
+    private final class GameRecorder implements GameListener {
+        private final GameConfig config;
+        private final SegmentIndex.DiscardTracker discards = new SegmentIndex.DiscardTracker();
+        private int[] actions = new int[96];
+        private int actionCount;
+        
+        GameRecorder(GameConfig config) {
+            this.config = config;
+        }
+        
+        @Override
+        public void actionExecuted(GameEngine game, int seat, Action action) {
+            if (actionCount == actions.length) {
+                actions = Arrays.copyOf(actions, actionCount * 2);
+            }
+            actions[actionCount++] = ActionCodec.encode(action, seat, game.getGameState().getPlayers());
+            discards.actionExecuted(game, seat, action);
+        }
+        
+        @Override
+        public void gameEnded(GameEngine game) {
+            List<String> seatTypes = new ArrayList<>();
+            for (Player player : game.getPlayers()) {
+                // Record the bot, not the wrapper timing it
+                Player seat = player instanceof InstrumentedPlayer ? ((InstrumentedPlayer) player).getDelegate() : player;
+                seatTypes.add(seat.getClass().getSimpleName());
+            }
+            try {
+                int fuseLosses = config.getInitialFuseTokens() - game.getGameState().getFuseTokens();
+                append(game.getSeed(), seatTypes, config, game.getScore(), fuseLosses, discards, actions, actionCount);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
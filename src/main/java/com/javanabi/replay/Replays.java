@@ -0,0 +1,33 @@
+package com.javanabi.replay;
+
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameListener;
+import com.javanabi.game.Player;
+import com.javanabi.game.action.ActionCodec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class Replays {
+    private Replays() {
+    }
+    
+    // Replays the cursor's current game with silent seats; the listener sees every action
+    public static GameEngine replay(ReplayCursor cursor, GameListener listener) {
+        List<Player> players = new ArrayList<>(cursor.seatCount());
+        for (int seat = 0; seat < cursor.seatCount(); seat++) {
+            players.add(new SilentPlayer("Player " + (seat + 1)));
+        }
+        GameEngine game = new GameEngine(players, cursor.config(), cursor.seed());
+        if (listener != null) {
+            game.addListener(listener);
+        }
+        for (int turn = 0; turn < cursor.actionCount(); turn++) {
+            int seat = game.getCurrentPlayerIndex();
+            if (!game.executeAction(ActionCodec.decode(cursor.action(turn), seat, game.getGameState().getPlayers()))) {
+                throw new IllegalStateException("Recorded action " + turn + " was rejected on replay");
+            }
+        }
+        return game;
+    }
+}
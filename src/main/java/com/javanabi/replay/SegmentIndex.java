@@ -0,0 +1,299 @@
+package com.javanabi.replay;
+
+import com.javanabi.domain.Card;
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameListener;
+import com.javanabi.game.action.Action;
+import com.javanabi.game.action.DiscardCardAction;
+import com.javanabi.game.action.PlayCardAction;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Columnar side index of a replay segment, stored next to it as a .idx file.
+ * One column per attribute, one entry per game, so queries touch only the
+ * columns they filter on and never replay a game. ReplayWriter writes it when
+ * it closes a segment; older segments are indexed by replaying them on first load.
+ *
+ * Discards include misplayed cards, since those land on the discard pile too.
+ */
+public final class SegmentIndex {
+    public static final int NEVER = 0xFF;
+    
+    private static final int MAGIC = 0x484E4249; // "HNBI"
+    private static final short VERSION = 1;
+    private static final String SUFFIX = ".idx";
+    private static final int MAX_SEATS = 5;
+    private static final int RANKS = 5;
+    
+    private final Path segmentPath;
+    private final ByteBuffer buffer;
+    private final int gameCount;
+    private final String[] seatTypeNames;
+    private final int offsets;
+    private final int scores;
+    private final int turns;
+    private final int fuseLosses;
+    private final int seatCounts;
+    private final int seatTypes;
+    private final int discards;
+    private final int firstDiscards;
+    
+    private SegmentIndex(Path segmentPath, ByteBuffer buffer) throws IOException {
+        this.segmentPath = segmentPath;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+            throw new IOException("Not a replay index for " + segmentPath);
+        }
+        this.gameCount = buffer.getInt(6);
+        int position = 18;
+        int typeCount = buffer.get(position++) & 0xFF;
+        this.seatTypeNames = new String[typeCount];
+        for (int i = 0; i < typeCount; i++) {
+            int length = buffer.getShort(position);
+            byte[] name = new byte[length];
+            buffer.get(position + 2, name);
+            seatTypeNames[i] = new String(name, StandardCharsets.UTF_8);
+            position += 2 + length;
+        }
+        this.offsets = position;
+        this.scores = offsets + 4 * gameCount;
+        this.turns = scores + gameCount;
+        this.fuseLosses = turns + 2 * gameCount;
+        this.seatCounts = fuseLosses + gameCount;
+        this.seatTypes = seatCounts + gameCount;
+        this.discards = seatTypes + MAX_SEATS * gameCount;
+        this.firstDiscards = discards + 4 * gameCount;
+    }
+    
+    // Maps the segment's index, building it first if it is missing or out of date
+    public static SegmentIndex load(Path segmentPath) throws IOException {
+        Path indexPath = indexPath(segmentPath);
+        long segmentSize = Files.size(segmentPath);
+        if (!Files.exists(indexPath) || indexedSize(indexPath) != segmentSize) {
+            build(segmentPath, indexPath, segmentSize);
+        }
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            return new SegmentIndex(segmentPath, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+    
+    public Path getSegmentPath() {
+        return segmentPath;
+    }
+    
+    public int getGameCount() {
+        return gameCount;
+    }
+    
+    public int seatTypeCount() {
+        return seatTypeNames.length;
+    }
+    
+    public String seatTypeName(int id) {
+        return seatTypeNames[id];
+    }
+    
+    public int offset(int game) {
+        return buffer.getInt(offsets + 4 * game);
+    }
+    
+    public int score(int game) {
+        return buffer.get(scores + game);
+    }
+    
+    public int turnCount(int game) {
+        return buffer.getShort(turns + 2 * game) & 0xFFFF;
+    }
+    
+    public int fuseLosses(int game) {
+        return buffer.get(fuseLosses + game);
+    }
+    
+    public int seatCount(int game) {
+        return buffer.get(seatCounts + game);
+    }
+    
+    public int seatTypeId(int game, int seat) {
+        return buffer.get(seatTypes + MAX_SEATS * game + seat) & 0xFF;
+    }
+    
+    // Bit (suit ordinal * 5 + rank - 1) is set if that card was ever discarded
+    public int discardBitmap(int game) {
+        return buffer.getInt(discards + 4 * game);
+    }
+    
+    public boolean wasDiscarded(int game, Card.Suit suit, int rank) {
+        return (discardBitmap(game) & discardBit(suit, rank)) != 0;
+    }
+    
+    // Turn on which a card of this rank was first discarded, or NEVER
+    public int firstDiscardTurn(int game, int rank) {
+        return buffer.get(firstDiscards + RANKS * game + rank - 1) & 0xFF;
+    }
+    
+    public static int discardBit(Card.Suit suit, int rank) {
+        return 1 << (suit.ordinal() * RANKS + rank - 1);
+    }
+    
+    static Path indexPath(Path segmentPath) {
+        String name = segmentPath.getFileName().toString();
+        return segmentPath.resolveSibling(name.substring(0, name.length() - ReplayFormat.SEGMENT_SUFFIX.length()) + SUFFIX);
+    }
+    
+    private static long indexedSize(Path indexPath) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(18);
+            if (channel.read(header, 0) < 18 || header.getInt(0) != MAGIC || header.getShort(4) != VERSION) {
+                return -1;
+            }
+            return header.getLong(10);
+        }
+    }
+    
+    private static void build(Path segmentPath, Path indexPath, long segmentSize) throws IOException {
+        ReplayCursor cursor = ReplaySegment.open(segmentPath).cursor();
+        Builder builder = new Builder();
+        DiscardTracker tracker = new DiscardTracker();
+        int maxTypeId = -1;
+        while (cursor.next()) {
+            tracker.reset();
+            GameEngine game = Replays.replay(cursor, tracker);
+            int[] typeIds = new int[cursor.seatCount()];
+            for (int seat = 0; seat < typeIds.length; seat++) {
+                typeIds[seat] = cursor.seatTypeId(seat);
+                maxTypeId = Math.max(maxTypeId, typeIds[seat]);
+            }
+            builder.add(cursor.offset(), cursor.score(), cursor.actionCount(), cursor.initialFuseTokens() - game.getGameState().getFuseTokens(), typeIds, tracker);
+        }
+        List<String> names = new ArrayList<>();
+        for (int id = 0; id <= maxTypeId; id++) {
+            String name = cursor.seatTypeName(id);
+            names.add(name == null ? "" : name);
+        }
+        builder.write(indexPath, names, segmentSize);
+    }
+    
+    // Accumulates the columns game by game; ReplayWriter fills one as it appends to a segment
+    static final class Builder {
+        private int capacity = 1024;
+        private int count;
+        private int[] offsets = new int[capacity];
+        private byte[] scores = new byte[capacity];
+        private short[] turns = new short[capacity];
+        private byte[] fuseLosses = new byte[capacity];
+        private byte[] seatCounts = new byte[capacity];
+        private byte[] seatTypes = new byte[MAX_SEATS * capacity];
+        private int[] discards = new int[capacity];
+        private byte[] firstDiscards = new byte[RANKS * capacity];
+        
+        void add(int offset, int score, int turnCount, int fuseLoss, int[] seatTypeIds, DiscardTracker tracker) {
+            if (count == capacity) {
+                capacity *= 2;
+                offsets = Arrays.copyOf(offsets, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+                turns = Arrays.copyOf(turns, capacity);
+                fuseLosses = Arrays.copyOf(fuseLosses, capacity);
+                seatCounts = Arrays.copyOf(seatCounts, capacity);
+                seatTypes = Arrays.copyOf(seatTypes, MAX_SEATS * capacity);
+                discards = Arrays.copyOf(discards, capacity);
+                firstDiscards = Arrays.copyOf(firstDiscards, RANKS * capacity);
+            }
+            offsets[count] = offset;
+            scores[count] = (byte) score;
+            turns[count] = (short) turnCount;
+            fuseLosses[count] = (byte) fuseLoss;
+            seatCounts[count] = (byte) seatTypeIds.length;
+            Arrays.fill(seatTypes, MAX_SEATS * count, MAX_SEATS * (count + 1), (byte) NEVER);
+            for (int seat = 0; seat < seatTypeIds.length; seat++) {
+                seatTypes[MAX_SEATS * count + seat] = (byte) seatTypeIds[seat];
+            }
+            discards[count] = tracker.bitmap;
+            System.arraycopy(tracker.firstTurn, 0, firstDiscards, RANKS * count, RANKS);
+            count++;
+        }
+        
+        // Writes to a fresh temporary file and moves it into place, so readers never see a half-written index
+        void write(Path indexPath, List<String> seatTypeNames, long segmentSize) throws IOException {
+            Path temporary = Files.createTempFile(indexPath.getParent(), indexPath.getFileName().toString(), ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 64 * 1024))) {
+                    out.writeInt(MAGIC);
+                    out.writeShort(VERSION);
+                    out.writeInt(count);
+                    out.writeLong(segmentSize);
+                    out.writeByte(seatTypeNames.size());
+                    for (String seatTypeName : seatTypeNames) {
+                        byte[] name = seatTypeName.getBytes(StandardCharsets.UTF_8);
+                        out.writeShort(name.length);
+                        out.write(name);
+                    }
+                    for (int i = 0; i < count; i++) out.writeInt(offsets[i]);
+                    out.write(scores, 0, count);
+                    for (int i = 0; i < count; i++) out.writeShort(turns[i]);
+                    out.write(fuseLosses, 0, count);
+                    out.write(seatCounts, 0, count);
+                    out.write(seatTypes, 0, MAX_SEATS * count);
+                    for (int i = 0; i < count; i++) out.writeInt(discards[i]);
+                    out.write(firstDiscards, 0, RANKS * count);
+                }
+                Files.move(temporary, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+    
+    // Notes each card that lands on the discard pile, misplays included, and the turn it got there
+    static final class DiscardTracker implements GameListener {
+        private final byte[] firstTurn = new byte[RANKS];
+        private int bitmap;
+        private int turn;
+        private int pileSize;
+        
+        DiscardTracker() {
+            reset();
+        }
+        
+        void reset() {
+            Arrays.fill(firstTurn, (byte) NEVER);
+            bitmap = 0;
+            turn = 0;
+            pileSize = 0;
+        }
+        
+        @Override
+        public void actionExecuted(GameEngine game, int seat, Action action) {
+            int size = 0;
+            for (List<Card> pile : game.getGameState().getDiscardedCards().values()) {
+                size += pile.size();
+            }
+            Card card = null;
+            if (size > pileSize && action instanceof DiscardCardAction) {
+                card = ((DiscardCardAction) action).getCard();
+            } else if (size > pileSize && action instanceof PlayCardAction) {
+                card = ((PlayCardAction) action).getCard();
+            }
+            pileSize = size;
+            if (card != null) {
+                bitmap |= discardBit(card.getSuit(), card.getRank());
+                if ((firstTurn[card.getRank() - 1] & 0xFF) == NEVER) {
+                    firstTurn[card.getRank() - 1] = (byte) Math.min(turn, NEVER - 1);
+                }
+            }
+            turn++;
+        }
+    }
+}
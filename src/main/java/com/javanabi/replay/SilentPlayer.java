@@ -0,0 +1,43 @@
+package com.javanabi.replay;
+
+import com.javanabi.game.Player;
+import com.javanabi.game.action.Action;
+import com.javanabi.game.state.GameState;
+
+/**
+ * Seat filler for replaying recorded actions: it ignores everything the
+ * engine tells it and never chooses a move itself.
+ */
+public final class SilentPlayer implements Player {
+    private final String name;
+    
+    public SilentPlayer(String name) {
+        this.name = name;
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    @Override
+    public void initialize(GameState initialState) {
+    }
+    
+    @Override
+    public Action takeTurn(GameState currentState) {
+        throw new UnsupportedOperationException("Replayed seats do not take turns");
+    }
+    
+    @Override
+    public void receiveClue(Clue clue) {
+    }
+    
+    @Override
+    public void notifyPlayerAction(String playerName, Action action) {
+    }
+    
+    @Override
+    public void notifyGameEnd(int score, boolean won) {
+    }
+}
@@ -0,0 +1,205 @@
+package com.javanabi.sim;
+
+import com.javanabi.game.DealBank;
+import com.javanabi.game.Deck;
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameTable;
+import com.javanabi.game.Player;
+import com.javanabi.game.PlayerFactory;
+import com.javanabi.game.VariantRules;
+import com.javanabi.metrics.GameMetrics;
+import com.javanabi.metrics.InstrumentedPlayer;
+import com.javanabi.metrics.MetricsServer;
+import com.javanabi.metrics.PlayerMetrics;
+import com.javanabi.players.DecisionCache;
+import com.javanabi.util.GameConfig;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays many games in-process across a fixed number of threads. Game i is
+ * dealt with seed firstSeed + i, so a batch is reproducible.
+ */
+public class BatchSimulator {
+    private final List<String> seatClasses;
+    private final int threads;
+    private final boolean instrumented;
+    private DealBank dealBank;
+    private GameConfig config = GameConfig.standard();
+    
+    public BatchSimulator(List<String> seatClasses, int threads, boolean instrumented) {
+        if (seatClasses.size() < 2 || seatClasses.size() > 5) {
+            throw new IllegalArgumentException("Hanabi requires 2-5 players");
+        }
+        for (String className : seatClasses) {
+            if (!PlayerFactory.shared().isAvailable(className)) {
+                throw new IllegalArgumentException("Unknown player class " + className);
+            }
+        }
+        this.seatClasses = new ArrayList<>(seatClasses);
+        this.threads = threads;
+        this.instrumented = instrumented;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int games = 1000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        boolean instrument = false;
+        int metricsPort = -1;
+        int cacheSize = 0;
+        boolean symmetricCache = false;
+        Path dealBankPath = null;
+        GameConfig config = GameConfig.standard();
+        List<String> seats = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-n": games = Integer.parseInt(args[++i]); break;
+                case "-t": threads = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--instrument": instrument = true; break;
+                case "--metrics-port": metricsPort = Integer.parseInt(args[++i]); instrument = true; break;
+                case "--decision-cache": cacheSize = Integer.parseInt(args[++i]); break;
+                case "--symmetric-cache": symmetricCache = true; break;
+                case "--deal-bank": dealBankPath = Path.of(args[++i]); break;
+                case "--variant": config = variant(args[++i]); break;
+                default: seats.add(args[i]);
+            }
+        }
+        if (seats.size() < 2 || seats.size() > 5) {
+            System.err.println("Usage: java BatchSimulator [-n games] [-t threads] [--seed first] [--instrument] [--metrics-port port] [--decision-cache entries] [--symmetric-cache] [--deal-bank file] [--variant rainbow|sixth] <PlayerClass1> <PlayerClass2> [...]");
+            System.exit(1);
+        }
+        
+        if (cacheSize > 0) DecisionCache.configure(cacheSize, symmetricCache);
+        
+        MetricsServer metricsServer = null;
+        if (metricsPort >= 0) {
+            metricsServer = new MetricsServer(metricsPort)
+                .register(GameMetrics.shared()::writePrometheus)
+                .register(PlayerMetrics.shared()::writePrometheus);
+            System.out.println("Metrics at http://localhost:" + metricsServer.getPort() + "/metrics");
+        }
+        
+        // The bots narrate every turn; keep the report readable
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        BatchSimulator simulator = new BatchSimulator(seats, threads, instrument);
+        if (dealBankPath != null) simulator.useDealBank(DealBank.open(dealBankPath));
+        simulator.useConfig(config);
+        long start = System.nanoTime();
+        BatchResult result = simulator.run(seed, games);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.setOut(out);
+        
+        System.out.println("Seats: " + String.join(", ", seats));
+        System.out.printf("Games: %d in %.2fs (%.0f games/sec on %d threads)%n", result.getGames(), seconds, result.getGames() / seconds, threads);
+        System.out.println();
+        System.out.print(result.getStatistics().report());
+        if (instrument) {
+            System.out.println();
+            System.out.print(PlayerMetrics.shared().report());
+        }
+        if (DecisionCache.isEnabled()) {
+            System.out.println();
+            System.out.print(DecisionCache.report());
+        }
+        if (metricsServer != null) {
+            System.out.println("\nPress Ctrl+C to stop serving metrics");
+            Thread.currentThread().join();
+        }
+    }
+    
+    // Seeds the bank holds are dealt from it instead of shuffled; the games are the same either way
+    public BatchSimulator useDealBank(DealBank dealBank) {
+        this.dealBank = dealBank;
+        return this;
+    }
+    
+    public BatchSimulator useConfig(GameConfig config) {
+        this.config = config;
+        return this;
+    }
+    
+    static GameConfig variant(String name) {
+        switch (name) {
+            case "standard": return GameConfig.standard();
+            case "rainbow": return GameConfig.builder().enableRainbowSuit(true).build();
+            case "sixth": return GameConfig.builder().enableSixthSuit(true).build();
+            default: throw new IllegalArgumentException("Unknown variant " + name);
+        }
+    }
+    
+    public BatchResult run(long firstSeed, long games) throws InterruptedException {
+        AtomicLong next = new AtomicLong();
+        // One aggregator per worker, merged once the pool has drained
+        List<ScoreStatistics> workerStatistics = new ArrayList<>(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            ScoreStatistics statistics = new ScoreStatistics();
+            workerStatistics.add(statistics);
+            executor.execute(() -> {
+                long game;
+                while ((game = next.getAndIncrement()) < games) {
+                    statistics.record(playGame(firstSeed + game));
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        ScoreStatistics statistics = new ScoreStatistics();
+        for (ScoreStatistics worker : workerStatistics) {
+            statistics.merge(worker);
+        }
+        return new BatchResult(statistics);
+    }
+    
+    public GameEngine playGame(long seed) {
+        List<Player> players = new ArrayList<>(seatClasses.size());
+        for (int seat = 0; seat < seatClasses.size(); seat++) {
+            Player player = PlayerFactory.shared().create(seatClasses.get(seat), "Player " + (seat + 1));
+            players.add(instrumented ? new InstrumentedPlayer(player) : player);
+        }
+        // Banks hold base game decks only
+        VariantRules rules = VariantRules.of(config);
+        Deck deck = dealBank != null && rules == VariantRules.STANDARD && dealBank.contains(seed)
+            ? dealBank.deck(seed)
+            : Deck.shuffled(rules, seed);
+        GameEngine game = new GameEngine(players, config, deck, seed);
+        if (instrumented) GameMetrics.shared().attach(game);
+        new GameTable(seed, game).run();
+        return game;
+    }
+    
+    public static final class BatchResult {
+        private final ScoreStatistics statistics;
+        
+        BatchResult(ScoreStatistics statistics) {
+            this.statistics = statistics;
+        }
+        
+        public long getGames() {
+            return statistics.getGames();
+        }
+        
+        public long getTotalScore() {
+            return statistics.getTotalScore();
+        }
+        
+        public double getMeanScore() {
+            return statistics.getMean();
+        }
+        
+        public ScoreStatistics getStatistics() {
+            return statistics;
+        }
+    }
+}
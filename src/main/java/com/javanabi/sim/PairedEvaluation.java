@@ -0,0 +1,241 @@
+package com.javanabi.sim;
+
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameTable;
+import com.javanabi.game.Player;
+import com.javanabi.sim.cluster.WorkUnit;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares two configurations on a common bank of deals: deal i is dealt from
+ * seed firstSeed + i for both, so the difficulty of the deal cancels out of the
+ * per-deal score difference. The standard error of the mean difference is
+ * reported next to the one an unpaired comparison of the same size would get.
+ */
+public class PairedEvaluation {
+    private static final int MAX_DIFFERENCE = ScoreStatistics.MAX_SCORE;
+    
+    private final Config configA;
+    private final Config configB;
+    private final int threads;
+    
+    public PairedEvaluation(Config configA, Config configB, int threads) {
+        this.configA = configA;
+        this.configB = configB;
+        this.threads = threads;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        long deals = 10000;
+        long seed = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<String> seatsA = null;
+        List<String> seatsB = null;
+        double[] weightsA = null;
+        double[] weightsB = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-n": deals = Long.parseLong(args[++i]); break;
+                case "-t": threads = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--a": seatsA = List.of(args[++i].split(",")); break;
+                case "--b": seatsB = List.of(args[++i].split(",")); break;
+                case "--a-weights": weightsA = parseWeights(args[++i]); break;
+                case "--b-weights": weightsB = parseWeights(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (seatsA == null || seatsB == null) {
+            System.err.println("Usage: java PairedEvaluation --a Class1,Class2[,...] [--a-weights w1,...,w5] --b Class1,Class2[,...] [--b-weights w1,...,w5] [-n deals] [-t threads] [--seed first]");
+            System.exit(1);
+        }
+        PairedEvaluation evaluation = new PairedEvaluation(
+            new Config(seatsA, weightsA), new Config(seatsB, weightsB), threads);
+        
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long start = System.nanoTime();
+        PairedResult result = evaluation.run(seed, deals);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.setOut(out);
+        
+        System.out.println("A: " + describe(evaluation.configA));
+        System.out.println("B: " + describe(evaluation.configB));
+        System.out.printf("Deals: %d in %.2fs%n%n", result.getDeals(), seconds);
+        System.out.print(result.report());
+    }
+    
+    // Throws IllegalStateException if any game fails, after stopping the other workers
+    public PairedResult run(long firstSeed, long deals) throws InterruptedException {
+        AtomicLong next = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CompletionService<PairedResult> workers = new ExecutorCompletionService<>(executor);
+        try {
+            for (int t = 0; t < threads; t++) {
+                workers.submit(() -> {
+                    PairedResult result = new PairedResult();
+                    long deal;
+                    while ((deal = next.getAndIncrement()) < deals) {
+                        long seed = firstSeed + deal;
+                        result.record(configA.play(seed), configB.play(seed));
+                    }
+                    return result;
+                });
+            }
+            // Take workers as they finish, so a failure is seen as soon as it happens
+            PairedResult merged = new PairedResult();
+            for (int t = 0; t < threads; t++) {
+                try {
+                    merged.merge(workers.take().get());
+                } catch (ExecutionException e) {
+                    next.set(deals);
+                    throw new IllegalStateException("Paired game failed", e.getCause());
+                }
+            }
+            return merged;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private static String describe(Config config) {
+        double[] weights = config.weights();
+        return String.join(", ", config.seatClasses()) + (weights == null ? "" : " with weights " + Arrays.toString(weights));
+    }
+    
+    private static double[] parseWeights(String csv) {
+        return Arrays.stream(csv.split(",")).mapToDouble(Double::parseDouble).toArray();
+    }
+    
+    /** A seating and, optionally, the weights its BestValueHint seats play with. */
+    public record Config(List<String> seatClasses, double[] weights) {
+        public Config {
+            if (seatClasses.size() < 2 || seatClasses.size() > 5) {
+                throw new IllegalArgumentException("Hanabi requires 2-5 players");
+            }
+            seatClasses = List.copyOf(seatClasses);
+            weights = weights == null ? null : weights.clone();
+        }
+        
+        @Override
+        public double[] weights() {
+            return weights == null ? null : weights.clone();
+        }
+        
+        public GameEngine play(long seed) {
+            List<Player> players = new ArrayList<>(seatClasses.size());
+            for (int seat = 0; seat < seatClasses.size(); seat++) {
+                players.add(WorkUnit.createPlayer(seatClasses.get(seat), "Player " + (seat + 1), weights));
+            }
+            GameEngine game = new GameEngine(players, seed);
+            new GameTable(seed, game).run();
+            return game;
+        }
+    }
+    
+    /** Per deal differences B - A, plus each side on its own. Not thread safe; merge per worker results. */
+    public static final class PairedResult {
+        private final ScoreStatistics a = new ScoreStatistics();
+        private final ScoreStatistics b = new ScoreStatistics();
+        private final long[] differences = new long[2 * MAX_DIFFERENCE + 1];
+        private long deals;
+        private double mean;
+        private double m2;
+        
+        void record(GameEngine gameA, GameEngine gameB) {
+            a.record(gameA);
+            b.record(gameB);
+            int difference = gameB.getScore() - gameA.getScore();
+            differences[difference + MAX_DIFFERENCE]++;
+            deals++;
+            double delta = difference - mean;
+            mean += delta / deals;
+            m2 += delta * (difference - mean);
+        }
+        
+        void merge(PairedResult other) {
+            if (other.deals == 0) return;
+            a.merge(other.a);
+            b.merge(other.b);
+            for (int i = 0; i < differences.length; i++) differences[i] += other.differences[i];
+            long total = deals + other.deals;
+            double delta = other.mean - mean;
+            mean += delta * other.deals / total;
+            m2 += other.m2 + delta * delta * ((double) deals * other.deals / total);
+            deals = total;
+        }
+        
+        public long getDeals() {
+            return deals;
+        }
+        
+        public ScoreStatistics getA() {
+            return a;
+        }
+        
+        public ScoreStatistics getB() {
+            return b;
+        }
+        
+        // Mean of B - A over the deal bank
+        public double getMeanDifference() {
+            return mean;
+        }
+        
+        public double getDifferenceStandardDeviation() {
+            return deals < 2 ? 0 : Math.sqrt(m2 / (deals - 1));
+        }
+        
+        public double getStandardError() {
+            return deals == 0 ? 0 : getDifferenceStandardDeviation() / Math.sqrt(deals);
+        }
+        
+        // What the standard error would be had A and B been played on independent deals
+        public double getUnpairedStandardError() {
+            return deals == 0 ? 0 : Math.sqrt((a.getVariance() + b.getVariance()) / deals);
+        }
+        
+        public long getCount(int difference) {
+            return differences[difference + MAX_DIFFERENCE];
+        }
+        
+        public String report() {
+            long better = 0;
+            long worse = 0;
+            for (int d = 1; d <= MAX_DIFFERENCE; d++) {
+                better += getCount(d);
+                worse += getCount(-d);
+            }
+            double se = getStandardError();
+            double unpaired = getUnpairedStandardError();
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Mean score A: %.3f, B: %.3f%n", a.getMean(), b.getMean()));
+            sb.append(String.format("Mean difference B - A: %+.4f (se %.4f, 95%% CI [%+.4f, %+.4f], z %.2f)%n",
+                mean, se, mean - 1.96 * se, mean + 1.96 * se, se == 0 ? 0 : mean / se));
+            sb.append(String.format("Unpaired se would be %.4f: pairing needs %.1fx fewer deals for the same precision%n",
+                unpaired, se == 0 ? Double.POSITIVE_INFINITY : (unpaired * unpaired) / (se * se)));
+            sb.append(String.format("B better on %d deals, worse on %d, tied on %d%n", better, worse, getCount(0)));
+            sb.append(String.format("Difference distribution:%n"));
+            long peak = 1;
+            for (long count : differences) peak = Math.max(peak, count);
+            for (int d = -MAX_DIFFERENCE; d <= MAX_DIFFERENCE; d++) {
+                long count = getCount(d);
+                if (count == 0) continue;
+                int bar = (int) Math.round(40.0 * count / peak);
+                sb.append(String.format("%+4d %10d %s%n", d, count, "#".repeat(Math.max(bar, 1))));
+            }
+            return sb.toString();
+        }
+    }
+}
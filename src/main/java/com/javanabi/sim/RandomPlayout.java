@@ -0,0 +1,145 @@
+package com.javanabi.sim;
+
+import com.javanabi.domain.Card;
+import com.javanabi.game.DealBank;
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.LegalMoves;
+import com.javanabi.game.LockstepEngine;
+import com.javanabi.game.Player;
+import com.javanabi.game.action.Action;
+import com.javanabi.game.action.ActionCodec;
+import com.javanabi.replay.SilentPlayer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Uniform random playouts driven straight through GameEngine.executeAction,
+ * bypassing the seated players. This is the rollout policy for search players.
+ * Run as a program, it fuzzes the engine: every generated action must be
+ * accepted and every game must end. With --lockstep K it plays the same
+ * deals K at a time on a LockstepEngine instead, and --deal-bank skips
+ * their shuffles.
+ */
+public final class RandomPlayout {
+    private final int[] legal = new int[LegalMoves.MAX_ACTIONS];
+    
+    // Plays the game out from its current position and returns the final score
+    public int playout(GameEngine game, RandomGenerator random) {
+        List<String> players = game.getGameState().getPlayers();
+        while (!game.isGameOver()) {
+            int count = game.getLegalActions(legal);
+            int seat = game.getCurrentPlayerIndex();
+            Action action = ActionCodec.decode(legal[random.nextInt(count)], seat, players);
+            if (!game.executeAction(action)) {
+                throw new IllegalStateException("Engine rejected generated action " + action + " at turn " + game.getTurnCount() + " of seed " + game.getSeed());
+            }
+        }
+        return game.getScore();
+    }
+    
+    public static void main(String[] args) throws IOException {
+        long games = 100000;
+        long seed = 1;
+        int seats = 0;
+        int lockstep = 0;
+        DealBank dealBank = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-n": games = Long.parseLong(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--seats": seats = Integer.parseInt(args[++i]); break;
+                case "--lockstep": lockstep = Integer.parseInt(args[++i]); break;
+                case "--deal-bank": dealBank = DealBank.open(Path.of(args[++i])); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (lockstep > 0) {
+            runLockstep(games, seed, seats > 0 ? seats : 2, lockstep, dealBank);
+            return;
+        }
+        RandomPlayout playout = new RandomPlayout();
+        ScoreStatistics statistics = new ScoreStatistics();
+        long turns = 0;
+        long start = System.nanoTime();
+        for (long g = 0; g < games; g++) {
+            SplittableRandom random = new SplittableRandom(seed + g);
+            // Without --seats, cycle through 2-5 players
+            int playerCount = seats > 0 ? seats : 2 + (int) (g % 4);
+            List<Player> players = new ArrayList<>(playerCount);
+            for (int p = 0; p < playerCount; p++) {
+                players.add(new SilentPlayer("Player " + (p + 1)));
+            }
+            GameEngine game = new GameEngine(players, seed + g);
+            playout.playout(game, random);
+            statistics.record(game);
+            turns += game.getTurnCount();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Playouts: %d in %.2fs (%.0f games/sec, %.0f turns/sec), no rejected actions%n",
+            games, seconds, games / seconds, turns / seconds);
+        System.out.printf("Mean random score: %.3f%n", statistics.getMean());
+    }
+    
+    private static void runLockstep(long games, long seed, int seats, int batch, DealBank dealBank) {
+        LockstepEngine engine = new LockstepEngine(batch, seats);
+        LockstepPolicy policy = new LockstepPolicy(batch);
+        ScoreStatistics statistics = new ScoreStatistics();
+        long turns = 0;
+        long start = System.nanoTime();
+        for (long first = 0; first < games; first += batch) {
+            if (dealBank != null) {
+                engine.dealAll(dealBank, seed + first);
+            } else {
+                engine.dealAll(seed + first);
+            }
+            policy.reset(engine);
+            engine.run(policy);
+            for (int game = 0; game < batch && first + game < games; game++) {
+                int completed = 0;
+                for (int suit = 0; suit < LockstepEngine.SUIT_COUNT; suit++) {
+                    if (engine.getPileHeight(game, suit) == 5) completed |= 1 << suit;
+                }
+                statistics.record(engine.getScore(game), engine.getFuseTokens(game) == 0, completed);
+                turns += engine.getTurnCount(game);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Lockstep playouts: %d in %.2fs (%.0f games/sec, %.0f turns/sec) with %d seats, %d games per batch%n",
+            statistics.getGames(), seconds, statistics.getGames() / seconds, turns / seconds, seats, batch);
+        System.out.printf("Mean random score: %.3f%n", statistics.getMean());
+    }
+    
+    /**
+     * Uniform random moves for a LockstepEngine. Game i draws from its own
+     * SplittableRandom seeded with its deal seed, making the same choices as
+     * playout() with that generator on a GameEngine.
+     */
+    public static final class LockstepPolicy implements LockstepEngine.Policy {
+        private final SplittableRandom[] randoms;
+        private final int[] legal = new int[LegalMoves.MAX_ACTIONS];
+        
+        public LockstepPolicy(int games) {
+            this.randoms = new SplittableRandom[games];
+        }
+        
+        // Call after dealing
+        public void reset(LockstepEngine engine) {
+            for (int game = 0; game < randoms.length; game++) {
+                randoms[game] = new SplittableRandom(engine.getSeed(game));
+            }
+        }
+        
+        @Override
+        public void chooseActions(LockstepEngine engine, int[] actions) {
+            for (int game = 0; game < randoms.length; game++) {
+                int count = engine.legalActions(game, legal);
+                if (count > 0) actions[game] = legal[randoms[game].nextInt(count)];
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.javanabi.sim;
+
+import com.javanabi.domain.Card;
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.VariantRules;
+import com.javanabi.game.state.GameState;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Constant memory summary of a stream of finished games. Not thread safe: give
+ * each worker its own instance and merge them when the workers are done.
+ * Mean and variance use Welford's update and Chan's pairwise combination, so
+ * precision holds up over billions of games.
+ */
+public final class ScoreStatistics {
+    // Highest score of any variant; six suits of five
+    public static final int MAX_SCORE = 30;
+    private static final Card.Suit[] SUITS = Card.Suit.values();
+    
+    private long games;
+    private double mean;
+    private double m2;
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+    private long fuseLosses;
+    private long perfectGames;
+    // Bit suit.ordinal() is set for every suit in play in some recorded game
+    private int suitsInPlay;
+    private final long[] histogram = new long[MAX_SCORE + 1];
+    private final long[] suitsCompleted = new long[SUITS.length];
+    
+    public void record(GameEngine game) {
+        GameState state = game.getGameState();
+        int completed = 0;
+        Map<Card.Suit, List<Card>> played = state.getPlayedCards();
+        for (Card.Suit suit : SUITS) {
+            List<Card> cards = played.get(suit);
+            if (cards != null && cards.size() == 5) {
+                completed |= 1 << suit.ordinal();
+            }
+        }
+        VariantRules rules = game.getRules();
+        record(game.getScore(), state.getFuseTokens() <= 0, completed, rules.getSuitMask(), game.getScore() == rules.getMaxScore());
+    }
+    
+    // completedSuits has bit suit.ordinal() set for every suit played up to 5
+    public void record(int score, boolean fuseLoss, int completedSuits) {
+        VariantRules rules = VariantRules.STANDARD;
+        record(score, fuseLoss, completedSuits, rules.getSuitMask(), score == rules.getMaxScore());
+    }
+    
+    public void record(int score, boolean fuseLoss, int completedSuits, int suitMask, boolean perfect) {
+        games++;
+        double delta = score - mean;
+        mean += delta / games;
+        m2 += delta * (score - mean);
+        min = Math.min(min, score);
+        max = Math.max(max, score);
+        histogram[score]++;
+        if (fuseLoss) fuseLosses++;
+        if (perfect) perfectGames++;
+        suitsInPlay |= suitMask;
+        for (int suit = 0; suit < suitsCompleted.length; suit++) {
+            if ((completedSuits & (1 << suit)) != 0) suitsCompleted[suit]++;
+        }
+    }
+    
+    public ScoreStatistics merge(ScoreStatistics other) {
+        if (other.games == 0) return this;
+        long total = games + other.games;
+        double delta = other.mean - mean;
+        mean += delta * other.games / total;
+        m2 += other.m2 + delta * delta * ((double) games * other.games / total);
+        games = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        fuseLosses += other.fuseLosses;
+        perfectGames += other.perfectGames;
+        suitsInPlay |= other.suitsInPlay;
+        for (int i = 0; i < histogram.length; i++) histogram[i] += other.histogram[i];
+        for (int i = 0; i < suitsCompleted.length; i++) suitsCompleted[i] += other.suitsCompleted[i];
+        return this;
+    }
+    
+    // Wire form used to ship partial statistics between JVMs
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(games);
+        out.writeDouble(mean);
+        out.writeDouble(m2);
+        out.writeInt(min);
+        out.writeInt(max);
+        out.writeLong(fuseLosses);
+        out.writeLong(perfectGames);
+        out.writeInt(suitsInPlay);
+        for (long count : histogram) out.writeLong(count);
+        out.writeByte(suitsCompleted.length);
+        for (long count : suitsCompleted) out.writeLong(count);
+    }
+    
+    public static ScoreStatistics readFrom(DataInput in) throws IOException {
+        ScoreStatistics statistics = new ScoreStatistics();
+        statistics.games = in.readLong();
+        statistics.mean = in.readDouble();
+        statistics.m2 = in.readDouble();
+        statistics.min = in.readInt();
+        statistics.max = in.readInt();
+        statistics.fuseLosses = in.readLong();
+        statistics.perfectGames = in.readLong();
+        statistics.suitsInPlay = in.readInt();
+        for (int i = 0; i < statistics.histogram.length; i++) statistics.histogram[i] = in.readLong();
+        int suits = in.readUnsignedByte();
+        if (suits != statistics.suitsCompleted.length) {
+            throw new IOException("Statistics for " + suits + " suits, expected " + statistics.suitsCompleted.length);
+        }
+        for (int i = 0; i < suits; i++) statistics.suitsCompleted[i] = in.readLong();
+        return statistics;
+    }
+    
+    public long getGames() {
+        return games;
+    }
+    
+    public double getMean() {
+        return mean;
+    }
+    
+    // Sample variance; zero until there are two games
+    public double getVariance() {
+        return games < 2 ? 0 : m2 / (games - 1);
+    }
+    
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+    
+    public double getStandardError() {
+        return games == 0 ? 0 : Math.sqrt(getVariance() / games);
+    }
+    
+    public int getMin() {
+        return games == 0 ? 0 : min;
+    }
+    
+    public int getMax() {
+        return games == 0 ? 0 : max;
+    }
+    
+    public long getCount(int score) {
+        return histogram[score];
+    }
+    
+    // Exact sum, recovered from the histogram rather than the running mean
+    public long getTotalScore() {
+        long total = 0;
+        for (int score = 0; score <= MAX_SCORE; score++) total += score * histogram[score];
+        return total;
+    }
+    
+    // Smallest score s such that at least p percent of games scored s or less
+    public int getPercentile(double p) {
+        long rank = (long) Math.ceil(p / 100 * games);
+        long seen = 0;
+        for (int score = 0; score <= MAX_SCORE; score++) {
+            seen += histogram[score];
+            if (seen >= rank && seen > 0) return score;
+        }
+        return getMax();
+    }
+    
+    // Games that ended with at least one fuse left, whatever their score
+    public double getNoFuseLossRate() {
+        return games == 0 ? 0 : 1 - (double) fuseLosses / games;
+    }
+    
+    // Perfect is the highest score of the variant each game was played in, which is also how a game is won
+    public double getPerfectRate() {
+        return rate(perfectGames);
+    }
+    
+    public double getSuitCompletionRate(Card.Suit suit) {
+        return rate(suitsCompleted[suit.ordinal()]);
+    }
+    
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Games: %d%n", games));
+        sb.append(String.format("Mean score: %.3f (sd %.3f, se %.4f), min %d, median %d, max %d%n",
+            mean, getStandardDeviation(), getStandardError(), getMin(), getPercentile(50), getMax()));
+        sb.append(String.format("No fuse loss: %.2f%%, perfect (won) games: %.2f%%%n", 100 * getNoFuseLossRate(), 100 * getPerfectRate()));
+        sb.append("Suits completed:");
+        for (Card.Suit suit : SUITS) {
+            if ((suitsInPlay & 1 << suit.ordinal()) == 0) continue;
+            sb.append(String.format(" %s %.1f%%", suit, 100 * getSuitCompletionRate(suit)));
+        }
+        sb.append(String.format("%nScore histogram:%n"));
+        long peak = 1;
+        for (long count : histogram) peak = Math.max(peak, count);
+        for (int score = 0; score <= MAX_SCORE; score++) {
+            if (histogram[score] == 0) continue;
+            int bar = (int) Math.round(40.0 * histogram[score] / peak);
+            sb.append(String.format("%3d %10d %s%n", score, histogram[score], "#".repeat(Math.max(bar, 1))));
+        }
+        return sb.toString();
+    }
+    
+    private double rate(long count) {
+        return games == 0 ? 0 : (double) count / games;
+    }
+}
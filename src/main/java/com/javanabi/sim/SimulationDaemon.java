@@ -0,0 +1,235 @@
+package com.javanabi.sim;
+
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.PlayerFactory;
+import com.javanabi.game.TableExecutors;
+import com.javanabi.metrics.GameMetrics;
+import com.javanabi.players.BestValueHint;
+import com.javanabi.sim.cluster.WorkUnit;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Long-lived game server for scripts that would otherwise start a JVM per game.
+ * Listens on the loopback interface and takes one request per line:
+ *
+ *   BestValueHint BestValueHint weights=0.5,1.5,1.5,1,1 seed=1 count=100
+ *
+ * Bare words are seat classes. weights= replaces the environment weights of
+ * the BestValueHint seats. Without seed= the games get random seeds. Games
+ * run on a shared pool, at most two per pool thread in flight per request so
+ * a huge count never queues millions of tasks. Each one streams back a JSON line as it finishes,
+ * followed by a summary line:
+ *
+ *   {"seed":1,"score":17,"turns":58,"fuseTokens":3}
+ *   {"done":true,"games":100,"mean":16.93,"standardError":0.21}
+ *
+ * A bad request gets {"error":"..."} before its summary line, and the
+ * connection stays open, so clients can always read up to "done". A client
+ * that disconnects mid-request has its remaining games cancelled.
+ * Every game is counted in GameMetrics.shared() and its seats are timed in
+ * PlayerMetrics.shared(), which HanabiServer --daemon can serve with
+ * --metrics-port.
+ */
+public class SimulationDaemon {
+    public static final int DEFAULT_PORT = 7625;
+    private static final int MAX_GAMES_PER_REQUEST = 10_000_000;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService pool;
+    private final int window;
+    private final ExecutorService connections = TableExecutors.newPerTableExecutor();
+
+    public SimulationDaemon(int port, int threads) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.pool = Executors.newFixedThreadPool(threads);
+        this.window = 2 * threads;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    // Blocks until the server socket is closed
+    public void serve() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> handle(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) System.err.println("Accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) continue;
+                if (line.equals("quit")) break;
+                Request request;
+                try {
+                    request = Request.parse(line);
+                } catch (IllegalArgumentException e) {
+                    out.write("{\"error\":\"" + escape(e.getMessage()) + "\"}\n");
+                    out.write("{\"done\":true,\"games\":0}\n");
+                    out.flush();
+                    continue;
+                }
+                run(request, out);
+            }
+        } catch (IOException e) {
+            // client went away
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run(Request request, Writer out) throws IOException, InterruptedException {
+        WorkUnit unit = new WorkUnit(request.seats, request.weights, request.firstSeed, request.count);
+        CompletionService<GameEngine> games = new ExecutorCompletionService<>(pool);
+        Set<Future<GameEngine>> inFlight = new HashSet<>();
+        int submitted = 0;
+        ScoreStatistics statistics = new ScoreStatistics();
+        String failure = null;
+        try {
+            for (int game = 0; game < request.count; game++) {
+                while (submitted < request.count && inFlight.size() < window) {
+                    long seed = request.firstSeed + submitted++;
+                    inFlight.add(games.submit(() -> unit.play(seed, GameMetrics.shared())));
+                }
+                Future<GameEngine> done = games.take();
+                inFlight.remove(done);
+                GameEngine engine;
+                try {
+                    engine = done.get();
+                } catch (ExecutionException e) {
+                    failure = String.valueOf(e.getCause());
+                    continue;
+                }
+                statistics.record(engine);
+                out.write("{\"seed\":" + engine.getSeed() + ",\"score\":" + engine.getScore()
+                    + ",\"turns\":" + engine.getTurnCount() + ",\"fuseTokens\":" + engine.getGameState().getFuseTokens() + "}\n");
+                // Flush per game so clients can consume results as they arrive
+                out.flush();
+            }
+        } finally {
+            // Only non-empty when the client went away or the handler was interrupted
+            for (Future<GameEngine> game : inFlight) {
+                game.cancel(true);
+            }
+        }
+        if (failure != null) {
+            out.write("{\"error\":\"" + escape(failure) + "\"}\n");
+        }
+        out.write(String.format("{\"done\":true,\"games\":%d,\"mean\":%.4f,\"standardError\":%.4f}%n",
+            statistics.getGames(), statistics.getMean(), statistics.getStandardError()));
+        out.flush();
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", " ");
+    }
+
+    static final class Request {
+        final List<String> seats;
+        final double[] weights;
+        final long firstSeed;
+        final int count;
+
+        private Request(List<String> seats, double[] weights, long firstSeed, int count) {
+            this.seats = seats;
+            this.weights = weights;
+            this.firstSeed = firstSeed;
+            this.count = count;
+        }
+
+        static Request parse(String line) {
+            List<String> seats = new ArrayList<>();
+            double[] weights = null;
+            Long seed = null;
+            int count = 1;
+            for (String token : line.split("\\s+")) {
+                int equals = token.indexOf('=');
+                if (equals < 0) {
+                    if (!PlayerFactory.shared().isAvailable(token)) {
+                        throw new IllegalArgumentException("Unknown player class " + token);
+                    }
+                    seats.add(token);
+                    continue;
+                }
+                String key = token.substring(0, equals);
+                String value = token.substring(equals + 1);
+                try {
+                    switch (key) {
+                        case "seats":
+                            for (String seat : value.split(",")) {
+                                if (!PlayerFactory.shared().isAvailable(seat)) {
+                                    throw new IllegalArgumentException("Unknown player class " + seat);
+                                }
+                                seats.add(seat);
+                            }
+                            break;
+                        case "weights":
+                            String[] parts = value.split(",");
+                            if (parts.length != BestValueHint.WEIGHT_NAMES.size()) {
+                                throw new IllegalArgumentException("Expected " + BestValueHint.WEIGHT_NAMES.size() + " weights");
+                            }
+                            weights = new double[parts.length];
+                            for (int i = 0; i < parts.length; i++) weights[i] = Double.parseDouble(parts[i]);
+                            break;
+                        case "seed":
+                            seed = Long.parseLong(value);
+                            break;
+                        case "count":
+                            count = Integer.parseInt(value);
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Unknown option " + key);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Bad value for " + key + ": " + value);
+                }
+            }
+            if (seats.size() < 2 || seats.size() > 5) {
+                throw new IllegalArgumentException("Hanabi requires 2-5 players");
+            }
+            if (count < 1 || count > MAX_GAMES_PER_REQUEST) {
+                throw new IllegalArgumentException("count must be between 1 and " + MAX_GAMES_PER_REQUEST);
+            }
+            // Random seeds are still reported per game, so any result can be replayed
+            long firstSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong() >>> 1;
+            return new Request(seats, weights, firstSeed, count);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.javanabi.sim;
+
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameTable;
+import com.javanabi.game.Player;
+import com.javanabi.game.PlayerFactory;
+import com.javanabi.metrics.InstrumentedPlayer;
+import com.javanabi.metrics.PlayerMetrics;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Round robin league over every lineup (multiset of bots) at each seat count.
+ * All lineups at a seat count play the same deals, with the seating rotated
+ * from deal to deal, so a deal's difficulty cancels out when lineups are
+ * compared.
+ *
+ * Hanabi is cooperative, so a bot is rated by what it adds to a table. Each
+ * game is scored relative to the mean of its deal across lineups. The ratings
+ * are the least squares fit of that adjusted score to the average rating of
+ * the seated bots. Confidence intervals come from resampling deals.
+ */
+public class Tournament {
+    private static final int BOOTSTRAP_SAMPLES = 200;
+    
+    private final List<String> bots;
+    private final int[] seatCounts;
+    private final int deals;
+    private final long firstSeed;
+    private final int threads;
+    // Times every seat when set
+    private PlayerMetrics metrics;
+    
+    public Tournament(List<String> bots, int[] seatCounts, int deals, long firstSeed, int threads) {
+        for (String bot : bots) {
+            if (!PlayerFactory.shared().isAvailable(bot)) {
+                throw new IllegalArgumentException("Unknown player class " + bot);
+            }
+        }
+        for (int seats : seatCounts) {
+            if (seats < 2 || seats > 5) throw new IllegalArgumentException("Hanabi requires 2-5 players");
+        }
+        this.bots = List.copyOf(bots);
+        this.seatCounts = seatCounts.clone();
+        this.deals = deals;
+        this.firstSeed = firstSeed;
+        this.threads = threads;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int deals = 100;
+        long seed = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int[] seatCounts = {2, 3, 4, 5};
+        boolean instrument = false;
+        List<String> bots = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-d": deals = Integer.parseInt(args[++i]); break;
+                case "-t": threads = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--seats": seatCounts = Arrays.stream(args[++i].split(",")).mapToInt(Integer::parseInt).toArray(); break;
+                case "--instrument": instrument = true; break;
+                default: bots.add(args[i]);
+            }
+        }
+        if (bots.isEmpty()) {
+            bots = List.of("SimpleAIPlayer", "BestValueHint", "AlwaysPlaysPlayer", "AlwaysDiscardsPlayer");
+        }
+        Tournament tournament = new Tournament(bots, seatCounts, deals, seed, threads);
+        if (instrument) tournament.useMetrics(PlayerMetrics.shared());
+        System.out.println("Bots: " + String.join(", ", bots));
+        System.out.println("Lineups: " + tournament.getLineups().size() + ", games: " + (long) tournament.getLineups().size() * deals);
+        
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long start = System.nanoTime();
+        Result result = tournament.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.setOut(out);
+        
+        System.out.printf("Played in %.1fs (%.0f games/sec)%n%n", seconds, result.getGames() / seconds);
+        System.out.print(result.leaderboard());
+        if (instrument) {
+            System.out.println();
+            System.out.print(PlayerMetrics.shared().report());
+        }
+    }
+    
+    public Tournament useMetrics(PlayerMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+    
+    // Lineups as sorted bot indices, grouped by seat count
+    public List<int[]> getLineups() {
+        List<int[]> lineups = new ArrayList<>();
+        for (int seats : seatCounts) {
+            addLineups(lineups, new int[seats], 0, 0);
+        }
+        return lineups;
+    }
+    
+    public Result run() throws InterruptedException {
+        List<int[]> lineups = getLineups();
+        byte[][] scores = new byte[lineups.size()][deals];
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> IntStream.range(0, lineups.size() * deals).parallel().forEach(task -> {
+                int lineup = task / deals;
+                int deal = task % deals;
+                scores[lineup][deal] = (byte) play(lineups.get(lineup), deal);
+            })).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tournament game failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return new Result(lineups, scores);
+    }
+    
+    private int play(int[] lineup, int deal) {
+        int seats = lineup.length;
+        List<Player> players = new ArrayList<>(seats);
+        for (int seat = 0; seat < seats; seat++) {
+            String bot = bots.get(lineup[(seat + deal) % seats]);
+            Player player = PlayerFactory.shared().create(bot, "Player " + (seat + 1));
+            players.add(metrics != null ? new InstrumentedPlayer(player, metrics) : player);
+        }
+        // Deals are shared by every lineup with the same seat count
+        GameEngine game = new GameEngine(players, firstSeed + deal * 8L + seats);
+        new GameTable(deal, game).run();
+        return game.getScore();
+    }
+    
+    private void addLineups(List<int[]> lineups, int[] lineup, int position, int from) {
+        if (position == lineup.length) {
+            lineups.add(lineup.clone());
+            return;
+        }
+        for (int bot = from; bot < bots.size(); bot++) {
+            lineup[position] = bot;
+            addLineups(lineups, lineup, position + 1, bot);
+        }
+    }
+    
+    public final class Result {
+        private final List<int[]> lineups;
+        private final byte[][] scores;
+        private final double[] ratings;
+        private final double[] low;
+        private final double[] high;
+        private final long[] games;
+        
+        Result(List<int[]> lineups, byte[][] scores) {
+            this.lineups = lineups;
+            this.scores = scores;
+            this.games = new long[bots.size()];
+            for (int[] lineup : lineups) {
+                for (int i = 0; i < lineup.length; i++) {
+                    if (i == 0 || lineup[i] != lineup[i - 1]) games[lineup[i]] += deals;
+                }
+            }
+            int[] allDeals = IntStream.range(0, deals).toArray();
+            this.ratings = fit(allDeals);
+            
+            // Resample deals with replacement and refit for percentile intervals
+            double[][] samples = new double[bots.size()][BOOTSTRAP_SAMPLES];
+            SplittableRandom random = new SplittableRandom(firstSeed);
+            int[] resample = new int[deals];
+            for (int b = 0; b < BOOTSTRAP_SAMPLES; b++) {
+                for (int i = 0; i < deals; i++) resample[i] = random.nextInt(deals);
+                double[] fitted = fit(resample);
+                for (int bot = 0; bot < fitted.length; bot++) samples[bot][b] = fitted[bot];
+            }
+            this.low = new double[bots.size()];
+            this.high = new double[bots.size()];
+            for (int bot = 0; bot < bots.size(); bot++) {
+                Arrays.sort(samples[bot]);
+                low[bot] = samples[bot][(int) (0.025 * (BOOTSTRAP_SAMPLES - 1))];
+                high[bot] = samples[bot][(int) Math.ceil(0.975 * (BOOTSTRAP_SAMPLES - 1))];
+            }
+        }
+        
+        // Least squares ratings over the given deals, solved by Gauss-Seidel on per-lineup means
+        private double[] fit(int[] sample) {
+            int n = lineups.size();
+            double[] adjusted = new double[n];
+            for (int seats : seatCounts) {
+                double[] dealMeans = new double[deals];
+                int count = 0;
+                for (int l = 0; l < n; l++) {
+                    if (lineups.get(l).length != seats) continue;
+                    count++;
+                    for (int deal = 0; deal < deals; deal++) dealMeans[deal] += scores[l][deal];
+                }
+                for (int l = 0; l < n; l++) {
+                    if (lineups.get(l).length != seats) continue;
+                    double sum = 0;
+                    for (int deal : sample) sum += scores[l][deal] - dealMeans[deal] / count;
+                    adjusted[l] = sum / sample.length;
+                }
+            }
+            
+            double[][] share = new double[n][bots.size()];
+            for (int l = 0; l < n; l++) {
+                for (int bot : lineups.get(l)) share[l][bot] += 1.0 / lineups.get(l).length;
+            }
+            double[] r = new double[bots.size()];
+            for (int iteration = 0; iteration < 100; iteration++) {
+                for (int bot = 0; bot < r.length; bot++) {
+                    double numerator = 0;
+                    double denominator = 0;
+                    for (int l = 0; l < n; l++) {
+                        double s = share[l][bot];
+                        if (s == 0) continue;
+                        double others = 0;
+                        for (int j = 0; j < r.length; j++) {
+                            if (j != bot) others += share[l][j] * r[j];
+                        }
+                        numerator += s * (adjusted[l] - others);
+                        denominator += s * s;
+                    }
+                    r[bot] = numerator / denominator;
+                }
+            }
+            return r;
+        }
+        
+        public long getGames() {
+            return (long) lineups.size() * deals;
+        }
+        
+        public double getRating(String bot) {
+            return ratings[bots.indexOf(bot)];
+        }
+        
+        public double[] getInterval(String bot) {
+            int index = bots.indexOf(bot);
+            return new double[] {low[index], high[index]};
+        }
+        
+        // Mean score when every seat is this bot
+        public double getSelfPlayMean(String bot, int seats) {
+            int index = bots.indexOf(bot);
+            for (int l = 0; l < lineups.size(); l++) {
+                int[] lineup = lineups.get(l);
+                if (lineup.length == seats && lineup[0] == index && lineup[seats - 1] == index) {
+                    double sum = 0;
+                    for (byte score : scores[l]) sum += score;
+                    return sum / deals;
+                }
+            }
+            return Double.NaN;
+        }
+        
+        public String leaderboard() {
+            Integer[] order = new Integer[bots.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Double.compare(ratings[b], ratings[a]));
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%-4s %-24s %8s %17s %10s", "Rank", "Bot", "Rating", "95% CI", "Games"));
+            for (int seats : seatCounts) sb.append(String.format(" %7s", "self" + seats));
+            sb.append('\n');
+            for (int rank = 0; rank < order.length; rank++) {
+                int bot = order[rank];
+                sb.append(String.format("%-4d %-24s %+8.3f [%+7.3f,%+7.3f] %10d",
+                    rank + 1, bots.get(bot), ratings[bot], low[bot], high[bot], games[bot]));
+                for (int seats : seatCounts) sb.append(String.format(" %7.2f", getSelfPlayMean(bots.get(bot), seats)));
+                sb.append('\n');
+            }
+            sb.append("Rating: points a table gains when this bot fills all its seats, relative to the average lineup on the same deals\n");
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.javanabi.sim;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Everything a TuningRunner needs to carry on after a restart, as a line per
+ * fact text file. Doubles are written with Double.toString so they read back
+ * bit for bit. Files are replaced atomically, so a crash mid-write leaves the
+ * previous checkpoint intact.
+ */
+final class TuningCheckpoint {
+    private static final String HEADER = "javanabi-tuning 1";
+    
+    // Run configuration, fixed for the life of the run
+    long seed;
+    int seats;
+    int games;
+    int population;
+    int generations;
+    double step;
+    // Grid mode: the values every weight takes, or null for the local search
+    double[] grid;
+    // The deal bank the run deals from, by its first seed and size; a count of 0 means none
+    long dealBankFirstSeed;
+    long dealBankCount;
+    
+    // Optimizer state
+    int generation;
+    double[] incumbent;
+    double incumbentScore = Double.NaN;
+    final List<Evaluation> evaluations = new ArrayList<>();
+    
+    static final class Evaluation {
+        final int generation;
+        final int index;
+        final double[] weights;
+        final double meanScore;
+        
+        Evaluation(int generation, int index, double[] weights, double meanScore) {
+            this.generation = generation;
+            this.index = index;
+            this.weights = weights;
+            this.meanScore = meanScore;
+        }
+    }
+    
+    void write(Path path) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer out = Channels.newWriter(channel, StandardCharsets.UTF_8);
+            out.write(HEADER + "\n");
+            out.write("seed " + seed + "\n");
+            out.write("seats " + seats + "\n");
+            out.write("games " + games + "\n");
+            out.write("population " + population + "\n");
+            out.write("generations " + generations + "\n");
+            out.write("step " + step + "\n");
+            if (grid != null) out.write("grid " + join(grid) + "\n");
+            if (dealBankCount > 0) out.write("deal-bank " + dealBankFirstSeed + " " + dealBankCount + "\n");
+            out.write("generation " + generation + "\n");
+            out.write("incumbent " + incumbentScore + " " + join(incumbent) + "\n");
+            for (Evaluation evaluation : evaluations) {
+                out.write("eval " + evaluation.generation + " " + evaluation.index + " " + evaluation.meanScore + " " + join(evaluation.weights) + "\n");
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    static TuningCheckpoint read(Path path) throws IOException {
+        TuningCheckpoint checkpoint = new TuningCheckpoint();
+        try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(in.readLine())) {
+                throw new IOException(path + " is not a tuning checkpoint");
+            }
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] f = line.split(" ");
+                switch (f[0]) {
+                    case "seed": checkpoint.seed = Long.parseLong(f[1]); break;
+                    case "seats": checkpoint.seats = Integer.parseInt(f[1]); break;
+                    case "games": checkpoint.games = Integer.parseInt(f[1]); break;
+                    case "population": checkpoint.population = Integer.parseInt(f[1]); break;
+                    case "generations": checkpoint.generations = Integer.parseInt(f[1]); break;
+                    case "step": checkpoint.step = Double.parseDouble(f[1]); break;
+                    case "grid": checkpoint.grid = parse(f, 1); break;
+                    case "deal-bank":
+                        checkpoint.dealBankFirstSeed = Long.parseLong(f[1]);
+                        checkpoint.dealBankCount = Long.parseLong(f[2]);
+                        break;
+                    case "generation": checkpoint.generation = Integer.parseInt(f[1]); break;
+                    case "incumbent":
+                        checkpoint.incumbentScore = Double.parseDouble(f[1]);
+                        checkpoint.incumbent = parse(f, 2);
+                        break;
+                    case "eval":
+                        checkpoint.evaluations.add(new Evaluation(Integer.parseInt(f[1]), Integer.parseInt(f[2]), parse(f, 4), Double.parseDouble(f[3])));
+                        break;
+                    default:
+                        throw new IOException("Unknown checkpoint line: " + line);
+                }
+            }
+        }
+        return checkpoint;
+    }
+    
+    private static String join(double[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (double value : values) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(value);
+        }
+        return sb.toString();
+    }
+    
+    private static double[] parse(String[] fields, int from) {
+        return Arrays.stream(fields, from, fields.length).mapToDouble(Double::parseDouble).toArray();
+    }
+}
@@ -0,0 +1,369 @@
+package com.javanabi.sim;
+
+import com.javanabi.game.DealBank;
+import com.javanabi.game.Deck;
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameTable;
+import com.javanabi.game.Player;
+import com.javanabi.players.BestValueHint;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tunes BestValueHint weights with a generational local search and survives
+ * restarts. Candidate weights and deal seeds are pure functions of the run seed,
+ * the generation and the candidate index, so the only state worth saving is the
+ * incumbent and the evaluations finished so far. Because of that, a resumed run
+ * produces exactly the same results whatever thread count it is given.
+ *
+ * Each generation evaluates the incumbent (index 0) plus population - 1
+ * gaussian mutations of it on the same fresh deals, and the best of them becomes
+ * the next incumbent.
+ *
+ * With --grid it instead sweeps every combination of the grid values, as
+ * helpers/weight_tester.py does, population combinations per generation. All
+ * combinations play the same deals, the incumbent is the best so far, and only
+ * the ten best evaluations are kept.
+ */
+public class TuningRunner {
+    private static final double MAX_WEIGHT = 5.0;
+    private static final int GRID_KEPT = 10;
+    
+    private final Path checkpointPath;
+    private final TuningCheckpoint state;
+    private final long checkpointIntervalNanos;
+    private long lastCheckpoint = System.nanoTime();
+    private PrintStream log = System.out;
+    private DealBank dealBank;
+    
+    public TuningRunner(Path checkpointPath, long seed, int seats, int games, int population, int generations, double step, long checkpointIntervalMillis) throws IOException {
+        this(checkpointPath, seed, seats, games, population, generations, step, null, checkpointIntervalMillis);
+    }
+    
+    // A non-null grid sweeps its combinations instead of searching; generations and step are then unused
+    public TuningRunner(Path checkpointPath, long seed, int seats, int games, int population, int generations, double step, double[] grid, long checkpointIntervalMillis) throws IOException {
+        this.checkpointPath = checkpointPath;
+        this.checkpointIntervalNanos = checkpointIntervalMillis * 1_000_000L;
+        if (Files.exists(checkpointPath)) {
+            state = TuningCheckpoint.read(checkpointPath);
+            return;
+        }
+        if (seats < 2 || seats > 5) throw new IllegalArgumentException("Hanabi requires 2-5 players");
+        if (population < 1 || games < 1) throw new IllegalArgumentException("population and games must be positive");
+        state = new TuningCheckpoint();
+        state.seed = seed;
+        state.seats = seats;
+        state.games = games;
+        state.population = population;
+        state.generations = generations;
+        state.step = step;
+        if (grid != null) {
+            if (grid.length == 0) throw new IllegalArgumentException("The grid needs at least one value");
+            state.grid = grid.clone();
+            state.generations = (int) ((gridSize(grid) + population - 1) / population);
+        }
+        state.incumbent = new double[BestValueHint.WEIGHT_NAMES.size()];
+        Arrays.fill(state.incumbent, 1.0);
+        checkpoint();
+    }
+    
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: java TuningRunner <checkpoint> [-t threads] [--seed s] [--seats n] [--games n] [--population n] [--generations n] [--step x] [--checkpoint-seconds n] [--deal-bank file] [--grid from:to:step]");
+            System.err.println("An existing checkpoint is resumed with its own settings; only the thread count can change.");
+            System.err.println("A run started with a deal bank must be resumed with the same bank.");
+            System.exit(1);
+        }
+        Path path = Paths.get(args[0]);
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        int seats = 2;
+        int games = 200;
+        int population = 16;
+        int generations = 50;
+        double step = 0.25;
+        long checkpointSeconds = 30;
+        Path dealBankPath = null;
+        double[] grid = null;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "-t": threads = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--seats": seats = Integer.parseInt(args[++i]); break;
+                case "--games": games = Integer.parseInt(args[++i]); break;
+                case "--population": population = Integer.parseInt(args[++i]); break;
+                case "--generations": generations = Integer.parseInt(args[++i]); break;
+                case "--step": step = Double.parseDouble(args[++i]); break;
+                case "--checkpoint-seconds": checkpointSeconds = Long.parseLong(args[++i]); break;
+                case "--deal-bank": dealBankPath = Paths.get(args[++i]); break;
+                case "--grid": grid = grid(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        boolean resuming = Files.exists(path);
+        TuningRunner runner = new TuningRunner(path, seed, seats, games, population, generations, step, grid, checkpointSeconds * 1000);
+        if (dealBankPath != null) runner.useDealBank(DealBank.open(dealBankPath));
+        if (resuming) {
+            System.out.println("Resuming " + path + " at generation " + runner.getGeneration() + " with " + runner.getEvaluationCount() + " evaluations done");
+        }
+        
+        // The bots narrate every turn; keep the progress log readable
+        PrintStream out = System.out;
+        runner.log = out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        // Preemption usually arrives as SIGTERM; save what has finished since the last checkpoint
+        Runtime.getRuntime().addShutdownHook(new Thread(runner::checkpointQuietly, "tuning-checkpoint"));
+        runner.run(threads);
+        System.setOut(out);
+        
+        System.out.println("\nTOP 10 RESULTS:");
+        List<TuningCheckpoint.Evaluation> top = runner.getEvaluations();
+        top.sort(Comparator.comparingDouble((TuningCheckpoint.Evaluation e) -> e.meanScore).reversed());
+        for (int i = 0; i < Math.min(10, top.size()); i++) {
+            TuningCheckpoint.Evaluation e = top.get(i);
+            System.out.printf("%2d. %.3f generation %d %s%n", i + 1, e.meanScore, e.generation, Arrays.toString(e.weights));
+        }
+        System.out.println("\nBEST CONFIGURATION:");
+        double[] best = runner.getIncumbent();
+        for (int i = 0; i < best.length; i++) {
+            System.out.println("export " + BestValueHint.WEIGHT_NAMES.get(i) + "=" + best[i]);
+        }
+    }
+    
+    // Deals each generation's games from a window of the bank instead of shuffling. The bank is
+    // recorded in the checkpoint, and a resumed run must be given the same one.
+    public synchronized void useDealBank(DealBank dealBank) {
+        if (dealBank.getCount() < state.games) {
+            throw new IllegalArgumentException("Deal bank holds " + dealBank.getCount() + " deals, a generation needs " + state.games);
+        }
+        if (state.dealBankCount == 0 && (state.generation > 0 || !state.evaluations.isEmpty())) {
+            throw new IllegalArgumentException("This run was started without a deal bank");
+        }
+        if (state.dealBankCount > 0 && (dealBank.getFirstSeed() != state.dealBankFirstSeed || dealBank.getCount() != state.dealBankCount)) {
+            throw new IllegalArgumentException("This run deals from " + bankDescription() + ", not " + dealBank.getCount()
+                + " deals from seed " + dealBank.getFirstSeed());
+        }
+        state.dealBankFirstSeed = dealBank.getFirstSeed();
+        state.dealBankCount = dealBank.getCount();
+        this.dealBank = dealBank;
+        checkpoint();
+    }
+    
+    public void run(int threads) throws InterruptedException {
+        synchronized (this) {
+            if (state.dealBankCount > 0 && dealBank == null) {
+                throw new IllegalStateException("This run deals from " + bankDescription() + "; resume it with --deal-bank");
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            while (getGeneration() < state.generations) {
+                runGeneration(executor);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private void runGeneration(ExecutorService executor) throws InterruptedException {
+        int generation;
+        double[] incumbent;
+        Set<Integer> done = new HashSet<>();
+        synchronized (this) {
+            generation = state.generation;
+            incumbent = state.incumbent.clone();
+            for (TuningCheckpoint.Evaluation evaluation : state.evaluations) {
+                if (evaluation.generation == generation) done.add(evaluation.index);
+            }
+        }
+        
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int index = 0; index < state.population; index++) {
+            if (state.grid != null && (long) generation * state.population + index >= gridSize(state.grid)) break;
+            if (done.contains(index)) continue;
+            int candidateIndex = index;
+            tasks.add(() -> {
+                double[] weights = candidate(incumbent, generation, candidateIndex);
+                double mean = evaluate(weights, generation);
+                recordEvaluation(new TuningCheckpoint.Evaluation(generation, candidateIndex, weights, mean));
+                return null;
+            });
+        }
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Evaluation failed", e.getCause());
+            }
+        }
+        
+        synchronized (this) {
+            // Ties keep the lower index, so the incumbent survives unless beaten
+            TuningCheckpoint.Evaluation best = null;
+            for (TuningCheckpoint.Evaluation evaluation : state.evaluations) {
+                if (evaluation.generation != generation) continue;
+                if (best == null || evaluation.meanScore > best.meanScore
+                        || (evaluation.meanScore == best.meanScore && evaluation.index < best.index)) {
+                    best = evaluation;
+                }
+            }
+            // The grid's incumbent is the best of every generation so far, and the earliest on ties
+            if (state.grid == null || best.meanScore > state.incumbentScore || Double.isNaN(state.incumbentScore)) {
+                state.incumbent = best.weights.clone();
+                state.incumbentScore = best.meanScore;
+            }
+            if (state.grid != null) keepBestEvaluations();
+            state.generation = generation + 1;
+            checkpoint();
+            if (state.grid == null) {
+                log.printf("Generation %d/%d: best %.3f %s%n", state.generation, state.generations, best.meanScore, Arrays.toString(best.weights));
+            } else if (state.generation % 100 == 0 || state.generation == state.generations) {
+                log.printf("Generation %d/%d: best so far %.3f %s%n", state.generation, state.generations, state.incumbentScore, Arrays.toString(state.incumbent));
+            }
+        }
+    }
+    
+    // Candidate 0 is the incumbent itself; the rest perturb every weight by a gaussian step.
+    // In grid mode candidates are the grid's combinations in order, the last weight varying fastest.
+    double[] candidate(double[] incumbent, int generation, int index) {
+        double[] weights = incumbent.clone();
+        if (state.grid != null) {
+            long combination = (long) generation * state.population + index;
+            for (int i = weights.length - 1; i >= 0; i--) {
+                weights[i] = state.grid[(int) (combination % state.grid.length)];
+                combination /= state.grid.length;
+            }
+            return weights;
+        }
+        if (index == 0) return weights;
+        SplittableRandom random = new SplittableRandom(mix(state.seed, generation, index));
+        for (int i = 0; i < weights.length; i++) {
+            double w = weights[i] + state.step * random.nextGaussian();
+            weights[i] = Math.round(Math.min(MAX_WEIGHT, Math.max(0, w)) * 1000) / 1000.0;
+        }
+        return weights;
+    }
+    
+    // Every candidate in a generation plays the same deals
+    double evaluate(double[] weights, int generation) {
+        long firstDeal = mix(state.seed, state.grid != null ? 0 : generation, -1);
+        if (dealBank != null) {
+            firstDeal = dealBank.getFirstSeed() + Math.floorMod(firstDeal, dealBank.getCount() - state.games + 1);
+        }
+        long total = 0;
+        for (int game = 0; game < state.games; game++) {
+            List<Player> players = new ArrayList<>(state.seats);
+            for (int seat = 0; seat < state.seats; seat++) {
+                players.add(new BestValueHint("Player " + (seat + 1), weights));
+            }
+            long seed = firstDeal + game;
+            GameEngine engine = new GameEngine(players, dealBank != null ? dealBank.deck(seed) : Deck.shuffled(seed), seed);
+            new GameTable(game, engine).run();
+            total += engine.getScore();
+        }
+        return (double) total / state.games;
+    }
+    
+    private void keepBestEvaluations() {
+        List<TuningCheckpoint.Evaluation> kept = new ArrayList<>(state.evaluations);
+        kept.sort(Comparator.comparingDouble((TuningCheckpoint.Evaluation e) -> -e.meanScore)
+            .thenComparingInt(e -> e.generation)
+            .thenComparingInt(e -> e.index));
+        state.evaluations.clear();
+        state.evaluations.addAll(kept.subList(0, Math.min(GRID_KEPT, kept.size())));
+    }
+    
+    private String bankDescription() {
+        return "a deal bank of " + state.dealBankCount + " deals from seed " + state.dealBankFirstSeed;
+    }
+    
+    private synchronized void recordEvaluation(TuningCheckpoint.Evaluation evaluation) {
+        state.evaluations.add(evaluation);
+        if (System.nanoTime() - lastCheckpoint >= checkpointIntervalNanos) {
+            checkpoint();
+        }
+    }
+    
+    private synchronized void checkpoint() {
+        try {
+            state.write(checkpointPath);
+            lastCheckpoint = System.nanoTime();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (UncheckedIOException e) {
+            System.err.println("Could not write checkpoint: " + e.getCause().getMessage());
+        }
+    }
+    
+    public synchronized int getGeneration() {
+        return state.generation;
+    }
+    
+    public synchronized int getEvaluationCount() {
+        return state.evaluations.size();
+    }
+    
+    synchronized List<TuningCheckpoint.Evaluation> getEvaluations() {
+        return new ArrayList<>(state.evaluations);
+    }
+    
+    public synchronized double[] getIncumbent() {
+        return state.incumbent.clone();
+    }
+    
+    public synchronized double getIncumbentScore() {
+        return state.incumbentScore;
+    }
+    
+    private static long gridSize(double[] grid) {
+        long size = 1;
+        for (int i = 0; i < BestValueHint.WEIGHT_NAMES.size(); i++) size *= grid.length;
+        return size;
+    }
+    
+    // from:to:step, both ends included
+    static double[] grid(String spec) {
+        String[] parts = spec.split(":");
+        if (parts.length != 3) throw new IllegalArgumentException("Expected --grid from:to:step, got " + spec);
+        double from = Double.parseDouble(parts[0]);
+        double to = Double.parseDouble(parts[1]);
+        double step = Double.parseDouble(parts[2]);
+        if (step <= 0 || to < from) throw new IllegalArgumentException("Empty grid " + spec);
+        double[] values = new double[(int) Math.floor((to - from) / step + 1e-9) + 1];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.round((from + i * step) * 1e9) / 1e9;
+        }
+        return values;
+    }
+    
+    private static long mix(long seed, int generation, int index) {
+        long z = seed + 0x9E3779B97F4A7C15L * (((long) generation << 32) ^ (index & 0xFFFFFFFFL)) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
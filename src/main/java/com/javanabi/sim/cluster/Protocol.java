@@ -0,0 +1,24 @@
+package com.javanabi.sim.cluster;
+
+/**
+ * Messages between coordinator and workers over one TCP connection, framed with
+ * DataOutputStream. The worker opens with HELLO; everything after is a type byte
+ * followed by its fields.
+ *
+ *   worker -> coordinator  HELLO   int magic, int threads
+ *   coordinator -> worker  UNIT    long unitId, WorkUnit
+ *   worker -> coordinator  RESULT  long unitId, ScoreStatistics
+ *   worker -> coordinator  FAILED  long unitId, UTF message
+ *   coordinator -> worker  STOP
+ */
+final class Protocol {
+    static final int MAGIC = 0x484E4253; // "HNBS"
+    
+    static final byte UNIT = 1;
+    static final byte RESULT = 2;
+    static final byte FAILED = 3;
+    static final byte STOP = 4;
+    
+    private Protocol() {
+    }
+}
@@ -0,0 +1,282 @@
+package com.javanabi.sim.cluster;
+
+import com.javanabi.sim.ScoreStatistics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands work units to any number of SimulationWorkers over TCP and collects
+ * their statistics. Each worker is kept supplied with as many units as it has
+ * threads. If a worker disconnects, or goes a whole lease without returning a
+ * result, its outstanding units go back to the front of the queue for the
+ * others. Workers may join or leave at any time and stay connected between jobs.
+ */
+public class SimulationCoordinator implements AutoCloseable {
+    private final ServerSocket server;
+    private final int leaseMillis;
+    private final Object lock = new Object();
+    private final ArrayDeque<Assignment> pending = new ArrayDeque<>();
+    private Job job;
+    private long nextUnitId;
+    private int workers;
+    private long reassigned;
+    private boolean closed;
+    
+    public SimulationCoordinator(int port, int leaseMillis) throws IOException {
+        this.server = new ServerSocket(port);
+        this.leaseMillis = leaseMillis;
+        Thread acceptor = new Thread(this::acceptLoop, "coordinator-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int port = 7455;
+        long games = 10000;
+        int unitSize = 500;
+        long seed = 1;
+        int leaseSeconds = 120;
+        List<String> seats = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-p": port = Integer.parseInt(args[++i]); break;
+                case "-n": games = Long.parseLong(args[++i]); break;
+                case "--unit": unitSize = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--lease": leaseSeconds = Integer.parseInt(args[++i]); break;
+                default: seats.add(args[i]);
+            }
+        }
+        if (seats.size() < 2 || seats.size() > 5) {
+            System.err.println("Usage: java SimulationCoordinator [-p port] [-n games] [--unit games] [--seed first] [--lease seconds] <PlayerClass1> <PlayerClass2> [...]");
+            System.err.println("Then start workers with: java SimulationWorker <host> <port> [-t threads]");
+            System.exit(1);
+        }
+        try (SimulationCoordinator coordinator = new SimulationCoordinator(port, leaseSeconds * 1000)) {
+            System.out.println("Coordinator listening on port " + coordinator.getPort());
+            long start = System.nanoTime();
+            ScoreStatistics statistics = coordinator.runMerged(WorkUnit.partition(seats, null, seed, games, unitSize));
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.println("Seats: " + String.join(", ", seats));
+            System.out.printf("Games: %d in %.2fs (%.0f games/sec, %d units reassigned)%n",
+                statistics.getGames(), seconds, statistics.getGames() / seconds, coordinator.getReassignedCount());
+            System.out.println();
+            System.out.print(statistics.report());
+        }
+    }
+    
+    // Blocks until every unit has a result; results are in unit order
+    public List<ScoreStatistics> run(List<WorkUnit> units) throws InterruptedException {
+        synchronized (lock) {
+            if (job != null) throw new IllegalStateException("A job is already running");
+            if (closed) throw new IllegalStateException("Coordinator is closed");
+            Job current = new Job(units.size());
+            job = current;
+            for (int i = 0; i < units.size(); i++) {
+                pending.add(new Assignment(nextUnitId++, current, i, units.get(i)));
+            }
+            lock.notifyAll();
+            try {
+                while (current.remaining > 0 && current.failure == null && !closed) {
+                    lock.wait();
+                }
+            } finally {
+                job = null;
+                pending.clear();
+            }
+            if (current.failure != null) throw new IllegalStateException(current.failure);
+            if (current.remaining > 0) throw new IllegalStateException("Coordinator closed with " + current.remaining + " units unfinished");
+            return Arrays.asList(current.results);
+        }
+    }
+    
+    public ScoreStatistics runMerged(List<WorkUnit> units) throws InterruptedException {
+        ScoreStatistics merged = new ScoreStatistics();
+        for (ScoreStatistics statistics : run(units)) {
+            merged.merge(statistics);
+        }
+        return merged;
+    }
+    
+    public int getPort() {
+        return server.getLocalPort();
+    }
+    
+    public int getWorkerCount() {
+        synchronized (lock) {
+            return workers;
+        }
+    }
+    
+    public long getReassignedCount() {
+        synchronized (lock) {
+            return reassigned;
+        }
+    }
+    
+    // Units of the running job that have a result
+    public int getCompletedCount() {
+        synchronized (lock) {
+            return job == null ? 0 : job.results.length - job.remaining;
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        server.close();
+    }
+    
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                Thread handler = new Thread(() -> serve(socket), "coordinator-" + socket.getRemoteSocketAddress());
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                // closed
+            }
+        }
+    }
+    
+    private void serve(Socket socket) {
+        Map<Long, Assignment> outstanding = new LinkedHashMap<>();
+        boolean registered = false;
+        try (socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            socket.setSoTimeout(leaseMillis);
+            if (in.readInt() != Protocol.MAGIC) return;
+            int credit = Math.max(1, in.readInt());
+            synchronized (lock) {
+                workers++;
+                registered = true;
+            }
+            while (true) {
+                while (outstanding.size() < credit) {
+                    Assignment assignment = nextAssignment(outstanding.isEmpty());
+                    if (assignment == null) break;
+                    out.writeByte(Protocol.UNIT);
+                    out.writeLong(assignment.id);
+                    assignment.unit.writeTo(out);
+                    outstanding.put(assignment.id, assignment);
+                }
+                out.flush();
+                if (outstanding.isEmpty()) {
+                    out.writeByte(Protocol.STOP);
+                    out.flush();
+                    return;
+                }
+                
+                byte type = in.readByte();
+                long id = in.readLong();
+                Assignment assignment = outstanding.remove(id);
+                if (type == Protocol.RESULT) {
+                    ScoreStatistics statistics = ScoreStatistics.readFrom(in);
+                    if (assignment != null) complete(assignment, statistics);
+                } else if (type == Protocol.FAILED) {
+                    String message = in.readUTF();
+                    if (assignment != null) fail(assignment, message);
+                } else {
+                    throw new IOException("Unexpected message type " + type);
+                }
+            }
+        } catch (IOException e) {
+            // Lost or unresponsive worker; let the others pick up its units
+            requeue(outstanding.values());
+        } finally {
+            if (registered) {
+                synchronized (lock) {
+                    workers--;
+                }
+            }
+        }
+    }
+    
+    // Returns null once the coordinator is closed, or straight away if nothing is pending and block is false
+    private Assignment nextAssignment(boolean block) {
+        synchronized (lock) {
+            while (block && pending.isEmpty() && !closed) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+            return closed ? null : pending.poll();
+        }
+    }
+    
+    private void complete(Assignment assignment, ScoreStatistics statistics) {
+        synchronized (lock) {
+            Job owner = assignment.job;
+            if (owner.results[assignment.index] != null) return;
+            owner.results[assignment.index] = statistics;
+            owner.remaining--;
+            lock.notifyAll();
+        }
+    }
+    
+    private void fail(Assignment assignment, String message) {
+        synchronized (lock) {
+            assignment.job.failure = "Unit " + assignment.unit + " failed: " + message;
+            lock.notifyAll();
+        }
+    }
+    
+    private void requeue(Collection<Assignment> assignments) {
+        synchronized (lock) {
+            for (Assignment assignment : assignments) {
+                if (assignment.job == job && job.results[assignment.index] == null) {
+                    pending.addFirst(assignment);
+                    reassigned++;
+                }
+            }
+            lock.notifyAll();
+        }
+    }
+    
+    private static final class Job {
+        final ScoreStatistics[] results;
+        int remaining;
+        String failure;
+        
+        Job(int units) {
+            this.results = new ScoreStatistics[units];
+            this.remaining = units;
+        }
+    }
+    
+    private static final class Assignment {
+        final long id;
+        final Job job;
+        final int index;
+        final WorkUnit unit;
+        
+        Assignment(long id, Job job, int index, WorkUnit unit) {
+            this.id = id;
+            this.job = job;
+            this.index = index;
+            this.unit = unit;
+        }
+    }
+}
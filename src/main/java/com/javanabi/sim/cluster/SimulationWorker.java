@@ -0,0 +1,108 @@
+package com.javanabi.sim.cluster;
+
+import com.javanabi.sim.ScoreStatistics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connects to a SimulationCoordinator and plays the units it is sent on a
+ * fixed pool, streaming back one ScoreStatistics per unit.
+ */
+public class SimulationWorker {
+    private final String host;
+    private final int port;
+    private final int threads;
+    
+    public SimulationWorker(String host, int port, int threads) {
+        this.host = host;
+        this.port = port;
+        this.threads = threads;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: java SimulationWorker <host> <port> [-t threads]");
+            System.exit(1);
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("-t")) threads = Integer.parseInt(args[++i]);
+        }
+        // The bots narrate every turn
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            new SimulationWorker(args[0], Integer.parseInt(args[1]), threads).run();
+        } catch (IOException e) {
+            System.err.println("Lost coordinator: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    // Returns when the coordinator says STOP
+    public void run() throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeInt(Protocol.MAGIC);
+            out.writeInt(threads);
+            out.flush();
+            
+            while (true) {
+                byte type;
+                try {
+                    type = in.readByte();
+                } catch (EOFException e) {
+                    throw new IOException("Coordinator closed the connection");
+                }
+                if (type == Protocol.STOP) break;
+                if (type != Protocol.UNIT) throw new IOException("Unexpected message type " + type);
+                long id = in.readLong();
+                WorkUnit unit = WorkUnit.readFrom(in);
+                pool.execute(() -> runUnit(id, unit, out));
+            }
+        } finally {
+            pool.shutdownNow();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+    
+    private static void runUnit(long id, WorkUnit unit, DataOutputStream out) {
+        ScoreStatistics statistics;
+        String failure = null;
+        try {
+            statistics = unit.run();
+        } catch (RuntimeException e) {
+            statistics = null;
+            failure = String.valueOf(e);
+        }
+        try {
+            synchronized (out) {
+                if (statistics != null) {
+                    out.writeByte(Protocol.RESULT);
+                    out.writeLong(id);
+                    statistics.writeTo(out);
+                } else {
+                    out.writeByte(Protocol.FAILED);
+                    out.writeLong(id);
+                    out.writeUTF(failure);
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            // The coordinator is gone; the reader loop will notice and the unit is reassigned elsewhere
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.javanabi.sim.cluster;
+
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameTable;
+import com.javanabi.game.Player;
+import com.javanabi.game.PlayerFactory;
+import com.javanabi.metrics.GameMetrics;
+import com.javanabi.metrics.InstrumentedPlayer;
+import com.javanabi.players.BestValueHint;
+import com.javanabi.sim.ScoreStatistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A contiguous range of seeds for one seating. When weights are given,
+ * BestValueHint seats use them instead of reading the environment, so a tuner
+ * can spread its candidates over the cluster.
+ */
+public final class WorkUnit {
+    private final List<String> seatClasses;
+    private final double[] weights;
+    private final long firstSeed;
+    private final int games;
+    
+    public WorkUnit(List<String> seatClasses, double[] weights, long firstSeed, int games) {
+        if (seatClasses.size() < 2 || seatClasses.size() > 5) {
+            throw new IllegalArgumentException("Hanabi requires 2-5 players");
+        }
+        this.seatClasses = List.copyOf(seatClasses);
+        this.weights = weights == null ? null : weights.clone();
+        this.firstSeed = firstSeed;
+        this.games = games;
+    }
+    
+    // Splits seeds [firstSeed, firstSeed + games) into units of at most unitSize games
+    public static List<WorkUnit> partition(List<String> seatClasses, double[] weights, long firstSeed, long games, int unitSize) {
+        List<WorkUnit> units = new ArrayList<>();
+        for (long offset = 0; offset < games; offset += unitSize) {
+            units.add(new WorkUnit(seatClasses, weights, firstSeed + offset, (int) Math.min(unitSize, games - offset)));
+        }
+        return units;
+    }
+    
+    public ScoreStatistics run() {
+        ScoreStatistics statistics = new ScoreStatistics();
+        for (int game = 0; game < games; game++) {
+            statistics.record(play(firstSeed + game));
+        }
+        return statistics;
+    }
+    
+    public GameEngine play(long seed) {
+        return play(seed, null);
+    }
+    
+    // Plays one game of the unit; when metrics is not null the game is counted there and its seats are timed in PlayerMetrics.shared()
+    public GameEngine play(long seed, GameMetrics metrics) {
+        List<Player> players = new ArrayList<>(seatClasses.size());
+        for (int seat = 0; seat < seatClasses.size(); seat++) {
+            Player player = createPlayer(seatClasses.get(seat), "Player " + (seat + 1), weights);
+            players.add(metrics != null ? new InstrumentedPlayer(player) : player);
+        }
+        GameEngine game = new GameEngine(players, seed);
+        if (metrics != null) metrics.attach(game);
+        new GameTable(seed, game).run();
+        return game;
+    }
+    
+    // BestValueHint seats take the weights when given; every other seat comes from PlayerFactory
+    public static Player createPlayer(String className, String name, double[] weights) {
+        return weights != null && className.equals("BestValueHint")
+            ? new BestValueHint(name, weights)
+            : PlayerFactory.shared().create(className, name);
+    }
+    
+    public List<String> getSeatClasses() {
+        return seatClasses;
+    }
+    
+    public double[] getWeights() {
+        return weights == null ? null : weights.clone();
+    }
+    
+    public long getFirstSeed() {
+        return firstSeed;
+    }
+    
+    public int getGames() {
+        return games;
+    }
+    
+    void writeTo(DataOutput out) throws IOException {
+        out.writeByte(seatClasses.size());
+        for (String className : seatClasses) out.writeUTF(className);
+        out.writeByte(weights == null ? 0 : weights.length);
+        if (weights != null) {
+            for (double weight : weights) out.writeDouble(weight);
+        }
+        out.writeLong(firstSeed);
+        out.writeInt(games);
+    }
+    
+    static WorkUnit readFrom(DataInput in) throws IOException {
+        List<String> seatClasses = new ArrayList<>();
+        int seats = in.readUnsignedByte();
+        for (int i = 0; i < seats; i++) seatClasses.add(in.readUTF());
+        int weightCount = in.readUnsignedByte();
+        double[] weights = null;
+        if (weightCount > 0) {
+            weights = new double[weightCount];
+            for (int i = 0; i < weightCount; i++) weights[i] = in.readDouble();
+        }
+        return new WorkUnit(seatClasses, weights, in.readLong(), in.readInt());
+    }
+    
+    @Override
+    public String toString() {
+        return seatClasses + (weights == null ? "" : " " + Arrays.toString(weights)) + " seeds " + firstSeed + "+" + games;
+    }
+}
@@ -0,0 +1,152 @@
+package com.javanabi.test;
+
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameTable;
+import com.javanabi.game.Player;
+import com.javanabi.game.PlayerFactory;
+import com.javanabi.game.VariantRules;
+import com.javanabi.game.log.ActionLog;
+import com.javanabi.game.log.LoggedTable;
+import com.javanabi.game.state.GameState;
+import com.javanabi.replay.SilentPlayer;
+import com.javanabi.util.GameConfig;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class ActionLogTest {
+    private static final long SEGMENT_BYTES = 32 * 1024;
+    
+    public static void main(String[] args) throws Exception {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        System.out.println("Testing action log recovery with " + tableCount + " tables...");
+        
+        Path logDirectory = Files.createTempDirectory("javanabi-actions");
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        
+        // Play every table part of the way, then "crash" by abandoning them
+        ActionLog log = new ActionLog(logDirectory, 2, true, SEGMENT_BYTES);
+        Map<Long, GameState> statesAtCrash = new HashMap<>();
+        Map<Long, VariantRules> rulesAtCrash = new HashMap<>();
+        List<GameConfig> configs = List.of(GameConfig.standard(),
+            GameConfig.builder().enableRainbowSuit(true).build(),
+            GameConfig.builder().initialInfoTokens(4).maxInfoTokens(6).initialFuseTokens(1).enableSixthSuit(true).build());
+        List<GameTable> tables = new ArrayList<>();
+        for (int i = 0; i < tableCount; i++) {
+            List<Player> players = List.of(
+                PlayerFactory.shared().create("BestValueHint", "Player 1"),
+                PlayerFactory.shared().create("SimpleAIPlayer", "Player 2"),
+                PlayerFactory.shared().create("BestValueHint", "Player 3")
+            );
+            // Variants deal differently from the same seed, so a rebuild under the wrong rules would not match
+            tables.add(new GameTable(GameTable.nextId(), new GameEngine(players, configs.get(i % configs.size()), i)));
+        }
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        for (int i = 0; i < tableCount; i++) {
+            GameTable table = tables.get(i);
+            int turns = i % 30;
+            executor.execute(() -> {
+                log.record(table);
+                for (int turn = 0; turn < turns && !table.getGame().isGameOver(); turn++) {
+                    table.playTurn();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+        log.close();
+        for (GameTable table : tables) {
+            statesAtCrash.put(table.getId(), table.getGame().getGameState());
+            rulesAtCrash.put(table.getId(), table.getGame().getRules());
+        }
+        
+        int segmentsAtCrash = ActionLog.segmentCount(logDirectory);
+        
+        // Restart: rebuild every table that had not finished and keep logging it, next to new tables
+        List<LoggedTable> recovered = ActionLog.recover(logDirectory);
+        ActionLog restarted = new ActionLog(logDirectory, 0, false, SEGMENT_BYTES);
+        boolean duplicateRejected = false;
+        try {
+            restarted.record(new GameTable(recovered.get(0).getTableId(), new GameEngine(List.of(
+                PlayerFactory.shared().create("BestValueHint", "Player 1"),
+                PlayerFactory.shared().create("BestValueHint", "Player 2")))));
+        } catch (IllegalArgumentException e) {
+            duplicateRejected = true;
+        }
+        int matching = 0;
+        int resumed = 0;
+        for (LoggedTable logged : recovered) {
+            GameTable rebuilt = logged.rebuild(PlayerFactory.shared());
+            GameState expected = statesAtCrash.get(logged.getTableId());
+            GameState actual = rebuilt.getGame().getGameState();
+            if (rebuilt.getGame().getRules() == rulesAtCrash.get(logged.getTableId())
+                    && expected.getHands().equals(actual.getHands())
+                    && expected.getInfoTokens() == actual.getInfoTokens()
+                    && expected.getFuseTokens() == actual.getFuseTokens()
+                    && expected.getDeckSize() == actual.getDeckSize()
+                    && expected.calculateScore() == actual.calculateScore()) {
+                matching++;
+            }
+            restarted.resume(rebuilt, logged.getActionCount());
+            rebuilt.run();
+            if (rebuilt.isFinished()) resumed++;
+            GameTable fresh = new GameTable(GameTable.nextId(), new GameEngine(List.of(
+                PlayerFactory.shared().create("BestValueHint", "Player 1"),
+                PlayerFactory.shared().create("BestValueHint", "Player 2"))));
+            restarted.record(fresh);
+            fresh.run();
+        }
+        // A table that fails part way is closed in the log too, so it is neither recovered nor pins its segment
+        GameTable failing = new GameTable(GameTable.nextId(), new GameEngine(List.of(
+            PlayerFactory.shared().create("BestValueHint", "Player 1"), new SilentPlayer("Player 2"))));
+        restarted.record(failing);
+        boolean failed = false;
+        try {
+            failing.run();
+        } catch (UnsupportedOperationException e) {
+            failed = true;
+        }
+        restarted.close();
+        System.setOut(out);
+        
+        long finished = statesAtCrash.values().stream().filter(GameState::isGameOver).count();
+        System.out.printf("Logged %d tables in %.2fs%n", tableCount, elapsed / 1e9);
+        System.out.println("Recovered " + recovered.size() + " unfinished tables (" + finished + " had finished)");
+        if (matching == recovered.size() && resumed == recovered.size() && recovered.size() + finished == tableCount) {
+            System.out.println("✅ Every unfinished table was rebuilt exactly, under its own rules, and played to the end");
+        } else {
+            System.out.println("❌ Only " + matching + "/" + recovered.size() + " tables rebuilt exactly");
+        }
+        if (duplicateRejected) {
+            System.out.println("✅ A table id still open in the log cannot be reused");
+        } else {
+            System.out.println("❌ A new table reused the id of a recovered one");
+        }
+        
+        // Every table has now finished or been abandoned, so closing the log leaves only the segment it was writing
+        int segmentsAtEnd = ActionLog.segmentCount(logDirectory);
+        System.out.println("Segments: " + segmentsAtCrash + " at the crash, " + segmentsAtEnd + " once every table finished");
+        if (failed && ActionLog.recover(logDirectory).isEmpty() && segmentsAtEnd == 1 && segmentsAtCrash > 1) {
+            System.out.println("✅ Segments were rolled and finished ones deleted");
+        } else {
+            System.out.println("❌ Finished segments were kept");
+        }
+        try (Stream<Path> files = Files.list(logDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) Files.delete(file);
+        }
+        Files.delete(logDirectory);
+    }
+}
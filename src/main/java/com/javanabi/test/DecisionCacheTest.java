@@ -0,0 +1,61 @@
+package com.javanabi.test;
+
+import com.javanabi.players.DecisionCache;
+import com.javanabi.sim.BatchSimulator;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+
+public class DecisionCacheTest {
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing decision cache...");
+        PrintStream out = System.out;
+        List<String> seats = List.of("BestValueHint", "SimpleAIPlayer", "BestValueHint");
+        int games = 200;
+        
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        BatchSimulator simulator = new BatchSimulator(seats, 4, false);
+        int[] uncached = scores(simulator, games);
+        DecisionCache.configure(1 << 20, false);
+        int[] firstPass = scores(simulator, games);
+        DecisionCache cache = DecisionCache.forPolicy("BestValueHint[1.0, 1.0, 1.0, 1.0, 1.0]");
+        long missesAfterFirst = cache.getMisses();
+        int[] secondPass = scores(simulator, games);
+        long secondHits = cache.getHits();
+        long secondMisses = cache.getMisses() - missesAfterFirst;
+        
+        DecisionCache.configure(64, false);
+        scores(simulator, games);
+        DecisionCache small = DecisionCache.forPolicy("BestValueHint[1.0, 1.0, 1.0, 1.0, 1.0]");
+        int smallSize = small.size();
+        DecisionCache.configure(0, false);
+        System.setOut(out);
+        
+        if (Arrays.equals(uncached, firstPass) && Arrays.equals(uncached, secondPass)) {
+            System.out.println("✅ Cached games score the same as uncached ones");
+        } else {
+            System.out.println("❌ Cached games diverged from uncached ones");
+        }
+        if (secondMisses == 0 && secondHits == missesAfterFirst) {
+            System.out.println("✅ Replaying the same deals hits on every decision (" + secondHits + " hits)");
+        } else {
+            System.out.println("❌ Replay had " + secondHits + " hits and " + secondMisses + " misses");
+        }
+        if (smallSize <= 64 && small.getMisses() > 64) {
+            System.out.println("✅ Cache stays within its bound (" + smallSize + " entries)");
+        } else {
+            System.out.println("❌ Small cache holds " + smallSize + " entries");
+        }
+        System.out.println("Decision cache test completed.");
+    }
+    
+    private static int[] scores(BatchSimulator simulator, int games) {
+        int[] scores = new int[games];
+        for (int game = 0; game < games; game++) {
+            scores[game] = simulator.playGame(1 + game).getScore();
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,100 @@
+package com.javanabi.test;
+
+import com.javanabi.sim.BatchSimulator;
+import com.javanabi.sim.ScoreStatistics;
+import com.javanabi.sim.cluster.SimulationCoordinator;
+import com.javanabi.sim.cluster.SimulationWorker;
+import com.javanabi.sim.cluster.WorkUnit;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class DistributedSimulationTest {
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing distributed simulation...");
+        List<String> seats = List.of("BestValueHint", "BestValueHint", "SimpleAIPlayer");
+        int games = 1200;
+        
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        ScoreStatistics local = new BatchSimulator(seats, 2, false).run(1, games).getStatistics();
+        System.setOut(out);
+        
+        List<Process> workers = new ArrayList<>();
+        try (SimulationCoordinator coordinator = new SimulationCoordinator(0, 30_000)) {
+            for (int i = 0; i < 3; i++) {
+                workers.add(startWorker(coordinator.getPort()));
+            }
+            
+            CompletableFuture<ScoreStatistics> result = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return coordinator.runMerged(WorkUnit.partition(seats, null, 1, games, 20));
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            
+            // Kill one worker part way through; its units must be picked up by the others
+            while (coordinator.getCompletedCount() < 5 && !result.isDone()) {
+                Thread.sleep(5);
+            }
+            workers.get(0).destroyForcibly();
+            ScoreStatistics distributed = result.get();
+            
+            if (distributed.getGames() == games && coordinator.getReassignedCount() > 0) {
+                System.out.println("✅ All " + games + " games played after losing a worker (" + coordinator.getReassignedCount() + " units reassigned)");
+            } else {
+                System.out.println("❌ Played " + distributed.getGames() + " games, reassigned " + coordinator.getReassignedCount());
+            }
+            
+            if (sameStatistics(local, distributed)) {
+                System.out.printf("✅ Distributed statistics match the local run (mean %.3f)%n", distributed.getMean());
+            } else {
+                System.out.printf("❌ Local mean %.6f vs distributed %.6f%n", local.getMean(), distributed.getMean());
+            }
+            
+            // Surviving workers stay connected for the next job, and weights travel with the unit
+            double[] weights = {0.5, 1.5, 1.0, 1.0, 1.0};
+            List<WorkUnit> units = WorkUnit.partition(List.of("BestValueHint", "BestValueHint"), weights, 1000, 100, 25);
+            ScoreStatistics weighted = coordinator.runMerged(units);
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            ScoreStatistics expected = new ScoreStatistics();
+            for (WorkUnit unit : units) expected.merge(unit.run());
+            System.setOut(out);
+            if (sameStatistics(expected, weighted)) {
+                System.out.println("✅ Second job with explicit weights matches");
+            } else {
+                System.out.println("❌ Weighted job differs");
+            }
+        }
+        
+        // Closing the coordinator sends STOP to the workers still connected
+        boolean stopped = true;
+        for (Process worker : workers.subList(1, workers.size())) {
+            stopped &= worker.waitFor(10, java.util.concurrent.TimeUnit.SECONDS) && worker.exitValue() == 0;
+        }
+        System.out.println(stopped ? "✅ Workers exited cleanly on STOP" : "❌ Workers did not stop");
+        System.out.println("Distributed simulation test completed.");
+    }
+    
+    private static Process startWorker(int port) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                SimulationWorker.class.getName(), "localhost", String.valueOf(port), "-t", "2")
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+    }
+    
+    private static boolean sameStatistics(ScoreStatistics a, ScoreStatistics b) {
+        if (a.getGames() != b.getGames() || a.getTotalScore() != b.getTotalScore()) return false;
+        for (int score = 0; score <= ScoreStatistics.MAX_SCORE; score++) {
+            if (a.getCount(score) != b.getCount(score)) return false;
+        }
+        return Math.abs(a.getVariance() - b.getVariance()) < 1e-9;
+    }
+}
@@ -0,0 +1,124 @@
+package com.javanabi.test;
+
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameTable;
+import com.javanabi.game.InvalidActionReason;
+import com.javanabi.game.Player;
+import com.javanabi.game.Player.Clue;
+import com.javanabi.game.Player.ClueType;
+import com.javanabi.game.action.Action;
+import com.javanabi.game.action.GiveInfoAction;
+import com.javanabi.game.action.PlayCardAction;
+import com.javanabi.game.state.GameState;
+import com.javanabi.metrics.GameMetrics;
+import com.javanabi.metrics.MetricsServer;
+import com.javanabi.players.AlwaysDiscardsPlayer;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class GameMetricsTest {
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing game metrics...");
+        GameMetrics metrics = new GameMetrics();
+        
+        GameEngine game = new GameEngine(List.of(
+            new AlwaysDiscardsPlayer("Player1"),
+            new AlwaysDiscardsPlayer("Player2")
+        ), 7);
+        metrics.attach(game);
+        
+        // Rejected actions are counted by reason and do not advance the turn
+        game.executeAction(new PlayCardAction(9));
+        game.executeAction(new GiveInfoAction("Player1", new Clue(ClueType.RANK, 1, null)));
+        game.executeAction(new GiveInfoAction("Nobody", new Clue(ClueType.RANK, 1, null)));
+        if (metrics.getInvalidActions(InvalidActionReason.HAND_INDEX_OUT_OF_RANGE) == 1
+                && metrics.getInvalidActions(InvalidActionReason.CLUE_TO_SELF) == 1
+                && metrics.getInvalidActions(InvalidActionReason.UNKNOWN_CLUE_TARGET) == 1
+                && metrics.getTurns() == 0) {
+            System.out.println("✅ Invalid actions counted by reason");
+        } else {
+            System.out.println("❌ Invalid action counts were wrong");
+        }
+        
+        if (metrics.getActiveTables() == 1 && metrics.getGamesStarted() == 1) {
+            System.out.println("✅ Started game is active");
+        } else {
+            System.out.println("❌ Active tables: " + metrics.getActiveTables());
+        }
+        
+        while (!game.isGameOver()) {
+            Player currentPlayer = game.getCurrentPlayer();
+            game.executeAction(currentPlayer.takeTurn(game.getPlayerGameState(currentPlayer)));
+        }
+        game.executeAction(new PlayCardAction(0));
+        
+        if (metrics.getGamesFinished() == 1 && metrics.getActiveTables() == 0
+                && metrics.getTurns() == game.getTurnCount()
+                && metrics.getScoreCount(game.getScore()) == 1
+                && metrics.getInvalidActions(InvalidActionReason.GAME_OVER) == 1) {
+            System.out.println("✅ Finished game recorded with " + metrics.getTurns() + " turns");
+        } else {
+            System.out.println("❌ Finished game counts were wrong");
+        }
+        
+        StringBuilder sb = new StringBuilder();
+        metrics.writePrometheus(sb);
+        String text = sb.toString();
+        if (text.contains("javanabi_games_finished_total 1\n")
+                && text.contains("javanabi_final_score_bucket{le=\"+Inf\"} 1\n")
+                && text.contains("javanabi_invalid_actions_total{reason=\"clue_to_self\"} 1\n")) {
+            System.out.println("✅ Prometheus export contains the counters");
+        } else {
+            System.out.println("❌ Unexpected Prometheus export:\n" + text);
+        }
+        // A table that fails part way is no longer active, and abandoning a finished table changes nothing
+        GameEngine failing = new GameEngine(List.of(
+            new AlwaysDiscardsPlayer("Player1"),
+            new AlwaysDiscardsPlayer("Player2") {
+                @Override
+                public Action takeTurn(GameState state) {
+                    throw new IllegalStateException("seat crashed");
+                }
+            }
+        ), 8);
+        metrics.attach(failing);
+        GameTable failingTable = new GameTable(8, failing);
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        boolean threw = false;
+        try {
+            failingTable.run();
+        } catch (IllegalStateException e) {
+            threw = true;
+        }
+        failingTable.abandon();
+        new GameTable(7, game).abandon();
+        System.setOut(out);
+        if (threw && metrics.getActiveTables() == 0 && metrics.getGamesAbandoned() == 1 && metrics.getGamesFinished() == 1) {
+            System.out.println("✅ A failed table leaves the active count once");
+        } else {
+            System.out.println("❌ After a failed table: active " + metrics.getActiveTables() + ", abandoned " + metrics.getGamesAbandoned());
+        }
+        
+        MetricsServer server = new MetricsServer(0).register(metrics::writePrometheus);
+        String served;
+        try (InputStream in = URI.create("http://127.0.0.1:" + server.getPort() + "/metrics").toURL().openStream()) {
+            served = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        boolean loopback = server.getAddress().getAddress().isLoopbackAddress();
+        server.close();
+        Thread.sleep(100);
+        boolean stopped = Thread.getAllStackTraces().keySet().stream().noneMatch(thread -> thread.getName().equals("metrics-http"));
+        if (loopback && served.equals(server.render()) && stopped) {
+            System.out.println("✅ Metrics served on loopback only, and close stops the server thread");
+        } else {
+            System.out.println("❌ Metrics server: loopback " + loopback + ", thread stopped " + stopped);
+        }
+        System.out.println("Game metrics test completed.");
+    }
+}
@@ -0,0 +1,113 @@
+package com.javanabi.test;
+
+import com.javanabi.game.GameTable;
+import com.javanabi.game.action.Action;
+import com.javanabi.game.action.PlayCardAction;
+import com.javanabi.game.state.GameState;
+import com.javanabi.lobby.Matchmaker;
+import com.javanabi.lobby.SeatRequest;
+import com.javanabi.players.AlwaysPlaysPlayer;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class LobbyTest {
+    public static void main(String[] args) throws InterruptedException {
+        int seats = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        System.out.println("Testing matchmaking with " + seats + " queued bot seats...");
+        
+        PrintStream out = System.out;
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        Matchmaker matchmaker = new Matchmaker(executor, 100, 0);
+        Random random = new Random(1);
+        for (int i = 0; i < seats; i++) {
+            int min = 2 + random.nextInt(3);
+            int max = min + random.nextInt(6 - min);
+            matchmaker.enqueue(SeatRequest.bot("AlwaysDiscardsPlayer", 1000 + random.nextInt(1000), min, max));
+        }
+        
+        // The bots are chatty; keep the report readable
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long start = System.nanoTime();
+        List<GameTable> tables = matchmaker.matchOnce();
+        long matched = System.nanoTime();
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.MINUTES);
+        long finished = System.nanoTime();
+        System.setOut(out);
+        
+        double matchSeconds = (matched - start) / 1e9;
+        double totalSeconds = (finished - start) / 1e9;
+        System.out.println("Tables formed: " + tables.size() + ", still waiting: " + matchmaker.getWaitingCount());
+        System.out.printf("Matching and table creation: %.0f tables/sec%n", tables.size() / matchSeconds);
+        System.out.printf("Including play: %.0f games/sec%n", tables.size() / totalSeconds);
+        
+        boolean allFinished = tables.stream().allMatch(GameTable::isFinished);
+        if (allFinished && matchmaker.getActiveTables() == 0) {
+            System.out.println("✅ Every table was played to the end");
+        } else {
+            System.out.println("❌ Some tables did not finish");
+        }
+        
+        // A seat that only ever sends invalid moves must fail its table instead of holding it forever
+        ExecutorService stuckExecutor = Executors.newSingleThreadExecutor();
+        Matchmaker stuckLobby = new Matchmaker(stuckExecutor, 100, 0);
+        List<GameTable> failed = new CopyOnWriteArrayList<>();
+        stuckLobby.setFailureListener((table, e) -> failed.add(table));
+        stuckLobby.enqueue(SeatRequest.player(new Stuck("Stuck"), 1000, 2, 2));
+        stuckLobby.enqueue(SeatRequest.bot("AlwaysDiscardsPlayer", 1000, 2, 2));
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        List<GameTable> stuckTables = stuckLobby.matchOnce();
+        stuckExecutor.shutdown();
+        boolean released = stuckExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        System.setOut(out);
+        if (stuckTables.size() == 1 && released && stuckLobby.getActiveTables() == 0 && stuckLobby.getFailedTables() == 1
+                && failed.equals(stuckTables) && !stuckTables.get(0).isFinished()) {
+            System.out.println("✅ A seat making only invalid moves failed its table, and the failure listener heard of it");
+        } else {
+            System.out.println("❌ The table with an invalid-move seat did not give up");
+        }
+        
+        // A table the executor refuses leaves its members queued, once each, for the next round
+        AtomicBoolean refuse = new AtomicBoolean(true);
+        ExecutorService retryExecutor = Executors.newSingleThreadExecutor();
+        Matchmaker retryLobby = new Matchmaker(task -> {
+            if (refuse.getAndSet(false)) throw new RejectedExecutionException("busy");
+            retryExecutor.execute(task);
+        }, 100, 0);
+        retryLobby.enqueue(SeatRequest.bot("AlwaysDiscardsPlayer", 1000, 2, 2));
+        retryLobby.enqueue(SeatRequest.bot("AlwaysDiscardsPlayer", 1000, 2, 2));
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        List<GameTable> refused = retryLobby.matchOnce();
+        int waitingAfterRefusal = retryLobby.getWaitingCount();
+        List<GameTable> retried = retryLobby.matchOnce();
+        retryExecutor.shutdown();
+        retryExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        System.setOut(out);
+        if (refused.isEmpty() && waitingAfterRefusal == 2 && retried.size() == 1 && retryLobby.getWaitingCount() == 0
+                && retryLobby.getFailedTables() == 1 && retryLobby.getActiveTables() == 0 && retried.get(0).isFinished()) {
+            System.out.println("✅ A table that could not start kept its members waiting and was formed on the next round");
+        } else {
+            System.out.println("❌ After a refused table: " + waitingAfterRefusal + " waiting, then " + retried.size() + " tables");
+        }
+    }
+    
+    private static final class Stuck extends AlwaysPlaysPlayer {
+        Stuck(String name) {
+            super(name);
+        }
+        
+        @Override
+        public Action takeTurn(GameState currentState) {
+            return new PlayCardAction(99);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.javanabi.test;
+
+import com.javanabi.domain.Card;
+import com.javanabi.game.DealBank;
+import com.javanabi.game.Deck;
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.LockstepEngine;
+import com.javanabi.game.Player;
+import com.javanabi.game.state.GameState;
+import com.javanabi.replay.SilentPlayer;
+import com.javanabi.sim.RandomPlayout;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class LockstepEngineTest {
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing lockstep engine against GameEngine...");
+        int batch = 256;
+        long compared = 0;
+        long mismatches = 0;
+        String firstMismatch = null;
+        
+        for (int seats = 2; seats <= 5; seats++) {
+            LockstepEngine lockstep = new LockstepEngine(batch, seats);
+            RandomPlayout.LockstepPolicy policy = new RandomPlayout.LockstepPolicy(batch);
+            long firstSeed = 1000L * seats;
+            lockstep.dealAll(firstSeed);
+            policy.reset(lockstep);
+            lockstep.run(policy);
+            
+            RandomPlayout playout = new RandomPlayout();
+            for (int game = 0; game < batch; game++) {
+                long seed = firstSeed + game;
+                List<Player> players = new ArrayList<>();
+                for (int p = 0; p < seats; p++) players.add(new SilentPlayer("Player " + (p + 1)));
+                GameEngine engine = new GameEngine(players, seed);
+                playout.playout(engine, new SplittableRandom(seed));
+                
+                compared++;
+                String difference = compare(engine, lockstep, game);
+                if (difference != null) {
+                    mismatches++;
+                    if (firstMismatch == null) firstMismatch = "seed " + seed + " with " + seats + " seats: " + difference;
+                }
+            }
+        }
+        
+        if (mismatches == 0) {
+            System.out.println("✅ " + compared + " games ended identically in both engines");
+        } else {
+            System.out.println("❌ " + mismatches + " of " + compared + " games differed, first at " + firstMismatch);
+        }
+        
+        // A deal bank must hand out exactly the seeded shuffles
+        Path bankFile = Files.createTempFile("deals", ".bank");
+        try {
+            DealBank.generate(bankFile, 500, 300, 2);
+            DealBank bank = DealBank.open(bankFile);
+            int bankMismatches = 0;
+            LockstepEngine fromBank = new LockstepEngine(100, 3);
+            LockstepEngine shuffled = new LockstepEngine(100, 3);
+            fromBank.dealAll(bank, 700);
+            shuffled.dealAll(700);
+            for (int game = 0; game < 100; game++) {
+                for (int slot = 0; slot < 5; slot++) {
+                    if (fromBank.getCard(game, 2, slot) != shuffled.getCard(game, 2, slot)) bankMismatches++;
+                }
+            }
+            for (long seed = 500; seed < 800; seed++) {
+                if (!bank.deck(seed).getRemainingCards().equals(Deck.shuffled(seed).getRemainingCards())) bankMismatches++;
+            }
+            if (bankMismatches == 0 && !bank.contains(499) && !bank.contains(800)) {
+                System.out.println("✅ Deal bank records match the seeded shuffles");
+            } else {
+                System.out.println("❌ Deal bank differed from the seeded shuffles in " + bankMismatches + " places");
+            }
+        } finally {
+            Files.delete(bankFile);
+        }
+        System.out.println("Lockstep engine test completed.");
+    }
+    
+    private static String compare(GameEngine engine, LockstepEngine lockstep, int game) {
+        GameState state = engine.getGameState();
+        if (!lockstep.isGameOver(game)) return "lockstep game still running";
+        if (engine.getScore() != lockstep.getScore(game)) return "score " + engine.getScore() + " vs " + lockstep.getScore(game);
+        if (engine.getTurnCount() != lockstep.getTurnCount(game)) return "turns " + engine.getTurnCount() + " vs " + lockstep.getTurnCount(game);
+        if (state.getFuseTokens() != lockstep.getFuseTokens(game)) return "fuse tokens";
+        if (state.getInfoTokens() != lockstep.getInfoTokens(game)) return "info tokens";
+        if (state.getDeckSize() != lockstep.getDeckSize(game)) return "deck size";
+        if (state.getFinalPlayerIndex() != lockstep.getFinalPlayerIndex(game)) return "final player";
+        for (int seat = 0; seat < state.getPlayers().size(); seat++) {
+            List<Card> hand = state.getPlayerHand(state.getPlayers().get(seat));
+            if (hand.size() != lockstep.getHandSize(game, seat)) return "hand size of seat " + seat;
+            for (int slot = 0; slot < hand.size(); slot++) {
+                if (LockstepEngine.cardId(hand.get(slot)) != lockstep.getCard(game, seat, slot)) return "card in seat " + seat + " slot " + slot;
+            }
+        }
+        for (Card.Suit suit : state.getRules().getSuits()) {
+            if (state.getPlayedCards().get(suit).size() != lockstep.getPileHeight(game, suit.ordinal())) return "pile " + suit;
+            int[] discarded = new int[5];
+            for (Card card : state.getDiscardedCards().get(suit)) discarded[card.getRank() - 1]++;
+            for (int rank = 1; rank <= 5; rank++) {
+                if (discarded[rank - 1] != lockstep.getDiscardCount(game, LockstepEngine.cardId(new Card(suit, rank)))) return "discards of " + suit + " " + rank;
+            }
+        }
+        return null;
+    }
+}
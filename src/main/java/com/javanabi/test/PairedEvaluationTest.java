@@ -0,0 +1,82 @@
+package com.javanabi.test;
+
+import com.javanabi.domain.Card;
+import com.javanabi.game.GameEngine;
+import com.javanabi.sim.PairedEvaluation;
+import com.javanabi.sim.PairedEvaluation.Config;
+import com.javanabi.sim.PairedEvaluation.PairedResult;
+import com.javanabi.sim.ScoreStatistics;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+public class PairedEvaluationTest {
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing paired evaluation...");
+        List<String> seats = List.of("BestValueHint", "BestValueHint");
+        Config a = new Config(seats, null);
+        Config b = new Config(seats, new double[] {0.5, 1.5, 1.5, 1, 1});
+        int deals = 300;
+        long firstSeed = 40;
+        
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        PairedResult same = new PairedEvaluation(a, new Config(seats, null), 3).run(firstSeed, deals);
+        PairedResult different = new PairedEvaluation(a, b, 3).run(firstSeed, deals);
+        
+        // Reference: per deal differences, mean and sample standard deviation in two passes
+        int[] differences = new int[deals];
+        double sum = 0;
+        ScoreStatistics expectedA = new ScoreStatistics();
+        for (int deal = 0; deal < deals; deal++) {
+            GameEngine gameA = a.play(firstSeed + deal);
+            differences[deal] = b.play(firstSeed + deal).getScore() - gameA.getScore();
+            sum += differences[deal];
+            expectedA.record(gameA);
+        }
+        double mean = sum / deals;
+        double squares = 0;
+        for (int difference : differences) squares += (difference - mean) * (difference - mean);
+        double se = Math.sqrt(squares / (deals - 1)) / Math.sqrt(deals);
+        
+        boolean failed = false;
+        try {
+            new PairedEvaluation(a, new Config(seats, new double[] {1, 1}), 3).run(firstSeed, deals);
+        } catch (IllegalStateException e) {
+            failed = e.getCause() instanceof IllegalArgumentException;
+        }
+        System.setOut(out);
+        
+        if (same.getDeals() == deals && same.getMeanDifference() == 0 && same.getStandardError() == 0
+                && same.getCount(0) == deals && same.getUnpairedStandardError() > 0) {
+            System.out.printf("✅ Identical configs differ by exactly 0 with se 0 (unpaired se %.4f)%n", same.getUnpairedStandardError());
+        } else {
+            System.out.println("❌ Identical configs: mean " + same.getMeanDifference() + ", se " + same.getStandardError());
+        }
+        
+        if (different.getDeals() == deals && Math.abs(different.getMeanDifference() - mean) < 1e-12
+                && Math.abs(different.getStandardError() - se) < 1e-12
+                && Math.abs(different.getMeanDifference() - (different.getB().getMean() - different.getA().getMean())) < 1e-12) {
+            System.out.printf("✅ Paired mean %+.4f and se %.4f match a two-pass computation%n", mean, se);
+        } else {
+            System.out.printf("❌ Expected mean %+.6f se %.6f, got %+.6f se %.6f%n", mean, se,
+                different.getMeanDifference(), different.getStandardError());
+        }
+        
+        double completion = expectedA.getSuitCompletionRate(Card.Suit.RED);
+        if (different.getA().getNoFuseLossRate() == expectedA.getNoFuseLossRate()
+                && different.getA().getSuitCompletionRate(Card.Suit.RED) == completion && completion > 0) {
+            System.out.printf("✅ Each side keeps its games' fuse losses and completed suits (RED completed in %.1f%%)%n", 100 * completion);
+        } else {
+            System.out.printf("❌ Expected RED completed in %.3f of games, got %.3f%n", completion, different.getA().getSuitCompletionRate(Card.Suit.RED));
+        }
+        
+        if (failed) {
+            System.out.println("✅ A failing game fails the run");
+        } else {
+            System.out.println("❌ A failing game was not reported");
+        }
+        System.out.println("Paired evaluation test completed.");
+    }
+}
@@ -0,0 +1,122 @@
+package com.javanabi.test;
+
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameTable;
+import com.javanabi.game.Player;
+import com.javanabi.metrics.InstrumentedPlayer;
+import com.javanabi.metrics.LatencyHistogram;
+import com.javanabi.metrics.PlayerMetrics;
+import com.javanabi.players.AlwaysDiscardsPlayer;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class PlayerMetricsTest {
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("Testing latency histograms and player metrics...");
+        
+        // Values below 128 are exact
+        LatencyHistogram small = new LatencyHistogram();
+        for (int value = 0; value < 128; value++) small.record(value);
+        if (small.getPercentile(50) == 63 && small.getPercentile(100) == 127 && small.getPercentile(0) == 0
+                && small.getMax() == 127 && small.getSum() == 127 * 128 / 2) {
+            System.out.println("✅ Small values are counted exactly");
+        } else {
+            System.out.println("❌ Small values: p50 " + small.getPercentile(50) + ", p100 " + small.getPercentile(100));
+        }
+        
+        // Larger values come back as the upper bound of their bucket, within 1/64 of the true rank value
+        LatencyHistogram large = new LatencyHistogram();
+        int n = 1_000_000;
+        for (int value = 1; value <= n; value++) large.record(value);
+        boolean withinBound = true;
+        for (double percentile : new double[] {1, 50, 90, 99, 99.9, 99.99}) {
+            long exact = (long) Math.ceil(percentile / 100 * n);
+            long reported = large.getPercentile(percentile);
+            withinBound &= reported >= exact && reported <= exact + exact / 64;
+        }
+        if (withinBound && large.getPercentile(100) == n && large.getCount() == n) {
+            System.out.println("✅ Percentiles of 1.." + n + " are within a bucket of the exact value");
+        } else {
+            System.out.println("❌ Percentiles fell outside their bucket");
+        }
+        
+        // Adding histograms matches recording everything into one
+        SplittableRandom random = new SplittableRandom(3);
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        LatencyHistogram all = new LatencyHistogram();
+        for (int i = 0; i < 100_000; i++) {
+            long value = (long) Math.exp(random.nextDouble() * 25);
+            (i % 3 == 0 ? a : b).record(value);
+            all.record(value);
+        }
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.add(a);
+        merged.add(new LatencyHistogram());
+        merged.add(b);
+        boolean same = merged.getCount() == all.getCount() && merged.getSum() == all.getSum() && merged.getMax() == all.getMax();
+        for (double percentile : new double[] {10, 50, 90, 99, 99.9}) {
+            same &= merged.getPercentile(percentile) == all.getPercentile(percentile);
+        }
+        if (same) {
+            System.out.println("✅ Merged histograms equal one histogram of every value");
+        } else {
+            System.out.println("❌ Merged histogram differs");
+        }
+        
+        // Wrappers of the same class share one Stats, and keep reporting into it after a reset
+        PlayerMetrics metrics = new PlayerMetrics();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        int[] turns = new int[2];
+        for (int round = 0; round < 2; round++) {
+            List<Player> players = Arrays.asList(
+                new InstrumentedPlayer(new AlwaysDiscardsPlayer("Player 1"), metrics),
+                new InstrumentedPlayer(new AlwaysDiscardsPlayer("Player 2"), metrics));
+            GameEngine game = new GameEngine(players, round);
+            new GameTable(round, game).run();
+            turns[round] = game.getTurnCount();
+        }
+        long bothGames = metrics.forClass("AlwaysDiscardsPlayer").getTakeTurnNanos().getCount();
+        List<Player> kept = Arrays.asList(
+            new InstrumentedPlayer(new AlwaysDiscardsPlayer("Player 1"), metrics),
+            new InstrumentedPlayer(new AlwaysDiscardsPlayer("Player 2"), metrics));
+        GameEngine afterReset = new GameEngine(kept, 9);
+        metrics.reset();
+        new GameTable(9, afterReset).run();
+        System.setOut(out);
+        long sinceReset = metrics.snapshot().get("AlwaysDiscardsPlayer").getTakeTurnNanos().getCount();
+        if (bothGames == turns[0] + turns[1] && sinceReset == afterReset.getTurnCount()) {
+            System.out.println("✅ Per-class stats add up across players, and survive a reset");
+        } else {
+            System.out.println("❌ Expected " + (turns[0] + turns[1]) + " then " + afterReset.getTurnCount()
+                + " decisions, got " + bothGames + " then " + sinceReset);
+        }
+        
+        // Virtual threads have no allocation counter, so their turns are timed but counted as unmeasured
+        PlayerMetrics virtualMetrics = new PlayerMetrics();
+        GameEngine[] virtualGame = new GameEngine[1];
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Thread.ofVirtual().start(() -> {
+            virtualGame[0] = new GameEngine(Arrays.asList(
+                new InstrumentedPlayer(new AlwaysDiscardsPlayer("Player 1"), virtualMetrics),
+                new InstrumentedPlayer(new AlwaysDiscardsPlayer("Player 2"), virtualMetrics)), 4);
+            new GameTable(4, virtualGame[0]).run();
+        }).join();
+        System.setOut(out);
+        PlayerMetrics.Stats virtualStats = virtualMetrics.forClass("AlwaysDiscardsPlayer");
+        int virtualTurns = virtualGame[0].getTurnCount();
+        if (virtualStats.getTakeTurnNanos().getCount() == virtualTurns && virtualStats.getTakeTurnBytes().getCount() == 0
+                && virtualStats.getUnmeasuredAllocations() == virtualTurns && virtualMetrics.report().contains("not measured")) {
+            System.out.println("✅ Turns on a virtual thread are reported as unmeasured allocation, not as zero bytes");
+        } else {
+            System.out.println("❌ Virtual thread turns: " + virtualStats.getTakeTurnBytes().getCount() + " measured, "
+                + virtualStats.getUnmeasuredAllocations() + " unmeasured of " + virtualTurns);
+        }
+        System.out.println("Player metrics test completed.");
+    }
+}
@@ -0,0 +1,108 @@
+package com.javanabi.test;
+
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameTable;
+import com.javanabi.game.Player;
+import com.javanabi.game.PlayerFactory;
+import com.javanabi.game.action.ActionCodec;
+import com.javanabi.replay.RegressionHarness;
+import com.javanabi.replay.ReplayArchive;
+import com.javanabi.replay.ReplayCursor;
+import com.javanabi.replay.ReplaySegment;
+import com.javanabi.replay.ReplayWriter;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class RegressionHarnessTest {
+    public static void main(String[] args) throws Exception {
+        int gameCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        System.out.println("Testing the replay regression harness with " + gameCount + " games...");
+        
+        Path directory = Files.createTempDirectory("javanabi-regression");
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        
+        try (ReplayWriter writer = new ReplayWriter(directory, 1 << 20)) {
+            for (int i = 0; i < gameCount; i++) {
+                List<Player> players = new ArrayList<>();
+                for (int seat = 0; seat < 2 + i % 4; seat++) {
+                    players.add(PlayerFactory.shared().create(seat % 2 == 0 ? "BestValueHint" : "SimpleAIPlayer", "Player " + (seat + 1)));
+                }
+                GameEngine game = new GameEngine(players, i);
+                writer.record(game);
+                new GameTable(i, game).run();
+            }
+        }
+        
+        RegressionHarness harness = new RegressionHarness(new ReplayArchive(directory), 4);
+        RegressionHarness.Report recorded = harness.record();
+        RegressionHarness.Report clean = harness.verify();
+        RegressionHarness.Report cleanBots = harness.diffBots(PlayerFactory.shared());
+        
+        // Corrupt two games in place: a different last move, and an impossible move part way through
+        Path segment = new ReplayArchive(directory).getSegmentPaths().get(0);
+        int changedGame = 5;
+        int rejectedGame = 9;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            ReplayCursor cursor = ReplaySegment.open(segment).cursor();
+            while (cursor.next()) {
+                // A game body ends with its action codes, and its length is the int just before it
+                int end = cursor.offset() + buffer.getInt(cursor.offset() - 4);
+                if (cursor.gameIndex() == changedGame) {
+                    int last = end - 2;
+                    int code = buffer.getShort(last) & 0xFFFF;
+                    buffer.putShort(last, (short) (code == ActionCodec.discard(0) ? ActionCodec.discard(1) : ActionCodec.discard(0)));
+                } else if (cursor.gameIndex() == rejectedGame) {
+                    int turn = cursor.actionCount() / 2;
+                    buffer.putShort(end - 2 * (cursor.actionCount() - turn), (short) ActionCodec.play(7));
+                }
+            }
+        }
+        RegressionHarness.Report broken = harness.verify();
+        RegressionHarness.Report brokenBots = harness.diffBots(PlayerFactory.shared());
+        System.setOut(out);
+        
+        System.out.println("record: " + recorded);
+        System.out.println("verify after corruption: " + broken);
+        for (String example : broken.getExamples()) System.out.println("  " + example);
+        if (recorded.getGames() == gameCount && clean.getGames() == gameCount && clean.getMismatchedGames() == 0
+                && cleanBots.getMismatchedGames() == 0) {
+            System.out.println("✅ An untouched corpus verifies and the bots repeat every recorded decision");
+        } else {
+            System.out.println("❌ Clean corpus reported " + clean + " / bots " + cleanBots);
+        }
+        if (broken.getMismatchedGames() == 2 && mentions(broken, "#" + changedGame + ":", "turn")
+                && mentions(broken, "#" + rejectedGame + ":", "rejected")) {
+            System.out.println("✅ verify flagged both corrupted games");
+        } else {
+            System.out.println("❌ verify missed a corrupted game");
+        }
+        if (mentions(brokenBots, "#" + rejectedGame + ":", "rejected by the engine")) {
+            System.out.println("✅ bots reported the rejected recorded action instead of bot mismatches");
+        } else {
+            System.out.println("❌ bots did not report the rejected action: " + brokenBots.getExamples());
+        }
+        
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+    
+    private static boolean mentions(RegressionHarness.Report report, String game, String text) {
+        for (String example : report.getExamples()) {
+            if (example.contains(game) && example.contains(text)) return true;
+        }
+        return false;
+    }
+}
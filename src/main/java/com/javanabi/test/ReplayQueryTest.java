@@ -0,0 +1,138 @@
+package com.javanabi.test;
+
+import com.javanabi.domain.Card;
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameListener;
+import com.javanabi.game.GameTable;
+import com.javanabi.game.Player;
+import com.javanabi.game.PlayerFactory;
+import com.javanabi.game.action.Action;
+import com.javanabi.replay.GameFilter;
+import com.javanabi.replay.ReplayArchive;
+import com.javanabi.replay.ReplayQuery;
+import com.javanabi.replay.ReplayWriter;
+import com.javanabi.replay.Replays;
+import com.javanabi.replay.SegmentIndex;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class ReplayQueryTest {
+    private static final String[] BOTS = {"BestValueHint", "SimpleAIPlayer", "AlwaysDiscardsPlayer"};
+    
+    public static void main(String[] args) throws Exception {
+        int gameCount = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        System.out.println("Testing replay queries over " + gameCount + " games...");
+        
+        Path directory = Files.createTempDirectory("javanabi-replays");
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try (ReplayWriter writer = new ReplayWriter(directory, 32 * 1024)) {
+            for (int i = 0; i < gameCount; i++) {
+                int seats = 2 + i % 4;
+                List<Player> players = new ArrayList<>();
+                for (int seat = 0; seat < seats; seat++) {
+                    players.add(PlayerFactory.shared().create(BOTS[(i / 4 + seat) % BOTS.length], "Player " + (seat + 1)));
+                }
+                GameEngine game = new GameEngine(players, i);
+                writer.record(game);
+                new GameTable(i, game).run();
+            }
+        }
+        
+        // Brute force: replay every game and look at its discard pile after ten turns and at the end
+        long[] expectedEarlyFives = new long[1];
+        long[] expectedRedFives = new long[1];
+        ReplayArchive archive = new ReplayArchive(directory);
+        archive.forEachGame(cursor -> {
+            boolean[] earlyFive = new boolean[1];
+            GameEngine game = Replays.replay(cursor, new GameListener() {
+                private int turn;
+                
+                @Override
+                public void actionExecuted(GameEngine game, int seat, Action action) {
+                    if (++turn == 10) earlyFive[0] = hasDiscardedFive(game);
+                }
+            });
+            if (cursor.actionCount() < 10) earlyFive[0] = hasDiscardedFive(game);
+            if (earlyFive[0]) expectedEarlyFives[0]++;
+            if (game.getGameState().getDiscardedCards().get(Card.Suit.RED).contains(new Card(Card.Suit.RED, 5))) expectedRedFives[0]++;
+        });
+        System.setOut(out);
+        
+        // The writer indexes each segment as it closes it; replaying the segment must give the same index
+        Map<Path, byte[]> written = new HashMap<>();
+        for (Path segment : archive.getSegmentPaths()) {
+            Path index = indexPath(segment);
+            written.put(index, Files.readAllBytes(index));
+            Files.delete(index);
+            SegmentIndex.load(segment);
+        }
+        boolean indexesMatch = !written.isEmpty();
+        for (Map.Entry<Path, byte[]> entry : written.entrySet()) {
+            indexesMatch &= Arrays.equals(entry.getValue(), Files.readAllBytes(entry.getKey()));
+        }
+        
+        long start = System.nanoTime();
+        long earlyFives = ReplayQuery.over(archive).where(GameFilter.rankDiscardedBefore(5, 10)).count();
+        long indexed = System.nanoTime();
+        long earlyFivesAgain = ReplayQuery.over(archive).where(GameFilter.rankDiscardedBefore(5, 10)).count();
+        long queried = System.nanoTime();
+        long redFives = ReplayQuery.over(archive).where(GameFilter.discarded(Card.Suit.RED, 5)).count();
+        Map<String, long[]> byPairing = ReplayQuery.over(archive).where(GameFilter.seatCount(2)).scoreDistributionByPairing();
+        long[] distribution = ReplayQuery.over(archive).scoreDistribution();
+        
+        System.out.printf("First query: %.1f ms, repeat query: %.1f ms%n", (indexed - start) / 1e6, (queried - indexed) / 1e6);
+        System.out.println("Games where a 5 was discarded before turn 10: " + earlyFives + " (brute force: " + expectedEarlyFives[0] + ")");
+        System.out.println("Games where RED 5 was discarded: " + redFives + " (brute force: " + expectedRedFives[0] + ")");
+        for (Map.Entry<String, long[]> entry : byPairing.entrySet()) {
+            long games = 0;
+            long total = 0;
+            for (int score = 0; score < entry.getValue().length; score++) {
+                games += entry.getValue()[score];
+                total += score * entry.getValue()[score];
+            }
+            System.out.printf("  %s: %d games, mean score %.2f%n", entry.getKey(), games, (double) total / games);
+        }
+        
+        long total = 0;
+        for (long count : distribution) total += count;
+        if (indexesMatch) {
+            System.out.println("✅ Indexes written with the segments match indexes rebuilt by replay");
+        } else {
+            System.out.println("❌ Indexes written with the segments differ from indexes rebuilt by replay");
+        }
+        if (earlyFives == expectedEarlyFives[0] && earlyFives == earlyFivesAgain && redFives == expectedRedFives[0] && total == gameCount) {
+            System.out.println("✅ Index queries agree with a full replay scan");
+        } else {
+            System.out.println("❌ Index queries disagree with a full replay scan");
+        }
+        
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+    
+    private static boolean hasDiscardedFive(GameEngine game) {
+        for (List<Card> pile : game.getGameState().getDiscardedCards().values()) {
+            for (Card card : pile) {
+                if (card.getRank() == 5) return true;
+            }
+        }
+        return false;
+    }
+    
+    private static Path indexPath(Path segment) {
+        String name = segment.getFileName().toString();
+        return segment.resolveSibling(name.substring(0, name.length() - ".hnr".length()) + ".idx");
+    }
+}
@@ -0,0 +1,101 @@
+package com.javanabi.test;
+
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameTable;
+import com.javanabi.game.Player;
+import com.javanabi.game.PlayerFactory;
+import com.javanabi.game.VariantRules;
+import com.javanabi.game.action.ActionCodec;
+import com.javanabi.metrics.InstrumentedPlayer;
+import com.javanabi.replay.ReplayArchive;
+import com.javanabi.replay.ReplayCursor;
+import com.javanabi.replay.ReplayWriter;
+import com.javanabi.util.GameConfig;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ReplayTest {
+    public static void main(String[] args) throws Exception {
+        int gameCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        System.out.println("Testing replay archive with " + gameCount + " games...");
+        
+        Path directory = Files.createTempDirectory("javanabi-replays");
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        
+        List<Integer> scores = new ArrayList<>();
+        // A cap of 6 info tokens differs from the usual 8, so it only replays if the header records it
+        List<GameConfig> configs = List.of(GameConfig.standard(),
+            GameConfig.builder().enableRainbowSuit(true).build(),
+            GameConfig.builder().initialInfoTokens(4).maxInfoTokens(6).initialFuseTokens(1).enableSixthSuit(true).build());
+        long moves = 0;
+        try (ReplayWriter writer = new ReplayWriter(directory, 64 * 1024)) {
+            for (int i = 0; i < gameCount; i++) {
+                int seats = 2 + i % 4;
+                List<Player> players = new ArrayList<>();
+                for (int seat = 0; seat < seats; seat++) {
+                    String className = seat % 2 == 0 ? "BestValueHint" : "SimpleAIPlayer";
+                    Player player = PlayerFactory.shared().create(className, "Player " + (seat + 1));
+                    // Timed seats must still be archived under their bot's name
+                    players.add(i % 2 == 1 ? new InstrumentedPlayer(player) : player);
+                }
+                GameEngine game = new GameEngine(players, configs.get(i % configs.size()), i);
+                writer.record(game);
+                GameTable table = new GameTable(i, game);
+                table.run();
+                scores.add(game.getScore());
+            }
+        }
+        
+        // Read everything back and replay it through the engine
+        int[] read = new int[1];
+        int[] mismatches = new int[1];
+        long[] actions = new long[1];
+        new ReplayArchive(directory).forEachGame(cursor -> {
+            int index = read[0]++;
+            actions[0] += cursor.actionCount();
+            if (cursor.seed() != index || cursor.score() != scores.get(index) || cursor.seatCount() != 2 + index % 4
+                    || !cursor.seatType(0).equals("BestValueHint") || replayScore(cursor) != cursor.score()
+                    || VariantRules.of(cursor.config()) != VariantRules.of(configs.get(index % configs.size()))) {
+                mismatches[0]++;
+            }
+        });
+        System.setOut(out);
+        
+        long bytes = 0;
+        List<Path> segments = new ReplayArchive(directory).getSegmentPaths();
+        for (Path segment : segments) {
+            bytes += Files.size(segment);
+        }
+        System.out.println("Games read back: " + read[0] + " from " + segments.size() + " segments");
+        System.out.printf("Archive size: %d bytes, %.2f bytes per move including headers%n", bytes, (double) bytes / actions[0]);
+        if (read[0] == gameCount && mismatches[0] == 0) {
+            System.out.println("✅ Every archived game replays to its recorded score under its recorded rules");
+        } else {
+            System.out.println("❌ " + mismatches[0] + " games did not match");
+        }
+        
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+    
+    private static int replayScore(ReplayCursor cursor) {
+        List<Player> players = new ArrayList<>();
+        for (int seat = 0; seat < cursor.seatCount(); seat++) {
+            players.add(PlayerFactory.shared().create("AlwaysDiscardsPlayer", "Player " + (seat + 1)));
+        }
+        GameEngine game = new GameEngine(players, cursor.config(), cursor.seed());
+        for (int turn = 0; turn < cursor.actionCount(); turn++) {
+            game.executeAction(ActionCodec.decode(cursor.action(turn), game.getCurrentPlayerIndex(), game.getGameState().getPlayers()));
+        }
+        return game.getScore();
+    }
+}
@@ -0,0 +1,88 @@
+package com.javanabi.test;
+
+import com.javanabi.sim.ScoreStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class ScoreStatisticsTest {
+    public static void main(String[] args) {
+        System.out.println("Testing streaming score statistics...");
+        SplittableRandom random = new SplittableRandom(11);
+        int[] scores = new int[20_000];
+        boolean[] fuseLosses = new boolean[scores.length];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = random.nextInt(6) == 0 ? random.nextInt(8) : 15 + random.nextInt(11);
+            fuseLosses[i] = scores[i] < 8;
+        }
+        
+        // Reference: two passes over the raw scores
+        double sum = 0;
+        for (int score : scores) sum += score;
+        double mean = sum / scores.length;
+        double squares = 0;
+        for (int score : scores) squares += (score - mean) * (score - mean);
+        double variance = squares / (scores.length - 1);
+        
+        // Uneven partitions, with empty ones at the start, in the middle and at the end
+        int[] cuts = {0, 0, 1, 700, 700, 9_000, 9_001, 20_000, 20_000};
+        List<ScoreStatistics> partitions = new ArrayList<>();
+        for (int p = 0; p + 1 < cuts.length; p++) {
+            ScoreStatistics partition = new ScoreStatistics();
+            for (int i = cuts[p]; i < cuts[p + 1]; i++) partition.record(scores[i], fuseLosses[i], 0);
+            partitions.add(partition);
+        }
+        ScoreStatistics leftToRight = new ScoreStatistics();
+        for (ScoreStatistics partition : partitions) leftToRight.merge(partition);
+        // Pairwise, the way worker results are folded together
+        List<ScoreStatistics> level = partitions;
+        while (level.size() > 1) {
+            List<ScoreStatistics> next = new ArrayList<>();
+            for (int i = 0; i < level.size(); i += 2) {
+                next.add(i + 1 < level.size() ? copy(level.get(i)).merge(level.get(i + 1)) : level.get(i));
+            }
+            level = next;
+        }
+        ScoreStatistics pairwise = level.get(0);
+        
+        boolean matches = true;
+        for (ScoreStatistics merged : List.of(leftToRight, pairwise)) {
+            matches &= merged.getGames() == scores.length
+                && Math.abs(merged.getMean() - mean) < 1e-9
+                && Math.abs(merged.getVariance() - variance) < 1e-9 * variance
+                && merged.getTotalScore() == (long) sum;
+        }
+        if (matches) {
+            System.out.printf("✅ Merged partitions match the two-pass mean %.4f and variance %.4f%n", mean, variance);
+        } else {
+            System.out.printf("❌ Expected mean %.6f, variance %.6f; got %.6f, %.6f and %.6f, %.6f%n", mean, variance,
+                leftToRight.getMean(), leftToRight.getVariance(), pairwise.getMean(), pairwise.getVariance());
+        }
+        
+        ScoreStatistics empty = new ScoreStatistics().merge(new ScoreStatistics());
+        if (empty.getGames() == 0 && empty.getMean() == 0 && empty.getVariance() == 0 && empty.getMin() == 0 && empty.getMax() == 0) {
+            System.out.println("✅ Merging empty statistics stays empty");
+        } else {
+            System.out.println("❌ Empty merge produced " + empty.getGames() + " games, mean " + empty.getMean());
+        }
+        
+        long noLosses = 0;
+        long perfect = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if (!fuseLosses[i]) noLosses++;
+            if (scores[i] == 25) perfect++;
+        }
+        if (pairwise.getNoFuseLossRate() == (double) noLosses / scores.length
+                && pairwise.getPerfectRate() == (double) perfect / scores.length) {
+            System.out.println("✅ Fuse losses and perfect games are counted separately");
+        } else {
+            System.out.println("❌ Rates: no fuse loss " + pairwise.getNoFuseLossRate() + ", perfect " + pairwise.getPerfectRate());
+        }
+        System.out.println("Score statistics test completed.");
+    }
+    
+    private static ScoreStatistics copy(ScoreStatistics statistics) {
+        return new ScoreStatistics().merge(statistics);
+    }
+}
@@ -0,0 +1,112 @@
+package com.javanabi.test;
+
+import com.javanabi.metrics.GameMetrics;
+import com.javanabi.sim.SimulationDaemon;
+import com.javanabi.sim.cluster.WorkUnit;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class SimulationDaemonTest {
+    private static final Pattern RESULT = Pattern.compile("\\{\"seed\":(\\d+),\"score\":(\\d+),\"turns\":(\\d+),\"fuseTokens\":(\\d+)\\}");
+    private static final Pattern DONE = Pattern.compile("\\{\"done\":true,\"games\":(\\d+)(?:,\"mean\":([0-9.]+),\"standardError\":([0-9.]+))?\\}");
+    
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing the simulation daemon over loopback...");
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        SimulationDaemon daemon = new SimulationDaemon(0, 2);
+        Thread server = new Thread(daemon::serve, "daemon");
+        server.start();
+        
+        List<String> lines = new ArrayList<>();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemon.getPort());
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            writer.write("BestValueHint SimpleAIPlayer seed=100 count=40\n");
+            writer.write("BestValueHint Nobody\n");
+            writer.flush();
+            String line;
+            int done = 0;
+            while (done < 2 && (line = in.readLine()) != null) {
+                lines.add(line);
+                if (line.startsWith("{\"done\"")) done++;
+            }
+        }
+        
+        // Every seed once, with the score a local game on that seed gets
+        TreeMap<Long, Integer> scores = new TreeMap<>();
+        boolean resultsMatch = true;
+        int firstDone = -1;
+        for (int i = 0; i < lines.size() && firstDone < 0; i++) {
+            Matcher result = RESULT.matcher(lines.get(i));
+            if (result.matches()) {
+                scores.put(Long.parseLong(result.group(1)), Integer.parseInt(result.group(2)));
+            } else if (DONE.matcher(lines.get(i)).matches()) {
+                firstDone = i;
+            } else {
+                resultsMatch = false;
+            }
+        }
+        WorkUnit local = new WorkUnit(List.of("BestValueHint", "SimpleAIPlayer"), null, 100, 40);
+        double sum = 0;
+        for (long seed = 100; seed < 140; seed++) {
+            Integer score = scores.get(seed);
+            resultsMatch &= score != null && score == local.play(seed).getScore();
+            sum += score == null ? 0 : score;
+        }
+        Matcher summary = firstDone < 0 ? null : DONE.matcher(lines.get(firstDone));
+        boolean summaryMatches = summary != null && summary.matches() && summary.group(1).equals("40")
+            && Math.abs(Double.parseDouble(summary.group(2)) - sum / 40) < 1e-4;
+        
+        boolean errorReported = lines.size() == firstDone + 3 && lines.get(firstDone + 1).contains("\"error\":\"Unknown player class Nobody\"")
+            && DONE.matcher(lines.get(firstDone + 2)).matches() && lines.get(firstDone + 2).contains("\"games\":0");
+        
+        // A client that disconnects mid-request stops its games
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemon.getPort())) {
+            socket.getOutputStream().write("BestValueHint BestValueHint count=10000000\n".getBytes(StandardCharsets.UTF_8));
+            socket.getInputStream().read();
+        }
+        Thread.sleep(500);
+        long afterDisconnect = GameMetrics.shared().getGamesStarted();
+        Thread.sleep(500);
+        long later = GameMetrics.shared().getGamesStarted();
+        daemon.close();
+        server.join();
+        System.setOut(out);
+        
+        if (resultsMatch && scores.size() == 40) {
+            System.out.println("✅ 40 result lines, one per seed, each matching a local game");
+        } else {
+            System.out.println("❌ Result lines did not match local games: " + lines);
+        }
+        if (summaryMatches) {
+            System.out.println("✅ The done line carries the game count and mean " + summary.group(2));
+        } else {
+            System.out.println("❌ Bad summary line");
+        }
+        if (errorReported) {
+            System.out.println("✅ A bad request gets an error and its own done line");
+        } else {
+            System.out.println("❌ Bad request was not answered as expected");
+        }
+        if (later == afterDisconnect) {
+            System.out.println("✅ Games stopped after the client disconnected (" + afterDisconnect + " started in total)");
+        } else {
+            System.out.println("❌ Games kept starting after the client left: " + afterDisconnect + " then " + later);
+        }
+        System.out.println("Simulation daemon test completed.");
+    }
+}
@@ -0,0 +1,109 @@
+package com.javanabi.test;
+
+import com.javanabi.domain.Card;
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.Player;
+import com.javanabi.game.spectator.Spectator;
+import com.javanabi.game.spectator.SpectatorEvent;
+import com.javanabi.game.spectator.SpectatorFeed;
+import com.javanabi.game.state.GameState;
+import com.javanabi.players.AlwaysDiscardsPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SpectatorTest {
+    public static void main(String[] args) {
+        System.out.println("Testing spectator feed...");
+        
+        List<Player> players = List.of(
+            new AlwaysDiscardsPlayer("Player1"),
+            new AlwaysDiscardsPlayer("Player2")
+        );
+        
+        GameEngine game = new GameEngine(players);
+        
+        // One spectator keeps up, the rest only look once the game is over
+        Spectator live = game.addSpectator();
+        List<Spectator> idle = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            idle.add(game.addSpectator());
+        }
+        
+        int liveEvents = 0;
+        boolean inOrder = true;
+        List<GameState> seen = new ArrayList<>();
+        List<Integer> discardsSeen = new ArrayList<>();
+        long lastSequence = -1;
+        while (!game.isGameOver()) {
+            Player currentPlayer = game.getCurrentPlayer();
+            game.executeAction(currentPlayer.takeTurn(game.getPlayerGameState(currentPlayer)));
+            SpectatorEvent event;
+            while ((event = live.poll()) != null) {
+                if (event.getSequence() != lastSequence + 1) inOrder = false;
+                lastSequence = event.getSequence();
+                liveEvents++;
+                seen.add(event.getState());
+                discardsSeen.add(discardCount(event.getState()));
+                event.getState().toString();
+            }
+        }
+        
+        long published = game.getSpectatorFeed().getPublishedCount();
+        if (inOrder && liveEvents == published && live.getLagCount() == 0) {
+            System.out.println("✅ Live spectator saw all " + liveEvents + " events in order");
+        } else {
+            System.out.println("❌ Live spectator saw " + liveEvents + "/" + published + " events, in order: " + inOrder);
+        }
+        
+        // Later moves must not reach into states that were already published
+        boolean unchanged = true;
+        for (int i = 0; i < seen.size(); i++) {
+            unchanged &= discardCount(seen.get(i)) == discardsSeen.get(i);
+        }
+        if (unchanged && discardsSeen.get(discardsSeen.size() - 1) > 0) {
+            System.out.println("✅ Published states kept their discard piles");
+        } else {
+            System.out.println("❌ Published states changed after they were published");
+        }
+        
+        // Idle spectators fell behind by more than the ring, so they should catch up with a snapshot
+        boolean caughtUp = true;
+        for (Spectator spectator : idle) {
+            SpectatorEvent event = spectator.poll();
+            if (published > game.getSpectatorFeed().getCapacity()) {
+                caughtUp &= event.isSnapshot() && event.getState() == game.getGameState();
+            }
+            while (spectator.poll() != null) { }
+            caughtUp &= spectator.getLag() == 0;
+        }
+        
+        if (caughtUp) {
+            System.out.println("✅ Idle spectators caught up with the final state");
+        } else {
+            System.out.println("❌ Idle spectators did not catch up");
+        }
+        
+        // A small ring forces the lag path
+        SpectatorFeed feed = new SpectatorFeed(8);
+        Spectator slow = feed.subscribe();
+        for (int i = 0; i < 20; i++) {
+            feed.publish("Player1", null, game.getGameState());
+        }
+        SpectatorEvent first = slow.poll();
+        if (first.isSnapshot() && first.getSequence() == 19 && slow.getLagCount() == 1 && slow.poll() == null) {
+            System.out.println("✅ Lagging spectator was given the latest snapshot");
+        } else {
+            System.out.println("❌ Lagging spectator got sequence " + first.getSequence() + ", snapshot: " + first.isSnapshot());
+        }
+        System.out.println("Spectator test completed.");
+    }
+    
+    private static int discardCount(GameState state) {
+        int count = 0;
+        for (List<Card> discards : state.getDiscardedCards().values()) {
+            count += discards.size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,185 @@
+package com.javanabi.test;
+
+import com.javanabi.domain.Card;
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameListener;
+import com.javanabi.game.LegalMoves;
+import com.javanabi.game.Player;
+import com.javanabi.game.VariantRules;
+import com.javanabi.game.action.Action;
+import com.javanabi.game.action.ActionCodec;
+import com.javanabi.game.action.DiscardCardAction;
+import com.javanabi.game.action.GiveInfoAction;
+import com.javanabi.game.action.PlayCardAction;
+import com.javanabi.game.state.GameState;
+import com.javanabi.game.state.SuitPermutation;
+import com.javanabi.game.state.SuitSymmetry;
+import com.javanabi.replay.SilentPlayer;
+import com.javanabi.util.GameConfig;
+import com.javanabi.util.PublicKnowledge;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+public class SuitSymmetryTest {
+    private static final Card.Suit[] SUITS = VariantRules.STANDARD.getSuits().toArray(new Card.Suit[0]);
+    
+    public static void main(String[] args) {
+        System.out.println("Testing suit symmetry...");
+        int[] legal = new int[LegalMoves.MAX_ACTIONS];
+        long positions = 0;
+        long hashMismatches = 0;
+        long actionMismatches = 0;
+        long roundTripFailures = 0;
+        long distinctHashes = 0;
+        
+        for (int g = 0; g < 300; g++) {
+            int seats = 2 + g % 4;
+            List<Player> players = new ArrayList<>();
+            for (int p = 0; p < seats; p++) players.add(new SilentPlayer("Player " + (p + 1)));
+            GameEngine game = new GameEngine(players, g);
+            SplittableRandom random = new SplittableRandom(g);
+            Card.Suit[] rename = randomRenaming(random);
+            List<String> names = game.getGameState().getPlayers();
+            
+            // A copy of the public knowledge as it would be had the suits been renamed
+            PublicKnowledge renamedKnowledge = new PublicKnowledge(names, game.getGameState().getPlayerHandSize(names.get(0)));
+            game.addListener(new GameListener() {
+                private int deckSize = game.getGameState().getDeckSize();
+                
+                @Override
+                public void actionExecuted(GameEngine engine, int seat, Action action) {
+                    String actor = names.get(seat);
+                    if (action instanceof GiveInfoAction) {
+                        GiveInfoAction clue = (GiveInfoAction) action;
+                        Player.Clue original = clue.getClue();
+                        Object value = original.getType() == Player.ClueType.SUIT ? rename[((Card.Suit) original.getValue()).ordinal()] : original.getValue();
+                        renamedKnowledge.applyClue(clue.getTargetPlayer(), new Player.Clue(original.getType(), value, original.getCardIndices()));
+                    } else {
+                        Card card = action instanceof PlayCardAction ? ((PlayCardAction) action).getCard() : ((DiscardCardAction) action).getCard();
+                        int index = action instanceof PlayCardAction ? ((PlayCardAction) action).getHandIndex() : ((DiscardCardAction) action).getHandIndex();
+                        renamedKnowledge.removeCard(actor, index, renamed(card, rename));
+                        if (engine.getGameState().getDeckSize() < deckSize) renamedKnowledge.drawCard(actor);
+                    }
+                    deckSize = engine.getGameState().getDeckSize();
+                }
+            });
+            
+            while (!game.isGameOver()) {
+                int count = game.getLegalActions(legal);
+                int code = legal[random.nextInt(count)];
+                
+                GameState state = game.getGameState();
+                GameState renamedState = renamed(state, rename);
+                SuitPermutation original = SuitSymmetry.canonicalize(state, game.getPublicKnowledge());
+                SuitPermutation other = SuitSymmetry.canonicalize(renamedState, renamedKnowledge);
+                long hash = SuitSymmetry.hash(state, game.getPublicKnowledge(), original);
+                positions++;
+                if (hash != SuitSymmetry.hash(renamedState, renamedKnowledge, other)) hashMismatches++;
+                if (hash != SuitSymmetry.hash(state, game.getPublicKnowledge(), SuitPermutation.identity())) distinctHashes++;
+                
+                // The same move, renamed, must have the same canonical form
+                int renamedCode = renamedCode(code, rename);
+                if (original.actionToCanonical(code) != other.actionToCanonical(renamedCode)) actionMismatches++;
+                if (other.actionFromCanonical(other.actionToCanonical(renamedCode)) != renamedCode) roundTripFailures++;
+                
+                game.executeAction(ActionCodec.decode(code, game.getCurrentPlayerIndex(), names));
+            }
+        }
+        
+        if (hashMismatches == 0) {
+            System.out.println("✅ Renamed states share a canonical hash at all " + positions + " positions (" + distinctHashes + " not already canonical)");
+        } else {
+            System.out.println("❌ Canonical hash differed at " + hashMismatches + " of " + positions + " positions");
+        }
+        if (actionMismatches == 0 && roundTripFailures == 0) {
+            System.out.println("✅ Actions map to the same canonical action and back");
+        } else {
+            System.out.println("❌ Action mapping mismatches: " + actionMismatches + ", round trip failures: " + roundTripFailures);
+        }
+        
+        // The same deal under other rules must not share a hash: rainbow against a plain sixth suit, and a different info token cap
+        int collisions = 0;
+        int sameDeals = 0;
+        for (int g = 0; g < 50; g++) {
+            GameEngine sixth = startingGame(g, GameConfig.builder().enableSixthSuit(true).build());
+            GameEngine rainbow = startingGame(g, GameConfig.builder().enableRainbowSuit(true).build());
+            GameEngine standard = startingGame(g, GameConfig.standard());
+            GameEngine higherCap = startingGame(g, GameConfig.builder().maxInfoTokens(9).build());
+            for (GameEngine[] pair : new GameEngine[][] {{sixth, rainbow}, {standard, higherCap}}) {
+                GameState first = pair[0].getGameState();
+                GameState second = pair[1].getGameState();
+                if (first.getPlayerHand(first.getPlayers().get(0)).equals(second.getPlayerHand(second.getPlayers().get(0)))) sameDeals++;
+                if (SuitSymmetry.canonicalHash(first, pair[0].getPublicKnowledge()) == SuitSymmetry.canonicalHash(second, pair[1].getPublicKnowledge())) {
+                    collisions++;
+                }
+            }
+        }
+        if (collisions == 0 && sameDeals == 100) {
+            System.out.println("✅ Identical deals under different rules hash apart");
+        } else {
+            System.out.println("❌ " + collisions + " of " + sameDeals + " identical deals under different rules shared a hash");
+        }
+        System.out.println("Suit symmetry test completed.");
+    }
+    
+    private static GameEngine startingGame(long seed, GameConfig config) {
+        List<Player> players = new ArrayList<>();
+        for (int p = 0; p < 3; p++) players.add(new SilentPlayer("Player " + (p + 1)));
+        return new GameEngine(players, config, seed);
+    }
+    
+    private static Card.Suit[] randomRenaming(SplittableRandom random) {
+        Card.Suit[] rename = SUITS.clone();
+        for (int i = rename.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Card.Suit swap = rename[i];
+            rename[i] = rename[j];
+            rename[j] = swap;
+        }
+        return rename;
+    }
+    
+    private static Card renamed(Card card, Card.Suit[] rename) {
+        return new Card(rename[card.getSuit().ordinal()], card.getRank());
+    }
+    
+    private static int renamedCode(int code, Card.Suit[] rename) {
+        if (ActionCodec.type(code) != ActionCodec.CLUE || ActionCodec.isRankClue(code)) return code;
+        return ActionCodec.suitClue(ActionCodec.targetOffset(code), rename[ActionCodec.clueValue(code)]);
+    }
+    
+    private static GameState renamed(GameState state, Card.Suit[] rename) {
+        Map<String, List<Card>> hands = new HashMap<>();
+        for (String player : state.getPlayers()) {
+            List<Card> hand = new ArrayList<>();
+            for (Card card : state.getPlayerHand(player)) hand.add(renamed(card, rename));
+            hands.put(player, hand);
+        }
+        Map<Card.Suit, List<Card>> played = new EnumMap<>(Card.Suit.class);
+        Map<Card.Suit, List<Card>> discarded = new EnumMap<>(Card.Suit.class);
+        for (Card.Suit suit : SUITS) {
+            List<Card> pile = new ArrayList<>();
+            for (Card card : state.getPlayedCards().get(suit)) pile.add(renamed(card, rename));
+            played.put(rename[suit.ordinal()], pile);
+            List<Card> discards = new ArrayList<>();
+            for (Card card : state.getDiscardedCards().get(suit)) discards.add(renamed(card, rename));
+            discarded.put(rename[suit.ordinal()], discards);
+        }
+        return GameState.builder()
+            .hands(hands)
+            .playedCards(played)
+            .discardedCards(discarded)
+            .infoTokens(state.getInfoTokens())
+            .fuseTokens(state.getFuseTokens())
+            .currentPlayerIndex(state.getCurrentPlayerIndex())
+            .players(state.getPlayers())
+            .finalPlayerIndex(state.getFinalPlayerIndex())
+            .deckSize(state.getDeckSize())
+            .build();
+    }
+}
@@ -0,0 +1,236 @@
+package com.javanabi.test;
+
+import com.javanabi.game.Deck;
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameTable;
+import com.javanabi.game.LegalMoves;
+import com.javanabi.game.Player;
+import com.javanabi.game.PlayerFactory;
+import com.javanabi.game.TableHibernator;
+import com.javanabi.game.action.Action;
+import com.javanabi.game.action.ActionCodec;
+import com.javanabi.game.state.GameState;
+import com.javanabi.metrics.InstrumentedPlayer;
+import com.javanabi.metrics.PlayerMetrics;
+import com.javanabi.players.BestValueHint;
+import com.javanabi.players.LocalPlayer;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+public class TableHibernationTest {
+    public static void main(String[] args) {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        System.out.println("Testing table hibernation with " + tableCount + " human tables...");
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        // Reference: the same games played straight through on live engines
+        List<Human> referenceHumans = new ArrayList<>();
+        for (int i = 0; i < tableCount; i++) {
+            Human human = new Human("Human", i);
+            referenceHumans.add(human);
+            GameEngine game = new GameEngine(seats(human, i), i);
+            GameTable table = new GameTable(i, game);
+            while (!game.isGameOver()) {
+                if (game.getCurrentPlayer() == human) {
+                    game.executeAction(human.nextMove(game.getPlayerGameState(human)));
+                } else {
+                    table.playTurn();
+                }
+            }
+            table.finish();
+        }
+
+        // The same games through the hibernator, hibernating every table between human moves
+        TableHibernator hibernator = new TableHibernator(0);
+        List<Human> humans = new ArrayList<>();
+        for (int i = 0; i < tableCount; i++) {
+            Human human = new Human("Human", i);
+            humans.add(human);
+            hibernator.open(new GameTable(i, new GameEngine(seats(human, i), i)), Set.of(1), botClasses(i));
+        }
+        System.gc();
+        long heapActive = usedHeap();
+        int hibernated = hibernator.hibernateIdle();
+        int activeAfter = hibernator.getActiveCount();
+        System.gc();
+        long heapHibernated = usedHeap();
+
+        int rounds = 0;
+        boolean rejected = false;
+        while (hibernator.getOpenCount() > 0) {
+            for (int i = 0; i < tableCount; i++) {
+                if (!hibernator.isOpen(i)) continue;
+                GameState view = hibernator.getPlayerView(i, "Human");
+                if (!hibernator.submit(i, "Human", humans.get(i).nextMove(view))) rejected = true;
+            }
+            hibernator.hibernateIdle();
+            rounds++;
+        }
+        System.setOut(out);
+
+        System.out.printf("Heap with %d live tables: %.1f MB; hibernated: %.1f MB (%d tables, %d still live)%n",
+            tableCount, heapActive / 1e6, heapHibernated / 1e6, hibernated, activeAfter);
+        if (hibernated == tableCount && activeAfter == 0 && heapHibernated < heapActive) {
+            System.out.println("✅ Idle tables hibernated and released their engines");
+        } else {
+            System.out.println("❌ Hibernation left tables live or did not shrink the heap");
+        }
+
+        int mismatches = 0;
+        for (int i = 0; i < tableCount; i++) {
+            Human expected = referenceHumans.get(i);
+            Human actual = humans.get(i);
+            if (expected.finalScore != actual.finalScore || expected.notifications != actual.notifications
+                    || expected.clues != actual.clues || expected.moves != actual.moves) {
+                mismatches++;
+            }
+        }
+        if (!rejected && mismatches == 0) {
+            System.out.println("✅ " + tableCount + " games over " + rounds + " hibernate/rehydrate rounds matched live play, with no repeated notifications");
+        } else {
+            System.out.println("❌ " + mismatches + " games differed from live play" + (rejected ? ", some moves were rejected" : ""));
+        }
+
+        // A console player is a human only because the caller says so, and must never be polled; its console is empty, so a poll throws.
+        // Bots with custom weights or a metrics wrapper are kept through hibernation, bots from the factory are made again
+        InputStream in = System.in;
+        System.setIn(new ByteArrayInputStream(new byte[0]));
+        LocalPlayer console = new LocalPlayer("Console");
+        System.setIn(in);
+        Player weighted = new BestValueHint("Weighted", new double[] {2, 0.5, 1, 1, 3});
+        PlayerMetrics metrics = new PlayerMetrics();
+        Player instrumented = new InstrumentedPlayer(PlayerFactory.shared().create("SimpleAIPlayer", "Instrumented"), metrics);
+        Player factoryBot = PlayerFactory.shared().create("BestValueHint", "Factory");
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        TableHibernator consoleTables = new TableHibernator(0);
+        long consoleTable = tableCount;
+        boolean polled = false;
+        boolean kept = true;
+        boolean recreated = true;
+        int consoleMoves = 0;
+        try {
+            consoleTables.open(new GameTable(consoleTable, new GameEngine(List.of(weighted, console, instrumented, factoryBot), 7)),
+                Set.of(1), Map.of(3, "BestValueHint"));
+            SplittableRandom random = new SplittableRandom(7);
+            int[] legal = new int[LegalMoves.MAX_ACTIONS];
+            while (consoleTables.isOpen(consoleTable)) {
+                consoleTables.hibernateIdle();
+                List<Player> seated = consoleTables.getTable(consoleTable).getGame().getPlayers();
+                kept &= seated.get(0) == weighted && seated.get(1) == console && seated.get(2) == instrumented;
+                recreated &= seated.get(3) != factoryBot && seated.get(3).getClass() == factoryBot.getClass();
+                GameState view = consoleTables.getPlayerView(consoleTable, "Console");
+                int count = LegalMoves.generate(view, 1, legal);
+                consoleTables.submit(consoleTable, "Console", ActionCodec.decode(legal[random.nextInt(count)], 1, view.getPlayers()));
+                consoleMoves++;
+            }
+        } catch (NoSuchElementException e) {
+            polled = true;
+        }
+        System.setOut(out);
+        long instrumentedTurns = metrics.snapshot().values().stream().mapToLong(stats -> stats.getTakeTurnNanos().getCount()).sum();
+        if (!polled && consoleMoves > 0 && instrumentedTurns > 0) {
+            System.out.println("✅ The console seat made all " + consoleMoves + " of its moves by submission and was never polled");
+        } else {
+            System.out.println("❌ Console seat polled " + polled + ", wrapped bot moved " + instrumentedTurns + " times");
+        }
+        if (kept && recreated) {
+            System.out.println("✅ Custom and wrapped bots survived hibernation; the factory bot was made again");
+        } else {
+            System.out.println("❌ Hibernation replaced a seat it could not recreate, or kept one it could");
+        }
+
+        // A table dealt from anything but its seed would wake up on another deal, so it is refused
+        boolean otherDealRefused = false;
+        try {
+            Human human = new Human("Human", 0);
+            consoleTables.open(new GameTable(consoleTable + 1, new GameEngine(seats(human, 1), Deck.shuffled(99), 1)), Set.of(1), botClasses(1));
+        } catch (IllegalArgumentException e) {
+            otherDealRefused = true;
+        }
+        if (otherDealRefused && !consoleTables.isOpen(consoleTable + 1)) {
+            System.out.println("✅ A table not dealt from its seed is refused");
+        } else {
+            System.out.println("❌ A table dealt from another deck was opened");
+        }
+        System.out.println("Table hibernation test completed.");
+    }
+
+    private static List<Player> seats(Human human, int table) {
+        List<Player> players = new ArrayList<>();
+        players.add(PlayerFactory.shared().create("BestValueHint", "Bot A"));
+        players.add(human);
+        if (table % 2 == 0) players.add(PlayerFactory.shared().create("SimpleAIPlayer", "Bot B"));
+        return players;
+    }
+
+    private static Map<Integer, String> botClasses(int table) {
+        return table % 2 == 0 ? Map.of(0, "BestValueHint", 2, "SimpleAIPlayer") : Map.of(0, "BestValueHint");
+    }
+
+    private static long usedHeap() {
+        return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+    }
+
+    // Stands in for a remote client: picks moves from its view and counts what it is told
+    private static final class Human implements Player {
+        private final String name;
+        private final SplittableRandom random;
+        private final int[] legal = new int[LegalMoves.MAX_ACTIONS];
+        int notifications;
+        int clues;
+        int moves;
+        int finalScore = -1;
+
+        Human(String name, long seed) {
+            this.name = name;
+            this.random = new SplittableRandom(seed);
+        }
+
+        Action nextMove(GameState view) {
+            moves++;
+            int seat = view.getPlayers().indexOf(name);
+            int count = LegalMoves.generate(view, seat, legal);
+            return ActionCodec.decode(legal[random.nextInt(count)], seat, view.getPlayers());
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void initialize(GameState initialState) {
+            notifications++;
+        }
+
+        @Override
+        public Action takeTurn(GameState currentState) {
+            throw new IllegalStateException("Humans are not polled");
+        }
+
+        @Override
+        public void receiveClue(Clue clue) {
+            clues++;
+        }
+
+        @Override
+        public void notifyPlayerAction(String playerName, Action action) {
+            notifications++;
+        }
+
+        @Override
+        public void notifyGameEnd(int score, boolean won) {
+            finalScore = score;
+        }
+    }
+}
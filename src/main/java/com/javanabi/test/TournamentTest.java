@@ -0,0 +1,90 @@
+package com.javanabi.test;
+
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameTable;
+import com.javanabi.game.Player;
+import com.javanabi.game.PlayerFactory;
+import com.javanabi.sim.Tournament;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class TournamentTest {
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing the tournament league...");
+        List<String> bots = List.of("AlwaysDiscardsPlayer", "BestValueHint", "AlwaysPlaysPlayer", "SimpleAIPlayer");
+        
+        // Every multiset of bots once per seat count: C(bots + seats - 1, seats) lineups
+        Tournament all = new Tournament(bots, new int[] {2, 3, 4, 5}, 1, 1, 1);
+        Set<String> distinct = new HashSet<>();
+        int[] perSeatCount = new int[6];
+        boolean sorted = true;
+        for (int[] lineup : all.getLineups()) {
+            distinct.add(lineup.length + ":" + Arrays.toString(lineup));
+            perSeatCount[lineup.length]++;
+            for (int i = 1; i < lineup.length; i++) sorted &= lineup[i - 1] <= lineup[i];
+        }
+        if (perSeatCount[2] == 10 && perSeatCount[3] == 20 && perSeatCount[4] == 35 && perSeatCount[5] == 56
+                && distinct.size() == all.getLineups().size() && sorted) {
+            System.out.println("✅ " + distinct.size() + " lineups, each multiset of bots exactly once");
+        } else {
+            System.out.println("❌ Lineups per seat count " + Arrays.toString(perSeatCount) + ", " + distinct.size() + " distinct");
+        }
+        
+        int deals = 20;
+        long firstSeed = 5;
+        int[] seatCounts = {2, 3};
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Tournament.Result result = new Tournament(bots.subList(0, 3), seatCounts, deals, firstSeed, 2).run();
+        
+        // Self-play means straight from the deals the tournament uses
+        double[][] expected = new double[3][seatCounts.length];
+        for (int bot = 0; bot < 3; bot++) {
+            for (int s = 0; s < seatCounts.length; s++) {
+                int seats = seatCounts[s];
+                long total = 0;
+                for (int deal = 0; deal < deals; deal++) {
+                    List<Player> players = new ArrayList<>();
+                    for (int seat = 0; seat < seats; seat++) {
+                        players.add(PlayerFactory.shared().create(bots.get(bot), "Player " + (seat + 1)));
+                    }
+                    GameEngine game = new GameEngine(players, firstSeed + deal * 8L + seats);
+                    new GameTable(deal, game).run();
+                    total += game.getScore();
+                }
+                expected[bot][s] = (double) total / deals;
+            }
+        }
+        System.setOut(out);
+        
+        boolean selfPlay = true;
+        for (int bot = 0; bot < 3; bot++) {
+            for (int s = 0; s < seatCounts.length; s++) {
+                selfPlay &= result.getSelfPlayMean(bots.get(bot), seatCounts[s]) == expected[bot][s];
+            }
+        }
+        if (selfPlay) {
+            System.out.println("✅ Self-play means match games played directly on the same deals");
+        } else {
+            System.out.println("❌ Self-play means differ from the raw scores");
+        }
+        
+        double best = result.getRating("BestValueHint");
+        double[] interval = result.getInterval("BestValueHint");
+        boolean ranksFirst = best > result.getRating("AlwaysDiscardsPlayer") && best > result.getRating("AlwaysPlaysPlayer")
+            && interval[0] <= best && best <= interval[1];
+        String leaderboard = result.leaderboard();
+        if (ranksFirst && leaderboard.split("\n")[1].startsWith("1    BestValueHint")) {
+            System.out.printf("✅ The strongest bot is rated first at %+.3f%n", best);
+        } else {
+            System.out.println("❌ Unexpected ranking:\n" + leaderboard);
+        }
+        System.out.println("Tournament test completed.");
+    }
+}
@@ -0,0 +1,118 @@
+package com.javanabi.test;
+
+import com.javanabi.game.DealBank;
+import com.javanabi.sim.TuningRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class TuningRunnerTest {
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing resumable weight tuning...");
+        Path directory = Files.createTempDirectory("javanabi-tuning");
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        
+        // Reference: the whole run in one go
+        TuningRunner reference = new TuningRunner(directory.resolve("reference"), 3, 2, 30, 6, 4, 0.25, 0);
+        reference.run(2);
+        
+        // The same run in another JVM, killed part way through a generation, then resumed here on more threads
+        Path killed = directory.resolve("killed");
+        Process process = new ProcessBuilder(
+                new File(System.getProperty("java.home"), "bin/java").getPath(), "-cp", System.getProperty("java.class.path"),
+                "com.javanabi.sim.TuningRunner", killed.toString(), "-t", "1", "--seed", "3", "--games", "30",
+                "--population", "6", "--generations", "4", "--step", "0.25", "--checkpoint-seconds", "0")
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        while (process.isAlive() && evaluations(killed) < 8) {
+            Thread.sleep(2);
+        }
+        boolean killedMidRun = process.isAlive();
+        process.destroyForcibly().waitFor();
+        int evaluationsAtKill = evaluations(killed);
+        TuningRunner resumed = new TuningRunner(killed, 0, 0, 0, 0, 0, 0, 0);
+        int generationAtKill = resumed.getGeneration();
+        resumed.run(3);
+        System.setOut(out);
+        
+        if (killedMidRun && generationAtKill < 4 && evaluationsAtKill % 6 != 0
+                && Arrays.equals(resumed.getIncumbent(), reference.getIncumbent())
+                && resumed.getIncumbentScore() == reference.getIncumbentScore()) {
+            System.out.printf("✅ Killed at generation %d after %d evaluations, the resumed run reached the same incumbent %.3f %s%n",
+                generationAtKill, evaluationsAtKill, resumed.getIncumbentScore(), Arrays.toString(resumed.getIncumbent()));
+        } else {
+            System.out.println("❌ " + (killedMidRun ? "" : "The run finished before it was killed; ")
+                + "reference " + reference.getIncumbentScore() + " " + Arrays.toString(reference.getIncumbent())
+                + ", resumed " + resumed.getIncumbentScore() + " " + Arrays.toString(resumed.getIncumbent()));
+        }
+        
+        // A run that deals from a bank refuses to resume without it, or with a different one
+        Path bankPath = directory.resolve("bank");
+        Path otherBankPath = directory.resolve("other-bank");
+        DealBank.generate(bankPath, 1000, 100, 1);
+        DealBank.generate(otherBankPath, 5000, 100, 1);
+        Path banked = directory.resolve("banked");
+        new TuningRunner(banked, 3, 2, 10, 2, 1, 0.25, 0).useDealBank(DealBank.open(bankPath));
+        boolean refusedMissing = false;
+        try {
+            new TuningRunner(banked, 3, 2, 10, 2, 1, 0.25, 0).run(1);
+        } catch (IllegalStateException e) {
+            refusedMissing = true;
+        }
+        boolean refusedOther = false;
+        try {
+            new TuningRunner(banked, 3, 2, 10, 2, 1, 0.25, 0).useDealBank(DealBank.open(otherBankPath));
+        } catch (IllegalArgumentException e) {
+            refusedOther = true;
+        }
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        TuningRunner sameBank = new TuningRunner(banked, 3, 2, 10, 2, 1, 0.25, 0);
+        sameBank.useDealBank(DealBank.open(bankPath));
+        sameBank.run(1);
+        System.setOut(out);
+        if (refusedMissing && refusedOther && sameBank.getGeneration() == 1) {
+            System.out.println("✅ A banked run resumes only with its own deal bank");
+        } else {
+            System.out.println("❌ Deal bank checks: missing refused " + refusedMissing + ", other refused " + refusedOther);
+        }
+        
+        // The grid sweep covers every combination and keeps the best one
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        TuningRunner grid = new TuningRunner(directory.resolve("grid"), 3, 2, 10, 5, 0, 0, new double[] {0.5, 1.5}, 0);
+        grid.run(2);
+        System.setOut(out);
+        List<String> lines = Files.readAllLines(directory.resolve("grid"));
+        double bestKept = lines.stream().filter(line -> line.startsWith("eval "))
+            .mapToDouble(line -> Double.parseDouble(line.split(" ")[3])).max().orElse(Double.NaN);
+        if (grid.getGeneration() == 7 && evaluations(directory.resolve("grid")) == 10 && bestKept == grid.getIncumbentScore()) {
+            System.out.printf("✅ Grid sweep of 32 combinations kept its best, %.3f %s%n", grid.getIncumbentScore(), Arrays.toString(grid.getIncumbent()));
+        } else {
+            System.out.println("❌ Grid sweep stopped at generation " + grid.getGeneration() + " with best " + grid.getIncumbentScore());
+        }
+        
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+        System.out.println("Tuning runner test completed.");
+    }
+    
+    private static int evaluations(Path checkpoint) throws IOException {
+        if (!Files.exists(checkpoint)) return 0;
+        try (Stream<String> lines = Files.lines(checkpoint)) {
+            return (int) lines.filter(line -> line.startsWith("eval ")).count();
+        } catch (IOException | RuntimeException e) {
+            // Caught between the temporary file and the move
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.javanabi.test;
+
+import com.javanabi.domain.Card;
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.LegalMoves;
+import com.javanabi.game.Player;
+import com.javanabi.game.VariantRules;
+import com.javanabi.game.action.ActionCodec;
+import com.javanabi.game.action.GiveInfoAction;
+import com.javanabi.game.state.GameState;
+import com.javanabi.replay.SilentPlayer;
+import com.javanabi.util.CardKnowledge;
+import com.javanabi.util.GameConfig;
+import com.javanabi.util.PublicKnowledge;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class VariantRulesTest {
+    public static void main(String[] args) {
+        System.out.println("Testing variant rules...");
+        GameConfig rainbow = GameConfig.builder().enableRainbowSuit(true).build();
+        GameConfig sixth = GameConfig.builder().enableSixthSuit(true).build();
+        GameConfig tokens = GameConfig.builder().initialInfoTokens(4).maxInfoTokens(6).initialFuseTokens(1).build();
+
+        VariantRules rainbowRules = VariantRules.of(rainbow);
+        VariantRules sixthRules = VariantRules.of(sixth);
+        if (VariantRules.STANDARD.getDeckSize() == 50 && rainbowRules.getDeckSize() == 60 && sixthRules.getDeckSize() == 60
+                && rainbowRules.getMaxScore() == 30 && VariantRules.of(GameConfig.standard()) == VariantRules.STANDARD) {
+            System.out.println("✅ Deck sizes and maximum scores follow the suits in play");
+        } else {
+            System.out.println("❌ Unexpected deck composition");
+        }
+
+        boolean touches = rainbowRules.touches(Card.Suit.RED, Card.Suit.MULTICOLOR)
+            && !rainbowRules.touches(Card.Suit.RED, Card.Suit.BLUE)
+            && !rainbowRules.canNameColour(Card.Suit.MULTICOLOR)
+            && sixthRules.canNameColour(Card.Suit.MULTICOLOR)
+            && !sixthRules.touches(Card.Suit.RED, Card.Suit.MULTICOLOR)
+            && !VariantRules.STANDARD.canNameColour(Card.Suit.MULTICOLOR);
+        if (touches) {
+            System.out.println("✅ Colour clues touch rainbow cards and cannot name them");
+        } else {
+            System.out.println("❌ Colour clue tables are wrong");
+        }
+
+        GameEngine rejecting = new GameEngine(seats(2), rainbow, 1);
+        String target = rejecting.getGameState().getPlayers().get(1);
+        boolean rejected = !rejecting.executeAction(new GiveInfoAction(target,
+            new Player.Clue(Player.ClueType.SUIT, Card.Suit.MULTICOLOR, Collections.emptyList())));
+        if (rejected) {
+            System.out.println("✅ Naming the rainbow suit is rejected");
+        } else {
+            System.out.println("❌ Rainbow colour clue was accepted");
+        }
+
+        GameEngine lowTokens = new GameEngine(seats(3), tokens, 1);
+        if (lowTokens.getGameState().getInfoTokens() == 4 && lowTokens.getGameState().getFuseTokens() == 1) {
+            System.out.println("✅ Token counts come from the config");
+        } else {
+            System.out.println("❌ Token counts ignore the config");
+        }
+
+        // Random games: the true card must always stay within what clues allow
+        int[] legal = new int[LegalMoves.MAX_ACTIONS];
+        int games = 0;
+        int contradictions = 0;
+        int overfull = 0;
+        for (GameConfig config : List.of(GameConfig.standard(), rainbow, sixth, tokens)) {
+            VariantRules rules = VariantRules.of(config);
+            for (int g = 0; g < 100; g++) {
+                GameEngine game = new GameEngine(seats(2 + g % 4), config, g);
+                SplittableRandom random = new SplittableRandom(g);
+                while (!game.isGameOver()) {
+                    int count = game.getLegalActions(legal);
+                    int seat = game.getCurrentPlayerIndex();
+                    GameState state = game.getGameState();
+                    if (!game.executeAction(ActionCodec.decode(legal[random.nextInt(count)], seat, state.getPlayers()))) {
+                        contradictions++;
+                        break;
+                    }
+                    if (game.getGameState().getInfoTokens() > rules.getMaxInfoTokens()) overfull++;
+                    for (String player : game.getGameState().getPlayers()) {
+                        List<Card> hand = game.getGameState().getPlayerHand(player);
+                        for (int slot = 0; slot < hand.size(); slot++) {
+                            CardKnowledge knowledge = game.getPublicKnowledge().get(player, slot);
+                            if (!knowledge.getPossibleSuits().contains(hand.get(slot).getSuit())
+                                    || !knowledge.getPossibleRanks().contains(hand.get(slot).getRank())) {
+                                contradictions++;
+                            }
+                        }
+                    }
+                }
+                games++;
+            }
+        }
+        if (contradictions == 0 && overfull == 0) {
+            System.out.println("✅ " + games + " random games kept legal moves and clue knowledge consistent");
+        } else {
+            System.out.println("❌ " + contradictions + " contradictions, " + overfull + " turns over the info token cap");
+        }
+
+        // Seats see the table's knowledge only through a view without the mutators
+        List<Player> viewers = List.of(new SilentPlayer("Player 1"), new SilentPlayer("Player 2"));
+        GameEngine shared = new GameEngine(viewers, 1);
+        if (!(shared.getPublicKnowledge() instanceof PublicKnowledge) && shared.getPublicKnowledge() == shared.getPublicKnowledge()) {
+            System.out.println("✅ The engine shares its public knowledge read-only");
+        } else {
+            System.out.println("❌ The engine hands out its mutable public knowledge");
+        }
+        System.out.println("Variant rules test completed.");
+    }
+
+    private static List<Player> seats(int count) {
+        List<Player> players = new ArrayList<>();
+        for (int seat = 0; seat < count; seat++) players.add(new SilentPlayer("Player " + (seat + 1)));
+        return players;
+    }
+}
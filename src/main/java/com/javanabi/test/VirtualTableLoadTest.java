@@ -0,0 +1,115 @@
+package com.javanabi.test;
+
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.GameTable;
+import com.javanabi.game.Player;
+import com.javanabi.game.TableExecutors;
+import com.javanabi.game.action.Action;
+import com.javanabi.game.action.DiscardCardAction;
+import com.javanabi.game.state.GameState;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class VirtualTableLoadTest {
+    private static final AtomicInteger parked = new AtomicInteger();
+    private static final AtomicInteger parkedOnPlatformThreads = new AtomicInteger();
+    private static volatile boolean released;
+    
+    public static void main(String[] args) throws InterruptedException {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        System.out.println("Testing " + tableCount + " idle human tables on virtual threads...");
+        
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        ExecutorService executor = TableExecutors.newPerTableExecutor();
+        List<WaitingHuman> humans = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < tableCount; i++) {
+            List<Player> players = List.of(new WaitingHuman("Human A"), new WaitingHuman("Human B"));
+            for (Player player : players) humans.add((WaitingHuman) player);
+            GameTable table = new GameTable(i, new GameEngine(players));
+            executor.execute(table);
+        }
+        
+        // Every table is now waiting for its first human to move
+        while (parked.get() < tableCount) {
+            Thread.sleep(10);
+        }
+        long allParked = System.nanoTime();
+        System.gc();
+        long heapUsed = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+        int threadsParked = ManagementFactory.getThreadMXBean().getThreadCount();
+        
+        System.out.printf("All tables parked after %.2fs%n", (allParked - start) / 1e9);
+        System.out.println("Platform threads: " + threadsBefore + " before, " + threadsParked + " while parked");
+        System.out.printf("Heap in use: %.1f MB (%.1f KB per table)%n", heapUsed / 1e6, heapUsed / 1e3 / tableCount);
+        
+        // Let the humans play out their games
+        released = true;
+        for (WaitingHuman human : humans) {
+            human.moves.offer(new DiscardCardAction(0));
+        }
+        executor.shutdown();
+        boolean finished = executor.awaitTermination(5, TimeUnit.MINUTES);
+        System.out.printf("All games finished after %.2fs%n", (System.nanoTime() - start) / 1e9);
+        
+        if (finished && parkedOnPlatformThreads.get() == 0 && threadsParked - threadsBefore < tableCount / 10) {
+            System.out.println("✅ Idle tables did not hold a platform thread each");
+        } else {
+            System.out.println("❌ Tables did not finish or held platform threads ("
+                + parkedOnPlatformThreads.get() + " tables waited on a platform thread)");
+        }
+    }
+    
+    // Stands in for a person at a remote client: blocks until a move arrives
+    private static final class WaitingHuman implements Player {
+        private final String name;
+        private final BlockingQueue<Action> moves = new ArrayBlockingQueue<>(1);
+        
+        WaitingHuman(String name) {
+            this.name = name;
+        }
+        
+        @Override
+        public String getName() {
+            return name;
+        }
+        
+        @Override
+        public void initialize(GameState initialState) {
+        }
+        
+        @Override
+        public Action takeTurn(GameState currentState) {
+            if (released) {
+                return new DiscardCardAction(0);
+            }
+            if (!Thread.currentThread().isVirtual()) parkedOnPlatformThreads.incrementAndGet();
+            parked.incrementAndGet();
+            try {
+                return moves.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        
+        @Override
+        public void receiveClue(Clue clue) {
+        }
+        
+        @Override
+        public void notifyPlayerAction(String playerName, Action action) {
+        }
+        
+        @Override
+        public void notifyGameEnd(int score, boolean won) {
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.javanabi.test;
+
+import com.javanabi.domain.Card;
+import com.javanabi.game.GameEngine;
+import com.javanabi.game.LegalMoves;
+import com.javanabi.game.Player;
+import com.javanabi.game.ZobristHash;
+import com.javanabi.game.action.ActionCodec;
+import com.javanabi.game.state.GameState;
+import com.javanabi.replay.SilentPlayer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+public class ZobristTest {
+    public static void main(String[] args) {
+        System.out.println("Testing Zobrist hashes...");
+        int[] legal = new int[LegalMoves.MAX_ACTIONS];
+        long positions = 0;
+        long mismatches = 0;
+        long infoSetMismatches = 0;
+        
+        for (int g = 0; g < 500; g++) {
+            int seats = 2 + g % 4;
+            List<Player> players = new ArrayList<>();
+            for (int p = 0; p < seats; p++) players.add(new SilentPlayer("Player " + (p + 1)));
+            GameEngine game = new GameEngine(players, g);
+            SplittableRandom random = new SplittableRandom(g);
+            List<String> names = game.getGameState().getPlayers();
+            
+            while (!game.isGameOver()) {
+                int count = game.getLegalActions(legal);
+                game.executeAction(ActionCodec.decode(legal[random.nextInt(count)], game.getCurrentPlayerIndex(), names));
+                positions++;
+                
+                // The incremental hash must equal one computed from scratch
+                ZobristHash fresh = ZobristHash.compute(game);
+                if (fresh.getFullHash() != game.getStateHash()) mismatches++;
+                
+                // Reordering a seat's own cards is invisible to that seat but not to the table
+                int seat = random.nextInt(seats);
+                GameState shuffled = withReversedHand(game.getGameState(), names.get(seat));
+                ZobristHash other = ZobristHash.compute(shuffled, game.getPublicKnowledge(), game.getCurrentPlayerIndex());
+                boolean sameHand = shuffled.getPlayerHand(names.get(seat)).equals(game.getGameState().getPlayerHand(names.get(seat)));
+                if (other.getInformationSetHash(seat) != game.getInformationSetHash(seat)
+                        || (!sameHand && other.getFullHash() == game.getStateHash())) {
+                    infoSetMismatches++;
+                }
+            }
+        }
+        
+        if (mismatches == 0) {
+            System.out.println("✅ Incremental hash matched a full recompute at " + positions + " positions");
+        } else {
+            System.out.println("❌ Incremental hash differed at " + mismatches + " of " + positions + " positions");
+        }
+        if (infoSetMismatches == 0) {
+            System.out.println("✅ Information-set hashes ignore the seat's own cards");
+        } else {
+            System.out.println("❌ Information-set hash mismatches: " + infoSetMismatches);
+        }
+        System.out.println("Zobrist test completed.");
+    }
+    
+    private static GameState withReversedHand(GameState state, String player) {
+        Map<String, List<Card>> hands = new HashMap<>(state.getHands());
+        List<Card> hand = new ArrayList<>(hands.get(player));
+        Collections.reverse(hand);
+        hands.put(player, hand);
+        return GameState.builder()
+            .hands(hands)
+            .playedCards(state.getPlayedCards())
+            .discardedCards(state.getDiscardedCards())
+            .infoTokens(state.getInfoTokens())
+            .fuseTokens(state.getFuseTokens())
+            .currentPlayerIndex(state.getCurrentPlayerIndex())
+            .players(state.getPlayers())
+            .finalPlayerIndex(state.getFinalPlayerIndex())
+            .deckSize(state.getDeckSize())
+            .build();
+    }
+}
@@ -2,6 +2,7 @@ package com.javanabi.util;
 
 import com.javanabi.domain.Card;
 import com.javanabi.game.Player;
+import com.javanabi.game.VariantRules;
 
 import java.util.*;
 
@@ -9,16 +10,21 @@ public final class CardKnowledge {
     private Set<Card.Suit> possibleSuits;
     private Set<Integer> possibleRanks;
     
+    // A slot in the base game, where any of the five colours is possible
     public CardKnowledge() {
-        this.possibleSuits = EnumSet.allOf(Card.Suit.class);
+        this(VariantRules.STANDARD.getSuits());
+    }
+    
+    public CardKnowledge(Collection<Card.Suit> suitsInPlay) {
+        this.possibleSuits = EnumSet.copyOf(suitsInPlay);
         this.possibleRanks = new HashSet<>(Set.of(1, 2, 3, 4, 5));
     }
     
-    public void applyClue(Player.Clue clue) {
+    // Only PublicKnowledge updates slots; everyone else sees them read-only.
+    // touchedSuits are the suits a colour clue touches, more than one when rainbow cards are in play
+    void applyClue(Player.Clue clue, Set<Card.Suit> touchedSuits) {
         if (clue.getType() == Player.ClueType.SUIT) {
-            Card.Suit clueSuit = (Card.Suit) clue.getValue();
-            this.possibleSuits.clear();
-            this.possibleSuits.add(clueSuit);
+            this.possibleSuits.retainAll(touchedSuits);
             
         } else if (clue.getType() == Player.ClueType.RANK) {
             int clueRank = (Integer) clue.getValue();
@@ -27,10 +33,9 @@ public final class CardKnowledge {
         }
     }
     
-    public void applyNegativeClue(Player.Clue clue) {
+    void applyNegativeClue(Player.Clue clue, Set<Card.Suit> touchedSuits) {
         if (clue.getType() == Player.ClueType.SUIT) {
-            Card.Suit clueSuit = (Card.Suit) clue.getValue();
-            this.possibleSuits.remove(clueSuit);
+            this.possibleSuits.removeAll(touchedSuits);
             
         } else if (clue.getType() == Player.ClueType.RANK) {
             int clueRank = (Integer) clue.getValue();
@@ -47,6 +52,24 @@ public final class CardKnowledge {
         return Collections.unmodifiableSet(possibleRanks);
     }
     
+    // Bit suit.ordinal() is set for each suit still possible
+    public int getSuitMask() {
+        int mask = 0;
+        for (Card.Suit suit : possibleSuits) {
+            mask |= 1 << suit.ordinal();
+        }
+        return mask;
+    }
+    
+    // Bit rank - 1 is set for each rank still possible
+    public int getRankMask() {
+        int mask = 0;
+        for (int rank : possibleRanks) {
+            mask |= 1 << (rank - 1);
+        }
+        return mask;
+    }
+    
     public boolean isKnownSuit() {
         return this.possibleSuits.size() == 1;
     }
@@ -0,0 +1,23 @@
+package com.javanabi.util;
+
+import com.javanabi.domain.Card;
+
+import java.util.List;
+
+/**
+ * Read-only view of what every seat at a table publicly knows: which cards each
+ * hand slot can still be given the clues so far, and how many copies of each
+ * card are still unaccounted for by plays and discards.
+ */
+public interface KnowledgeView {
+    // One entry per card in the player's hand, oldest first
+    List<CardKnowledge> getHand(String player);
+    
+    CardKnowledge get(String player, int handIndex);
+    
+    // Copies that have been played or discarded
+    int getRevealedCount(Card.Suit suit, int rank);
+    
+    // Copies still in hands or the deck
+    int getUnrevealedCount(Card.Suit suit, int rank);
+}
@@ -0,0 +1,122 @@
+package com.javanabi.util;
+
+import com.javanabi.domain.Card;
+import com.javanabi.game.Player;
+import com.javanabi.game.VariantRules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The common knowledge of one table, maintained once by the GameEngine and
+ * shared with every seat through KnowledgeView. Clues update the slots of the
+ * clued hand; plays and discards remove a slot and reveal the card; draws add
+ * a fresh slot at the end of the hand. Seats get readOnly(), so only the
+ * owner of this object can change it.
+ */
+public final class PublicKnowledge implements KnowledgeView {
+    private final Map<String, List<CardKnowledge>> hands = new HashMap<>();
+    private final Map<String, List<CardKnowledge>> readOnlyHands = new HashMap<>();
+    private final int[] revealed = new int[Card.Suit.values().length * 5];
+    private final VariantRules rules;
+    private final KnowledgeView readOnly = new ReadOnly();
+    
+    public PublicKnowledge(List<String> players, int handSize) {
+        this(players, handSize, VariantRules.STANDARD);
+    }
+    
+    public PublicKnowledge(List<String> players, int handSize, VariantRules rules) {
+        this.rules = rules;
+        for (String player : players) {
+            List<CardKnowledge> hand = new ArrayList<>(handSize + 1);
+            for (int i = 0; i < handSize; i++) {
+                hand.add(new CardKnowledge(rules.getSuits()));
+            }
+            hands.put(player, hand);
+            readOnlyHands.put(player, Collections.unmodifiableList(hand));
+        }
+    }
+    
+    // The clue's card indices must already be filled in, as the engine does before delivering it
+    public void applyClue(String target, Player.Clue clue) {
+        List<CardKnowledge> hand = hands.get(target);
+        List<Integer> touched = clue.getCardIndices();
+        Set<Card.Suit> touchedSuits = clue.getType() == Player.ClueType.SUIT
+            ? rules.getSuitsTouchedBy((Card.Suit) clue.getValue())
+            : null;
+        for (int i = 0; i < hand.size(); i++) {
+            if (touched.contains(i)) {
+                hand.get(i).applyClue(clue, touchedSuits);
+            } else {
+                hand.get(i).applyNegativeClue(clue, touchedSuits);
+            }
+        }
+    }
+    
+    // A played or discarded card leaves the hand and becomes public
+    public void removeCard(String player, int handIndex, Card card) {
+        hands.get(player).remove(handIndex);
+        if (card != null) {
+            revealed[index(card.getSuit(), card.getRank())]++;
+        }
+    }
+    
+    public void drawCard(String player) {
+        hands.get(player).add(new CardKnowledge(rules.getSuits()));
+    }
+    
+    @Override
+    public List<CardKnowledge> getHand(String player) {
+        return readOnlyHands.get(player);
+    }
+    
+    @Override
+    public CardKnowledge get(String player, int handIndex) {
+        return hands.get(player).get(handIndex);
+    }
+    
+    @Override
+    public int getRevealedCount(Card.Suit suit, int rank) {
+        return revealed[index(suit, rank)];
+    }
+    
+    @Override
+    public int getUnrevealedCount(Card.Suit suit, int rank) {
+        return rules.getCardCount(suit, rank) - revealed[index(suit, rank)];
+    }
+    
+    // A view without the mutators, to share with code that must not change this knowledge
+    public KnowledgeView readOnly() {
+        return readOnly;
+    }
+    
+    private static int index(Card.Suit suit, int rank) {
+        return suit.ordinal() * 5 + rank - 1;
+    }
+    
+    private final class ReadOnly implements KnowledgeView {
+        @Override
+        public List<CardKnowledge> getHand(String player) {
+            return PublicKnowledge.this.getHand(player);
+        }
+        
+        @Override
+        public CardKnowledge get(String player, int handIndex) {
+            return PublicKnowledge.this.get(player, handIndex);
+        }
+        
+        @Override
+        public int getRevealedCount(Card.Suit suit, int rank) {
+            return PublicKnowledge.this.getRevealedCount(suit, rank);
+        }
+        
+        @Override
+        public int getUnrevealedCount(Card.Suit suit, int rank) {
+            return PublicKnowledge.this.getUnrevealedCount(suit, rank);
+        }
+    }
+}